@@ -0,0 +1,259 @@
+package mystuff.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import mystuff.engine.Camera;
+import mystuff.game.BlockType;
+import mystuff.game.World;
+
+/**
+ * A repeatable benchmark run: which world to generate, how long to run, where the camera
+ * flies and which blocks change along the way. Loaded from a small text file, one setting
+ * per line, '#' starts a comment:
+ *
+ *   seed 20240101
+ *   world 400 400 400 10           width height depth groundHeight
+ *   ticks 1800                     measured ticks, after the warmup
+ *   warmup 120
+ *   ups 60                         fixed tick rate
+ *   viewport 1920 1080
+ *   camera 0 50 20 50 -20 45       tick x y z pitch yaw (a spline key)
+ *   set 600 55 10 55 STONE         tick x y z type
+ *   fill 900 40 10 40 60 12 60 AIR tick x0 y0 z0 x1 y1 z1 type (inclusive)
+ *
+ * Camera keys are joined with a Catmull-Rom spline, so a few keys give a smooth path.
+ * Ticks count from the start of the warmup.
+ */
+public class Scenario {
+    static final String SCENARIO_DIR = "resources/scenarios";
+
+    private final String name;
+    private long seed = World.DEFAULT_SEED;
+    private int worldWidth = World.WORLD_WIDTH;
+    private int worldHeight = World.WORLD_HEIGHT;
+    private int worldDepth = World.WORLD_DEPTH;
+    private int groundHeight = World.GROUND_HEIGHT;
+    private int ticks = 1800;
+    private int warmupTicks = 120;
+    private int ticksPerSecond = 60;
+    private int viewportWidth = 1920;
+    private int viewportHeight = 1080;
+    private final List<CameraKey> cameraKeys = new ArrayList<>();
+    private final List<Edit> edits = new ArrayList<>();
+
+    public Scenario(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Loads a scenario by name from resources/scenarios, or from a path to a .scenario file
+     */
+    public static Scenario load(String nameOrPath) throws IOException {
+        Path path = Paths.get(nameOrPath);
+        if (!Files.isRegularFile(path)) {
+            path = Paths.get(SCENARIO_DIR, nameOrPath + ".scenario");
+        }
+        String fileName = path.getFileName().toString();
+        String name = fileName.endsWith(".scenario") ? fileName.substring(0, fileName.length() - 9) : fileName;
+        return parse(name, Files.readAllLines(path));
+    }
+
+    /**
+     * Parses scenario text
+     * @throws IllegalArgumentException naming the offending line
+     */
+    public static Scenario parse(String name, List<String> lines) {
+        Scenario scenario = new Scenario(name);
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int comment = line.indexOf('#');
+            if (comment >= 0) line = line.substring(0, comment);
+            line = line.trim();
+            if (line.isEmpty()) continue;
+            try {
+                scenario.parseLine(line.split("\\s+"));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException(name + ":" + (i + 1) + ": " + e.getMessage(), e);
+            }
+        }
+        if (scenario.cameraKeys.isEmpty()) {
+            throw new IllegalArgumentException(name + ": needs at least one camera key");
+        }
+        Collections.sort(scenario.cameraKeys, (a, b) -> Integer.compare(a.tick, b.tick));
+        Collections.sort(scenario.edits, (a, b) -> Integer.compare(a.tick, b.tick));
+        return scenario;
+    }
+
+    private void parseLine(String[] f) {
+        switch (f[0].toLowerCase(Locale.ROOT)) {
+            case "seed":
+                expect(f, 2);
+                seed = Long.parseLong(f[1]);
+                break;
+            case "world":
+                expect(f, 5);
+                worldWidth = Integer.parseInt(f[1]);
+                worldHeight = Integer.parseInt(f[2]);
+                worldDepth = Integer.parseInt(f[3]);
+                groundHeight = Integer.parseInt(f[4]);
+                break;
+            case "ticks":
+                expect(f, 2);
+                ticks = Integer.parseInt(f[1]);
+                break;
+            case "warmup":
+                expect(f, 2);
+                warmupTicks = Integer.parseInt(f[1]);
+                break;
+            case "ups":
+                expect(f, 2);
+                ticksPerSecond = Math.max(1, Integer.parseInt(f[1]));
+                break;
+            case "viewport":
+                expect(f, 3);
+                viewportWidth = Integer.parseInt(f[1]);
+                viewportHeight = Integer.parseInt(f[2]);
+                break;
+            case "camera":
+                expect(f, 7);
+                cameraKeys.add(new CameraKey(Integer.parseInt(f[1]), Float.parseFloat(f[2]), Float.parseFloat(f[3]),
+                    Float.parseFloat(f[4]), Float.parseFloat(f[5]), Float.parseFloat(f[6])));
+                break;
+            case "set":
+                expect(f, 6);
+                int x = Integer.parseInt(f[2]), y = Integer.parseInt(f[3]), z = Integer.parseInt(f[4]);
+                edits.add(new Edit(Integer.parseInt(f[1]), x, y, z, x, y, z, parseType(f[5])));
+                break;
+            case "fill":
+                expect(f, 9);
+                edits.add(new Edit(Integer.parseInt(f[1]), Integer.parseInt(f[2]), Integer.parseInt(f[3]),
+                    Integer.parseInt(f[4]), Integer.parseInt(f[5]), Integer.parseInt(f[6]), Integer.parseInt(f[7]),
+                    parseType(f[8])));
+                break;
+            default:
+                throw new IllegalArgumentException("unknown setting '" + f[0] + "'");
+        }
+    }
+
+    private static void expect(String[] f, int count) {
+        if (f.length != count) {
+            throw new IllegalArgumentException("'" + f[0] + "' takes " + (count - 1) + " values, got " + (f.length - 1));
+        }
+    }
+
+    private static BlockType parseType(String s) {
+        return BlockType.valueOf(s.toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Camera pose at a (fractional) tick: x, y, z, pitch, yaw written to out
+     */
+    public void sampleCamera(float tick, float[] out) {
+        int n = cameraKeys.size();
+        if (n == 1 || tick <= cameraKeys.get(0).tick) {
+            cameraKeys.get(0).copyTo(out);
+            return;
+        }
+        if (tick >= cameraKeys.get(n - 1).tick) {
+            cameraKeys.get(n - 1).copyTo(out);
+            return;
+        }
+        int i = 0;
+        while (cameraKeys.get(i + 1).tick <= tick) i++;
+        CameraKey p0 = cameraKeys.get(Math.max(0, i - 1));
+        CameraKey p1 = cameraKeys.get(i);
+        CameraKey p2 = cameraKeys.get(i + 1);
+        CameraKey p3 = cameraKeys.get(Math.min(n - 1, i + 2));
+        float t = (tick - p1.tick) / (float) (p2.tick - p1.tick);
+        out[0] = catmullRom(p0.x, p1.x, p2.x, p3.x, t);
+        out[1] = catmullRom(p0.y, p1.y, p2.y, p3.y, t);
+        out[2] = catmullRom(p0.z, p1.z, p2.z, p3.z, t);
+        out[3] = p1.pitch + (p2.pitch - p1.pitch) * t;
+        out[4] = Camera.lerpYaw(p1.yaw, p2.yaw, t); // Turns the short way round
+    }
+
+    private static float catmullRom(float p0, float p1, float p2, float p3, float t) {
+        float t2 = t * t;
+        float t3 = t2 * t;
+        return 0.5f * ((2 * p1) + (-p0 + p2) * t + (2 * p0 - 5 * p1 + 4 * p2 - p3) * t2 + (-p0 + 3 * p1 - 3 * p2 + p3) * t3);
+    }
+
+    public String getName() { return name; }
+    public long getSeed() { return seed; }
+    public int getWorldWidth() { return worldWidth; }
+    public int getWorldHeight() { return worldHeight; }
+    public int getWorldDepth() { return worldDepth; }
+    public int getGroundHeight() { return groundHeight; }
+    public int getTicks() { return ticks; }
+    public int getWarmupTicks() { return warmupTicks; }
+    public int getTicksPerSecond() { return ticksPerSecond; }
+    public int getViewportWidth() { return viewportWidth; }
+    public int getViewportHeight() { return viewportHeight; }
+    public List<Edit> getEdits() { return edits; }
+
+    /**
+     * A camera spline key
+     */
+    static final class CameraKey {
+        final int tick;
+        final float x, y, z, pitch, yaw;
+
+        CameraKey(int tick, float x, float y, float z, float pitch, float yaw) {
+            this.tick = tick;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.pitch = pitch;
+            this.yaw = yaw;
+        }
+
+        void copyTo(float[] out) {
+            out[0] = x;
+            out[1] = y;
+            out[2] = z;
+            out[3] = pitch;
+            out[4] = yaw;
+        }
+    }
+
+    /**
+     * Sets every block in an inclusive box at a given tick
+     */
+    public static final class Edit {
+        final int tick;
+        final int x0, y0, z0, x1, y1, z1;
+        final BlockType type;
+
+        Edit(int tick, int x0, int y0, int z0, int x1, int y1, int z1, BlockType type) {
+            this.tick = tick;
+            this.x0 = Math.min(x0, x1);
+            this.y0 = Math.min(y0, y1);
+            this.z0 = Math.min(z0, z1);
+            this.x1 = Math.max(x0, x1);
+            this.y1 = Math.max(y0, y1);
+            this.z1 = Math.max(z0, z1);
+            this.type = type;
+        }
+
+        /**
+         * @return number of blocks set inside the world
+         */
+        int apply(World world) {
+            int changed = 0;
+            for (int x = x0; x <= x1; x++) {
+                for (int y = y0; y <= y1; y++) {
+                    for (int z = z0; z <= z1; z++) {
+                        if (world.setBlock(x, y, z, type)) changed++;
+                    }
+                }
+            }
+            return changed;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package mystuff.bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import mystuff.engine.Camera;
+import mystuff.engine.CountingRenderBackend;
+import mystuff.engine.FrameBudgetScheduler;
+import mystuff.engine.JobSystem;
+import mystuff.engine.LatencyHistogram;
+import mystuff.engine.MemoryTelemetry;
+import mystuff.engine.Metrics;
+import mystuff.engine.RecordingRenderBackend;
+import mystuff.engine.Render;
+import mystuff.engine.Timer;
+import mystuff.engine.Window;
+import mystuff.game.Game;
+import mystuff.game.Player;
+import mystuff.utils.Log;
+
+/**
+ * Drives Game through a Scenario at a fixed dt, one tick and one frame per step, and
+ * writes a JSON report. Runs without a GL context by default (the recording backend
+ * stands in for OpenGL, so everything up to the driver is measured); --gl renders into
+ * a real window instead, e.g. under Mesa with LIBGL_ALWAYS_SOFTWARE=1 on a CI box.
+ * --deferred hands chunk rebuilds to a FrameBudgetScheduler drained after every frame,
+ * as a windowed game does, instead of rebuilding them inline while rendering.
+ * --threaded runs each tick on a simulation thread while the frame renders the last
+ * published snapshot, the way GameEngine's threaded loop overlaps them; it implies
+ * --deferred, so the whole windowed pipeline is exercised.
+ *
+ * Usage: ScenarioRunner <name or .scenario file> [--gl] [--no-render] [--deferred] [--threaded] [--out report.json]
+ */
+public class ScenarioRunner {
+    public enum Mode { RECORDING, GL, NO_RENDER }
+    
+    private static final long DEFERRED_TASK_BUDGET_NANOS = 2_000_000; // Per frame, as GameEngine without a target FPS
+
+    private final Scenario scenario;
+    private final Mode mode;
+    private boolean deferred;
+    private boolean threaded;
+    private int nextEdit; // Simulation thread only
+
+    // Measured phase only
+    private final LatencyHistogram tickTimes;
+    private final LatencyHistogram frameTimes;
+    private final MemoryTelemetry memory = new MemoryTelemetry();
+    private long tickBytes, maxTickBytes;
+    private long frameBytes, maxFrameBytes;
+    private long peakHeapBytes;
+    private long drawCalls, vertices, glCalls, compiledCommands;
+    private long blocksEdited;
+    private long deferredTasks;
+
+    public ScenarioRunner(Scenario scenario, Mode mode) {
+        this.scenario = scenario;
+        this.mode = mode;
+        int samples = Math.max(1, scenario.getTicks());
+        this.tickTimes = new LatencyHistogram(samples);
+        this.frameTimes = new LatencyHistogram(samples);
+    }
+
+    /**
+     * Defers chunk rebuilds to a frame scheduler drained after each frame. Ignored with
+     * Mode.NO_RENDER, where nothing is drawn and so nothing is rebuilt.
+     */
+    public void setDeferred(boolean deferred) {
+        this.deferred = deferred;
+    }
+
+    /**
+     * Runs ticks on their own thread, overlapping the frames, and defers chunk rebuilds
+     * as setDeferred does
+     */
+    public void setThreaded(boolean threaded) {
+        this.threaded = threaded;
+    }
+
+    /**
+     * Runs the whole scenario
+     * @return report values, in the order they are written
+     */
+    public Map<String, Object> run() {
+        Window window = null;
+        if (mode == Mode.GL) {
+            window = new Window("Scenario: " + scenario.getName(), scenario.getViewportWidth(), scenario.getViewportHeight());
+            window.init();
+        } else if (mode == Mode.RECORDING) {
+            RecordingRenderBackend recording = new RecordingRenderBackend();
+            recording.setRecordCommands(false); // Counting is enough; the stream would grow every frame
+            Render.setBackend(recording);
+        }
+        CountingRenderBackend counters = mode != Mode.NO_RENDER ? Render.enableCounting() : null;
+
+        Game game = new Game();
+        game.setWorldOptions(scenario.getSeed(), scenario.getWorldWidth(), scenario.getWorldHeight(),
+            scenario.getWorldDepth(), scenario.getGroundHeight());
+        game.init(null); // No input callbacks: the scenario is the only input
+        if (mode != Mode.NO_RENDER) {
+            game.initRenderResources();
+        }
+        game.getPlayer().setNoClipMode(true); // The spline moves the camera; physics would fight it
+        FrameBudgetScheduler scheduler = null;
+        if ((deferred || threaded) && mode != Mode.NO_RENDER) {
+            scheduler = new FrameBudgetScheduler();
+            game.getWorld().setFrameScheduler(scheduler);
+        }
+
+        Metrics.Counter meshed = Metrics.counter("world.chunks_meshed");
+        Runtime runtime = Runtime.getRuntime();
+        float dt = 1.0f / scenario.getTicksPerSecond();
+        int totalTicks = scenario.getWarmupTicks() + scenario.getTicks();
+        float[] pose = new float[5];
+        ExecutorService simulation = threaded ? Executors.newSingleThreadExecutor(r -> new Thread(r, "SimulationThread")) : null;
+        long meshedAtStart = 0, gcPausesAtStart = 0, gcMsAtStart = 0;
+        long measureStart = 0;
+
+        for (int tick = 0; tick < totalTicks; tick++) {
+            boolean measured = tick >= scenario.getWarmupTicks();
+            if (tick == scenario.getWarmupTicks()) {
+                meshedAtStart = meshed.get();
+                gcPausesAtStart = memory.getGcPauseCount();
+                gcMsAtStart = memory.getGcPauseTotalMs();
+                measureStart = Timer.getCurrentTime();
+            }
+
+            // Threaded, this tick runs while the frame below draws the previous one
+            int step = tick;
+            Future<Long> simulated = simulation != null
+                ? simulation.submit(() -> simulate(game, step, measured, dt, pose)) : null;
+            long tickTime = simulated == null ? simulate(game, tick, measured, dt, pose) : 0;
+
+            long frameTime = 0;
+            if (mode != Mode.NO_RENDER) {
+                memory.beginFrame();
+                long start = Timer.getCurrentTime();
+                game.renderView(scenario.getViewportWidth(), scenario.getViewportHeight(), 1.0f);
+                if (window != null) window.update();
+                Render.endFrame();
+                if (scheduler != null) {
+                    // After the frame, like GameEngine; what it runs counts toward the next frame's GL stats
+                    int ran = scheduler.drain(DEFERRED_TASK_BUDGET_NANOS);
+                    if (measured) deferredTasks += ran;
+                }
+                frameTime = Timer.getCurrentTime() - start;
+                memory.endFrame();
+            }
+            if (simulated != null) {
+                tickTime = join(simulated);
+            }
+
+            if (measured) {
+                tickTimes.record(tickTime);
+                tickBytes += memory.getLastTickBytes();
+                maxTickBytes = Math.max(maxTickBytes, memory.getLastTickBytes());
+                if (mode != Mode.NO_RENDER) {
+                    frameTimes.record(frameTime);
+                    frameBytes += memory.getLastFrameBytes();
+                    maxFrameBytes = Math.max(maxFrameBytes, memory.getLastFrameBytes());
+                    glCalls += counters.getLastFrame(CountingRenderBackend.Stat.CALLS);
+                    drawCalls += counters.getLastFrame(CountingRenderBackend.Stat.DRAW_CALLS);
+                    vertices += counters.getLastFrame(CountingRenderBackend.Stat.VERTICES);
+                    compiledCommands += counters.getLastFrame(CountingRenderBackend.Stat.COMPILED_COMMANDS);
+                }
+                // Sampled once a step, so a peak between samples can be missed
+                peakHeapBytes = Math.max(peakHeapBytes, runtime.totalMemory() - runtime.freeMemory());
+            }
+        }
+        double wallSeconds = (Timer.getCurrentTime() - measureStart) / 1_000_000_000.0;
+        if (simulation != null) {
+            simulation.shutdown();
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("scenario", scenario.getName());
+        report.put("mode", mode.name().toLowerCase(Locale.ROOT));
+        report.put("deferred", scheduler != null);
+        report.put("threaded", simulation != null);
+        report.put("seed", scenario.getSeed());
+        report.put("world", scenario.getWorldWidth() + "x" + scenario.getWorldHeight() + "x" + scenario.getWorldDepth());
+        report.put("ticks", scenario.getTicks());
+        report.put("warmup_ticks", scenario.getWarmupTicks());
+        report.put("wall_seconds", wallSeconds);
+        putPercentiles(report, "tick_ms", tickTimes);
+        if (mode != Mode.NO_RENDER) {
+            putPercentiles(report, "frame_ms", frameTimes);
+        }
+        report.put("chunks_meshed", meshed.get() - meshedAtStart);
+        report.put("blocks_edited", blocksEdited);
+        if (scheduler != null) {
+            report.put("deferred_tasks_run", deferredTasks);
+            report.put("deferred_tasks_pending", scheduler.getPendingCount());
+        }
+        report.put("alloc_bytes_total", tickBytes + frameBytes);
+        report.put("alloc_bytes_per_tick", tickBytes / (double) scenario.getTicks());
+        report.put("alloc_bytes_max_tick", maxTickBytes);
+        if (mode != Mode.NO_RENDER) {
+            report.put("alloc_bytes_per_frame", frameBytes / (double) scenario.getTicks());
+            report.put("alloc_bytes_max_frame", maxFrameBytes);
+            report.put("gl_calls_per_frame", glCalls / (double) scenario.getTicks());
+            report.put("draw_calls_per_frame", drawCalls / (double) scenario.getTicks());
+            report.put("vertices_per_frame", vertices / (double) scenario.getTicks());
+            report.put("compiled_commands_per_frame", compiledCommands / (double) scenario.getTicks());
+        }
+        report.put("heap_peak_bytes", peakHeapBytes);
+        report.put("gc_pauses", memory.getGcPauseCount() - gcPausesAtStart);
+        report.put("gc_pause_ms", memory.getGcPauseTotalMs() - gcMsAtStart);
+
+        game.cleanup();
+        if (window != null) {
+            window.cleanup();
+        }
+        return report;
+    }
+
+    /**
+     * One tick: place the camera on the spline, apply this tick's edits, then update
+     * @return time spent in Game.update
+     */
+    private long simulate(Game game, int tick, boolean measured, float dt, float[] pose) {
+        Player player = game.getPlayer();
+        Camera camera = game.getCamera();
+        scenario.sampleCamera(tick, pose);
+        camera.setPosition(pose[0], pose[1], pose[2]);
+        camera.setRotation(pose[3], pose[4]);
+        player.setPosition(pose[0], pose[1] - Player.PLAYER_HEIGHT * 0.75f, pose[2]); // Culling follows the body
+        player.updateBoundingBox();
+        while (nextEdit < scenario.getEdits().size() && scenario.getEdits().get(nextEdit).tick <= tick) {
+            int set = scenario.getEdits().get(nextEdit++).apply(game.getWorld());
+            if (measured) blocksEdited += set;
+        }
+
+        memory.beginTick();
+        long start = Timer.getCurrentTime();
+        game.update(dt);
+        long tickTime = Timer.getCurrentTime() - start;
+        memory.endTick();
+        return tickTime;
+    }
+
+    private static long join(Future<Long> tick) {
+        try {
+            return tick.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for the simulation thread", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation tick failed: " + e.getCause(), e.getCause());
+        }
+    }
+
+    private static void putPercentiles(Map<String, Object> report, String prefix, LatencyHistogram histogram) {
+        report.put(prefix + ".p50", histogram.getPercentile(50) / 1_000_000.0);
+        report.put(prefix + ".p90", histogram.getPercentile(90) / 1_000_000.0);
+        report.put(prefix + ".p99", histogram.getPercentile(99) / 1_000_000.0);
+        report.put(prefix + ".p99_9", histogram.getPercentile(99.9) / 1_000_000.0);
+        report.put(prefix + ".max", histogram.getMax() / 1_000_000.0);
+        report.put(prefix + ".mean", histogram.getMean() / 1_000_000.0);
+    }
+
+    /**
+     * One flat JSON object, keys in insertion order
+     */
+    static String toJson(Map<String, Object> report) {
+        StringBuilder sb = new StringBuilder("{\n");
+        int i = 0;
+        for (Map.Entry<String, Object> e : report.entrySet()) {
+            sb.append("  \"").append(e.getKey()).append("\": ");
+            Object value = e.getValue();
+            if (value instanceof String) {
+                sb.append('"').append(((String) value).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+            } else if (value instanceof Double) {
+                sb.append(String.format(Locale.ROOT, "%.4f", (Double) value));
+            } else {
+                sb.append(value);
+            }
+            sb.append(++i < report.size() ? ",\n" : "\n");
+        }
+        return sb.append("}\n").toString();
+    }
+
+    public static void main(String[] args) {
+        String scenarioName = null;
+        String outPath = null;
+        Mode mode = Mode.RECORDING;
+        boolean deferred = false;
+        boolean threaded = false;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--gl")) {
+                mode = Mode.GL;
+            } else if (args[i].equals("--no-render")) {
+                mode = Mode.NO_RENDER;
+            } else if (args[i].equals("--deferred")) {
+                deferred = true;
+            } else if (args[i].equals("--threaded")) {
+                threaded = true;
+            } else if (args[i].equals("--out") && i + 1 < args.length) {
+                outPath = args[++i];
+            } else {
+                scenarioName = args[i];
+            }
+        }
+        if (scenarioName == null) {
+            System.err.println("Usage: ScenarioRunner <name or .scenario file> [--gl] [--no-render] [--deferred] [--threaded] [--out report.json]");
+            System.exit(2);
+        }
+
+        try {
+            Scenario scenario = Scenario.load(scenarioName);
+            System.out.println("Running scenario " + scenario.getName() + " (" + scenario.getTicks() + " ticks, "
+                + mode.name().toLowerCase(Locale.ROOT) + (threaded ? ", threaded" : deferred ? ", deferred" : "") + ")");
+            ScenarioRunner runner = new ScenarioRunner(scenario, mode);
+            runner.setDeferred(deferred);
+            runner.setThreaded(threaded);
+            String json = toJson(runner.run());
+            if (outPath != null) {
+                Path out = Paths.get(outPath);
+                if (out.getParent() != null) Files.createDirectories(out.getParent());
+                Files.write(out, json.getBytes(StandardCharsets.UTF_8));
+                System.out.println("Scenario report written to " + out.toAbsolutePath());
+            } else {
+                System.out.print(json);
+            }
+        } catch (IOException | IllegalArgumentException | IllegalStateException e) {
+            System.err.println("Scenario failed: " + e.getMessage());
+            System.exit(1);
+        } finally {
+            JobSystem.shutdownShared();
+            Log.flush(500);
+        }
+    }
+}
@@ -6,6 +6,9 @@ import mystuff.utils.Debug;
 public class Camera {
     private float x, y, z;
     private float pitch, yaw;
+    // State at the start of the current tick, for interpolated rendering
+    private float prevX, prevY, prevZ;
+    private float prevPitch, prevYaw;
     private Frustum frustum;
     private float[] modelViewMatrix;
     private float[] projectionMatrix;
@@ -17,6 +20,7 @@ public class Camera {
         this.z = z;
         this.pitch = 0;
         this.yaw = 0;
+        storePreviousState();
         this.frustum = new Frustum();
         this.modelViewMatrix = new float[16];
         this.projectionMatrix = new float[16];
@@ -41,10 +45,10 @@ public class Camera {
     public void update() {
         if (matricesDirty) {
             // Get the current projection matrix
-            GL11.glGetFloatv(GL11.GL_PROJECTION_MATRIX, projectionMatrix);
+            Render.gl().glGetFloatv(GL11.GL_PROJECTION_MATRIX, projectionMatrix);
             
             // Get the current modelview matrix
-            GL11.glGetFloatv(GL11.GL_MODELVIEW_MATRIX, modelViewMatrix);
+            Render.gl().glGetFloatv(GL11.GL_MODELVIEW_MATRIX, modelViewMatrix);
             
             // Update the frustum with the new matrices
             frustum.update(projectionMatrix, modelViewMatrix);
@@ -57,11 +61,40 @@ public class Camera {
         return frustum.isBoxInFrustum(x, y, z, width, height, depth);
     }
 
+    /**
+     * Remembers the current pose as the previous one. Call at the start of each tick.
+     */
+    public void storePreviousState() {
+        prevX = x;
+        prevY = y;
+        prevZ = z;
+        prevPitch = pitch;
+        prevYaw = yaw;
+    }
+
     public float getX() { return x; }
     public float getY() { return y; }
     public float getZ() { return z; }
     public float getPitch() { return pitch; }
     public float getYaw() { return yaw; }
+    public float getPrevX() { return prevX; }
+    public float getPrevY() { return prevY; }
+    public float getPrevZ() { return prevZ; }
+    public float getPrevPitch() { return prevPitch; }
+    public float getPrevYaw() { return prevYaw; }
+
+    /**
+     * Blends between two yaw angles along the shorter way around the 0/360 wrap
+     */
+    public static float lerpYaw(float from, float to, float alpha) {
+        float delta = to - from;
+        if (delta > 180.0f) delta -= 360.0f;
+        if (delta < -180.0f) delta += 360.0f;
+        float yaw = from + delta * alpha;
+        if (yaw < 0.0f) yaw += 360.0f;
+        if (yaw > 360.0f) yaw -= 360.0f;
+        return yaw;
+    }
 
     public void setPosition(float x, float y, float z) {
         this.x = x;
@@ -69,4 +102,10 @@ public class Camera {
         this.z = z;
         matricesDirty = true;
     }
+
+    public void setRotation(float pitch, float yaw) {
+        this.pitch = pitch;
+        this.yaw = yaw;
+        matricesDirty = true;
+    }
 } 
\ No newline at end of file
@@ -0,0 +1,206 @@
+package mystuff.engine;
+
+import java.nio.ByteBuffer;
+import java.util.Locale;
+import org.lwjgl.opengl.GL11;
+
+/**
+ * Decorator that counts calls by kind before forwarding them. Counts accumulate over a
+ * frame; endFrame() latches them so the HUD and metrics can read the last full frame.
+ *
+ * Commands issued between glNewList and glEndList are only recorded, so they count as
+ * COMPILED_COMMANDS rather than as work done this frame. What they would have counted is
+ * kept per list and added every time glCallList executes it, so DRAW_CALLS, VERTICES etc.
+ * are what GL actually ran in the frame, whether immediate or from a list.
+ */
+public class CountingRenderBackend implements RenderBackend {
+    public enum Stat {
+        CALLS,            // Every call through the backend
+        DRAW_CALLS,       // Executed glEnd, including those replayed from display lists
+        VERTICES,         // Executed vertices, including those replayed from display lists
+        TEXTURE_BINDS,
+        STATE_CHANGES,    // Enable/disable, blend, depth mask, polygon and matrix mode
+        ATTRIB_PUSHES,
+        FULL_ATTRIB_PUSHES, // glPushAttrib(GL_ALL_ATTRIB_BITS), the expensive kind
+        MATRIX_PUSHES,
+        LIST_COMPILES,
+        LIST_CALLS,       // glCallList
+        COMPILED_COMMANDS, // Commands recorded into display lists instead of executed
+        UPLOAD_BYTES;     // Texture data passed to glTexImage2D
+
+        public String metricName() {
+            return "render." + name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private static final int STAT_COUNT = Stat.values().length;
+    private static final int CALLS = Stat.CALLS.ordinal();
+    private static final int DRAW_CALLS = Stat.DRAW_CALLS.ordinal();
+    private static final int VERTICES = Stat.VERTICES.ordinal();
+    private static final int TEXTURE_BINDS = Stat.TEXTURE_BINDS.ordinal();
+    private static final int STATE_CHANGES = Stat.STATE_CHANGES.ordinal();
+    private static final int ATTRIB_PUSHES = Stat.ATTRIB_PUSHES.ordinal();
+    private static final int FULL_ATTRIB_PUSHES = Stat.FULL_ATTRIB_PUSHES.ordinal();
+    private static final int MATRIX_PUSHES = Stat.MATRIX_PUSHES.ordinal();
+    private static final int LIST_COMPILES = Stat.LIST_COMPILES.ordinal();
+    private static final int LIST_CALLS = Stat.LIST_CALLS.ordinal();
+    private static final int COMPILED_COMMANDS = Stat.COMPILED_COMMANDS.ordinal();
+    private static final int UPLOAD_BYTES = Stat.UPLOAD_BYTES.ordinal();
+
+    private final RenderBackend delegate;
+    private final long[] current = new long[STAT_COUNT]; // Render thread only
+    private final long[] lastFrame = new long[STAT_COUNT]; // Read from other threads, may be a frame stale
+    
+    // Per display list id: the counts one glCallList of it executes. Render thread only
+    private long[][] lists = new long[64][];
+    private long[] compiling;          // Counts of the list between glNewList and glEndList, else null
+    private boolean executeWhileCompiling; // GL_COMPILE_AND_EXECUTE
+
+    public CountingRenderBackend(RenderBackend delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Latches this frame's counts and starts a new frame
+     */
+    public void endFrame() {
+        System.arraycopy(current, 0, lastFrame, 0, STAT_COUNT);
+        java.util.Arrays.fill(current, 0);
+    }
+
+    public long getLastFrame(Stat stat) {
+        return lastFrame[stat.ordinal()];
+    }
+
+    public RenderBackend getDelegate() {
+        return delegate;
+    }
+
+    private void count(int stat) {
+        call();
+        record(stat);
+    }
+    
+    /**
+     * Counts toward the list being compiled, and toward this frame unless only compiling
+     */
+    private void record(int stat) {
+        if (compiling != null) {
+            compiling[stat]++;
+            if (!executeWhileCompiling) return;
+        }
+        current[stat]++;
+    }
+    
+    /**
+     * A call with no stat of its own that a list being compiled records. Object creation,
+     * deletion and queries always run immediately and count through current[CALLS] only.
+     */
+    private void call() {
+        current[CALLS]++;
+        if (compiling != null) current[COMPILED_COMMANDS]++;
+    }
+    
+    private void beginList(int list, int mode) {
+        current[CALLS]++;
+        current[LIST_COMPILES]++;
+        compiling = new long[STAT_COUNT];
+        executeWhileCompiling = mode == GL11.GL_COMPILE_AND_EXECUTE;
+        if (list >= lists.length) {
+            lists = java.util.Arrays.copyOf(lists, Math.max(list + 1, lists.length * 2));
+        }
+        if (list >= 0) lists[list] = compiling;
+    }
+    
+    private void endList() {
+        current[CALLS]++;
+        compiling = null;
+    }
+    
+    private void callList(int list) {
+        call();
+        long[] contents = list >= 0 && list < lists.length ? lists[list] : null;
+        if (compiling != null) {
+            // A nested call runs whatever that list holds each time this one is called
+            compiling[LIST_CALLS]++;
+            if (contents != null) addTo(compiling, contents);
+            if (!executeWhileCompiling) return;
+        }
+        current[LIST_CALLS]++;
+        if (contents != null) addTo(current, contents);
+    }
+    
+    private static void addTo(long[] target, long[] counts) {
+        for (int i = 0; i < STAT_COUNT; i++) {
+            if (i != CALLS) target[i] += counts[i];
+        }
+    }
+    
+    private void deleteLists(int list, int range) {
+        current[CALLS]++;
+        for (int i = Math.max(0, list); i < Math.min(lists.length, list + range); i++) {
+            lists[i] = null;
+        }
+    }
+
+    @Override public void glBegin(int mode) { call(); delegate.glBegin(mode); }
+    @Override public void glEnd() { count(DRAW_CALLS); delegate.glEnd(); }
+    @Override public void glVertex2f(float x, float y) { count(VERTICES); delegate.glVertex2f(x, y); }
+    @Override public void glVertex3f(float x, float y, float z) { count(VERTICES); delegate.glVertex3f(x, y, z); }
+    @Override public void glTexCoord2f(float s, float t) { call(); delegate.glTexCoord2f(s, t); }
+    @Override public void glNormal3f(float nx, float ny, float nz) { call(); delegate.glNormal3f(nx, ny, nz); }
+    @Override public void glColor3f(float red, float green, float blue) { call(); delegate.glColor3f(red, green, blue); }
+    @Override public void glColor4f(float red, float green, float blue, float alpha) { call(); delegate.glColor4f(red, green, blue, alpha); }
+
+    @Override public int glGenLists(int range) { current[CALLS]++; return delegate.glGenLists(range); }
+    @Override public void glNewList(int list, int mode) { beginList(list, mode); delegate.glNewList(list, mode); }
+    @Override public void glEndList() { endList(); delegate.glEndList(); }
+    @Override public void glCallList(int list) { callList(list); delegate.glCallList(list); }
+    @Override public void glDeleteLists(int list, int range) { deleteLists(list, range); delegate.glDeleteLists(list, range); }
+    @Override public int glGenBuffers() { current[CALLS]++; return delegate.glGenBuffers(); }
+    @Override public void glDeleteBuffers(int buffer) { current[CALLS]++; delegate.glDeleteBuffers(buffer); }
+
+    @Override public int glGenTextures() { current[CALLS]++; return delegate.glGenTextures(); }
+    @Override public void glBindTexture(int target, int texture) { count(TEXTURE_BINDS); delegate.glBindTexture(target, texture); }
+    @Override public void glTexParameteri(int target, int pname, int param) { call(); delegate.glTexParameteri(target, pname, param); }
+    @Override
+    public void glTexImage2D(int target, int level, int internalFormat, int width, int height, int border,
+                             int format, int type, ByteBuffer pixels) {
+        call();
+        if (pixels != null) current[UPLOAD_BYTES] += pixels.remaining();
+        delegate.glTexImage2D(target, level, internalFormat, width, height, border, format, type, pixels);
+    }
+    @Override public void glDeleteTextures(int texture) { current[CALLS]++; delegate.glDeleteTextures(texture); }
+
+    @Override public void glEnable(int cap) { count(STATE_CHANGES); delegate.glEnable(cap); }
+    @Override public void glDisable(int cap) { count(STATE_CHANGES); delegate.glDisable(cap); }
+    @Override public void glBlendFunc(int sfactor, int dfactor) { count(STATE_CHANGES); delegate.glBlendFunc(sfactor, dfactor); }
+    @Override public void glAlphaFunc(int func, float ref) { count(STATE_CHANGES); delegate.glAlphaFunc(func, ref); }
+    @Override public void glDepthMask(boolean flag) { count(STATE_CHANGES); delegate.glDepthMask(flag); }
+    @Override public void glPolygonMode(int face, int mode) { count(STATE_CHANGES); delegate.glPolygonMode(face, mode); }
+    @Override
+    public void glPushAttrib(int mask) {
+        count(ATTRIB_PUSHES);
+        if (mask == GL11.GL_ALL_ATTRIB_BITS) record(FULL_ATTRIB_PUSHES);
+        delegate.glPushAttrib(mask);
+    }
+    @Override public void glPopAttrib() { call(); delegate.glPopAttrib(); }
+    @Override public void glClear(int mask) { call(); delegate.glClear(mask); }
+    @Override public void glClearColor(float red, float green, float blue, float alpha) { call(); delegate.glClearColor(red, green, blue, alpha); }
+
+    @Override public void glMatrixMode(int mode) { count(STATE_CHANGES); delegate.glMatrixMode(mode); }
+    @Override public void glPushMatrix() { count(MATRIX_PUSHES); delegate.glPushMatrix(); }
+    @Override public void glPopMatrix() { call(); delegate.glPopMatrix(); }
+    @Override public void glLoadIdentity() { call(); delegate.glLoadIdentity(); }
+    @Override public void glLoadMatrixf(float[] m) { call(); delegate.glLoadMatrixf(m); }
+    @Override public void glTranslatef(float x, float y, float z) { call(); delegate.glTranslatef(x, y, z); }
+    @Override public void glRotatef(float angle, float x, float y, float z) { call(); delegate.glRotatef(angle, x, y, z); }
+    @Override
+    public void glOrtho(double left, double right, double bottom, double top, double zNear, double zFar) {
+        call();
+        delegate.glOrtho(left, right, bottom, top, zNear, zFar);
+    }
+
+    @Override public void glGetFloatv(int pname, float[] params) { current[CALLS]++; delegate.glGetFloatv(pname, params); }
+    @Override public String glGetString(int name) { current[CALLS]++; return delegate.glGetString(name); }
+}
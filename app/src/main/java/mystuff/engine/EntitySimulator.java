@@ -0,0 +1,271 @@
+package mystuff.engine;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Updates game objects in parallel, partitioned into square regions on the XZ plane.
+ * Each region is simulated by its own fork-join task on the JobSystem pool, looked up
+ * every step so a simulator outlives JobSystem.shutdownShared(). During that step an
+ * object may only change its own state.
+ *
+ * Everything that crosses objects, and with it region boundaries, happens in a serial
+ * merge pass afterwards: objects that left their region are moved, then nearby pairs
+ * are handed to the Interaction, walking regions in key order and objects in list
+ * order. Nothing depends on which worker finished first, so the result matches a
+ * serial run bit for bit.
+ */
+public class EntitySimulator {
+    // Below this many objects the fork/join overhead costs more than it saves
+    private static final int PARALLEL_THRESHOLD = 64;
+    // Regions handled directly by a task instead of splitting further
+    private static final int REGIONS_PER_TASK = 2;
+
+    private final float regionSize;
+    private final JobSystem jobs; // Null for the shared one
+    private final TreeMap<Long, Region> regions = new TreeMap<>();
+    private final Map<GameObject, Region> membership = new IdentityHashMap<>();
+    private boolean parallel = true;
+    private Interaction interaction;
+    private float interactionRadius;
+
+    /**
+     * Resolves an effect between two objects, e.g. a collision. Runs in the merge pass,
+     * so it may change both objects.
+     */
+    public interface Interaction {
+        void resolve(GameObject a, GameObject b);
+    }
+
+    /**
+     * Creates a simulator whose regions are regionSize world units wide
+     */
+    public EntitySimulator(float regionSize) {
+        this(regionSize, null);
+    }
+
+    /**
+     * Creates a simulator running on the given job system, or on JobSystem.shared() as
+     * it is at each update if jobs is null
+     */
+    public EntitySimulator(float regionSize, JobSystem jobs) {
+        this.regionSize = regionSize;
+        this.jobs = jobs;
+    }
+
+    /**
+     * Calls interaction for every pair of objects closer than radius on the XZ plane
+     * after each step
+     * @throws IllegalArgumentException if radius exceeds the region size, since only
+     *         neighbouring regions are searched
+     */
+    public void setInteraction(float radius, Interaction interaction) {
+        if (radius > regionSize) {
+            throw new IllegalArgumentException("Interaction radius " + radius + " exceeds the region size " + regionSize);
+        }
+        this.interactionRadius = radius;
+        this.interaction = interaction;
+    }
+
+    public void add(GameObject object) {
+        if (membership.containsKey(object)) return;
+        Region region = regionFor(object);
+        region.objects.add(object);
+        membership.put(object, region);
+    }
+
+    public boolean remove(GameObject object) {
+        Region region = membership.remove(object);
+        if (region == null) return false;
+        region.objects.remove(object);
+        if (region.objects.isEmpty()) {
+            regions.remove(region.key);
+        }
+        return true;
+    }
+
+    /**
+     * Runs one simulation step for every object, then resolves region changes
+     */
+    public void update(Window window, float deltaTime) {
+        if (membership.isEmpty()) return;
+
+        Region[] ordered = regions.values().toArray(new Region[0]);
+        ForkJoinPool pool = parallel && membership.size() >= PARALLEL_THRESHOLD && ordered.length > 1
+            ? (jobs != null ? jobs : JobSystem.shared()).getPool() : null;
+        if (pool != null && pool.getParallelism() > 1) {
+            pool.invoke(new RegionTask(ordered, 0, ordered.length, window, deltaTime));
+        } else {
+            for (Region region : ordered) {
+                region.update(window, deltaTime);
+            }
+        }
+
+        merge(ordered);
+        resolveInteractions();
+    }
+
+    /**
+     * Moves objects whose position crossed a region boundary during the step.
+     * Runs on the calling thread and walks regions in key order and objects in list
+     * order, so the new partition is identical no matter how the step was scheduled.
+     */
+    private void merge(Region[] ordered) {
+        List<GameObject> migrated = null;
+        for (Region region : ordered) {
+            List<GameObject> objects = region.objects;
+            for (int i = 0; i < objects.size(); i++) {
+                GameObject object = objects.get(i);
+                if (keyFor(object) != region.key) {
+                    if (migrated == null) migrated = new ArrayList<>();
+                    migrated.add(object);
+                    objects.remove(i--);
+                }
+            }
+            if (objects.isEmpty()) {
+                regions.remove(region.key);
+            }
+        }
+
+        if (migrated != null) {
+            for (GameObject object : migrated) {
+                Region target = regionFor(object);
+                target.objects.add(object);
+                membership.put(object, target);
+            }
+        }
+    }
+
+    /**
+     * Hands every pair of objects within the interaction radius to the interaction, on
+     * the calling thread. Each pair of neighbouring regions is visited once, from the one
+     * with the lower key, so pairs always come in the same order. An object pushed out of
+     * its region here is moved by the next step's merge.
+     */
+    private void resolveInteractions() {
+        if (interaction == null) return;
+        float radiusSquared = interactionRadius * interactionRadius;
+        for (Region region : regions.values()) {
+            int regionX = (int) (region.key >> 32);
+            int regionZ = (int) region.key;
+            for (int dx = -1; dx <= 1; dx++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    long key = key(regionX + dx, regionZ + dz);
+                    if (key < region.key) continue;
+                    Region other = regions.get(key);
+                    if (other == null) continue;
+                    for (int i = 0; i < region.objects.size(); i++) {
+                        GameObject a = region.objects.get(i);
+                        for (int j = other == region ? i + 1 : 0; j < other.objects.size(); j++) {
+                            GameObject b = other.objects.get(j);
+                            float distanceX = a.getX() - b.getX();
+                            float distanceZ = a.getZ() - b.getZ();
+                            if (distanceX * distanceX + distanceZ * distanceZ < radiusSquared) {
+                                interaction.resolve(a, b);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private Region regionFor(GameObject object) {
+        long key = keyFor(object);
+        Region region = regions.get(key);
+        if (region == null) {
+            region = new Region(key);
+            regions.put(key, region);
+        }
+        return region;
+    }
+
+    private long keyFor(GameObject object) {
+        int regionX = (int) Math.floor(object.getX() / regionSize);
+        int regionZ = (int) Math.floor(object.getZ() / regionSize);
+        return key(regionX, regionZ);
+    }
+
+    private static long key(int regionX, int regionZ) {
+        return ((long) regionX << 32) | (regionZ & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Forces serial updates, mainly to compare against the parallel result
+     */
+    public void setParallel(boolean parallel) {
+        this.parallel = parallel;
+    }
+
+    public boolean isParallel() {
+        return parallel;
+    }
+
+    public int getObjectCount() {
+        return membership.size();
+    }
+
+    public int getRegionCount() {
+        return regions.size();
+    }
+
+    public void cleanup() {
+        // The pool belongs to the job system and outlives the simulator
+        regions.clear();
+        membership.clear();
+    }
+
+    private static class Region {
+        private final long key;
+        private final List<GameObject> objects = new ArrayList<>();
+
+        Region(long key) {
+            this.key = key;
+        }
+
+        void update(Window window, float deltaTime) {
+            for (int i = 0; i < objects.size(); i++) {
+                GameObject object = objects.get(i);
+                object.storePreviousTransform();
+                object.update(window, deltaTime);
+            }
+        }
+    }
+
+    /**
+     * Splits the region range in half until each task owns a handful of regions
+     */
+    private static class RegionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final Region[] regions;
+        private final int from, to;
+        private final Window window;
+        private final float deltaTime;
+
+        RegionTask(Region[] regions, int from, int to, Window window, float deltaTime) {
+            this.regions = regions;
+            this.from = from;
+            this.to = to;
+            this.window = window;
+            this.deltaTime = deltaTime;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= REGIONS_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    regions[i].update(window, deltaTime);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new RegionTask(regions, from, mid, window, deltaTime),
+                      new RegionTask(regions, mid, to, window, deltaTime));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package mystuff.engine;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Deferred main-thread work, drained by the game loop after rendering. Each frame gets
+ * whatever is left of the frame budget; tasks run highest priority first and a task whose
+ * expected cost does not fit the remaining time waits for a later frame. Expected cost is
+ * learned per task name, so callers only have to say what the work is.
+ *
+ * Tasks may be scheduled from any thread; they always run on the thread calling drain().
+ */
+public class FrameBudgetScheduler {
+    // Starting cost guess for a task name we have never timed
+    private static final long DEFAULT_ESTIMATE = 500_000;
+    // A task passed over for this many frames may run over budget when nothing else fits
+    private static final int MAX_DEFERRED_FRAMES = 30;
+
+    private final PriorityQueue<Task> queue = new PriorityQueue<>();
+    private final Map<String, Long> costEstimates = new HashMap<>();
+    private long sequence = 0;
+    private long frame = 0;
+
+    // Stats for the last drain
+    private int lastRunCount;
+    private long lastRunNanos;
+
+    /**
+     * Queues a task. Higher priority runs first; equal priorities run in schedule order.
+     */
+    public synchronized void schedule(String name, int priority, Runnable work) {
+        queue.add(new Task(name, priority, sequence++, frame, work));
+    }
+
+    /**
+     * Runs queued tasks until the budget is used up
+     * @param budgetNanos time this frame can spare, may be zero or negative
+     * @return number of tasks run
+     */
+    public int drain(long budgetNanos) {
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+        List<Task> deferred = null;
+        int ran = 0;
+
+        while (true) {
+            Task task;
+            long estimate;
+            synchronized (this) {
+                task = queue.poll();
+                if (task == null) break;
+                estimate = costEstimates.getOrDefault(task.name, DEFAULT_ESTIMATE);
+            }
+
+            long remaining = deadline - System.nanoTime();
+            if (estimate > remaining) {
+                // Doesn't fit; keep it and see if something cheaper does
+                if (deferred == null) deferred = new ArrayList<>();
+                deferred.add(task);
+                if (remaining <= 0) break;
+                continue;
+            }
+
+            run(task);
+            ran++;
+        }
+
+        Task starved = null;
+        synchronized (this) {
+            if (deferred != null) {
+                queue.addAll(deferred);
+            }
+            // Nothing fit this frame: let the longest-waiting overdue task through anyway
+            if (ran == 0) {
+                for (Task task : queue) {
+                    if (frame - task.scheduledFrame >= MAX_DEFERRED_FRAMES
+                            && (starved == null || task.sequence < starved.sequence)) {
+                        starved = task;
+                    }
+                }
+                if (starved != null) {
+                    queue.remove(starved);
+                }
+            }
+            frame++;
+        }
+        if (starved != null) {
+            run(starved);
+            ran++;
+        }
+        lastRunCount = ran;
+        lastRunNanos = System.nanoTime() - start;
+        return ran;
+    }
+
+    private void run(Task task) {
+        long taskStart = System.nanoTime();
+        try {
+            task.work.run();
+        } catch (Exception e) {
+            System.err.println("Deferred task '" + task.name + "' failed: " + e);
+            e.printStackTrace();
+        }
+        recordCost(task.name, System.nanoTime() - taskStart);
+    }
+
+    private synchronized void recordCost(String name, long nanos) {
+        Long previous = costEstimates.get(name);
+        // Moving average, so one slow run doesn't stall that kind of task for long
+        costEstimates.put(name, previous == null ? nanos : previous + (nanos - previous) / 4);
+    }
+
+    public synchronized int getPendingCount() {
+        return queue.size();
+    }
+
+    public int getLastRunCount() {
+        return lastRunCount;
+    }
+
+    public long getLastRunNanos() {
+        return lastRunNanos;
+    }
+
+    /**
+     * Drops all queued tasks without running them
+     */
+    public synchronized void clear() {
+        queue.clear();
+    }
+
+    private static class Task implements Comparable<Task> {
+        final String name;
+        final int priority;
+        final long sequence;
+        final long scheduledFrame;
+        final Runnable work;
+
+        Task(String name, int priority, long sequence, long scheduledFrame, Runnable work) {
+            this.name = name;
+            this.priority = priority;
+            this.sequence = sequence;
+            this.scheduledFrame = scheduledFrame;
+            this.work = work;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (priority != other.priority) {
+                return Integer.compare(other.priority, priority);
+            }
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
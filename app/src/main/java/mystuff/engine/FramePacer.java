@@ -0,0 +1,83 @@
+package mystuff.engine;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Waits for frame or tick deadlines precisely without burning a core. Sleeps with
+ * LockSupport.parkNanos for most of the wait, stopping early by the measured oversleep
+ * of the OS scheduler, and only spins for the last fraction of a millisecond.
+ * Not thread-safe: use one pacer per thread.
+ */
+public class FramePacer {
+    private static final long SPIN_WINDOW = 200_000;         // Always spin the final 0.2ms
+    private static final long MAX_OVERSLEEP = 4_000_000;     // Cap estimate so a hiccup can't force spinning
+    private static final long CALIBRATION_PARK = 1_000_000;  // Park length used to measure the OS
+    private static final int CALIBRATION_SAMPLES = 16;
+
+    private long oversleepEstimate = 1_000_000; // Average extra time a park takes, adapted as we go
+    private long sleepGranularity;               // Worst oversleep seen during calibration
+    private long lastWakeError;                  // How late the last wait returned
+    private boolean calibrated = false;
+
+    /**
+     * Measures how much longer than requested a short park takes on this machine.
+     * Called once at startup; the estimate keeps adapting afterwards.
+     */
+    public void calibrate() {
+        long total = 0;
+        long worst = 0;
+        for (int i = 0; i < CALIBRATION_SAMPLES; i++) {
+            long start = System.nanoTime();
+            LockSupport.parkNanos(CALIBRATION_PARK);
+            long overslept = Math.max(0, System.nanoTime() - start - CALIBRATION_PARK);
+            total += overslept;
+            worst = Math.max(worst, overslept);
+        }
+        sleepGranularity = worst;
+        oversleepEstimate = Math.min(MAX_OVERSLEEP, total / CALIBRATION_SAMPLES);
+        calibrated = true;
+    }
+
+    /**
+     * Blocks until System.nanoTime() reaches the deadline
+     * @return nanoseconds actually spent waiting
+     */
+    public long sleepUntil(long deadline) {
+        if (!calibrated) {
+            calibrate();
+        }
+
+        long start = System.nanoTime();
+        long now = start;
+
+        // Park while there is comfortably more time left than the OS tends to overshoot
+        while (deadline - now > SPIN_WINDOW + oversleepEstimate) {
+            long parkTime = deadline - now - SPIN_WINDOW - oversleepEstimate;
+            LockSupport.parkNanos(parkTime);
+            long woke = System.nanoTime();
+
+            // Adapt: exponential moving average of how far past the request we woke
+            long overslept = Math.max(0, woke - now - parkTime);
+            oversleepEstimate += (overslept - oversleepEstimate) / 8;
+            oversleepEstimate = Math.min(MAX_OVERSLEEP, Math.max(0, oversleepEstimate));
+            now = woke;
+
+            if (Thread.currentThread().isInterrupted()) {
+                return now - start;
+            }
+        }
+
+        // Spin out the remainder for precision
+        while (now < deadline) {
+            Thread.onSpinWait();
+            now = System.nanoTime();
+        }
+
+        lastWakeError = now - deadline;
+        return now - start;
+    }
+
+    public long getOversleepEstimateNanos() { return oversleepEstimate; }
+    public long getSleepGranularityNanos() { return sleepGranularity; }
+    public long getLastWakeErrorNanos() { return lastWakeError; }
+}
@@ -0,0 +1,63 @@
+package mystuff.engine;
+
+import java.nio.ByteBuffer;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.GL15;
+
+/**
+ * Forwards every call straight to OpenGL on the current context
+ */
+public class GLRenderBackend implements RenderBackend {
+    @Override public void glBegin(int mode) { GL11.glBegin(mode); }
+    @Override public void glEnd() { GL11.glEnd(); }
+    @Override public void glVertex2f(float x, float y) { GL11.glVertex2f(x, y); }
+    @Override public void glVertex3f(float x, float y, float z) { GL11.glVertex3f(x, y, z); }
+    @Override public void glTexCoord2f(float s, float t) { GL11.glTexCoord2f(s, t); }
+    @Override public void glNormal3f(float nx, float ny, float nz) { GL11.glNormal3f(nx, ny, nz); }
+    @Override public void glColor3f(float red, float green, float blue) { GL11.glColor3f(red, green, blue); }
+    @Override public void glColor4f(float red, float green, float blue, float alpha) { GL11.glColor4f(red, green, blue, alpha); }
+
+    @Override public int glGenLists(int range) { return GL11.glGenLists(range); }
+    @Override public void glNewList(int list, int mode) { GL11.glNewList(list, mode); }
+    @Override public void glEndList() { GL11.glEndList(); }
+    @Override public void glCallList(int list) { GL11.glCallList(list); }
+    @Override public void glDeleteLists(int list, int range) { GL11.glDeleteLists(list, range); }
+    @Override public int glGenBuffers() { return GL15.glGenBuffers(); }
+    @Override public void glDeleteBuffers(int buffer) { GL15.glDeleteBuffers(buffer); }
+
+    @Override public int glGenTextures() { return GL11.glGenTextures(); }
+    @Override public void glBindTexture(int target, int texture) { GL11.glBindTexture(target, texture); }
+    @Override public void glTexParameteri(int target, int pname, int param) { GL11.glTexParameteri(target, pname, param); }
+    @Override
+    public void glTexImage2D(int target, int level, int internalFormat, int width, int height, int border,
+                             int format, int type, ByteBuffer pixels) {
+        GL11.glTexImage2D(target, level, internalFormat, width, height, border, format, type, pixels);
+    }
+    @Override public void glDeleteTextures(int texture) { GL11.glDeleteTextures(texture); }
+
+    @Override public void glEnable(int cap) { GL11.glEnable(cap); }
+    @Override public void glDisable(int cap) { GL11.glDisable(cap); }
+    @Override public void glBlendFunc(int sfactor, int dfactor) { GL11.glBlendFunc(sfactor, dfactor); }
+    @Override public void glAlphaFunc(int func, float ref) { GL11.glAlphaFunc(func, ref); }
+    @Override public void glDepthMask(boolean flag) { GL11.glDepthMask(flag); }
+    @Override public void glPolygonMode(int face, int mode) { GL11.glPolygonMode(face, mode); }
+    @Override public void glPushAttrib(int mask) { GL11.glPushAttrib(mask); }
+    @Override public void glPopAttrib() { GL11.glPopAttrib(); }
+    @Override public void glClear(int mask) { GL11.glClear(mask); }
+    @Override public void glClearColor(float red, float green, float blue, float alpha) { GL11.glClearColor(red, green, blue, alpha); }
+
+    @Override public void glMatrixMode(int mode) { GL11.glMatrixMode(mode); }
+    @Override public void glPushMatrix() { GL11.glPushMatrix(); }
+    @Override public void glPopMatrix() { GL11.glPopMatrix(); }
+    @Override public void glLoadIdentity() { GL11.glLoadIdentity(); }
+    @Override public void glLoadMatrixf(float[] m) { GL11.glLoadMatrixf(m); }
+    @Override public void glTranslatef(float x, float y, float z) { GL11.glTranslatef(x, y, z); }
+    @Override public void glRotatef(float angle, float x, float y, float z) { GL11.glRotatef(angle, x, y, z); }
+    @Override
+    public void glOrtho(double left, double right, double bottom, double top, double zNear, double zFar) {
+        GL11.glOrtho(left, right, bottom, top, zNear, zFar);
+    }
+
+    @Override public void glGetFloatv(int pname, float[] params) { GL11.glGetFloatv(pname, params); }
+    @Override public String glGetString(int name) { return GL11.glGetString(name); }
+}
@@ -1,6 +1,12 @@
 package mystuff.engine;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import jdk.jfr.Recording;
 import mystuff.utils.Debug;
+import mystuff.utils.Log;
 import org.lwjgl.glfw.GLFW;
 
 /**
@@ -11,20 +17,28 @@ public class GameEngine implements Runnable {
     private final Window window;
     private final IGameLogic gameLogic;
     private final Timer timer;
+    private final MemoryTelemetry memory;
     
     // Engine settings
     private final long targetFrameTime; // Nanoseconds per frame based on target FPS
-    private boolean running = false;
-    private boolean paused = false;
-    private final int targetUPS = 120; // Updates per second increased for smoother gameplay
+    private volatile boolean running = false;
+    private volatile boolean paused = false;
+    private int targetUPS; // Updates per second; rendering interpolates between ticks
+    
+    // Headless mode: no window, no GL context, only fixed-rate updates
+    private final boolean headless;
+    private boolean realtime = true; // Pace headless ticks to wall-clock time
+    private long maxTicks = 0;       // Stop after this many headless ticks (0 = run until stopped)
     
     // Thread management
     private Thread gameThread;
     private boolean highPrecisionThread = true;
+    private boolean threadedSimulation = false; // Run updates on a separate simulation thread
+    private volatile long lastTickTime;         // When the last update finished
     
     // Performance counters
     private int frameCount = 0;
-    private int updateCount = 0;
+    private final AtomicInteger updateCount = new AtomicInteger();
     private long lastPerformanceReport = 0;
     private static final long PERFORMANCE_REPORT_INTERVAL = 5_000_000_000L; // 5 seconds in nanoseconds
     
@@ -32,21 +46,61 @@ public class GameEngine implements Runnable {
     public enum SleepMode {
         YIELD,       // Just yield to other threads
         SLEEP,       // Use Thread.sleep (less precise but more CPU friendly)
-        BUSY_WAIT    // Busy-wait (most precise but consumes a CPU core)
+        BUSY_WAIT,   // Busy-wait (precise but consumes a CPU core)
+        PRECISE      // Calibrated park + short final spin (precise and nearly idle)
     }
     private SleepMode sleepMode = SleepMode.SLEEP;
+    private final FramePacer framePacer = new FramePacer(); // Used by PRECISE on the game thread
+    private final FramePacer tickPacer = new FramePacer();  // Paces the tick loop
+    
+    // Deferred main-thread work, run with whatever time is left after rendering
+    private final FrameBudgetScheduler frameScheduler = new FrameBudgetScheduler();
+    private static final long FRAME_BUDGET_MARGIN = 1_000_000; // Keep 1ms spare for swap and jitter
+    private static final long UNCAPPED_TASK_BUDGET = 2_000_000; // Per frame when there is no target FPS
+    
+    // Continuous flight recording, dumped on shutdown
+    private Path flightRecordingPath;
+    private Recording flightRecording;
+    private static final Duration FLIGHT_RECORDING_MAX_AGE = Duration.ofMinutes(10);
+    private long totalFrames = 0;
+    
+    // Metrics export; the registry is always populated, export is opt-in
+    private Path metricsFile;
+    private int metricsPort = 0;
+    private MetricsExporter metricsExporter;
+    private static final long METRICS_EXPORT_INTERVAL_MS = 1000;
+    private final Metrics.Counter framesCounter = Metrics.counter("engine.frames");
+    private final Metrics.Counter ticksCounter = Metrics.counter("engine.ticks");
+    private volatile double lastAvgFPS;
+    private volatile double lastAvgUPS;
     
     /**
      * Creates a new GameEngine instance
      */
     public GameEngine(String windowTitle, int width, int height, IGameLogic gameLogic, int targetFPS) {
-        window = new Window(windowTitle, width, height);
+        this(new Window(windowTitle, width, height), gameLogic, targetFPS, 120);
+    }
+    
+    private GameEngine(Window window, IGameLogic gameLogic, int targetFPS, int targetUPS) {
+        this.window = window;
+        this.headless = window == null;
         this.gameLogic = gameLogic;
         this.timer = new Timer();
+        this.memory = new MemoryTelemetry();
+        this.targetUPS = targetUPS;
         // Calculate target frame time in nanoseconds based on desired FPS
         this.targetFrameTime = targetFPS > 0 ? 1_000_000_000L / targetFPS : 0;
     }
     
+    /**
+     * Creates an engine that runs without a window or OpenGL context. Only
+     * IGameLogic.update is driven, at a fixed tick rate; gameLogic.init receives
+     * a null window and input and rendering are skipped.
+     */
+    public static GameEngine createHeadless(IGameLogic gameLogic, int targetUPS) {
+        return new GameEngine(null, gameLogic, 0, targetUPS);
+    }
+    
     /**
      * Starts the game in a separate thread
      */
@@ -93,8 +147,20 @@ public class GameEngine implements Runnable {
     public void run() {
         try {
             configureThread();
-            init();
-            gameLoop();
+            startFlightRecording();
+            registerMetrics();
+            startMetricsExport();
+            if (headless) {
+                initHeadless();
+                headlessLoop();
+            } else {
+                init();
+                if (threadedSimulation) {
+                    threadedLoop();
+                } else {
+                    gameLoop();
+                }
+            }
         } catch (Exception e) {
             e.printStackTrace();
         } finally {
@@ -102,6 +168,60 @@ public class GameEngine implements Runnable {
         }
     }
     
+    private void startFlightRecording() {
+        if (flightRecordingPath == null) return;
+        try {
+            flightRecording = JfrEvents.startContinuousRecording(FLIGHT_RECORDING_MAX_AGE);
+            System.out.println("Flight recording started, will be written to " + flightRecordingPath);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Could not start flight recording: " + e.getMessage());
+        }
+    }
+    
+    private void stopFlightRecording() {
+        if (flightRecording == null) return;
+        try {
+            JfrEvents.stopRecording(flightRecording, flightRecordingPath);
+            System.out.println("Flight recording written to " + flightRecordingPath.toAbsolutePath());
+        } catch (IOException e) {
+            System.err.println("Could not write flight recording: " + e.getMessage());
+        }
+        flightRecording = null;
+    }
+    
+    private void registerMetrics() {
+        Metrics.histogram("engine.tick_time", timer.getTickTimes());
+        Metrics.gauge("engine.ups", () -> lastAvgUPS);
+        Metrics.gauge("engine.tick_alloc_bytes", memory::getLastTickBytes);
+        if (!headless) {
+            Metrics.histogram("engine.frame_time", timer.getFrameTimes());
+            Metrics.gauge("engine.fps", () -> lastAvgFPS);
+            Metrics.gauge("engine.frame_alloc_bytes", memory::getLastFrameBytes);
+            Metrics.gauge("engine.deferred_tasks", frameScheduler::getPendingCount);
+        }
+        Metrics.gauge("gc.pauses", memory::getGcPauseCount);
+        Metrics.gauge("gc.pause_total_ms", memory::getGcPauseTotalMs);
+        Runtime runtime = Runtime.getRuntime();
+        Metrics.gauge("memory.heap_used_bytes", () -> runtime.totalMemory() - runtime.freeMemory());
+        Metrics.gauge("memory.heap_max_bytes", runtime::maxMemory);
+        Metrics.gauge("log.dropped", Log::getDroppedCount);
+    }
+    
+    private void startMetricsExport() {
+        if (metricsFile == null && metricsPort <= 0) return;
+        metricsExporter = new MetricsExporter();
+        try {
+            if (metricsFile != null) {
+                metricsExporter.startFile(metricsFile, METRICS_EXPORT_INTERVAL_MS);
+            }
+            if (metricsPort > 0) {
+                metricsExporter.startHttp(metricsPort);
+            }
+        } catch (IOException e) {
+            System.err.println("Could not start metrics export: " + e.getMessage());
+        }
+    }
+    
     private void init() {
         // Initialize window first to create OpenGL context
         window.init();
@@ -112,6 +232,14 @@ public class GameEngine implements Runnable {
         
         // Initialize timer
         timer.init();
+        timer.setBudgets(targetFrameTime, 1_000_000_000L / targetUPS);
+        
+        // Measure OS sleep granularity once so PRECISE pacing knows when to stop parking
+        if (sleepMode == SleepMode.PRECISE) {
+            framePacer.calibrate();
+            System.out.printf("Frame pacer calibrated: %.2fms oversleep (worst %.2fms)%n",
+                framePacer.getOversleepEstimateNanos() / 1_000_000.0, framePacer.getSleepGranularityNanos() / 1_000_000.0);
+        }
         
         // Initialize game logic with window
         gameLogic.init(window);
@@ -119,6 +247,7 @@ public class GameEngine implements Runnable {
         // If game logic is an instance of Game, pass the timer reference
         if (gameLogic instanceof mystuff.game.Game) {
             ((mystuff.game.Game) gameLogic).setTimer(timer);
+            ((mystuff.game.Game) gameLogic).setMemoryTelemetry(memory);
         }
         
         // Start performance tracking
@@ -127,15 +256,156 @@ public class GameEngine implements Runnable {
         System.out.println("Game engine initialized successfully");
     }
     
+    private void initHeadless() {
+        timer.init();
+        timer.setBudgets(0, 1_000_000_000L / targetUPS);
+        
+        if (gameLogic instanceof mystuff.game.Game) {
+            ((mystuff.game.Game) gameLogic).setTimer(timer);
+            ((mystuff.game.Game) gameLogic).setMemoryTelemetry(memory);
+        }
+        
+        // No window: the game logic sets up world and physics only
+        gameLogic.init(null);
+        
+        lastPerformanceReport = Timer.getCurrentTime();
+        
+        System.out.println("Game engine initialized in headless mode at " + targetUPS + " UPS");
+    }
+    
+    private void headlessLoop() {
+        long ticks = tickLoop(realtime, true);
+        System.out.println("Headless run finished after " + ticks + " ticks");
+    }
+    
+    /**
+     * Runs fixed-timestep updates on the calling thread until the engine stops. Used by
+     * headless mode and by the simulation thread. When paced, ticks follow the wall
+     * clock; otherwise they run back-to-back, which measures raw simulation throughput.
+     * @return number of ticks run
+     */
+    private long tickLoop(boolean paced, boolean reportOnThisThread) {
+        float interval = 1.0f / targetUPS;
+        long tickTime = 1_000_000_000L / targetUPS;
+        long nextTick = Timer.getCurrentTime();
+        long ticks = 0;
+        
+        while (running && (maxTicks <= 0 || ticks < maxTicks)) {
+            if (!paused) {
+                long tickStart = Timer.getCurrentTime();
+                JfrEvents.Tick tickEvent = new JfrEvents.Tick();
+                tickEvent.begin();
+                memory.beginTick();
+                try (Profiler.Zone z = Profiler.zone("tick")) {
+                    update(interval);
+                }
+                memory.endTick();
+                tickEvent.tick = ticks;
+                tickEvent.commit();
+                lastTickTime = Timer.getCurrentTime();
+                timer.recordUpdateTime(lastTickTime - tickStart);
+                timer.recordTickTime(lastTickTime - tickStart);
+                updateCount.incrementAndGet();
+                ticksCounter.increment();
+                ticks++;
+            }
+            
+            if (paced) {
+                nextTick += tickTime;
+                long sleepTime = nextTick - Timer.getCurrentTime();
+                if (sleepTime > 0) {
+                    tickPacer.sleepUntil(nextTick);
+                } else if (sleepTime < -tickTime * 3) {
+                    // Fell too far behind, don't try to catch up with a burst of ticks
+                    nextTick = Timer.getCurrentTime();
+                }
+            }
+            
+            if (reportOnThisThread) {
+                reportPerformance();
+            }
+        }
+        return ticks;
+    }
+    
+    /**
+     * Render loop used when simulation runs on its own thread. This thread handles input,
+     * rendering and buffer swaps; the simulation thread ticks at targetUPS and publishes
+     * snapshots that the game logic renders from, so the two overlap across cores.
+     */
+    private void threadedLoop() {
+        Thread simulationThread = new Thread(() -> {
+            try {
+                tickLoop(true, false);
+            } catch (Exception e) {
+                e.printStackTrace();
+            } finally {
+                running = false; // Also ends the render loop once maxTicks is reached
+            }
+        }, "SimulationThread");
+        simulationThread.setPriority(Thread.currentThread().getPriority());
+        lastTickTime = Timer.getCurrentTime();
+        simulationThread.start();
+        
+        float tickTime = 1_000_000_000L / (float) targetUPS;
+        try {
+            while (running && !window.shouldClose()) {
+                JfrEvents.Frame frameEvent = new JfrEvents.Frame();
+                frameEvent.begin();
+                try (Profiler.Zone frame = Profiler.zone("frame")) {
+                    memory.beginFrame();
+                    timer.getElapsedTime(); // Updates FPS and frame time statistics
+                    
+                    try (Profiler.Zone z = Profiler.zone("input")) {
+                        input();
+                    }
+                    
+                    // Render at the interpolated state between the last tick and the next
+                    float alpha = Math.min(1.0f, (Timer.getCurrentTime() - lastTickTime) / tickTime);
+                    timer.startRender();
+                    render(alpha);
+                    timer.recordRenderTime();
+                    
+                    runDeferredTasks();
+                    memory.endFrame();
+                    frameEvent.alpha = alpha;
+                }
+                frameEvent.frame = totalFrames++;
+                frameEvent.commit();
+                frameCount++;
+                framesCounter.increment();
+                
+                // Frame limiter
+                if (targetFrameTime > 0 && !window.isVSync()) {
+                    limitFrameRate();
+                }
+                
+                reportPerformance();
+            }
+        } finally {
+            // Let the simulation thread finish its tick before cleanup touches the world
+            running = false;
+            try {
+                simulationThread.join(5000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
     private void gameLoop() {
         float deltaTime; // Time since last frame in milliseconds
         float accumulator = 0f;
         float interval = 1.0f / targetUPS; // Fixed update interval
         int maxUpdatesPerFrame = 10; // Prevent spiral of death
+        long ticks = 0;
         
         // Game loop
-        while (running && !window.shouldClose()) {
-            timer.startFrame();
+        while (running && !window.shouldClose() && (maxTicks <= 0 || ticks < maxTicks)) {
+            JfrEvents.Frame frameEvent = new JfrEvents.Frame();
+            frameEvent.begin();
+            Profiler.Zone frame = Profiler.zone("frame");
+            memory.beginFrame();
             
             // Get elapsed time since last frame
             deltaTime = timer.getElapsedTime();
@@ -144,16 +414,31 @@ public class GameEngine implements Runnable {
             }
             
             // Process input regardless of pause state
-            input();
+            try (Profiler.Zone z = Profiler.zone("input")) {
+                input();
+            }
             
             // Fixed timestep updates with maximum number of updates per frame
             int updates = 0;
-            timer.startFrame(); // Reset to time update phase specifically
-            while (accumulator >= interval && updates < maxUpdatesPerFrame && !paused) {
-                update(interval);
+            timer.startUpdate();
+            while (accumulator >= interval && updates < maxUpdatesPerFrame && !paused
+                    && (maxTicks <= 0 || ticks < maxTicks)) {
+                long tickStart = Timer.getCurrentTime();
+                JfrEvents.Tick tickEvent = new JfrEvents.Tick();
+                tickEvent.begin();
+                memory.beginTick();
+                try (Profiler.Zone z = Profiler.zone("tick")) {
+                    update(interval);
+                }
+                memory.endTick();
+                tickEvent.tick = ticks;
+                tickEvent.commit();
+                timer.recordTickTime(Timer.getCurrentTime() - tickStart);
                 accumulator -= interval;
                 updates++;
-                updateCount++;
+                ticks++;
+                updateCount.incrementAndGet();
+                ticksCounter.increment();
             }
             timer.recordUpdateTime();
             
@@ -167,10 +452,19 @@ public class GameEngine implements Runnable {
             }
             
             // Render at the interpolated state
-            render(Math.min(1.0f, accumulator / interval));
+            float alpha = Math.min(1.0f, accumulator / interval);
+            timer.startRender();
+            render(alpha);
             timer.recordRenderTime();
             
+            runDeferredTasks();
+            memory.endFrame();
+            frame.close();
+            frameEvent.frame = totalFrames++;
+            frameEvent.alpha = alpha;
+            frameEvent.commit();
             frameCount++;
+            framesCounter.increment();
             
             // Frame limiter
             if (targetFrameTime > 0 && !window.isVSync()) {
@@ -182,7 +476,29 @@ public class GameEngine implements Runnable {
         }
     }
     
+    /**
+     * Gives the rest of this frame's time budget to deferred tasks
+     */
+    private void runDeferredTasks() {
+        long budget;
+        if (targetFrameTime > 0) {
+            long frameTime = Timer.getCurrentTime() - timer.getLastLoopTimeNanos();
+            budget = targetFrameTime - frameTime - FRAME_BUDGET_MARGIN;
+        } else {
+            budget = UNCAPPED_TASK_BUDGET;
+        }
+        try (Profiler.Zone z = Profiler.zone("deferred")) {
+            frameScheduler.drain(budget);
+        }
+    }
+    
     private void limitFrameRate() {
+        try (Profiler.Zone z = Profiler.zone("sleep")) {
+            waitForFrameDeadline();
+        }
+    }
+    
+    private void waitForFrameDeadline() {
         long currentTime = Timer.getCurrentTime();
         long frameTime = currentTime - timer.getLastLoopTimeNanos();
         long sleepTime = targetFrameTime - frameTime;
@@ -193,6 +509,10 @@ public class GameEngine implements Runnable {
                     Thread.yield();
                     break;
                     
+                case PRECISE:
+                    timer.recordSleepTime(framePacer.sleepUntil(timer.getLastLoopTimeNanos() + targetFrameTime));
+                    break;
+                    
                 case BUSY_WAIT:
                     // Optimized busy-wait with hybrid approach
                     // Sleep for most of the time, then busy wait for precision
@@ -207,10 +527,7 @@ public class GameEngine implements Runnable {
                     }
                     // Busy wait for the remaining time for maximum precision
                     while (Timer.getCurrentTime() - busyWaitStart < sleepTime) {
-                        // Use a minimal yield every 0.5ms to reduce CPU load
-                        if ((Timer.getCurrentTime() - busyWaitStart) % 500_000 == 0) {
-                            Thread.yield();
-                        }
+                        Thread.onSpinWait();
                     }
                     break;
                     
@@ -238,18 +555,40 @@ public class GameEngine implements Runnable {
     
     private void reportPerformance() {
         long currentTime = Timer.getCurrentTime();
-        if (currentTime - lastPerformanceReport >= PERFORMANCE_REPORT_INTERVAL && Debug.showPlayerInfo()) {
-            double elapsedSeconds = (currentTime - lastPerformanceReport) / 1_000_000_000.0;
-            double avgFPS = frameCount / elapsedSeconds;
-            double avgUPS = updateCount / elapsedSeconds;
-            
-            System.out.printf("Performance: %.1f FPS, %.1f UPS, Update: %.2fms, Render: %.2fms, CPU: %.1f%%\n",
-                avgFPS, avgUPS, timer.getUpdateTimeMs(), timer.getRenderTimeMs(), timer.getFrameUtilization());
-            
-            // Reset counters
-            frameCount = 0;
-            updateCount = 0;
-            lastPerformanceReport = currentTime;
+        if (currentTime - lastPerformanceReport < PERFORMANCE_REPORT_INTERVAL) return;
+        
+        // Averages always feed the metrics registry
+        double elapsedSeconds = (currentTime - lastPerformanceReport) / 1_000_000_000.0;
+        double avgFPS = frameCount / elapsedSeconds;
+        double avgUPS = updateCount.getAndSet(0) / elapsedSeconds;
+        lastAvgFPS = avgFPS;
+        lastAvgUPS = avgUPS;
+        frameCount = 0;
+        lastPerformanceReport = currentTime;
+        
+        // Headless runs have no debug overlay to toggle, so they always print
+        if (headless || Debug.showPlayerInfo()) {
+            if (headless) {
+                System.out.printf("Performance: %.1f UPS, Update: %.2fms%n", avgUPS, timer.getUpdateTimeMs());
+            } else {
+                System.out.printf("Performance: %.1f FPS, %.1f UPS, Update: %.2fms, Render: %.2fms, CPU: %.1f%%\n",
+                    avgFPS, avgUPS, timer.getUpdateTimeMs(), timer.getRenderTimeMs(), timer.getFrameUtilization());
+                System.out.printf("  Frame ms p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  max %.2f  over budget %d%n",
+                    timer.getFrameTimePercentile(50), timer.getFrameTimePercentile(90), timer.getFrameTimePercentile(99),
+                    timer.getFrameTimePercentile(99.9), timer.getMaxFrameTime(), timer.getFramesOverBudget());
+            }
+            System.out.printf("  Tick ms  p50 %.2f  p90 %.2f  p99 %.2f  p99.9 %.2f  over budget %d%n",
+                timer.getTickTimePercentile(50), timer.getTickTimePercentile(90), timer.getTickTimePercentile(99),
+                timer.getTickTimePercentile(99.9), timer.getTicksOverBudget());
+            if (!headless) {
+                System.out.printf("  Alloc: %d KB/frame (peak %d KB)%n",
+                    memory.getLastFrameBytes() / 1024, memory.getMaxFrameBytes() / 1024);
+            }
+            System.out.printf("  Alloc: %d KB/tick (peak %d KB), GC: %d pauses, %dms total, peak %dms, last %s%n",
+                memory.getLastTickBytes() / 1024, memory.getMaxTickBytes() / 1024,
+                memory.getGcPauseCount(), memory.getGcPauseTotalMs(), memory.getMaxGcPauseMs(),
+                memory.getLastGcDescription());
+            memory.resetPeak();
         }
     }
     
@@ -271,10 +610,15 @@ public class GameEngine implements Runnable {
             }
             
             // Render game logic
-            gameLogic.render(window);
+            try (Profiler.Zone z = Profiler.zone("render")) {
+                gameLogic.render(window, interpolation);
+            }
             
             // Update window (swap buffers)
-            window.update();
+            try (Profiler.Zone z = Profiler.zone("swap")) {
+                window.update();
+            }
+            Render.endFrame();
         } catch (Exception e) {
             System.err.println("Error during rendering: " + e.getMessage());
             e.printStackTrace();
@@ -283,7 +627,16 @@ public class GameEngine implements Runnable {
     
     private void cleanup() {
         gameLogic.cleanup();
-        window.cleanup();
+        if (window != null) {
+            window.cleanup();
+        }
+        JobSystem.shutdownShared();
+        stopFlightRecording();
+        Log.flush(500);
+        if (metricsExporter != null) {
+            metricsExporter.stop();
+            metricsExporter = null;
+        }
     }
     
     // Accessor methods
@@ -291,6 +644,47 @@ public class GameEngine implements Runnable {
         this.sleepMode = mode;
     }
     
+    /**
+     * Headless only: pace ticks to wall-clock time (default) or run them back-to-back
+     */
+    public void setRealtime(boolean realtime) {
+        this.realtime = realtime;
+    }
+    
+    /**
+     * Stop after the given number of ticks (0 runs until stopped)
+     */
+    public void setMaxTicks(long maxTicks) {
+        this.maxTicks = maxTicks;
+    }
+    
+    public boolean isHeadless() {
+        return headless;
+    }
+    
+    /**
+     * Runs IGameLogic.update on its own thread instead of interleaving it with rendering.
+     * The game logic must then render only from state it hands over safely (see TripleBuffer).
+     */
+    public void setThreadedSimulation(boolean threaded) {
+        this.threadedSimulation = threaded;
+    }
+    
+    public boolean isThreadedSimulation() {
+        return threadedSimulation;
+    }
+    
+    /**
+     * Sets the simulation tick rate. Call before start().
+     */
+    public void setTargetUPS(int targetUPS) {
+        this.targetUPS = Math.max(1, targetUPS);
+    }
+    
+    public int getTargetUPS() {
+        return targetUPS;
+    }
+    
     public void setHighPrecisionThread(boolean highPrecision) {
         this.highPrecisionThread = highPrecision;
     }
@@ -307,6 +701,42 @@ public class GameEngine implements Runnable {
         this.paused = !this.paused;
     }
     
+    public FrameBudgetScheduler getFrameScheduler() {
+        return frameScheduler;
+    }
+    
+    public FramePacer getFramePacer() {
+        return framePacer;
+    }
+    
+    /**
+     * Runs a continuous JFR recording for the whole session and writes it to the given
+     * file on shutdown. Must be set before start().
+     */
+    public void setFlightRecording(Path destination) {
+        this.flightRecordingPath = destination;
+    }
+    
+    /**
+     * Appends a metrics snapshot to the file every second, as CSV if the name ends in
+     * .csv and JSON lines otherwise. Must be set before start().
+     */
+    public void setMetricsFile(Path file) {
+        this.metricsFile = file;
+    }
+    
+    /**
+     * Serves Prometheus text metrics on http://localhost:port/metrics (0 disables).
+     * Must be set before start().
+     */
+    public void setMetricsPort(int port) {
+        this.metricsPort = port;
+    }
+    
+    public MemoryTelemetry getMemoryTelemetry() {
+        return memory;
+    }
+    
     public Timer getTimer() {
         return timer;
     }
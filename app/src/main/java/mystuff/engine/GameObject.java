@@ -4,6 +4,9 @@ public abstract class GameObject {
     protected float x, y, z;
     protected float rotX, rotY, rotZ;
     protected float scale;
+    // Transform at the start of the current tick, for interpolated rendering
+    protected float prevX, prevY, prevZ;
+    protected float prevRotX, prevRotY, prevRotZ;
 
     public GameObject(float x, float y, float z) {
         this.x = x;
@@ -13,8 +16,25 @@ public abstract class GameObject {
         this.rotY = 0;
         this.rotZ = 0;
         this.scale = 1;
+        storePreviousTransform();
     }
 
+    /**
+     * Remembers the current transform as the previous one. Call at the start of each tick.
+     */
+    public void storePreviousTransform() {
+        prevX = x;
+        prevY = y;
+        prevZ = z;
+        prevRotX = rotX;
+        prevRotY = rotY;
+        prevRotZ = rotZ;
+    }
+
+    /**
+     * Advances this object by one tick. May run on a worker thread alongside other
+     * objects (see EntitySimulator), so it should only modify this object's own state.
+     */
     public abstract void update(Window window, float deltaTime);
     public abstract void render();
 
@@ -41,4 +61,15 @@ public abstract class GameObject {
     public float getRotY() { return rotY; }
     public float getRotZ() { return rotZ; }
     public float getScale() { return scale; }
+    public float getPrevX() { return prevX; }
+    public float getPrevY() { return prevY; }
+    public float getPrevZ() { return prevZ; }
+
+    // Transform blended between the previous and current tick
+    public float getInterpolatedX(float alpha) { return prevX + (x - prevX) * alpha; }
+    public float getInterpolatedY(float alpha) { return prevY + (y - prevY) * alpha; }
+    public float getInterpolatedZ(float alpha) { return prevZ + (z - prevZ) * alpha; }
+    public float getInterpolatedRotX(float alpha) { return prevRotX + (rotX - prevRotX) * alpha; }
+    public float getInterpolatedRotY(float alpha) { return prevRotY + (rotY - prevRotY) * alpha; }
+    public float getInterpolatedRotZ(float alpha) { return prevRotZ + (rotZ - prevRotZ) * alpha; }
 } 
\ No newline at end of file
@@ -4,6 +4,10 @@ public interface IGameLogic {
     void init(Window window);
     void input(Window window);
     void update(float interval);
-    void render(Window window);
+    /**
+     * @param alpha how far (0-1) rendering is between the last tick and the next,
+     *              for blending the previous and current tick states
+     */
+    void render(Window window, float alpha);
     void cleanup();
 } 
\ No newline at end of file
@@ -0,0 +1,129 @@
+package mystuff.engine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import jdk.jfr.Category;
+import jdk.jfr.Configuration;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Recording;
+
+/**
+ * Java Flight Recorder event types for the engine's subsystems, plus a helper for a
+ * continuous recording. Events are cheap when no recording is running, so they stay
+ * in the hot paths permanently; open the resulting .jfr in JDK Mission Control.
+ */
+public final class JfrEvents {
+    private JfrEvents() {
+    }
+
+    @Name("mystuff.Frame")
+    @Label("Frame")
+    @Category({"Engine", "Frame"})
+    @Description("One rendered frame, from input to buffer swap and deferred tasks")
+    public static class Frame extends Event {
+        @Label("Frame Number")
+        public long frame;
+        @Label("Interpolation Alpha")
+        public float alpha;
+    }
+
+    @Name("mystuff.Tick")
+    @Label("Simulation Tick")
+    @Category({"Engine", "Simulation"})
+    public static class Tick extends Event {
+        @Label("Tick Number")
+        public long tick;
+    }
+
+    @Name("mystuff.PhysicsTick")
+    @Label("Physics Tick")
+    @Category({"Engine", "Simulation"})
+    @Description("Player movement and collision for one tick")
+    public static class PhysicsTick extends Event {
+        @Label("No-Clip")
+        public boolean noClip;
+        @Label("Blocks Checked")
+        public int blocksChecked;
+        @Label("On Ground")
+        public boolean onGround;
+    }
+
+    @Name("mystuff.ChunkGeneration")
+    @Label("Chunk Generation")
+    @Category({"Engine", "World"})
+    public static class ChunkGeneration extends Event {
+        @Label("Chunk X")
+        public int chunkX;
+        @Label("Chunk Z")
+        public int chunkZ;
+        @Label("Blocks Placed")
+        public int blocks;
+    }
+
+    @Name("mystuff.ChunkMesh")
+    @Label("Chunk Mesh")
+    @Category({"Engine", "World"})
+    @Description("Compiling a chunk's visible faces into a display list")
+    public static class ChunkMesh extends Event {
+        @Label("Chunk X")
+        public int chunkX;
+        @Label("Chunk Y")
+        public int chunkY;
+        @Label("Chunk Z")
+        public int chunkZ;
+        @Label("Vertex Count")
+        public int vertexCount;
+    }
+
+    @Name("mystuff.GlUpload")
+    @Label("GL Upload")
+    @Category({"Engine", "Render"})
+    @Description("Data handed to the driver, e.g. a texture image")
+    public static class GlUpload extends Event {
+        @Label("Resource")
+        public String resource;
+        @Label("Size")
+        @DataAmount
+        public long bytes;
+    }
+
+    /**
+     * Starts a continuous recording with the JDK's default settings plus all engine
+     * events. Old data ages out, so it can run for the whole session; call
+     * stopRecording to write it out.
+     */
+    public static Recording startContinuousRecording(Duration maxAge) throws IOException {
+        Recording recording;
+        try {
+            recording = new Recording(Configuration.getConfiguration("default"));
+        } catch (ParseException e) {
+            throw new IOException("Bad JFR configuration", e);
+        }
+        recording.setName("mystuff");
+        recording.setToDisk(true);
+        recording.setMaxAge(maxAge);
+        recording.enable(Frame.class);
+        recording.enable(Tick.class);
+        recording.enable(PhysicsTick.class);
+        recording.enable(ChunkGeneration.class);
+        recording.enable(ChunkMesh.class);
+        recording.enable(GlUpload.class);
+        recording.start();
+        return recording;
+    }
+
+    /**
+     * Stops the recording and writes it to a file
+     */
+    public static void stopRecording(Recording recording, Path destination) throws IOException {
+        recording.stop();
+        recording.dump(destination);
+        recording.close();
+    }
+}
@@ -0,0 +1,244 @@
+package mystuff.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Engine-wide job system. One work-stealing pool, sized to the machine, that game logic,
+ * entity simulation, asset decoding and any other parallel work share, so subsystems do
+ * not each spin up their own executor and oversubscribe the cores.
+ *
+ * Jobs can depend on other jobs: a job only becomes runnable once every dependency has
+ * finished. Phases group the jobs of one frame stage so a thread can wait for all of
+ * them ("run all culling jobs before submit") or make later jobs depend on the stage.
+ */
+public class JobSystem {
+    private static JobSystem shared;
+
+    private final ForkJoinPool pool;
+
+    public JobSystem(int workers) {
+        this.pool = new ForkJoinPool(Math.max(1, workers));
+    }
+
+    /**
+     * Gets the engine-wide instance. Workers = cores - 1, leaving a core for the thread
+     * that submits work and waits on it.
+     */
+    public static synchronized JobSystem shared() {
+        if (shared == null) {
+            shared = new JobSystem(Runtime.getRuntime().availableProcessors() - 1);
+        }
+        return shared;
+    }
+
+    /**
+     * Shuts down the engine-wide instance, if one was created
+     */
+    public static synchronized void shutdownShared() {
+        if (shared != null) {
+            shared.shutdown();
+            shared = null;
+        }
+    }
+
+    /**
+     * The underlying pool, for fork/join style work (RecursiveAction etc.)
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    public int getWorkerCount() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Submits a job that runs once all of its dependencies have completed
+     */
+    public Job submit(String name, Runnable work, Job... dependencies) {
+        Job job = new Job(this, name, work, dependencies.length);
+        for (Job dependency : dependencies) {
+            dependency.addDependent(job);
+        }
+        job.release(); // Drop the setup guard; schedules immediately if nothing is pending
+        return job;
+    }
+
+    /**
+     * Starts a group of jobs for one frame stage
+     */
+    public Phase beginPhase(String name) {
+        return new Phase(this, name);
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * A unit of work with a dependency counter
+     */
+    public static class Job {
+        private final JobSystem system;
+        private final String name;
+        private final Runnable work;
+        // Unfinished dependencies, plus one guard held until submit() has wired them all up
+        private final AtomicInteger pending;
+        private final List<Job> dependents = new ArrayList<>(2);
+        private boolean done = false; // Guarded by this
+        private Throwable failure;
+
+        private Job(JobSystem system, String name, Runnable work, int dependencyCount) {
+            this.system = system;
+            this.name = name;
+            this.work = work;
+            this.pending = new AtomicInteger(dependencyCount + 1);
+        }
+
+        private void addDependent(Job dependent) {
+            synchronized (this) {
+                if (!done) {
+                    dependents.add(dependent);
+                    return;
+                }
+            }
+            // Already finished, so this dependency is satisfied
+            dependent.release();
+        }
+
+        private void release() {
+            if (pending.decrementAndGet() == 0) {
+                system.pool.execute(this::run);
+            }
+        }
+
+        private void run() {
+            Throwable error = null;
+            try {
+                work.run();
+            } catch (Throwable t) {
+                error = t;
+                System.err.println("Job '" + name + "' failed: " + t);
+            }
+
+            List<Job> toRelease;
+            synchronized (this) {
+                failure = error;
+                done = true;
+                toRelease = new ArrayList<>(dependents);
+                dependents.clear();
+                notifyAll();
+            }
+            // Dependents still run after a failure; they can check the dependency themselves
+            for (Job dependent : toRelease) {
+                dependent.release();
+            }
+        }
+
+        public synchronized boolean isDone() {
+            return done;
+        }
+
+        /**
+         * Waits for this job to finish. Pool workers that wait are compensated by the
+         * pool so waiting inside a job cannot starve it.
+         * @throws RuntimeException if the job threw
+         */
+        public void join() {
+            if (!isDone()) {
+                try {
+                    if (Thread.currentThread() instanceof ForkJoinWorkerThread) {
+                        ForkJoinPool.managedBlock(new ForkJoinPool.ManagedBlocker() {
+                            @Override
+                            public boolean block() throws InterruptedException {
+                                waitUntilDone();
+                                return true;
+                            }
+
+                            @Override
+                            public boolean isReleasable() {
+                                return isDone();
+                            }
+                        });
+                    } else {
+                        waitUntilDone();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted waiting for job '" + name + "'", e);
+                }
+            }
+
+            Throwable error;
+            synchronized (this) {
+                error = failure;
+            }
+            if (error != null) {
+                throw new RuntimeException("Job '" + name + "' failed", error);
+            }
+        }
+
+        private synchronized void waitUntilDone() throws InterruptedException {
+            while (!done) {
+                wait();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+
+    /**
+     * Jobs belonging to one frame stage. Submit the stage's jobs, then either await()
+     * them on the calling thread or pass seal() as a dependency of the next stage.
+     */
+    public static class Phase {
+        private final JobSystem system;
+        private final String name;
+        private final List<Job> jobs = new ArrayList<>();
+        private Job barrier;
+
+        private Phase(JobSystem system, String name) {
+            this.system = system;
+            this.name = name;
+        }
+
+        public Job submit(Runnable work, Job... dependencies) {
+            if (barrier != null) {
+                throw new IllegalStateException("Phase '" + name + "' is already sealed");
+            }
+            Job job = system.submit(name, work, dependencies);
+            jobs.add(job);
+            return job;
+        }
+
+        /**
+         * Closes the phase and returns a job that completes when all of its jobs have
+         */
+        public Job seal() {
+            if (barrier == null) {
+                barrier = system.submit(name + ".barrier", () -> { }, jobs.toArray(new Job[0]));
+            }
+            return barrier;
+        }
+
+        /**
+         * Closes the phase and blocks until all of its jobs have finished
+         */
+        public void await() {
+            seal();
+            for (Job job : jobs) {
+                job.join();
+            }
+        }
+
+        public int getJobCount() {
+            return jobs.size();
+        }
+    }
+}
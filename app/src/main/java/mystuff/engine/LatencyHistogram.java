@@ -0,0 +1,163 @@
+package mystuff.engine;
+
+import java.util.Arrays;
+
+/**
+ * Fixed-memory log-linear histogram of durations over a rolling window of samples.
+ * Values are bucketed by power of two, and each power of two is split into 32 linear
+ * sub-buckets, so any recorded value is reported within about 3% (HdrHistogram-style).
+ *
+ * Recording is O(1) and allocation-free: the oldest sample leaves the window as the new
+ * one enters. Percentile queries scan the fixed bucket array. One thread records;
+ * other threads may query and get a slightly stale but consistent-enough answer.
+ */
+public class LatencyHistogram {
+    private static final int SUB_BUCKET_BITS = 5;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_SHIFT = 40; // Values up to ~2^45 ns (about 10 hours) are kept apart
+    private static final int BUCKET_COUNT = (MAX_SHIFT + 2) * SUB_BUCKETS;
+
+    private final int[] counts = new int[BUCKET_COUNT];
+    private final long[] window;  // Raw samples in arrival order, for eviction
+    private int next = 0;
+    private int size = 0;
+    private long sum = 0;
+
+    private long budget = Long.MAX_VALUE;
+    private int overBudget = 0;   // Samples in the window above budget
+    private long totalOverBudget = 0;
+    private long totalCount = 0;
+
+    /**
+     * @param windowSize number of most recent samples the statistics cover
+     */
+    public LatencyHistogram(int windowSize) {
+        window = new long[windowSize];
+    }
+
+    /**
+     * Adds a duration in nanoseconds, evicting the oldest if the window is full
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        if (size == window.length) {
+            long old = window[next];
+            counts[bucketOf(old)]--;
+            sum -= old;
+            if (old > budget) overBudget--;
+        } else {
+            size++;
+        }
+        window[next] = nanos;
+        next = next + 1 == window.length ? 0 : next + 1;
+
+        counts[bucketOf(nanos)]++;
+        sum += nanos;
+        totalCount++;
+        if (nanos > budget) {
+            overBudget++;
+            totalOverBudget++;
+        }
+    }
+
+    /**
+     * Sets the duration above which a sample counts as over budget
+     */
+    public void setBudget(long budgetNanos) {
+        this.budget = budgetNanos > 0 ? budgetNanos : Long.MAX_VALUE;
+        overBudget = 0;
+        for (int i = 0, index = next - size; i < size; i++, index++) {
+            if (window[Math.floorMod(index, window.length)] > budget) overBudget++;
+        }
+    }
+
+    /**
+     * Value at the given percentile (0-100) of the window, in nanoseconds
+     */
+    public long getPercentile(double percentile) {
+        if (size == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * size));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return valueOf(i);
+            }
+        }
+        return getMax();
+    }
+
+    public long getMax() {
+        for (int i = BUCKET_COUNT - 1; i >= 0; i--) {
+            if (counts[i] > 0) return valueOf(i);
+        }
+        return 0;
+    }
+
+    public long getMin() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (counts[i] > 0) return valueOf(i);
+        }
+        return 0;
+    }
+
+    public double getMean() {
+        return size == 0 ? 0 : (double) sum / size;
+    }
+
+    public int getCount() {
+        return size;
+    }
+
+    /**
+     * Samples over budget in the current window
+     */
+    public int getOverBudgetCount() {
+        return overBudget;
+    }
+
+    /**
+     * Samples over budget since creation or the last reset
+     */
+    public long getTotalOverBudgetCount() {
+        return totalOverBudget;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public void reset() {
+        Arrays.fill(counts, 0);
+        next = 0;
+        size = 0;
+        sum = 0;
+        overBudget = 0;
+        totalOverBudget = 0;
+        totalCount = 0;
+    }
+
+    private static int bucketOf(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS; // >= 0 here
+        if (shift > MAX_SHIFT) {
+            return BUCKET_COUNT - 1;
+        }
+        int sub = (int) (value >>> shift) - SUB_BUCKETS; // Top bits below the leading one
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Representative (midpoint) value of a bucket
+     */
+    private static long valueOf(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int shift = bucket / SUB_BUCKETS - 1;
+        long low = (long) (bucket % SUB_BUCKETS + SUB_BUCKETS) << shift;
+        return low + ((1L << shift) >> 1);
+    }
+}
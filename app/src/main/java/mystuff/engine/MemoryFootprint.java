@@ -0,0 +1,125 @@
+package mystuff.engine;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bytes held per subsystem, so a high heap or VRAM figure can be traced to its owner.
+ * Subsystems report what they allocate and release under a category ("world.blocks",
+ * "mesh.gpu", "textures", ...), either as running deltas or as named items such as a
+ * texture path. Each category is published as a "memory.footprint.<category>" gauge.
+ *
+ * Java object sizes are estimates for a 64-bit JVM with compressed references; GPU sizes
+ * are the data handed to the driver, which may pad or keep its own copy.
+ */
+public final class MemoryFootprint {
+    private static final Map<String, Category> categories = new ConcurrentSkipListMap<>();
+    private static final AtomicLong total = new AtomicLong();
+
+    static {
+        Metrics.gauge("memory.footprint.total", total::get);
+    }
+
+    private MemoryFootprint() {
+    }
+
+    private static final class Category {
+        final AtomicLong bytes = new AtomicLong();
+        final Map<String, Long> items = new ConcurrentHashMap<>();
+    }
+
+    private static Category category(String name) {
+        return categories.computeIfAbsent(name, n -> {
+            Category category = new Category();
+            Metrics.gauge("memory.footprint." + n, category.bytes::get);
+            return category;
+        });
+    }
+
+    /**
+     * Adds (or with a negative value, releases) bytes in a category
+     */
+    public static void add(String category, long bytes) {
+        category(category).bytes.addAndGet(bytes);
+        total.addAndGet(bytes);
+    }
+
+    /**
+     * Records the size of a named item, replacing its previous size
+     */
+    public static void set(String category, String item, long bytes) {
+        Category c = category(category);
+        Long previous = c.items.put(item, bytes);
+        long delta = bytes - (previous != null ? previous : 0);
+        c.bytes.addAndGet(delta);
+        total.addAndGet(delta);
+    }
+
+    /**
+     * Forgets a named item
+     */
+    public static void remove(String category, String item) {
+        Category c = categories.get(category);
+        if (c == null) return;
+        Long previous = c.items.remove(item);
+        if (previous != null) {
+            c.bytes.addAndGet(-previous);
+            total.addAndGet(-previous);
+        }
+    }
+
+    public static long get(String category) {
+        Category c = categories.get(category);
+        return c != null ? c.bytes.get() : 0;
+    }
+
+    public static long getTotal() {
+        return total.get();
+    }
+
+    /**
+     * Named items in a category, e.g. texture bytes by path
+     */
+    public static Map<String, Long> getItems(String category) {
+        Category c = categories.get(category);
+        return c != null ? new TreeMap<>(c.items) : Collections.emptyMap();
+    }
+
+    /**
+     * Category names, sorted
+     */
+    public static List<String> getCategories() {
+        return new ArrayList<>(categories.keySet());
+    }
+
+    /**
+     * The category holding the most bytes, or null if nothing is tracked
+     */
+    public static String getLargestCategory() {
+        String largest = null;
+        long max = Long.MIN_VALUE;
+        for (Map.Entry<String, Category> e : categories.entrySet()) {
+            long bytes = e.getValue().bytes.get();
+            if (bytes > max) {
+                max = bytes;
+                largest = e.getKey();
+            }
+        }
+        return largest;
+    }
+
+    /**
+     * Compact size for the HUD: "812B", "41.3KB", "12.8MB"
+     */
+    public static String formatBytes(long bytes) {
+        if (bytes < 1024) return bytes + "B";
+        if (bytes < 1024 * 1024) return String.format("%.1fKB", bytes / 1024.0);
+        return String.format("%.1fMB", bytes / (1024.0 * 1024.0));
+    }
+}
@@ -0,0 +1,114 @@
+package mystuff.engine;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+/**
+ * Allocation and GC telemetry. Measures bytes allocated by the render thread per frame
+ * and by the simulation thread per tick (HotSpot's per-thread allocation counters), and
+ * listens for GC notifications to collect pause counts and durations.
+ */
+public class MemoryTelemetry {
+    private final com.sun.management.ThreadMXBean threadBean;
+
+    // Frame side, render thread only
+    private long frameStartBytes;
+    private volatile long lastFrameBytes;
+    private volatile long maxFrameBytes;   // Since the last resetPeak()
+
+    // Tick side, simulation thread only
+    private long tickStartBytes;
+    private volatile long lastTickBytes;
+    private volatile long maxTickBytes;
+
+    // GC pauses, written from the JMX notification thread
+    private final AtomicLong gcPauseCount = new AtomicLong();
+    private final AtomicLong gcPauseTotalMs = new AtomicLong();
+    private volatile long lastGcPauseMs;
+    private volatile long maxGcPauseMs;    // Since the last resetPeak()
+    private volatile String lastGcDescription = "none";
+
+    public MemoryTelemetry() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            threadBean = (com.sun.management.ThreadMXBean) bean;
+            threadBean.setThreadAllocatedMemoryEnabled(true);
+        } else {
+            threadBean = null;
+            System.out.println("Per-thread allocation counters not available on this JVM");
+        }
+        installGcListeners();
+    }
+
+    private void installGcListeners() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gc instanceof NotificationEmitter)) continue;
+            ((NotificationEmitter) gc).addNotificationListener((notification, handback) -> {
+                if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+                    return;
+                }
+                GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+                // Concurrent cycles run alongside the game; only count stop-the-world collections
+                if (info.getGcAction().contains("concurrent")) return;
+
+                long pauseMs = info.getGcInfo().getDuration();
+                gcPauseCount.incrementAndGet();
+                gcPauseTotalMs.addAndGet(pauseMs);
+                lastGcPauseMs = pauseMs;
+                if (pauseMs > maxGcPauseMs) maxGcPauseMs = pauseMs;
+                lastGcDescription = info.getGcName() + " (" + info.getGcCause() + ") " + pauseMs + "ms";
+            }, null, null);
+        }
+    }
+
+    private long currentThreadAllocated() {
+        return threadBean != null ? threadBean.getThreadAllocatedBytes(Thread.currentThread().getId()) : 0;
+    }
+
+    public void beginFrame() {
+        frameStartBytes = currentThreadAllocated();
+    }
+
+    public void endFrame() {
+        long bytes = currentThreadAllocated() - frameStartBytes;
+        lastFrameBytes = bytes;
+        if (bytes > maxFrameBytes) maxFrameBytes = bytes;
+    }
+
+    public void beginTick() {
+        tickStartBytes = currentThreadAllocated();
+    }
+
+    public void endTick() {
+        long bytes = currentThreadAllocated() - tickStartBytes;
+        lastTickBytes = bytes;
+        if (bytes > maxTickBytes) maxTickBytes = bytes;
+    }
+
+    /**
+     * Starts a new peak-tracking interval, e.g. after each performance report
+     */
+    public void resetPeak() {
+        maxFrameBytes = 0;
+        maxTickBytes = 0;
+        maxGcPauseMs = 0;
+    }
+
+    public boolean isAllocationTrackingSupported() { return threadBean != null; }
+    public long getLastFrameBytes() { return lastFrameBytes; }
+    public long getMaxFrameBytes() { return maxFrameBytes; }
+    public long getLastTickBytes() { return lastTickBytes; }
+    public long getMaxTickBytes() { return maxTickBytes; }
+    public long getGcPauseCount() { return gcPauseCount.get(); }
+    public long getGcPauseTotalMs() { return gcPauseTotalMs.get(); }
+    public long getLastGcPauseMs() { return lastGcPauseMs; }
+    public long getMaxGcPauseMs() { return maxGcPauseMs; }
+    public String getLastGcDescription() { return lastGcDescription; }
+}
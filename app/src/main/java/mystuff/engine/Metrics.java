@@ -0,0 +1,155 @@
+package mystuff.engine;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Process-wide metrics registry. Subsystems register counters, gauges and latency
+ * histograms by name (dotted, e.g. "world.chunks.loaded"); MetricsExporter samples
+ * them in the background and writes them to disk or serves them over HTTP.
+ *
+ * Counters are safe to bump from any thread. Gauges are read on the exporter thread,
+ * so their suppliers must tolerate that (reading a volatile or a plain int is fine).
+ */
+public final class Metrics {
+    public enum Type { COUNTER, GAUGE, HISTOGRAM }
+
+    // Percentiles exported for every histogram
+    static final double[] QUANTILES = {50, 90, 99, 99.9};
+
+    private static final Map<String, Metric> registry = new ConcurrentSkipListMap<>();
+
+    private Metrics() {
+    }
+
+    /**
+     * Gets or creates a counter
+     */
+    public static Counter counter(String name) {
+        Metric metric = registry.computeIfAbsent(name, n -> new Counter(n));
+        if (!(metric instanceof Counter)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as " + metric.getType());
+        }
+        return (Counter) metric;
+    }
+
+    /**
+     * Registers a gauge sampled on export, replacing any gauge of the same name
+     */
+    public static void gauge(String name, DoubleSupplier supplier) {
+        registry.put(name, new Gauge(name, supplier));
+    }
+
+    /**
+     * Registers a histogram owned elsewhere; the exporter reads its percentiles
+     */
+    public static void histogram(String name, LatencyHistogram histogram) {
+        registry.put(name, new Histogram(name, histogram));
+    }
+
+    public static void unregister(String name) {
+        registry.remove(name);
+    }
+
+    /**
+     * All registered metrics, sorted by name
+     */
+    static Iterable<Metric> all() {
+        return registry.values();
+    }
+
+    /**
+     * Base of all metric kinds
+     */
+    public abstract static class Metric {
+        private final String name;
+
+        Metric(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public abstract Type getType();
+    }
+
+    public static final class Counter extends Metric {
+        private final LongAdder value = new LongAdder();
+
+        Counter(String name) {
+            super(name);
+        }
+
+        public void increment() {
+            value.increment();
+        }
+
+        public void add(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+
+        @Override
+        public Type getType() {
+            return Type.COUNTER;
+        }
+    }
+
+    public static final class Gauge extends Metric {
+        private final DoubleSupplier supplier;
+
+        Gauge(String name, DoubleSupplier supplier) {
+            super(name);
+            this.supplier = supplier;
+        }
+
+        public double get() {
+            try {
+                return supplier.getAsDouble();
+            } catch (RuntimeException e) {
+                return Double.NaN; // A broken gauge shouldn't take the exporter down
+            }
+        }
+
+        @Override
+        public Type getType() {
+            return Type.GAUGE;
+        }
+    }
+
+    /**
+     * Durations in nanoseconds; exported in seconds
+     */
+    public static final class Histogram extends Metric {
+        private final LatencyHistogram histogram;
+
+        Histogram(String name, LatencyHistogram histogram) {
+            super(name);
+            this.histogram = histogram;
+        }
+
+        public double getQuantileSeconds(double percentile) {
+            return histogram.getPercentile(percentile) / 1e9;
+        }
+
+        public long getCount() {
+            return histogram.getTotalCount();
+        }
+
+        public double getMeanSeconds() {
+            return histogram.getMean() / 1e9;
+        }
+
+        @Override
+        public Type getType() {
+            return Type.HISTOGRAM;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package mystuff.engine;
+
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes the Metrics registry. A background thread appends a snapshot to a file at a
+ * fixed interval, as JSON lines or CSV depending on the file extension, and an optional
+ * localhost HTTP endpoint serves the current values in Prometheus text format.
+ */
+public class MetricsExporter {
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "MetricsExporter");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private BufferedWriter fileOut;
+    private boolean csv;
+    private List<String> csvColumns; // Fixed by the first snapshot; later metrics are left out of CSV
+    private HttpServer server;
+    private final long startTime = System.currentTimeMillis();
+
+    /**
+     * Starts appending snapshots to the file every interval
+     */
+    public void startFile(Path path, long intervalMillis) throws IOException {
+        csv = path.toString().toLowerCase(Locale.ROOT).endsWith(".csv");
+        fileOut = Files.newBufferedWriter(path, StandardCharsets.UTF_8);
+        scheduler.scheduleAtFixedRate(this::writeSnapshot, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        System.out.println("Writing metrics to " + path.toAbsolutePath() + " every " + intervalMillis + "ms");
+    }
+
+    /**
+     * Serves GET /metrics in Prometheus text format on localhost only
+     */
+    public void startHttp(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = prometheusText().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.setExecutor(scheduler); // Scrapes are rare; share the exporter thread
+        server.start();
+        System.out.println("Serving metrics on http://localhost:" + port + "/metrics");
+    }
+
+    public void stop() {
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (server != null) {
+            server.stop(0);
+            server = null;
+        }
+        if (fileOut != null) {
+            writeSnapshot(); // Final values
+            try {
+                fileOut.close();
+            } catch (IOException e) {
+                System.err.println("Failed to close metrics file: " + e.getMessage());
+            }
+            fileOut = null;
+        }
+    }
+
+    /**
+     * Flattens the registry to name -> value; histograms expand to quantiles, mean and count
+     */
+    static Map<String, Double> sample() {
+        Map<String, Double> values = new LinkedHashMap<>();
+        for (Metrics.Metric metric : Metrics.all()) {
+            switch (metric.getType()) {
+                case COUNTER:
+                    values.put(metric.getName(), (double) ((Metrics.Counter) metric).get());
+                    break;
+                case GAUGE:
+                    values.put(metric.getName(), ((Metrics.Gauge) metric).get());
+                    break;
+                case HISTOGRAM:
+                    Metrics.Histogram histogram = (Metrics.Histogram) metric;
+                    for (double q : Metrics.QUANTILES) {
+                        values.put(metric.getName() + ".p" + formatQuantile(q), histogram.getQuantileSeconds(q));
+                    }
+                    values.put(metric.getName() + ".mean", histogram.getMeanSeconds());
+                    values.put(metric.getName() + ".count", (double) histogram.getCount());
+                    break;
+            }
+        }
+        return values;
+    }
+
+    private synchronized void writeSnapshot() {
+        if (fileOut == null) return;
+        try {
+            Map<String, Double> values = sample();
+            long elapsed = System.currentTimeMillis() - startTime;
+            if (csv) {
+                if (csvColumns == null) {
+                    csvColumns = new ArrayList<>(values.keySet());
+                    fileOut.write("time_ms," + String.join(",", csvColumns));
+                    fileOut.newLine();
+                }
+                StringBuilder line = new StringBuilder().append(elapsed);
+                for (String column : csvColumns) {
+                    Double value = values.get(column);
+                    line.append(',').append(value != null ? formatValue(value) : "");
+                }
+                fileOut.write(line.toString());
+            } else {
+                StringBuilder line = new StringBuilder("{\"time_ms\":").append(elapsed);
+                for (Map.Entry<String, Double> entry : values.entrySet()) {
+                    double value = entry.getValue();
+                    line.append(",\"").append(entry.getKey()).append("\":")
+                        .append(Double.isFinite(value) ? formatValue(value) : "null");
+                }
+                fileOut.write(line.append('}').toString());
+            }
+            fileOut.newLine();
+            fileOut.flush();
+        } catch (IOException e) {
+            System.err.println("Failed to write metrics: " + e.getMessage());
+        }
+    }
+
+    private static String prometheusText() {
+        StringBuilder out = new StringBuilder();
+        for (Metrics.Metric metric : Metrics.all()) {
+            String name = "mystuff_" + metric.getName().replaceAll("[^a-zA-Z0-9_]", "_");
+            switch (metric.getType()) {
+                case COUNTER:
+                    out.append("# TYPE ").append(name).append(" counter\n");
+                    out.append(name).append(' ').append(((Metrics.Counter) metric).get()).append('\n');
+                    break;
+                case GAUGE:
+                    out.append("# TYPE ").append(name).append(" gauge\n");
+                    out.append(name).append(' ').append(formatValue(((Metrics.Gauge) metric).get())).append('\n');
+                    break;
+                case HISTOGRAM:
+                    Metrics.Histogram histogram = (Metrics.Histogram) metric;
+                    name += "_seconds";
+                    out.append("# TYPE ").append(name).append(" summary\n");
+                    for (double q : Metrics.QUANTILES) {
+                        out.append(name).append("{quantile=\"").append(quantileLabel(q)).append("\"} ")
+                           .append(formatValue(histogram.getQuantileSeconds(q))).append('\n');
+                    }
+                    out.append(name).append("_count ").append(histogram.getCount()).append('\n');
+                    break;
+            }
+        }
+        return out.toString();
+    }
+
+    private static String quantileLabel(double percentile) {
+        return new BigDecimal(Double.toString(percentile)).movePointLeft(2).stripTrailingZeros().toPlainString();
+    }
+
+    private static String formatQuantile(double q) {
+        return q == Math.floor(q) ? String.valueOf((int) q) : String.valueOf(q).replace(".", "");
+    }
+
+    private static String formatValue(double value) {
+        if (Double.isNaN(value)) return "NaN";
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) return String.valueOf((long) value);
+        return String.format(Locale.ROOT, "%.6g", value);
+    }
+}
@@ -0,0 +1,200 @@
+package mystuff.engine;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Hierarchical zone profiler. Wrap work in a zone:
+ *
+ *     try (Profiler.Zone z = Profiler.zone("chunk.mesh")) { ... }
+ *
+ * Each thread records begin/end timestamps into its own preallocated ring buffer, so
+ * recording never allocates, locks or contends; only the most recent events are kept.
+ * exportChromeTrace writes the captured events as Chrome trace JSON, which can be
+ * opened in chrome://tracing or Perfetto to see exactly what a slow frame spent time on.
+ */
+public final class Profiler {
+    private static final int RING_SIZE = 1 << 16; // Events kept per thread (begin and end count separately)
+    private static final int END_FLAG = 1 << 31;
+
+    private static volatile boolean enabled = true;
+    private static final long epoch = System.nanoTime();
+
+    // Zone names are interned to ids so the ring only stores ints
+    private static final Map<String, Integer> nameIds = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[64];
+    private static int nameCount = 0; // Guarded by nameIds
+
+    private static final List<ThreadBuffer> buffers = new CopyOnWriteArrayList<>();
+    private static final ThreadLocal<ThreadBuffer> localBuffer = ThreadLocal.withInitial(() -> {
+        ThreadBuffer buffer = new ThreadBuffer(Thread.currentThread());
+        buffers.add(buffer);
+        return buffer;
+    });
+
+    private static final Zone DISABLED = new Zone(null);
+
+    private Profiler() {
+    }
+
+    /**
+     * Opens a zone on the calling thread; close it (try-with-resources) to end it.
+     * The returned object is reused per thread, so don't hold on to it.
+     */
+    public static Zone zone(String name) {
+        if (!enabled) {
+            return DISABLED;
+        }
+        ThreadBuffer buffer = localBuffer.get();
+        buffer.record(idOf(name), System.nanoTime());
+        return buffer.zone;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        Profiler.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    private static int idOf(String name) {
+        Integer id = nameIds.get(name);
+        if (id != null) {
+            return id;
+        }
+        synchronized (nameIds) {
+            id = nameIds.get(name);
+            if (id == null) {
+                if (nameCount == names.length) {
+                    names = Arrays.copyOf(names, names.length * 2);
+                }
+                names[nameCount] = name;
+                id = nameCount++;
+                nameIds.put(name, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * Writes everything currently in the ring buffers as a Chrome trace. Safe to call
+     * from any thread while others keep recording.
+     * @return number of events written
+     */
+    public static int exportChromeTrace(Path path) throws IOException {
+        String[] nameTable = names;
+        int written = 0;
+        try (BufferedWriter out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            out.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[\n");
+            boolean first = true;
+            for (ThreadBuffer buffer : buffers) {
+                long tid = buffer.threadId;
+                out.write(first ? "" : ",\n");
+                first = false;
+                out.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,\"tid\":" + tid
+                    + ",\"args\":{\"name\":\"" + escape(buffer.threadName) + "\"}}");
+
+                int[] ids = new int[RING_SIZE];
+                long[] times = new long[RING_SIZE];
+                int count = buffer.copyRecent(ids, times);
+
+                // Pair begins with ends; ends whose begin fell out of the ring are skipped
+                ArrayDeque<Integer> open = new ArrayDeque<>();
+                for (int i = 0; i < count; i++) {
+                    boolean end = (ids[i] & END_FLAG) != 0;
+                    int id = ids[i] & ~END_FLAG;
+                    if (end) {
+                        if (open.isEmpty()) continue;
+                        id = open.pop();
+                    } else {
+                        open.push(id);
+                    }
+                    out.write(",\n{\"name\":\"" + escape(nameTable[id]) + "\",\"ph\":\"" + (end ? "E" : "B")
+                        + "\",\"ts\":" + String.format("%.3f", (times[i] - epoch) / 1000.0)
+                        + ",\"pid\":1,\"tid\":" + tid + "}");
+                    written++;
+                }
+            }
+            out.write("\n]}\n");
+        }
+        return written;
+    }
+
+    private static String escape(String s) {
+        return s.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+
+    /**
+     * Handle for an open zone
+     */
+    public static final class Zone implements AutoCloseable {
+        private final ThreadBuffer buffer;
+
+        private Zone(ThreadBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void close() {
+            if (buffer != null) {
+                buffer.record(END_FLAG, System.nanoTime());
+            }
+        }
+    }
+
+    /**
+     * One thread's events. Only the owning thread writes; the exporter reads.
+     */
+    private static final class ThreadBuffer {
+        private final int[] ids = new int[RING_SIZE];
+        private final long[] times = new long[RING_SIZE];
+        private volatile long count = 0; // Total events ever written, published after each write
+        private final long threadId;
+        private final String threadName;
+        private final Zone zone = new Zone(this);
+
+        ThreadBuffer(Thread thread) {
+            this.threadId = thread.getId();
+            this.threadName = thread.getName();
+        }
+
+        void record(int id, long time) {
+            long n = count;
+            int i = (int) (n & (RING_SIZE - 1));
+            ids[i] = id;
+            times[i] = time;
+            count = n + 1;
+        }
+
+        /**
+         * Copies the retained events, oldest first, dropping any overwritten mid-copy
+         */
+        int copyRecent(int[] idsOut, long[] timesOut) {
+            long end = count;
+            long start = Math.max(0, end - RING_SIZE);
+            for (long s = start; s < end; s++) {
+                int i = (int) (s & (RING_SIZE - 1));
+                idsOut[(int) (s - start)] = ids[i];
+                timesOut[(int) (s - start)] = times[i];
+            }
+            // The writer kept going while we copied; the oldest slots may be torn, including
+            // the one it may be in the middle of writing
+            long overwritten = Math.max(0, count - RING_SIZE + 1 - start);
+            int skip = (int) Math.min(overwritten, end - start);
+            int kept = (int) (end - start) - skip;
+            System.arraycopy(idsOut, skip, idsOut, 0, kept);
+            System.arraycopy(timesOut, skip, timesOut, 0, kept);
+            return kept;
+        }
+    }
+}
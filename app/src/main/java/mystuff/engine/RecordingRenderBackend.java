@@ -0,0 +1,423 @@
+package mystuff.engine;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Locale;
+import org.lwjgl.opengl.GL11;
+
+/**
+ * Render backend that needs no GL context. Every call is counted by opcode and, unless
+ * disabled, appended to a command stream (opcode plus its first integer argument, such
+ * as the texture id of a bind or the cap of an enable). Modelview and projection matrix
+ * stacks are emulated so culling code that reads them back with glGetFloatv works, and
+ * object names (textures, lists, buffers) are handed out sequentially.
+ *
+ * Opcode counts and the stream hold every call as issued. Draw calls are counted the
+ * way CountingRenderBackend does: a glEnd recorded into a display list is a compiled
+ * draw, and each glCallList adds the draws the list holds, so getDrawCalls() is what
+ * GL would have executed.
+ *
+ * Misuse that real GL would flag as an error (nested glBegin, matrix or attrib stack
+ * underflow/overflow) throws IllegalStateException, so CPU-side render tests fail loudly.
+ */
+public class RecordingRenderBackend implements RenderBackend {
+    public enum Op {
+        BEGIN, END, VERTEX2, VERTEX3, TEX_COORD, NORMAL, COLOR3, COLOR4,
+        GEN_LISTS, NEW_LIST, END_LIST, CALL_LIST, DELETE_LISTS, GEN_BUFFERS, DELETE_BUFFERS,
+        GEN_TEXTURES, BIND_TEXTURE, TEX_PARAMETER, TEX_IMAGE, DELETE_TEXTURES,
+        ENABLE, DISABLE, BLEND_FUNC, ALPHA_FUNC, DEPTH_MASK, POLYGON_MODE, PUSH_ATTRIB, POP_ATTRIB,
+        CLEAR, CLEAR_COLOR, MATRIX_MODE, PUSH_MATRIX, POP_MATRIX, LOAD_IDENTITY, LOAD_MATRIX,
+        TRANSLATE, ROTATE, ORTHO, GET_FLOAT, GET_STRING
+    }
+
+    private static final Op[] OPS = Op.values();
+    private static final int STACK_DEPTH = 32;     // GL guarantees at least 32 modelview entries
+    private static final int ATTRIB_STACK_DEPTH = 16;
+
+    // Command stream
+    private boolean recordCommands = true;
+    private int[] ops = new int[1024];
+    private int[] args = new int[1024];
+    private int commandCount = 0;
+    private final long[] opCounts = new long[OPS.length];
+    private long uploadBytes = 0;
+    private long drawCalls = 0;         // Executed glEnd, including those replayed from lists
+    private long compiledDrawCalls = 0; // glEnd recorded into display lists
+
+    // Emulated state
+    private final float[][] modelView = new float[STACK_DEPTH][16];
+    private final float[][] projection = new float[STACK_DEPTH][16];
+    private int modelViewTop = 0;
+    private int projectionTop = 0;
+    private boolean projectionMode = false;
+    private int attribDepth = 0;
+    private boolean inBegin = false;
+    private boolean compiling = false; // Between glNewList(GL_COMPILE) and glEndList
+    private int buildingList = -1;     // List between glNewList and glEndList, in either mode
+    private long[] listDraws = new long[64]; // Per list id: the draws one glCallList executes
+    private int nextName = 1;
+    private final float[] scratch = new float[16];
+    private final float[] product = new float[16];
+
+    public RecordingRenderBackend() {
+        reset();
+    }
+
+    /**
+     * Only count calls instead of keeping the stream, e.g. when benchmarking
+     */
+    public void setRecordCommands(boolean recordCommands) {
+        this.recordCommands = recordCommands;
+    }
+
+    /**
+     * Clears the stream, counts and emulated state
+     */
+    public void reset() {
+        commandCount = 0;
+        Arrays.fill(opCounts, 0);
+        uploadBytes = 0;
+        modelViewTop = 0;
+        projectionTop = 0;
+        projectionMode = false;
+        attribDepth = 0;
+        inBegin = false;
+        compiling = false;
+        buildingList = -1;
+        Arrays.fill(listDraws, 0);
+        drawCalls = 0;
+        compiledDrawCalls = 0;
+        setIdentity(modelView[0]);
+        setIdentity(projection[0]);
+    }
+
+    /**
+     * Clears the stream and counts but keeps matrices, object names and what the display
+     * lists hold, e.g. between frames
+     */
+    public void clearCommands() {
+        commandCount = 0;
+        Arrays.fill(opCounts, 0);
+        uploadBytes = 0;
+        drawCalls = 0;
+        compiledDrawCalls = 0;
+    }
+
+    public int getCommandCount() { return commandCount; }
+    public Op getOp(int index) { return OPS[ops[index]]; }
+    public int getArg(int index) { return args[index]; }
+    public long count(Op op) { return opCounts[op.ordinal()]; }
+    public long getDrawCalls() { return drawCalls; }
+    public long getCompiledDrawCalls() { return compiledDrawCalls; }
+    public long getUploadBytes() { return uploadBytes; }
+    public int getModelViewDepth() { return modelViewTop + 1; }
+    public int getAttribDepth() { return attribDepth; }
+
+    /**
+     * Number of recorded commands of a kind with the given first argument,
+     * e.g. binds of one texture
+     */
+    public int count(Op op, int arg) {
+        int found = 0;
+        for (int i = 0; i < commandCount; i++) {
+            if (ops[i] == op.ordinal() && args[i] == arg) found++;
+        }
+        return found;
+    }
+
+    /**
+     * Per-opcode counts, for logs and benchmark output
+     */
+    public String summary() {
+        StringBuilder out = new StringBuilder();
+        for (Op op : OPS) {
+            long n = opCounts[op.ordinal()];
+            if (n > 0) {
+                if (out.length() > 0) out.append(", ");
+                out.append(op.name().toLowerCase(Locale.ROOT)).append('=').append(n);
+            }
+        }
+        return out.toString();
+    }
+
+    private void record(Op op, int arg) {
+        opCounts[op.ordinal()]++;
+        if (!recordCommands) return;
+        if (commandCount == ops.length) {
+            ops = Arrays.copyOf(ops, commandCount * 2);
+            args = Arrays.copyOf(args, commandCount * 2);
+        }
+        ops[commandCount] = op.ordinal();
+        args[commandCount] = arg;
+        commandCount++;
+    }
+
+    // Immediate mode
+
+    @Override
+    public void glBegin(int mode) {
+        if (inBegin) throw new IllegalStateException("glBegin inside glBegin/glEnd");
+        inBegin = true;
+        record(Op.BEGIN, mode);
+    }
+
+    @Override
+    public void glEnd() {
+        if (!inBegin) throw new IllegalStateException("glEnd without glBegin");
+        inBegin = false;
+        if (buildingList != -1) {
+            listDraws[buildingList]++;
+            compiledDrawCalls++;
+        }
+        if (!compiling) drawCalls++;
+        record(Op.END, 0);
+    }
+
+    @Override public void glVertex2f(float x, float y) { record(Op.VERTEX2, 0); }
+    @Override public void glVertex3f(float x, float y, float z) { record(Op.VERTEX3, 0); }
+    @Override public void glTexCoord2f(float s, float t) { record(Op.TEX_COORD, 0); }
+    @Override public void glNormal3f(float nx, float ny, float nz) { record(Op.NORMAL, 0); }
+    @Override public void glColor3f(float red, float green, float blue) { record(Op.COLOR3, 0); }
+    @Override public void glColor4f(float red, float green, float blue, float alpha) { record(Op.COLOR4, 0); }
+
+    // Display lists and buffers
+
+    @Override
+    public int glGenLists(int range) {
+        int first = nextName;
+        nextName += Math.max(1, range);
+        record(Op.GEN_LISTS, first);
+        return first;
+    }
+
+    @Override
+    public void glNewList(int list, int mode) {
+        compiling = mode == GL11.GL_COMPILE;
+        if (list >= listDraws.length) {
+            listDraws = Arrays.copyOf(listDraws, Math.max(list + 1, listDraws.length * 2));
+        }
+        buildingList = list;
+        listDraws[list] = 0;
+        record(Op.NEW_LIST, list);
+    }
+
+    @Override
+    public void glEndList() {
+        compiling = false;
+        buildingList = -1;
+        record(Op.END_LIST, 0);
+    }
+
+    @Override
+    public void glCallList(int list) {
+        long draws = list >= 0 && list < listDraws.length ? listDraws[list] : 0;
+        if (buildingList != -1) {
+            // A nested call runs whatever that list holds each time this one is called
+            listDraws[buildingList] += draws;
+        }
+        if (!compiling) drawCalls += draws;
+        record(Op.CALL_LIST, list);
+    }
+
+    @Override
+    public void glDeleteLists(int list, int range) {
+        for (int i = Math.max(list, 0); i < Math.min(list + range, listDraws.length); i++) {
+            listDraws[i] = 0;
+        }
+        record(Op.DELETE_LISTS, list);
+    }
+
+    @Override
+    public int glGenBuffers() {
+        int name = nextName++;
+        record(Op.GEN_BUFFERS, name);
+        return name;
+    }
+
+    @Override public void glDeleteBuffers(int buffer) { record(Op.DELETE_BUFFERS, buffer); }
+
+    // Textures
+
+    @Override
+    public int glGenTextures() {
+        int name = nextName++;
+        record(Op.GEN_TEXTURES, name);
+        return name;
+    }
+
+    @Override public void glBindTexture(int target, int texture) { record(Op.BIND_TEXTURE, texture); }
+    @Override public void glTexParameteri(int target, int pname, int param) { record(Op.TEX_PARAMETER, pname); }
+
+    @Override
+    public void glTexImage2D(int target, int level, int internalFormat, int width, int height, int border,
+                             int format, int type, ByteBuffer pixels) {
+        if (pixels != null) uploadBytes += pixels.remaining();
+        record(Op.TEX_IMAGE, level);
+    }
+
+    @Override public void glDeleteTextures(int texture) { record(Op.DELETE_TEXTURES, texture); }
+
+    // State
+
+    @Override public void glEnable(int cap) { record(Op.ENABLE, cap); }
+    @Override public void glDisable(int cap) { record(Op.DISABLE, cap); }
+    @Override public void glBlendFunc(int sfactor, int dfactor) { record(Op.BLEND_FUNC, sfactor); }
+    @Override public void glAlphaFunc(int func, float ref) { record(Op.ALPHA_FUNC, func); }
+    @Override public void glDepthMask(boolean flag) { record(Op.DEPTH_MASK, flag ? 1 : 0); }
+    @Override public void glPolygonMode(int face, int mode) { record(Op.POLYGON_MODE, mode); }
+
+    @Override
+    public void glPushAttrib(int mask) {
+        if (!compiling) {
+            if (attribDepth == ATTRIB_STACK_DEPTH) throw new IllegalStateException("Attrib stack overflow");
+            attribDepth++;
+        }
+        record(Op.PUSH_ATTRIB, mask);
+    }
+
+    @Override
+    public void glPopAttrib() {
+        if (!compiling) {
+            if (attribDepth == 0) throw new IllegalStateException("Attrib stack underflow");
+            attribDepth--;
+        }
+        record(Op.POP_ATTRIB, 0);
+    }
+
+    @Override public void glClear(int mask) { record(Op.CLEAR, mask); }
+    @Override public void glClearColor(float red, float green, float blue, float alpha) { record(Op.CLEAR_COLOR, 0); }
+
+    // Matrices; commands compiled into a display list don't execute
+
+    @Override
+    public void glMatrixMode(int mode) {
+        projectionMode = mode == GL11.GL_PROJECTION;
+        record(Op.MATRIX_MODE, mode);
+    }
+
+    @Override
+    public void glPushMatrix() {
+        if (!compiling) {
+            float[][] stack = projectionMode ? projection : modelView;
+            int top = projectionMode ? projectionTop : modelViewTop;
+            if (top + 1 == STACK_DEPTH) throw new IllegalStateException("Matrix stack overflow");
+            System.arraycopy(stack[top], 0, stack[top + 1], 0, 16);
+            if (projectionMode) projectionTop++; else modelViewTop++;
+        }
+        record(Op.PUSH_MATRIX, 0);
+    }
+
+    @Override
+    public void glPopMatrix() {
+        if (!compiling) {
+            int top = projectionMode ? projectionTop : modelViewTop;
+            if (top == 0) throw new IllegalStateException("Matrix stack underflow");
+            if (projectionMode) projectionTop--; else modelViewTop--;
+        }
+        record(Op.POP_MATRIX, 0);
+    }
+
+    @Override
+    public void glLoadIdentity() {
+        if (!compiling) setIdentity(current());
+        record(Op.LOAD_IDENTITY, 0);
+    }
+
+    @Override
+    public void glLoadMatrixf(float[] m) {
+        if (!compiling) System.arraycopy(m, 0, current(), 0, 16);
+        record(Op.LOAD_MATRIX, 0);
+    }
+
+    @Override
+    public void glTranslatef(float x, float y, float z) {
+        if (!compiling) {
+            setIdentity(scratch);
+            scratch[12] = x;
+            scratch[13] = y;
+            scratch[14] = z;
+            multiplyCurrent(scratch);
+        }
+        record(Op.TRANSLATE, 0);
+    }
+
+    @Override
+    public void glRotatef(float angle, float x, float y, float z) {
+        if (!compiling) {
+            float length = (float) Math.sqrt(x*x + y*y + z*z);
+            if (length > 0) {
+                x /= length;
+                y /= length;
+                z /= length;
+                float c = (float) Math.cos(Math.toRadians(angle));
+                float s = (float) Math.sin(Math.toRadians(angle));
+                float t = 1 - c;
+                setIdentity(scratch);
+                scratch[0] = x*x*t + c;   scratch[4] = x*y*t - z*s; scratch[8] = x*z*t + y*s;
+                scratch[1] = y*x*t + z*s; scratch[5] = y*y*t + c;   scratch[9] = y*z*t - x*s;
+                scratch[2] = x*z*t - y*s; scratch[6] = y*z*t + x*s; scratch[10] = z*z*t + c;
+                multiplyCurrent(scratch);
+            }
+        }
+        record(Op.ROTATE, 0);
+    }
+
+    @Override
+    public void glOrtho(double left, double right, double bottom, double top, double zNear, double zFar) {
+        if (!compiling) {
+            setIdentity(scratch);
+            scratch[0] = (float) (2 / (right - left));
+            scratch[5] = (float) (2 / (top - bottom));
+            scratch[10] = (float) (-2 / (zFar - zNear));
+            scratch[12] = (float) (-(right + left) / (right - left));
+            scratch[13] = (float) (-(top + bottom) / (top - bottom));
+            scratch[14] = (float) (-(zFar + zNear) / (zFar - zNear));
+            multiplyCurrent(scratch);
+        }
+        record(Op.ORTHO, 0);
+    }
+
+    // Queries
+
+    @Override
+    public void glGetFloatv(int pname, float[] params) {
+        if (pname == GL11.GL_MODELVIEW_MATRIX) {
+            System.arraycopy(modelView[modelViewTop], 0, params, 0, 16);
+        } else if (pname == GL11.GL_PROJECTION_MATRIX) {
+            System.arraycopy(projection[projectionTop], 0, params, 0, 16);
+        } else {
+            Arrays.fill(params, 0);
+        }
+        record(Op.GET_FLOAT, pname);
+    }
+
+    @Override
+    public String glGetString(int name) {
+        record(Op.GET_STRING, name);
+        return "RecordingRenderBackend";
+    }
+
+    private float[] current() {
+        return projectionMode ? projection[projectionTop] : modelView[modelViewTop];
+    }
+
+    // current = current * m, column-major like GL
+    private void multiplyCurrent(float[] m) {
+        float[] a = current();
+        for (int col = 0; col < 4; col++) {
+            for (int row = 0; row < 4; row++) {
+                float sum = 0;
+                for (int k = 0; k < 4; k++) {
+                    sum += a[k*4 + row] * m[col*4 + k];
+                }
+                product[col*4 + row] = sum;
+            }
+        }
+        System.arraycopy(product, 0, a, 0, 16);
+    }
+
+    private static void setIdentity(float[] m) {
+        Arrays.fill(m, 0);
+        m[0] = m[5] = m[10] = m[15] = 1;
+    }
+}
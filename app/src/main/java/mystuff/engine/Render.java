@@ -0,0 +1,59 @@
+package mystuff.engine;
+
+/**
+ * Holds the render backend all GL calls go through. Defaults to plain OpenGL; call
+ * enableCounting() before rendering starts to count calls per frame for the HUD and
+ * metrics. Only the render thread may use the backend.
+ */
+public final class Render {
+    private static RenderBackend backend = new GLRenderBackend();
+    private static CountingRenderBackend counters; // Null unless counting is enabled
+
+    private Render() {
+    }
+
+    /**
+     * The active backend
+     */
+    public static RenderBackend gl() {
+        return backend;
+    }
+
+    /**
+     * Replaces the backend (e.g. with a recording one). Set before rendering starts.
+     */
+    public static void setBackend(RenderBackend newBackend) {
+        backend = newBackend;
+        counters = newBackend instanceof CountingRenderBackend ? (CountingRenderBackend) newBackend : null;
+    }
+
+    /**
+     * Wraps the current backend in a counting decorator and publishes its counts as metrics
+     */
+    public static CountingRenderBackend enableCounting() {
+        if (counters == null) {
+            setBackend(new CountingRenderBackend(backend));
+            CountingRenderBackend published = counters;
+            for (CountingRenderBackend.Stat stat : CountingRenderBackend.Stat.values()) {
+                Metrics.gauge(stat.metricName(), () -> published.getLastFrame(stat));
+            }
+        }
+        return counters;
+    }
+
+    /**
+     * Call counts, or null when counting is off
+     */
+    public static CountingRenderBackend getCounters() {
+        return counters;
+    }
+
+    /**
+     * Marks the end of a frame for the counters
+     */
+    public static void endFrame() {
+        if (counters != null) {
+            counters.endFrame();
+        }
+    }
+}
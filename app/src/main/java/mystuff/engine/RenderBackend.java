@@ -0,0 +1,63 @@
+package mystuff.engine;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The fixed-function GL calls the game uses, behind an interface so they can be counted,
+ * recorded or stubbed out. Methods keep their GL names and arguments; GL11 constants are
+ * still used directly. Get the active backend from Render.gl().
+ */
+public interface RenderBackend {
+    // Immediate mode
+    void glBegin(int mode);
+    void glEnd();
+    void glVertex2f(float x, float y);
+    void glVertex3f(float x, float y, float z);
+    void glTexCoord2f(float s, float t);
+    void glNormal3f(float nx, float ny, float nz);
+    void glColor3f(float red, float green, float blue);
+    void glColor4f(float red, float green, float blue, float alpha);
+
+    // Display lists and buffers
+    int glGenLists(int range);
+    void glNewList(int list, int mode);
+    void glEndList();
+    void glCallList(int list);
+    void glDeleteLists(int list, int range);
+    int glGenBuffers();
+    void glDeleteBuffers(int buffer);
+
+    // Textures
+    int glGenTextures();
+    void glBindTexture(int target, int texture);
+    void glTexParameteri(int target, int pname, int param);
+    void glTexImage2D(int target, int level, int internalFormat, int width, int height, int border,
+                      int format, int type, ByteBuffer pixels);
+    void glDeleteTextures(int texture);
+
+    // State
+    void glEnable(int cap);
+    void glDisable(int cap);
+    void glBlendFunc(int sfactor, int dfactor);
+    void glAlphaFunc(int func, float ref);
+    void glDepthMask(boolean flag);
+    void glPolygonMode(int face, int mode);
+    void glPushAttrib(int mask);
+    void glPopAttrib();
+    void glClear(int mask);
+    void glClearColor(float red, float green, float blue, float alpha);
+
+    // Matrices
+    void glMatrixMode(int mode);
+    void glPushMatrix();
+    void glPopMatrix();
+    void glLoadIdentity();
+    void glLoadMatrixf(float[] m);
+    void glTranslatef(float x, float y, float z);
+    void glRotatef(float angle, float x, float y, float z);
+    void glOrtho(double left, double right, double bottom, double top, double zNear, double zFar);
+
+    // Queries
+    void glGetFloatv(int pname, float[] params);
+    String glGetString(int name);
+}
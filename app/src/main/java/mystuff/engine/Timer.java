@@ -19,18 +19,21 @@ public class Timer {
     private static final float NANO_TO_MS = 1.0f / 1_000_000.0f;
     private static final float NANO_TO_SEC = 1.0f / 1_000_000_000.0f;
     
-    // Frame time statistics with circular buffer
+    // Recent frame times for graphs
     private float[] frameTimeHistory;
     private int frameTimeIndex;
-    private int frameTimeCount;
     private static final int FRAME_TIME_SAMPLES = 240;
-    private float averageFrameTime;
-    private float maxFrameTime;
-    private float minFrameTime = Float.MAX_VALUE;
     
-    // Performance tracking
-    private long frameStartTime;
-    private long updateTimeNano;
+    // Rolling distributions for percentiles; large enough windows for a meaningful p99.9
+    private static final int FRAME_WINDOW = 4096;
+    private static final int TICK_WINDOW = 2048;
+    private final LatencyHistogram frameTimes = new LatencyHistogram(FRAME_WINDOW);
+    private final LatencyHistogram tickTimes = new LatencyHistogram(TICK_WINDOW); // Written by the simulation thread
+    
+    // Performance tracking; each phase is timed from its own start
+    private long updateStartTime;
+    private long renderStartTime;
+    private volatile long updateTimeNano; // May be written by the simulation thread
     private long renderTimeNano;
     private long sleepTimeNano;
 
@@ -39,7 +42,8 @@ public class Timer {
      */
     public void init() {
         lastLoopTime = System.nanoTime();
-        frameStartTime = lastLoopTime;
+        updateStartTime = lastLoopTime;
+        renderStartTime = lastLoopTime;
         timeCount = 0;
         fps = 0;
         fpsCount = 0;
@@ -47,10 +51,8 @@ public class Timer {
         // Initialize frame time tracking
         frameTimeHistory = new float[FRAME_TIME_SAMPLES];
         frameTimeIndex = 0;
-        frameTimeCount = 0;
-        averageFrameTime = 0;
-        maxFrameTime = 0;
-        minFrameTime = Float.MAX_VALUE;
+        frameTimes.reset();
+        tickTimes.reset();
         
         updateTimeNano = 0;
         renderTimeNano = 0;
@@ -58,24 +60,60 @@ public class Timer {
     }
 
     /**
-     * Starts timing a new frame
+     * Marks the start of this frame's update phase
      */
-    public void startFrame() {
-        frameStartTime = System.nanoTime();
+    public void startUpdate() {
+        updateStartTime = System.nanoTime();
     }
     
     /**
-     * Records the time spent in update logic
+     * Records the time spent in update logic since startUpdate()
      */
     public void recordUpdateTime() {
-        updateTimeNano = System.nanoTime() - frameStartTime;
+        updateTimeNano = System.nanoTime() - updateStartTime;
+    }
+    
+    /**
+     * Records update time measured elsewhere, e.g. on the simulation thread
+     */
+    public void recordUpdateTime(long updateTimeNs) {
+        updateTimeNano = updateTimeNs;
+    }
+    
+    /**
+     * Marks the start of this frame's render phase
+     */
+    public void startRender() {
+        renderStartTime = System.nanoTime();
+    }
+    
+    /**
+     * Adds the duration of one simulation tick to the tick time distribution
+     */
+    public void recordTickTime(long tickTimeNs) {
+        tickTimes.record(tickTimeNs);
+    }
+    
+    /**
+     * Sets the frame and tick durations that count as over budget
+     */
+    public void setBudgets(long frameBudgetNs, long tickBudgetNs) {
+        frameTimes.setBudget(frameBudgetNs);
+        tickTimes.setBudget(tickBudgetNs);
     }
     
     /**
-     * Records the time spent in render logic
+     * Records the time spent in render logic since startRender()
      */
     public void recordRenderTime() {
-        renderTimeNano = System.nanoTime() - frameStartTime - updateTimeNano;
+        renderTimeNano = System.nanoTime() - renderStartTime;
+    }
+    
+    /**
+     * Records render time measured elsewhere, when update runs on another thread
+     */
+    public void recordRenderTime(long renderTimeNs) {
+        renderTimeNano = renderTimeNs;
     }
     
     /**
@@ -94,7 +132,9 @@ public class Timer {
         float elapsedTime = (currentTime - lastLoopTime) * NANO_TO_MS;
         
         // Store raw frame time in history and update stats
-        updateFrameTimeStats(elapsedTime);
+        frameTimes.record(currentTime - lastLoopTime);
+        frameTimeHistory[frameTimeIndex] = elapsedTime;
+        frameTimeIndex = (frameTimeIndex + 1) % FRAME_TIME_SAMPLES;
         
         // Update loop time for next frame
         lastLoopTime = currentTime;
@@ -112,43 +152,21 @@ public class Timer {
         return (float)(elapsedTime * timeScale);
     }
     
-    /**
-     * Updates frame time statistics efficiently
-     */
-    private void updateFrameTimeStats(float frameTime) {
-        // Update frame time history
-        frameTimeHistory[frameTimeIndex] = frameTime;
-        frameTimeIndex = (frameTimeIndex + 1) % FRAME_TIME_SAMPLES;
-        
-        if (frameTimeCount < FRAME_TIME_SAMPLES) {
-            frameTimeCount++;
-        }
-        
-        // Recalculate stats only when we have enough samples
-        if (frameTimeCount >= 10) {
-            // Calculate average more efficiently
-            float sum = 0;
-            maxFrameTime = 0;
-            minFrameTime = Float.MAX_VALUE;
-            
-            for (int i = 0; i < frameTimeCount; i++) {
-                float time = frameTimeHistory[i];
-                sum += time;
-                if (time > maxFrameTime) maxFrameTime = time;
-                if (time < minFrameTime) minFrameTime = time;
-            }
-            
-            averageFrameTime = sum / frameTimeCount;
-        }
-    }
-    
     // Getters
     public long getLastLoopTimeNanos() { return lastLoopTime; }
     public float getLastLoopTimeMillis() { return lastLoopTime * NANO_TO_MS; }
     public int getFPS() { return fps; }
-    public float getAverageFrameTime() { return averageFrameTime; }
-    public float getMaxFrameTime() { return maxFrameTime; }
-    public float getMinFrameTime() { return minFrameTime; }
+    public float getAverageFrameTime() { return (float) frameTimes.getMean() * NANO_TO_MS; }
+    public float getMaxFrameTime() { return frameTimes.getMax() * NANO_TO_MS; }
+    public float getMinFrameTime() { return frameTimes.getMin() * NANO_TO_MS; }
+    
+    // Tail latency over the rolling windows, in milliseconds
+    public float getFrameTimePercentile(double percentile) { return frameTimes.getPercentile(percentile) * NANO_TO_MS; }
+    public float getTickTimePercentile(double percentile) { return tickTimes.getPercentile(percentile) * NANO_TO_MS; }
+    public int getFramesOverBudget() { return frameTimes.getOverBudgetCount(); }
+    public int getTicksOverBudget() { return tickTimes.getOverBudgetCount(); }
+    public LatencyHistogram getFrameTimes() { return frameTimes; }
+    public LatencyHistogram getTickTimes() { return tickTimes; }
     public float[] getFrameTimeHistory() { return frameTimeHistory; }
     public int getCurrentFrameTimeIndex() { return frameTimeIndex > 0 ? frameTimeIndex - 1 : FRAME_TIME_SAMPLES - 1; }
     
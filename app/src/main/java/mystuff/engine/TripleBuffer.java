@@ -0,0 +1,60 @@
+package mystuff.engine;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Lock-free triple buffer for handing state from one writer thread to one reader thread.
+ * The writer fills its private slot and publishes it; the reader always picks up the most
+ * recently published slot. Neither side ever waits, and a published slot is never touched
+ * by the writer again until the reader has moved on, so readers can treat it as immutable.
+ */
+public class TripleBuffer<T> {
+    private static final int INDEX_MASK = 0b011;
+    private static final int FRESH = 0b100; // Set when the middle slot holds an unread publish
+
+    private final T[] slots;
+    private final AtomicInteger middle; // Index of the shared slot, plus the FRESH flag
+    private int writeIndex = 0;         // Only touched by the writer
+    private int readIndex = 1;          // Only touched by the reader
+
+    @SuppressWarnings("unchecked")
+    public TripleBuffer(Supplier<T> factory) {
+        slots = (T[]) new Object[3];
+        for (int i = 0; i < slots.length; i++) {
+            slots[i] = factory.get();
+        }
+        middle = new AtomicInteger(2);
+    }
+
+    /**
+     * Gets the slot the writer may fill. Valid until the next publish().
+     */
+    public T getWriteSlot() {
+        return slots[writeIndex];
+    }
+
+    /**
+     * Publishes the write slot and takes over a free one
+     */
+    public void publish() {
+        writeIndex = middle.getAndSet(writeIndex | FRESH) & INDEX_MASK;
+    }
+
+    /**
+     * Gets the most recently published slot. Valid until the next acquireLatest().
+     */
+    public T acquireLatest() {
+        if ((middle.get() & FRESH) != 0) {
+            readIndex = middle.getAndSet(readIndex) & INDEX_MASK;
+        }
+        return slots[readIndex];
+    }
+
+    /**
+     * Returns true if something was published since the last acquireLatest()
+     */
+    public boolean hasFresh() {
+        return (middle.get() & FRESH) != 0;
+    }
+}
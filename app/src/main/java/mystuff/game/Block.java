@@ -1,6 +1,7 @@
 package mystuff.game;
 
 import mystuff.engine.GameObject;
+import mystuff.engine.Render;
 import mystuff.engine.Window;
 import mystuff.utils.Shapes;
 import mystuff.utils.TextureLoader;
@@ -11,9 +12,12 @@ public class Block {
     private float x, y, z;
     private BlockType type;
     private BoundingBox boundingBox;
-    private static int dirtTexture = -1;
-    private static int stoneTexture = -1;
-    private static int grassTexture = -1;
+    static final String DIRT_TEXTURE_PATH = "resources/textures/dirt.png";
+    static final String STONE_TEXTURE_PATH = "resources/textures/stone.png";
+    static final String GRASS_TEXTURE_PATH = "resources/textures/grass.png";
+    private static TextureLoader.Texture dirtTexture;
+    private static TextureLoader.Texture stoneTexture;
+    private static TextureLoader.Texture grassTexture;
     private static boolean texturesInitialized = false;
 
     public enum Face {
@@ -32,55 +36,31 @@ public class Block {
             x - halfSize, y - halfSize, z - halfSize,
             x + halfSize, y + halfSize, z + halfSize
         );
-
-        // Load textures only once
-        initializeTextures();
     }
 
-    private static synchronized void initializeTextures() {
+    /**
+     * Loads the block textures, waiting for their uploads (and whatever else the asset
+     * loader has queued). Needs a GL context, and must not run while a display list is
+     * being compiled: the uploads would be recorded into the list instead of executed.
+     */
+    static synchronized void initializeTextures() {
         if (!texturesInitialized) {
             System.out.println("Loading block textures...");
             try {
-                // Load dirt texture
-                dirtTexture = TextureLoader.loadTexture("resources/textures/dirt.png");
-                if (dirtTexture != -1) {
-                    GL11.glBindTexture(GL11.GL_TEXTURE_2D, dirtTexture);
-                    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
-                    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
-                    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL11.GL_REPEAT);
-                    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL11.GL_REPEAT);
-                    System.out.println("Successfully loaded dirt texture with ID: " + dirtTexture);
-                }
-
-                // Load stone texture
-                stoneTexture = TextureLoader.loadTexture("resources/textures/stone.png");
-                if (stoneTexture != -1) {
-                    GL11.glBindTexture(GL11.GL_TEXTURE_2D, stoneTexture);
-                    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
-                    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
-                    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL11.GL_REPEAT);
-                    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL11.GL_REPEAT);
-                    System.out.println("Successfully loaded stone texture with ID: " + stoneTexture);
-                }
-
-                // Load grass texture
-                grassTexture = TextureLoader.loadTexture("resources/textures/grass.png");
-                if (grassTexture != -1) {
-                    GL11.glBindTexture(GL11.GL_TEXTURE_2D, grassTexture);
-                    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
-                    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
-                    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL11.GL_REPEAT);
-                    GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL11.GL_REPEAT);
-                    System.out.println("Successfully loaded grass texture with ID: " + grassTexture);
-                }
+                // Block textures use the loader's defaults: mipmapped, nearest, repeating.
+                // Chunk display lists bake the ids in, and holding a reference keeps them
+                // from being evicted and reloaded under a new id
+                dirtTexture = acquireTexture(DIRT_TEXTURE_PATH, "dirt");
+                stoneTexture = acquireTexture(STONE_TEXTURE_PATH, "stone");
+                grassTexture = acquireTexture(GRASS_TEXTURE_PATH, "grass");
 
                 // Unbind texture
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+                Render.gl().glBindTexture(GL11.GL_TEXTURE_2D, 0);
                 
                 texturesInitialized = true;
                 
                 // Check if any textures failed to load
-                if (dirtTexture == -1 || stoneTexture == -1 || grassTexture == -1) {
+                if (!dirtTexture.isLoaded() || !stoneTexture.isLoaded() || !grassTexture.isLoaded()) {
                     System.err.println("Warning: Some textures failed to load. Using fallback colors.");
                 }
             } catch (Exception e) {
@@ -90,43 +70,64 @@ public class Block {
         }
     }
 
+    private static TextureLoader.Texture acquireTexture(String path, String name) {
+        TextureLoader.Texture texture = TextureLoader.acquire(path).await();
+        if (texture.isLoaded()) {
+            System.out.println("Successfully loaded " + name + " texture with ID: " + texture.getId());
+        }
+        return texture;
+    }
+
     public void renderFace(Face face) {
+        renderFace(type, face);
+    }
+
+    /**
+     * Draws one face of a block of the given type, centered on the origin. Only needs the
+     * type, so chunk meshes can be built from a snapshot of block types.
+     */
+    public static void renderFace(BlockType type, Face face) {
         if (type == BlockType.AIR) return;
 
+        // Immediate-mode callers may get here first; display list builders load the
+        // textures before glNewList
+        if (!texturesInitialized) {
+            initializeTextures();
+        }
+
         // Enable texturing
-        GL11.glEnable(GL11.GL_TEXTURE_2D);
+        Render.gl().glEnable(GL11.GL_TEXTURE_2D);
 
         // Bind appropriate texture based on block type
-        int textureID = -1;
+        TextureLoader.Texture texture = null;
         switch (type) {
             case STONE:
-                textureID = stoneTexture;
+                texture = stoneTexture;
                 break;
             case DIRT:
-                textureID = dirtTexture;
+                texture = dirtTexture;
                 break;
             case GRASS:
-                textureID = grassTexture;
+                texture = grassTexture;
                 break;
         }
 
-        if (textureID != -1) {
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureID);
+        if (texture != null && texture.bind()) {
             // Reset color to white for proper texture rendering
-            GL11.glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
+            Render.gl().glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
         } else {
             // Disable texturing if no texture is available
-            GL11.glDisable(GL11.GL_TEXTURE_2D);
+            Render.gl().glDisable(GL11.GL_TEXTURE_2D);
             // Fallback colors if texture loading failed
             switch (type) {
                 case STONE:
-                    GL11.glColor3f(0.5f, 0.5f, 0.5f); // Gray
+                    Render.gl().glColor3f(0.5f, 0.5f, 0.5f); // Gray
                     break;
                 case DIRT:
-                    GL11.glColor3f(0.6f, 0.4f, 0.2f); // Brown
+                    Render.gl().glColor3f(0.6f, 0.4f, 0.2f); // Brown
                     break;
                 case GRASS:
-                    GL11.glColor3f(0.0f, 0.8f, 0.0f); // Green
+                    Render.gl().glColor3f(0.0f, 0.8f, 0.0f); // Green
                     break;
             }
         }
@@ -135,81 +136,81 @@ public class Block {
 
         switch (face) {
             case FRONT: // Front face (positive Z)
-                GL11.glBegin(GL11.GL_QUADS);
-                GL11.glTexCoord2f(0, 0);
-                GL11.glVertex3f(-size, -size, size);
-                GL11.glTexCoord2f(1, 0);
-                GL11.glVertex3f(size, -size, size);
-                GL11.glTexCoord2f(1, 1);
-                GL11.glVertex3f(size, size, size);
-                GL11.glTexCoord2f(0, 1);
-                GL11.glVertex3f(-size, size, size);
-                GL11.glEnd();
+                Render.gl().glBegin(GL11.GL_QUADS);
+                Render.gl().glTexCoord2f(0, 0);
+                Render.gl().glVertex3f(-size, -size, size);
+                Render.gl().glTexCoord2f(1, 0);
+                Render.gl().glVertex3f(size, -size, size);
+                Render.gl().glTexCoord2f(1, 1);
+                Render.gl().glVertex3f(size, size, size);
+                Render.gl().glTexCoord2f(0, 1);
+                Render.gl().glVertex3f(-size, size, size);
+                Render.gl().glEnd();
                 break;
 
             case BACK: // Back face (negative Z)
-                GL11.glBegin(GL11.GL_QUADS);
-                GL11.glTexCoord2f(1, 0);
-                GL11.glVertex3f(-size, -size, -size);
-                GL11.glTexCoord2f(1, 1);
-                GL11.glVertex3f(-size, size, -size);
-                GL11.glTexCoord2f(0, 1);
-                GL11.glVertex3f(size, size, -size);
-                GL11.glTexCoord2f(0, 0);
-                GL11.glVertex3f(size, -size, -size);
-                GL11.glEnd();
+                Render.gl().glBegin(GL11.GL_QUADS);
+                Render.gl().glTexCoord2f(1, 0);
+                Render.gl().glVertex3f(-size, -size, -size);
+                Render.gl().glTexCoord2f(1, 1);
+                Render.gl().glVertex3f(-size, size, -size);
+                Render.gl().glTexCoord2f(0, 1);
+                Render.gl().glVertex3f(size, size, -size);
+                Render.gl().glTexCoord2f(0, 0);
+                Render.gl().glVertex3f(size, -size, -size);
+                Render.gl().glEnd();
                 break;
 
             case TOP: // Top face (positive Y)
-                GL11.glBegin(GL11.GL_QUADS);
-                GL11.glTexCoord2f(0, 1);
-                GL11.glVertex3f(-size, size, -size);
-                GL11.glTexCoord2f(0, 0);
-                GL11.glVertex3f(-size, size, size);
-                GL11.glTexCoord2f(1, 0);
-                GL11.glVertex3f(size, size, size);
-                GL11.glTexCoord2f(1, 1);
-                GL11.glVertex3f(size, size, -size);
-                GL11.glEnd();
+                Render.gl().glBegin(GL11.GL_QUADS);
+                Render.gl().glTexCoord2f(0, 1);
+                Render.gl().glVertex3f(-size, size, -size);
+                Render.gl().glTexCoord2f(0, 0);
+                Render.gl().glVertex3f(-size, size, size);
+                Render.gl().glTexCoord2f(1, 0);
+                Render.gl().glVertex3f(size, size, size);
+                Render.gl().glTexCoord2f(1, 1);
+                Render.gl().glVertex3f(size, size, -size);
+                Render.gl().glEnd();
                 break;
 
             case BOTTOM: // Bottom face (negative Y)
-                GL11.glBegin(GL11.GL_QUADS);
-                GL11.glTexCoord2f(1, 1);
-                GL11.glVertex3f(-size, -size, -size);
-                GL11.glTexCoord2f(0, 1);
-                GL11.glVertex3f(size, -size, -size);
-                GL11.glTexCoord2f(0, 0);
-                GL11.glVertex3f(size, -size, size);
-                GL11.glTexCoord2f(1, 0);
-                GL11.glVertex3f(-size, -size, size);
-                GL11.glEnd();
+                Render.gl().glBegin(GL11.GL_QUADS);
+                Render.gl().glTexCoord2f(1, 1);
+                Render.gl().glVertex3f(-size, -size, -size);
+                Render.gl().glTexCoord2f(0, 1);
+                Render.gl().glVertex3f(size, -size, -size);
+                Render.gl().glTexCoord2f(0, 0);
+                Render.gl().glVertex3f(size, -size, size);
+                Render.gl().glTexCoord2f(1, 0);
+                Render.gl().glVertex3f(-size, -size, size);
+                Render.gl().glEnd();
                 break;
 
             case RIGHT: // Right face (positive X)
-                GL11.glBegin(GL11.GL_QUADS);
-                GL11.glTexCoord2f(1, 0);
-                GL11.glVertex3f(size, -size, -size);
-                GL11.glTexCoord2f(1, 1);
-                GL11.glVertex3f(size, size, -size);
-                GL11.glTexCoord2f(0, 1);
-                GL11.glVertex3f(size, size, size);
-                GL11.glTexCoord2f(0, 0);
-                GL11.glVertex3f(size, -size, size);
-                GL11.glEnd();
+                Render.gl().glBegin(GL11.GL_QUADS);
+                Render.gl().glTexCoord2f(1, 0);
+                Render.gl().glVertex3f(size, -size, -size);
+                Render.gl().glTexCoord2f(1, 1);
+                Render.gl().glVertex3f(size, size, -size);
+                Render.gl().glTexCoord2f(0, 1);
+                Render.gl().glVertex3f(size, size, size);
+                Render.gl().glTexCoord2f(0, 0);
+                Render.gl().glVertex3f(size, -size, size);
+                Render.gl().glEnd();
                 break;
 
             case LEFT: // Left face (negative X)
-                GL11.glBegin(GL11.GL_QUADS);
-                GL11.glTexCoord2f(0, 0);
-                GL11.glVertex3f(-size, -size, -size);
-                GL11.glTexCoord2f(1, 0);
-                GL11.glVertex3f(-size, -size, size);
-                GL11.glTexCoord2f(1, 1);
-                GL11.glVertex3f(-size, size, size);
-                GL11.glTexCoord2f(0, 1);
-                GL11.glVertex3f(-size, size, -size);
-                GL11.glEnd();
+                Render.gl().glBegin(GL11.GL_QUADS);
+                Render.gl().glTexCoord2f(0, 0);
+                Render.gl().glVertex3f(-size, -size, -size);
+                Render.gl().glTexCoord2f(1, 0);
+                Render.gl().glVertex3f(-size, -size, size);
+                Render.gl().glTexCoord2f(1, 1);
+                Render.gl().glVertex3f(-size, size, size);
+                Render.gl().glTexCoord2f(0, 1);
+                Render.gl().glVertex3f(-size, size, -size);
+                Render.gl().glEnd();
                 break;
         }
     }
@@ -222,14 +223,14 @@ public class Block {
         if (type == BlockType.AIR) return;
 
         // Save current OpenGL state
-        GL11.glPushMatrix();
-        GL11.glPushAttrib(GL11.GL_ALL_ATTRIB_BITS);
+        Render.gl().glPushMatrix();
+        Render.gl().glPushAttrib(GL11.GL_ALL_ATTRIB_BITS);
         
         // Move to block position
-        GL11.glTranslatef(x, y, z);
+        Render.gl().glTranslatef(x, y, z);
 
         // Set white color for proper texture rendering
-        GL11.glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
+        Render.gl().glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
 
         // Render all faces
         for (Face face : Face.values()) {
@@ -237,39 +238,39 @@ public class Block {
         }
 
         // Restore OpenGL state
-        GL11.glPopAttrib();
-        GL11.glPopMatrix();
+        Render.gl().glPopAttrib();
+        Render.gl().glPopMatrix();
         
         // Debug rendering with separate state
         if (Debug.showBoundingBoxes() && type != BlockType.AIR) {
-            GL11.glPushAttrib(GL11.GL_ENABLE_BIT | GL11.GL_CURRENT_BIT | GL11.GL_POLYGON_BIT);
-            GL11.glPushMatrix();
+            Render.gl().glPushAttrib(GL11.GL_ENABLE_BIT | GL11.GL_CURRENT_BIT | GL11.GL_POLYGON_BIT);
+            Render.gl().glPushMatrix();
             
             // Disable texturing for debug rendering
-            GL11.glDisable(GL11.GL_TEXTURE_2D);
+            Render.gl().glDisable(GL11.GL_TEXTURE_2D);
             
-            GL11.glTranslatef(boundingBox.getCenterX(), boundingBox.getCenterY(), boundingBox.getCenterZ());
-            GL11.glColor3f(0.0f, 1.0f, 0.0f);  // Green for block bounding box
-            GL11.glPolygonMode(GL11.GL_FRONT_AND_BACK, GL11.GL_LINE);  // Wireframe mode
+            Render.gl().glTranslatef(boundingBox.getCenterX(), boundingBox.getCenterY(), boundingBox.getCenterZ());
+            Render.gl().glColor3f(0.0f, 1.0f, 0.0f);  // Green for block bounding box
+            Render.gl().glPolygonMode(GL11.GL_FRONT_AND_BACK, GL11.GL_LINE);  // Wireframe mode
             
             float width = boundingBox.getWidth();
             float height = boundingBox.getHeight();
             float depth = boundingBox.getDepth();
             Shapes.cuboid(width, height, depth);
             
-            GL11.glPopMatrix();
-            GL11.glPopAttrib();
+            Render.gl().glPopMatrix();
+            Render.gl().glPopAttrib();
         }
 
         // Add block info display if enabled
         if (Debug.showBlockInfo()) {
-            GL11.glPushAttrib(GL11.GL_ENABLE_BIT | GL11.GL_CURRENT_BIT);
-            GL11.glPushMatrix();
-            GL11.glTranslatef(x, y + World.BLOCK_SIZE, z);
+            Render.gl().glPushAttrib(GL11.GL_ENABLE_BIT | GL11.GL_CURRENT_BIT);
+            Render.gl().glPushMatrix();
+            Render.gl().glTranslatef(x, y + World.BLOCK_SIZE, z);
             // Render block type and coordinates
             // Note: You'll need to implement text rendering here
-            GL11.glPopMatrix();
-            GL11.glPopAttrib();
+            Render.gl().glPopMatrix();
+            Render.gl().glPopAttrib();
         }
     }
 
@@ -295,18 +296,10 @@ public class Block {
 
     public static void cleanupTextures() {
         if (texturesInitialized) {
-            if (dirtTexture != -1) {
-                GL11.glDeleteTextures(dirtTexture);
-                dirtTexture = -1;
-            }
-            if (stoneTexture != -1) {
-                GL11.glDeleteTextures(stoneTexture);
-                stoneTexture = -1;
-            }
-            if (grassTexture != -1) {
-                GL11.glDeleteTextures(grassTexture);
-                grassTexture = -1;
-            }
+            dirtTexture.release();
+            stoneTexture.release();
+            grassTexture.release();
+            dirtTexture = stoneTexture = grassTexture = null;
             texturesInitialized = false;
         }
     }
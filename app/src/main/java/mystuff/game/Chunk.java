@@ -1,31 +1,27 @@
 package mystuff.game;
 
+import mystuff.engine.MemoryFootprint;
 import mystuff.engine.Window;
-import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.GL15;
 import org.lwjgl.BufferUtils;
-import mystuff.utils.Debug;
 import java.nio.FloatBuffer;
 
 public class Chunk {
     public static final int CHUNK_SIZE = 16;
+    
+    // Footprint estimates, reported to MemoryFootprint
+    private static final long BLOCK_ARRAY_BYTES = nestedArrayBytes(4);  // Block[16][16][16] references
+    private static final long BLOCK_OBJECT_BYTES = 32 + 40;             // Block plus its BoundingBox
     private Block[][][] blocks;
     private int chunkX, chunkY, chunkZ;
     private World world;
-    private boolean isDirty;
-    private int displayList;
-    
-    // VBO data
-    private int vboVertexHandle;
-    private int vboTextureHandle;
-    private boolean needsVBOUpdate;
-    private int vertexCount;
+    private int blockCount; // Non-null Block objects
+    private boolean released; // Unloaded and cleaned up
     
-    // Track dirty regions for partial updates
-    private boolean[][][] dirtyBlocks;
-    private int dirtyMinX, dirtyMinY, dirtyMinZ;
-    private int dirtyMaxX, dirtyMaxY, dirtyMaxZ;
-    private boolean hasPartialUpdate;
+    // What the renderer sees: bumped on every change that can alter the mesh, and the
+    // last View handed out, rebuilt on demand once it is older than version
+    private int version;
+    private View view;
+    private final ChunkRenderer.Mesh mesh = new ChunkRenderer.Mesh();
     
     public Chunk(World world, int chunkX, int chunkY, int chunkZ) {
         this.world = world;
@@ -33,57 +29,88 @@ public class Chunk {
         this.chunkY = chunkY;
         this.chunkZ = chunkZ;
         this.blocks = new Block[CHUNK_SIZE][CHUNK_SIZE][CHUNK_SIZE];
-        this.dirtyBlocks = new boolean[CHUNK_SIZE][CHUNK_SIZE][CHUNK_SIZE];
-        this.isDirty = true;
-        this.displayList = -1;
+        MemoryFootprint.add("world.chunk_arrays", BLOCK_ARRAY_BYTES);
+    }
+    
+    /**
+     * Bytes of a [16][16][16] Java array with the given element size: 16-byte array
+     * headers, sizes rounded up to 8 bytes
+     */
+    private static long nestedArrayBytes(int elementBytes) {
+        long outer = 16 + CHUNK_SIZE * 4;
+        long inner = (16 + CHUNK_SIZE * elementBytes + 7) & ~7;
+        return outer + CHUNK_SIZE * outer + CHUNK_SIZE * CHUNK_SIZE * inner;
+    }
+    
+    /**
+     * Immutable copy of a chunk's block types at one version, with a one block border
+     * taken from the face neighbours so meshing needs nothing else. Built on the
+     * simulation thread and published in the RenderSnapshot, so the render thread never
+     * reads live blocks.
+     */
+    public static final class View {
+        static final int SIZE = CHUNK_SIZE + 2;
+        static final long BYTES = 16 + 5 * 4 + 8 + ((16 + SIZE * SIZE * SIZE + 7) & ~7); // Object, fields, type array
+        private static final BlockType[] TYPES = BlockType.values();
+        
+        private final int chunkX, chunkY, chunkZ;
+        private final int version;
+        private final byte[] types; // BlockType ordinals, x-major, border included
+        final ChunkRenderer.Mesh mesh;
+        
+        private View(Chunk chunk) {
+            this.chunkX = chunk.chunkX;
+            this.chunkY = chunk.chunkY;
+            this.chunkZ = chunk.chunkZ;
+            this.version = chunk.version;
+            this.mesh = chunk.mesh;
+            this.types = new byte[SIZE * SIZE * SIZE];
+            for (int x = -1; x <= CHUNK_SIZE; x++) {
+                for (int y = -1; y <= CHUNK_SIZE; y++) {
+                    for (int z = -1; z <= CHUNK_SIZE; z++) {
+                        int outside = (x < 0 || x >= CHUNK_SIZE ? 1 : 0) + (y < 0 || y >= CHUNK_SIZE ? 1 : 0)
+                            + (z < 0 || z >= CHUNK_SIZE ? 1 : 0);
+                        if (outside <= 1) { // Edges and corners never touch a face
+                            types[index(x, y, z)] = (byte) chunk.getBlockType(x, y, z).ordinal();
+                        }
+                    }
+                }
+            }
+        }
         
-        // Initialize VBOs
-        vboVertexHandle = GL15.glGenBuffers();
-        vboTextureHandle = GL15.glGenBuffers();
-        needsVBOUpdate = true;
+        private static int index(int x, int y, int z) {
+            return ((x + 1) * SIZE + (y + 1)) * SIZE + (z + 1);
+        }
+        
+        /**
+         * Block type at local coordinates, -1 to CHUNK_SIZE on one axis at a time
+         */
+        public BlockType getBlockType(int x, int y, int z) {
+            return TYPES[types[index(x, y, z)]];
+        }
         
-        resetDirtyRegion();
+        public int getChunkX() { return chunkX; }
+        public int getChunkY() { return chunkY; }
+        public int getChunkZ() { return chunkZ; }
+        public int getVersion() { return version; }
     }
     
-    private void resetDirtyRegion() {
-        dirtyMinX = dirtyMinY = dirtyMinZ = CHUNK_SIZE;
-        dirtyMaxX = dirtyMaxY = dirtyMaxZ = -1;
-        hasPartialUpdate = false;
-        
-        // Reset dirty blocks array
-        for (int x = 0; x < CHUNK_SIZE; x++) {
-            for (int y = 0; y < CHUNK_SIZE; y++) {
-                for (int z = 0; z < CHUNK_SIZE; z++) {
-                    dirtyBlocks[x][y][z] = false;
-                }
+    /**
+     * The chunk as of its latest change. Simulation thread only; the copy is made on
+     * the first call after a change and shared until the next one.
+     */
+    public View getView() {
+        if (view == null || view.version != version) {
+            if (view == null) {
+                MemoryFootprint.add("world.chunk_views", View.BYTES); // Counts the latest view; older ones die with their snapshots
             }
+            view = new View(this);
         }
+        return view;
     }
     
-    private void markBlockDirty(int x, int y, int z) {
-        if (!isValidPosition(x, y, z)) return;
-        
-        // If already marked dirty, don't process again
-        if (dirtyBlocks[x][y][z]) return;
-        
-        dirtyBlocks[x][y][z] = true;
-        hasPartialUpdate = true;
-        
-        // Update dirty region bounds
-        dirtyMinX = Math.min(dirtyMinX, x);
-        dirtyMinY = Math.min(dirtyMinY, y);
-        dirtyMinZ = Math.min(dirtyMinZ, z);
-        dirtyMaxX = Math.max(dirtyMaxX, x);
-        dirtyMaxY = Math.max(dirtyMaxY, y);
-        dirtyMaxZ = Math.max(dirtyMaxZ, z);
-        
-        // Mark surrounding blocks as dirty since their faces may need updating
-        markBlockDirty(x+1, y, z);
-        markBlockDirty(x-1, y, z);
-        markBlockDirty(x, y+1, z);
-        markBlockDirty(x, y-1, z);
-        markBlockDirty(x, y, z+1);
-        markBlockDirty(x, y, z-1);
+    ChunkRenderer.Mesh getMesh() {
+        return mesh;
     }
     
     public void setBlock(int localX, int localY, int localZ, BlockType type) {
@@ -94,12 +121,14 @@ public class Chunk {
         float worldY = (chunkY * CHUNK_SIZE + localY) * World.BLOCK_SIZE;
         float worldZ = (chunkZ * CHUNK_SIZE + localZ) * World.BLOCK_SIZE;
         
+        if (blocks[localX][localY][localZ] == null) {
+            blockCount++;
+            MemoryFootprint.add("world.blocks", BLOCK_OBJECT_BYTES);
+        }
         blocks[localX][localY][localZ] = new Block(worldX, worldY, worldZ, type);
+        version++;
         
-        // Mark this block and surrounding blocks as dirty
-        markBlockDirty(localX, localY, localZ);
-        
-        // Mark neighboring chunks as dirty if the block is on the edge
+        // Neighbours show this block in their border, so an edge block changes them too
         if (localX == 0) markNeighborDirty(-1, 0, 0);
         if (localX == CHUNK_SIZE - 1) markNeighborDirty(1, 0, 0);
         if (localY == 0) markNeighborDirty(0, -1, 0);
@@ -111,10 +140,17 @@ public class Chunk {
     private void markNeighborDirty(int dx, int dy, int dz) {
         Chunk neighbor = world.getChunk(chunkX + dx, chunkY + dy, chunkZ + dz);
         if (neighbor != null) {
-            neighbor.isDirty = true;
+            neighbor.version++;
         }
     }
     
+    /**
+     * Forces a new view, and with it a full mesh rebuild, even though no block changed
+     */
+    public void markDirty() {
+        version++;
+    }
+    
     public Block getBlock(int localX, int localY, int localZ) {
         if (!isValidPosition(localX, localY, localZ)) return null;
         return blocks[localX][localY][localZ];
@@ -174,148 +210,21 @@ public class Chunk {
                z >= 0 && z < CHUNK_SIZE;
     }
     
-    public void render() {
-        if (isDirty) {
-            rebuildDisplayList();
-        } else if (hasPartialUpdate) {
-            updateVBOData();
-        }
-        
-        if (displayList != -1) {
-            GL11.glCallList(displayList);
-        }
-        
-        if (Debug.showBoundingBoxes()) {
-            renderDebugBoundingBox();
-        }
-    }
-    
-    private void rebuildDisplayList() {
-        if (displayList == -1) {
-            displayList = GL11.glGenLists(1);
-        }
-        
-        GL11.glNewList(displayList, GL11.GL_COMPILE);
-        
-        // Enable texturing
-        GL11.glEnable(GL11.GL_TEXTURE_2D);
-        
-        // Render all blocks in the chunk
-        for (int x = 0; x < CHUNK_SIZE; x++) {
-            for (int y = 0; y < CHUNK_SIZE; y++) {
-                for (int z = 0; z < CHUNK_SIZE; z++) {
-                    Block block = blocks[x][y][z];
-                    if (block != null && block.getType() != BlockType.AIR) {
-                        renderBlockFaces(x, y, z, block);
-                    }
-                }
-            }
-        }
-        
-        GL11.glDisable(GL11.GL_TEXTURE_2D);
-        
-        GL11.glEndList();
-        isDirty = false;
-    }
-    
-    private void updateVBOData() {
-        if (!hasPartialUpdate) return;
-        
-        // Only update the dirty region
-        for (int x = Math.max(0, dirtyMinX - 1); x <= Math.min(CHUNK_SIZE - 1, dirtyMaxX + 1); x++) {
-            for (int y = Math.max(0, dirtyMinY - 1); y <= Math.min(CHUNK_SIZE - 1, dirtyMaxY + 1); y++) {
-                for (int z = Math.max(0, dirtyMinZ - 1); z <= Math.min(CHUNK_SIZE - 1, dirtyMaxZ + 1); z++) {
-                    if (dirtyBlocks[x][y][z]) {
-                        Block block = blocks[x][y][z];
-                        if (block != null && block.getType() != BlockType.AIR) {
-                            renderBlockFaces(x, y, z, block);
-                        }
-                    }
-                }
-            }
-        }
-        
-        resetDirtyRegion();
-    }
-    
-    private void renderBlockFaces(int x, int y, int z, Block block) {
-        float worldX = (chunkX * CHUNK_SIZE + x) * World.BLOCK_SIZE;
-        float worldY = (chunkY * CHUNK_SIZE + y) * World.BLOCK_SIZE;
-        float worldZ = (chunkZ * CHUNK_SIZE + z) * World.BLOCK_SIZE;
-        
-        // Only render faces that are exposed to air or transparent blocks
-        if (isTransparent(getBlockType(x, y, z + 1))) {
-            GL11.glPushMatrix();
-            GL11.glTranslatef(worldX, worldY, worldZ);
-            block.renderFace(Block.Face.FRONT);
-            GL11.glPopMatrix();
-        }
-        
-        if (isTransparent(getBlockType(x, y, z - 1))) {
-            GL11.glPushMatrix();
-            GL11.glTranslatef(worldX, worldY, worldZ);
-            block.renderFace(Block.Face.BACK);
-            GL11.glPopMatrix();
-        }
-        
-        if (isTransparent(getBlockType(x + 1, y, z))) {
-            GL11.glPushMatrix();
-            GL11.glTranslatef(worldX, worldY, worldZ);
-            block.renderFace(Block.Face.RIGHT);
-            GL11.glPopMatrix();
-        }
-        
-        if (isTransparent(getBlockType(x - 1, y, z))) {
-            GL11.glPushMatrix();
-            GL11.glTranslatef(worldX, worldY, worldZ);
-            block.renderFace(Block.Face.LEFT);
-            GL11.glPopMatrix();
-        }
-        
-        if (isTransparent(getBlockType(x, y + 1, z))) {
-            GL11.glPushMatrix();
-            GL11.glTranslatef(worldX, worldY, worldZ);
-            block.renderFace(Block.Face.TOP);
-            GL11.glPopMatrix();
-        }
-        
-        if (isTransparent(getBlockType(x, y - 1, z))) {
-            GL11.glPushMatrix();
-            GL11.glTranslatef(worldX, worldY, worldZ);
-            block.renderFace(Block.Face.BOTTOM);
-            GL11.glPopMatrix();
-        }
-    }
-    
-    private boolean isTransparent(BlockType type) {
-        return type == BlockType.AIR || type == null;
-    }
-    
-    private void renderDebugBoundingBox() {
-        float worldX = chunkX * CHUNK_SIZE * World.BLOCK_SIZE;
-        float worldY = chunkY * CHUNK_SIZE * World.BLOCK_SIZE;
-        float worldZ = chunkZ * CHUNK_SIZE * World.BLOCK_SIZE;
-        float size = CHUNK_SIZE * World.BLOCK_SIZE;
-        
-        GL11.glPushMatrix();
-        GL11.glTranslatef(worldX + size/2, worldY + size/2, worldZ + size/2);
-        GL11.glColor3f(1.0f, 1.0f, 0.0f); // Yellow for chunk boundaries
-        GL11.glPolygonMode(GL11.GL_FRONT_AND_BACK, GL11.GL_LINE);
-        mystuff.utils.Shapes.cuboid(size, size, size);
-        GL11.glPolygonMode(GL11.GL_FRONT_AND_BACK, GL11.GL_FILL);
-        GL11.glPopMatrix();
-    }
-    
+    /**
+     * Gives back the chunk's memory footprint. World calls this once the chunk has left
+     * its chunk map; until then the block arrays are still live. The mesh is not touched
+     * here: World hands it to its ChunkRenderer, which deletes it on the GL thread.
+     */
     public void cleanup() {
-        if (displayList != -1) {
-            GL11.glDeleteLists(displayList, 1);
-            displayList = -1;
+        if (released) return;
+        released = true;
+        MemoryFootprint.add("world.chunk_arrays", -BLOCK_ARRAY_BYTES);
+        MemoryFootprint.add("world.blocks", -blockCount * BLOCK_OBJECT_BYTES);
+        if (view != null) {
+            MemoryFootprint.add("world.chunk_views", -View.BYTES);
+            view = null;
         }
         
-        // Delete VBO buffers
-        GL15.glDeleteBuffers(vboVertexHandle);
-        GL15.glDeleteBuffers(vboTextureHandle);
-        
         // Cleanup blocks
         for (int x = 0; x < CHUNK_SIZE; x++) {
             for (int y = 0; y < CHUNK_SIZE; y++) {
@@ -0,0 +1,277 @@
+package mystuff.game;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import mystuff.engine.FrameBudgetScheduler;
+import mystuff.engine.JfrEvents;
+import mystuff.engine.JobSystem;
+import mystuff.engine.MemoryFootprint;
+import mystuff.engine.Metrics;
+import mystuff.engine.Profiler;
+import mystuff.engine.Render;
+import mystuff.utils.Debug;
+import org.lwjgl.opengl.GL11;
+
+/**
+ * Owns the chunk display lists. Works only from the Chunk.Views in a render snapshot,
+ * so it never reads live blocks. Finding a chunk's exposed faces only needs its view,
+ * so that runs on the JobSystem; the GL thread just compiles the resulting face list.
+ * Display lists are only touched on the GL thread: the simulation side reports
+ * unloaded chunks through a queue that is drained before each frame.
+ */
+public class ChunkRenderer {
+    private static final Metrics.Counter MESHED = Metrics.counter("world.chunks_meshed"); // Full rebuilds
+    private static final long MESH_VERTEX_BYTES = 5 * 4; // Position and texture coordinate floats
+    private static final BlockType[] BLOCK_TYPES = BlockType.values();
+    private static final Block.Face[] FACES = Block.Face.values();
+
+    private final ConcurrentLinkedQueue<Mesh> unloaded = new ConcurrentLinkedQueue<>();
+    private final Set<Mesh> meshes = new HashSet<>(); // Meshes holding a display list
+    private final List<Chunk.View> stale = new ArrayList<>(); // Scratch list for rebuildStale
+    private FrameBudgetScheduler frameScheduler; // Rebuilds are deferred here when set
+
+    /**
+     * One chunk's display list. Created with the chunk and carried by its views; apart
+     * from the unloaded flag every field belongs to the GL thread.
+     */
+    static final class Mesh {
+        private volatile boolean unloaded;
+        private int displayList = -1;
+        private int vertexCount;
+        private int builtVersion = -1;
+        private boolean queued; // A deferred rebuild is between its job and its upload
+    }
+
+    /**
+     * The exposed faces of one chunk view, each packed as x | y << 4 | z << 8 |
+     * face << 12 | block type << 16
+     */
+    static final class Faces {
+        final Chunk.View view;
+        final int[] faces;
+        final int count;
+
+        Faces(Chunk.View view, int[] faces, int count) {
+            this.view = view;
+            this.faces = faces;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Defers rebuilds to the engine's frame scheduler, highest priority first
+     */
+    public void setFrameScheduler(FrameBudgetScheduler frameScheduler) {
+        this.frameScheduler = frameScheduler;
+    }
+
+    /**
+     * Marks a chunk's mesh for deletion. Called on the simulation thread once the chunk
+     * has left the world; older snapshots may still hold its views, and are skipped.
+     */
+    void unload(Mesh mesh) {
+        mesh.unloaded = true;
+        unloaded.add(mesh);
+    }
+
+    /**
+     * Deletes the meshes of unloaded chunks. Call on the GL thread before drawing.
+     */
+    public void processUnloads() {
+        Mesh mesh;
+        while ((mesh = unloaded.poll()) != null) {
+            delete(mesh);
+        }
+    }
+
+    /**
+     * Draws a chunk, rebuilding its mesh first if the view is newer than it. With a
+     * frame scheduler the faces are found on a job and the upload is queued at the given
+     * priority; the old mesh is drawn until it runs.
+     */
+    public void render(Chunk.View view, int priority) {
+        Mesh mesh = view.mesh;
+        if (mesh.unloaded) return;
+
+        if (mesh.builtVersion != view.getVersion()) {
+            if (frameScheduler == null) {
+                compile(mesh, findFaces(view));
+            } else if (!mesh.queued) {
+                // Faces are found on a worker, the upload waits for spare frame time. A view
+                // that changes meanwhile is picked up once this one is uploaded.
+                mesh.queued = true;
+                FrameBudgetScheduler scheduler = frameScheduler;
+                JobSystem.shared().submit("chunk.mesh", () -> {
+                    Faces faces = findFaces(view);
+                    scheduler.schedule("chunk.upload", priority, () -> {
+                        mesh.queued = false;
+                        if (!mesh.unloaded && faces.view.getVersion() > mesh.builtVersion) {
+                            compile(mesh, faces);
+                        }
+                    });
+                });
+            }
+        }
+
+        if (mesh.displayList != -1) {
+            Render.gl().glCallList(mesh.displayList);
+        }
+
+        if (Debug.showBoundingBoxes()) {
+            renderDebugBoundingBox(view);
+        }
+    }
+
+    /**
+     * Rebuilds the meshes among views that are out of date, all at once: their faces
+     * are found in parallel on the JobSystem, then compiled here in list order. Does
+     * nothing with a frame scheduler set, where render() defers each rebuild instead.
+     * Call on the GL thread before rendering the views.
+     */
+    public void rebuildStale(List<Chunk.View> views) {
+        if (frameScheduler != null) return;
+        stale.clear();
+        for (Chunk.View view : views) {
+            if (!view.mesh.unloaded && view.mesh.builtVersion != view.getVersion()) {
+                stale.add(view);
+            }
+        }
+        if (stale.isEmpty()) return;
+
+        Faces[] results = new Faces[stale.size()];
+        if (stale.size() == 1) {
+            results[0] = findFaces(stale.get(0));
+        } else {
+            JobSystem.Phase phase = JobSystem.shared().beginPhase("chunk.mesh");
+            for (int i = 0; i < results.length; i++) {
+                int slot = i;
+                Chunk.View view = stale.get(i);
+                phase.submit(() -> results[slot] = findFaces(view));
+            }
+            phase.await();
+        }
+        for (Faces faces : results) {
+            compile(faces.view.mesh, faces);
+        }
+        stale.clear();
+    }
+
+    /**
+     * Finds the faces of the view that are exposed to air. Only reads the view, so any
+     * thread may call it.
+     */
+    static Faces findFaces(Chunk.View view) {
+        JfrEvents.ChunkMesh event = new JfrEvents.ChunkMesh();
+        event.begin();
+        int[] faces = new int[256];
+        int count = 0;
+        try (Profiler.Zone zone = Profiler.zone("chunk.mesh")) {
+            for (int x = 0; x < Chunk.CHUNK_SIZE; x++) {
+                for (int y = 0; y < Chunk.CHUNK_SIZE; y++) {
+                    for (int z = 0; z < Chunk.CHUNK_SIZE; z++) {
+                        BlockType type = view.getBlockType(x, y, z);
+                        if (type == BlockType.AIR) continue;
+                        if (faces.length - count < 6) {
+                            faces = Arrays.copyOf(faces, faces.length * 2);
+                        }
+                        int block = x | y << 4 | z << 8 | type.ordinal() << 16;
+                        // Same order the faces were always emitted in
+                        if (view.getBlockType(x, y, z + 1) == BlockType.AIR) faces[count++] = block | Block.Face.FRONT.ordinal() << 12;
+                        if (view.getBlockType(x, y, z - 1) == BlockType.AIR) faces[count++] = block | Block.Face.BACK.ordinal() << 12;
+                        if (view.getBlockType(x + 1, y, z) == BlockType.AIR) faces[count++] = block | Block.Face.RIGHT.ordinal() << 12;
+                        if (view.getBlockType(x - 1, y, z) == BlockType.AIR) faces[count++] = block | Block.Face.LEFT.ordinal() << 12;
+                        if (view.getBlockType(x, y + 1, z) == BlockType.AIR) faces[count++] = block | Block.Face.TOP.ordinal() << 12;
+                        if (view.getBlockType(x, y - 1, z) == BlockType.AIR) faces[count++] = block | Block.Face.BOTTOM.ordinal() << 12;
+                    }
+                }
+            }
+        }
+        event.chunkX = view.getChunkX();
+        event.chunkY = view.getChunkY();
+        event.chunkZ = view.getChunkZ();
+        event.vertexCount = count * 4;
+        event.commit();
+        return new Faces(view, faces, count);
+    }
+
+    /**
+     * Compiles a face list into the mesh's display list. GL thread only.
+     */
+    private void compile(Mesh mesh, Faces faces) {
+        Chunk.View view = faces.view;
+        // Outside the list: a texture upload inside GL_COMPILE would only be recorded
+        Block.initializeTextures();
+        try (Profiler.Zone z = Profiler.zone("chunk.upload")) {
+            if (mesh.displayList == -1) {
+                mesh.displayList = Render.gl().glGenLists(1);
+                meshes.add(mesh);
+            }
+
+            Render.gl().glNewList(mesh.displayList, GL11.GL_COMPILE);
+            Render.gl().glEnable(GL11.GL_TEXTURE_2D);
+            float originX = view.getChunkX() * Chunk.CHUNK_SIZE;
+            float originY = view.getChunkY() * Chunk.CHUNK_SIZE;
+            float originZ = view.getChunkZ() * Chunk.CHUNK_SIZE;
+            for (int i = 0; i < faces.count; i++) {
+                int face = faces.faces[i];
+                renderFace((originX + (face & 15)) * World.BLOCK_SIZE,
+                    (originY + (face >> 4 & 15)) * World.BLOCK_SIZE,
+                    (originZ + (face >> 8 & 15)) * World.BLOCK_SIZE,
+                    BLOCK_TYPES[face >>> 16], FACES[face >> 12 & 15]);
+            }
+            Render.gl().glDisable(GL11.GL_TEXTURE_2D);
+            Render.gl().glEndList();
+        }
+        MemoryFootprint.add("mesh.gpu", (faces.count * 4 - mesh.vertexCount) * MESH_VERTEX_BYTES);
+        mesh.vertexCount = faces.count * 4;
+        mesh.builtVersion = view.getVersion();
+        MESHED.increment();
+    }
+
+    private static void renderFace(float worldX, float worldY, float worldZ, BlockType type, Block.Face face) {
+        Render.gl().glPushMatrix();
+        Render.gl().glTranslatef(worldX, worldY, worldZ);
+        Block.renderFace(type, face);
+        Render.gl().glPopMatrix();
+    }
+
+    private void renderDebugBoundingBox(Chunk.View view) {
+        float worldX = view.getChunkX() * Chunk.CHUNK_SIZE * World.BLOCK_SIZE;
+        float worldY = view.getChunkY() * Chunk.CHUNK_SIZE * World.BLOCK_SIZE;
+        float worldZ = view.getChunkZ() * Chunk.CHUNK_SIZE * World.BLOCK_SIZE;
+        float size = Chunk.CHUNK_SIZE * World.BLOCK_SIZE;
+
+        Render.gl().glPushMatrix();
+        Render.gl().glTranslatef(worldX + size/2, worldY + size/2, worldZ + size/2);
+        Render.gl().glColor3f(1.0f, 1.0f, 0.0f); // Yellow for chunk boundaries
+        Render.gl().glPolygonMode(GL11.GL_FRONT_AND_BACK, GL11.GL_LINE);
+        mystuff.utils.Shapes.cuboid(size, size, size);
+        Render.gl().glPolygonMode(GL11.GL_FRONT_AND_BACK, GL11.GL_FILL);
+        Render.gl().glPopMatrix();
+    }
+
+    private void delete(Mesh mesh) {
+        if (mesh.displayList != -1) {
+            Render.gl().glDeleteLists(mesh.displayList, 1);
+            mesh.displayList = -1;
+            MemoryFootprint.add("mesh.gpu", -mesh.vertexCount * MESH_VERTEX_BYTES);
+            mesh.vertexCount = 0;
+            meshes.remove(mesh);
+        }
+        mesh.builtVersion = -1;
+    }
+
+    /**
+     * Deletes every display list. GL thread, once nothing renders any more.
+     */
+    public void cleanup() {
+        processUnloads();
+        for (Mesh mesh : new ArrayList<>(meshes)) {
+            delete(mesh);
+        }
+    }
+}
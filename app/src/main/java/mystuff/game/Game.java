@@ -2,18 +2,33 @@ package mystuff.game;
 
 import mystuff.engine.Window;
 import mystuff.engine.Camera;
+import mystuff.engine.CountingRenderBackend;
 import mystuff.engine.IGameLogic;
 import mystuff.engine.Timer;
 import mystuff.engine.GameEngine;
+import mystuff.engine.JobSystem;
+import mystuff.engine.MemoryFootprint;
+import mystuff.engine.MemoryTelemetry;
+import mystuff.engine.Metrics;
+import mystuff.engine.Profiler;
+import mystuff.engine.Render;
+import mystuff.engine.TripleBuffer;
 import org.lwjgl.glfw.GLFW;
 import org.lwjgl.opengl.GL11;
+import mystuff.utils.AssetLoader;
 import mystuff.utils.Debug;
+import mystuff.utils.InputManager;
+import mystuff.utils.InputReplay;
 import mystuff.utils.KeyboardManager;
+import mystuff.utils.TextureLoader;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Main game class that implements the game logic interface
  */
 public class Game implements IGameLogic {
+    private static final long ASSET_UPLOAD_BUDGET_NANOS = 2_000_000; // Streamed texture uploads per frame
+    
     // Core components
     private Camera camera;
     private Player player;
@@ -21,11 +36,27 @@ public class Game implements IGameLogic {
     private PlayerRenderer playerRenderer;
     private Skybox skybox;
     private Timer timer;
+    private MemoryTelemetry memory;
+    
+    // Simulation state handed to rendering; the render side draws with its own camera
+    private final TripleBuffer<RenderSnapshot> snapshots = new TripleBuffer<>(RenderSnapshot::new);
+    private Camera renderCamera;
+    private long tickCount = 0;
     
     // Game state
     private boolean wireframeMode = false;
     private boolean paused = false;
     private float gameTime = 0;
+    private long worldSeed = World.DEFAULT_SEED;
+    private int worldWidth = World.WORLD_WIDTH;
+    private int worldHeight = World.WORLD_HEIGHT;
+    private int worldDepth = World.WORLD_DEPTH;
+    private int worldGroundHeight = World.GROUND_HEIGHT;
+    
+    // Render-side key edges; input() reads raw key state, not the per-tick state
+    private boolean wasFPressed = false;
+    private boolean wasPausePressed = false;
+    private boolean wasF9Pressed = false;
     
     // Performance metrics
     private float[] cpuUtilizationHistory = new float[60]; // 1 second at 60fps
@@ -34,44 +65,20 @@ public class Game implements IGameLogic {
     @Override
     public void init(Window window) {
         try {
-            // Don't create capabilities again - they were created in Window.init
-            
-            System.out.println("Initializing OpenGL for Minecraft-like rendering...");
-            
-            // Initialize OpenGL state
-            GL11.glEnable(GL11.GL_TEXTURE_2D);
-            GL11.glEnable(GL11.GL_DEPTH_TEST);
-            GL11.glEnable(GL11.GL_BLEND);
-            GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
-            GL11.glClearColor(0.1f, 0.1f, 0.1f, 1.0f); // Dark background color
-            
-            // Print more detailed OpenGL information
-            System.out.println("Using OpenGL version: " + GL11.glGetString(GL11.GL_VERSION));
-            System.out.println("OpenGL vendor: " + GL11.glGetString(GL11.GL_VENDOR));
-            System.out.println("OpenGL renderer: " + GL11.glGetString(GL11.GL_RENDERER));
-            
-            // Initialize game objects
+            // Initialize game objects (no OpenGL needed, so this also runs headless)
             camera = new Camera(0, 0, 0);
-            world = new World(camera);
+            world = new World(camera, worldSeed, worldWidth, worldHeight, worldDepth, worldGroundHeight);
             player = new Player(50*World.BLOCK_SIZE, 50*World.BLOCK_SIZE, 50*World.BLOCK_SIZE, camera, world);
             world.setPlayer(player);
+            renderCamera = new Camera(0, 0, 0);
             
-            playerRenderer = new PlayerRenderer();
-            playerRenderer.init();
-            
-            skybox = new Skybox();
-            skybox.init();
-            
-            // Initialize font
-            mystuff.utils.FontLoader.init("resources/fonts/reflow-sans-demo/Reflow Sans DEMO.ttf");
+            // Publish the initial state so the first frame has something to draw
+            publishSnapshot();
             
-            // Set up mouse cursor
-            GLFW.glfwSetInputMode(window.getWindowHandle(), GLFW.GLFW_CURSOR, GLFW.GLFW_CURSOR_DISABLED);
-            
-            // Set up mouse callback
-            GLFW.glfwSetCursorPosCallback(window.getWindowHandle(), (windowHandle, xpos, ypos) -> {
-                player.handleMouseInput((float)xpos, (float)ypos);
-            });
+            // A null window means the engine is running headless: skip rendering and input setup
+            if (window != null) {
+                initRendering(window);
+            }
             
             // Initialize performance metrics
             for (int i = 0; i < cpuUtilizationHistory.length; i++) {
@@ -82,34 +89,103 @@ public class Game implements IGameLogic {
         }
     }
 
+    /**
+     * Sets up OpenGL state, render-only resources and input callbacks
+     */
+    private void initRendering(Window window) {
+        // Don't create capabilities again - they were created in Window.init
+        initRenderResources();
+        
+        // Spread chunk rebuilds over spare frame time
+        if (window.getParentEngine() != null) {
+            world.setFrameScheduler(window.getParentEngine().getFrameScheduler());
+        }
+        
+        // Set up mouse cursor
+        GLFW.glfwSetInputMode(window.getWindowHandle(), GLFW.GLFW_CURSOR, GLFW.GLFW_CURSOR_DISABLED);
+        
+        // Key and cursor callbacks feed the input queue drained at the start of each tick
+        InputManager.install(window.getWindowHandle());
+        Metrics.gauge("input.dropped_events", InputManager::getDroppedEventCount);
+    }
+    
+    /**
+     * Sets up GL state, textures and fonts through the current render backend. Needs no
+     * window, so the scenario runner can call it after init(null) to render headless.
+     */
+    public void initRenderResources() {
+        System.out.println("Initializing OpenGL for Minecraft-like rendering...");
+        
+        // Initialize OpenGL state
+        Render.gl().glEnable(GL11.GL_TEXTURE_2D);
+        Render.gl().glEnable(GL11.GL_DEPTH_TEST);
+        Render.gl().glEnable(GL11.GL_BLEND);
+        Render.gl().glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+        Render.gl().glClearColor(0.1f, 0.1f, 0.1f, 1.0f); // Dark background color
+        
+        // Print more detailed OpenGL information
+        System.out.println("Using OpenGL version: " + Render.gl().glGetString(GL11.GL_VERSION));
+        System.out.println("OpenGL vendor: " + Render.gl().glGetString(GL11.GL_VENDOR));
+        System.out.println("OpenGL renderer: " + Render.gl().glGetString(GL11.GL_RENDERER));
+        
+        // Decode every texture and bake the font in parallel; each init below only waits
+        // for its own upload, and the world textures are ready before the first frame
+        TextureLoader.prefetch(PlayerRenderer.TEXTURE_PATH, Skybox.TEXTURE_PATH, Block.DIRT_TEXTURE_PATH,
+            Block.STONE_TEXTURE_PATH, Block.GRASS_TEXTURE_PATH, Tree.TEXTURE_PATH, Leaves.TEXTURE_PATH);
+        CompletableFuture<Void> font = mystuff.utils.FontLoader.initAsync("resources/fonts/reflow-sans-demo/Reflow Sans DEMO.ttf");
+        
+        // Before any chunk display list is compiled
+        Block.initializeTextures();
+        
+        playerRenderer = new PlayerRenderer();
+        playerRenderer.init();
+        
+        skybox = new Skybox();
+        skybox.init();
+        
+        AssetLoader.await(font);
+    }
+
     @Override
     public void input(Window window) {
-        KeyboardManager.update(window.getWindowHandle());
+        // Runs on the render thread, and while paused when no ticks run, so this uses the
+        // raw key state from the last event poll rather than the per-tick state
         
         // Game exit
-        if (KeyboardManager.isKeyPressed(GLFW.GLFW_KEY_ESCAPE)) {
+        if (KeyboardManager.isKeyDown(GLFW.GLFW_KEY_ESCAPE)) {
             GLFW.glfwSetWindowShouldClose(window.getWindowHandle(), true);
         }
         
         // Toggle wireframe mode
-        if (KeyboardManager.isKeyJustPressed(GLFW.GLFW_KEY_F)) {
+        boolean fPressed = KeyboardManager.isKeyDown(GLFW.GLFW_KEY_F);
+        if (fPressed && !wasFPressed) {
             wireframeMode = !wireframeMode;
         }
+        wasFPressed = fPressed;
         
         // Toggle pause with P key
-        if (KeyboardManager.isKeyJustPressed(GLFW.GLFW_KEY_P) && timer != null) {
+        boolean pausePressed = KeyboardManager.isKeyDown(GLFW.GLFW_KEY_P);
+        if (pausePressed && !wasPausePressed && timer != null) {
             paused = !paused;
             if (window.getParentEngine() != null) {
                 window.getParentEngine().setPaused(paused);
             }
         }
+        wasPausePressed = pausePressed;
+        
+        // F9 dumps the profiler's recent history as a Chrome trace, off the render thread
+        boolean f9Pressed = KeyboardManager.isKeyDown(GLFW.GLFW_KEY_F9);
+        if (f9Pressed && !wasF9Pressed) {
+            JobSystem.shared().submit("profiler.export", Game::exportTrace);
+        }
+        wasF9Pressed = f9Pressed;
         
         // Time scaling with [ and ] keys
         if (timer != null) {
-            if (KeyboardManager.isKeyPressed(GLFW.GLFW_KEY_LEFT_BRACKET)) {
+            if (KeyboardManager.isKeyDown(GLFW.GLFW_KEY_LEFT_BRACKET)) {
                 timer.setTimeScale(Math.max(0.1, timer.getTimeScale() - 0.01));
             }
-            if (KeyboardManager.isKeyPressed(GLFW.GLFW_KEY_RIGHT_BRACKET)) {
+            if (KeyboardManager.isKeyDown(GLFW.GLFW_KEY_RIGHT_BRACKET)) {
                 timer.setTimeScale(Math.min(2.0, timer.getTimeScale() + 0.01));
             }
         }
@@ -117,19 +193,21 @@ public class Game implements IGameLogic {
 
     @Override
     public void update(float interval) {
+        // Take in the input that arrived since the last tick
+        InputManager.beginTick();
+        
         // Update game time
         gameTime += interval;
         
+        // Keep the pose from before this tick so rendering can blend toward the new one
+        camera.storePreviousState();
+        
         // Get player position for dynamic chunk loading optimization
         float playerX = camera.getX();
         float playerY = camera.getY();
         float playerZ = camera.getZ();
         
-        // Update player first (for responsive controls)
-        player.update(null, interval);
-        
-        // Update world with player position for chunk loading optimization
-        // This allows the world to prioritize loading chunks near the player
+        // Update the world, which simulates the player along with its other entities
         world.update(null, interval);
         
         // Store performance metrics if timer available
@@ -137,32 +215,66 @@ public class Game implements IGameLogic {
             cpuUtilizationHistory[utilizationIndex] = timer.getFrameUtilization();
             utilizationIndex = (utilizationIndex + 1) % cpuUtilizationHistory.length;
         }
+        
+        tickCount++;
+        try (Profiler.Zone z = Profiler.zone("snapshot")) {
+            publishSnapshot();
+        }
+    }
+    
+    /**
+     * Captures this tick's state for the renderer, which may be on another thread
+     */
+    private void publishSnapshot() {
+        snapshots.getWriteSlot().capture(tickCount, gameTime, camera, player, world);
+        snapshots.publish();
     }
 
     @Override
-    public void render(Window window) {
+    public void render(Window window, float alpha) {
         try {
             // Ensure we have a valid OpenGL context
             if (!org.lwjgl.opengl.GL.getCapabilities().OpenGL11) {
                 System.err.println("OpenGL 1.1 capabilities are not available. Skipping render cycle.");
                 return;
             }
+            renderView(window.getWidth(), window.getHeight(), alpha);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+    }
+    
+    /**
+     * Draws one frame into a viewport of the given size through the current render
+     * backend. render() calls this once it has checked the GL context; the scenario
+     * runner calls it directly when there is no window.
+     */
+    public void renderView(int width, int height, float alpha) {
+        try {
+            // Upload assets whose decode finished on a worker since the last frame
+            AssetLoader.processUploads(ASSET_UPLOAD_BUDGET_NANOS);
+            
+            // Draw the latest published tick, never the live simulation state, blended
+            // from the previous tick by alpha so motion stays smooth at lower tick rates
+            RenderSnapshot snapshot = snapshots.acquireLatest();
+            renderCamera.setPosition(snapshot.getCameraX(alpha), snapshot.getCameraY(alpha), snapshot.getCameraZ(alpha));
+            renderCamera.setRotation(snapshot.getPitch(alpha), snapshot.getYaw(alpha));
             
             // Clear buffers
-            GL11.glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
+            Render.gl().glClear(GL11.GL_COLOR_BUFFER_BIT | GL11.GL_DEPTH_BUFFER_BIT);
             
             // Set wireframe mode if enabled
             if (wireframeMode) {
-                GL11.glPolygonMode(GL11.GL_FRONT_AND_BACK, GL11.GL_LINE);
+                Render.gl().glPolygonMode(GL11.GL_FRONT_AND_BACK, GL11.GL_LINE);
             } else {
-                GL11.glPolygonMode(GL11.GL_FRONT_AND_BACK, GL11.GL_FILL);
+                Render.gl().glPolygonMode(GL11.GL_FRONT_AND_BACK, GL11.GL_FILL);
             }
             
             // Set up projection matrix
-            GL11.glMatrixMode(GL11.GL_PROJECTION);
-            GL11.glLoadIdentity();
+            Render.gl().glMatrixMode(GL11.GL_PROJECTION);
+            Render.gl().glLoadIdentity();
             float fov = 60.0f;
-            float aspectRatio = (float) window.getWidth() / window.getHeight();
+            float aspectRatio = (float) width / height;
             float zNear = 0.1f;
             float zFar = 10000.0f;
             float yScale = (float) (1.0f / Math.tan(Math.toRadians(fov / 2.0f)));
@@ -175,65 +287,82 @@ public class Game implements IGameLogic {
             matrix[11] = -1;
             matrix[14] = -((2 * zNear * zFar) / frustumLength);
             matrix[15] = 0;
-            GL11.glLoadMatrixf(matrix);
+            Render.gl().glLoadMatrixf(matrix);
             
             // Set up modelview matrix
-            GL11.glMatrixMode(GL11.GL_MODELVIEW);
-            GL11.glLoadIdentity();
+            Render.gl().glMatrixMode(GL11.GL_MODELVIEW);
+            Render.gl().glLoadIdentity();
             
             // Apply camera rotation
-            GL11.glRotatef(camera.getPitch(), 1.0f, 0.0f, 0.0f);
-            GL11.glRotatef(camera.getYaw(), 0.0f, 1.0f, 0.0f);
+            Render.gl().glRotatef(renderCamera.getPitch(), 1.0f, 0.0f, 0.0f);
+            Render.gl().glRotatef(renderCamera.getYaw(), 0.0f, 1.0f, 0.0f);
             
             // Set up the camera transform based on current view/mode
-            if (player.isNoClipMode()) {
+            if (snapshot.isNoClipMode()) {
                 // In no-clip mode, the camera moves freely (spectator view)
                 // while player body stays at its original position
-                GL11.glTranslatef(-camera.getX(), -camera.getY(), -camera.getZ());
+                Render.gl().glTranslatef(-renderCamera.getX(), -renderCamera.getY(), -renderCamera.getZ());
             } else {
                 // In normal mode, camera is attached to player
-                GL11.glTranslatef(-camera.getX(), -camera.getY(), -camera.getZ());
+                Render.gl().glTranslatef(-renderCamera.getX(), -renderCamera.getY(), -renderCamera.getZ());
             }
             
             // Update frustum for culling
-            camera.update();
+            renderCamera.update();
             
             // Save initial state
-            GL11.glPushAttrib(GL11.GL_ALL_ATTRIB_BITS);
+            Render.gl().glPushAttrib(GL11.GL_ALL_ATTRIB_BITS);
             
             // Render game objects
-            skybox.render();
-            world.render(camera);
+            try (Profiler.Zone z = Profiler.zone("skybox")) {
+                skybox.render();
+            }
+            world.render(renderCamera, snapshot);
             
             // When in no-clip mode, the player body should remain stationary
             // while the camera can move around freely
-            playerRenderer.render(player, camera.getYaw(), camera.getPitch());
+            try (Profiler.Zone z = Profiler.zone("player.render")) {
+                playerRenderer.render(snapshot.getPlayerX(alpha), snapshot.getPlayerY(alpha), snapshot.getPlayerZ(alpha),
+                    snapshot.isNoClipMode(), renderCamera.getYaw(), renderCamera.getPitch());
+            }
             
             // Render UI
-            renderUI(window);
+            try (Profiler.Zone z = Profiler.zone("ui")) {
+                renderUI(width, height, snapshot);
+            }
             
             // Restore state
-            GL11.glPopAttrib();
+            Render.gl().glPopAttrib();
             
             // Always reset polygon mode after rendering
-            GL11.glPolygonMode(GL11.GL_FRONT_AND_BACK, GL11.GL_FILL);
+            Render.gl().glPolygonMode(GL11.GL_FRONT_AND_BACK, GL11.GL_FILL);
         } catch (Exception e) {
             e.printStackTrace();
         }
     }
 
-    private void renderUI(Window window) {
-        GL11.glDisable(GL11.GL_DEPTH_TEST);
-        GL11.glMatrixMode(GL11.GL_PROJECTION);
-        GL11.glPushMatrix();
-        GL11.glLoadIdentity();
-        GL11.glOrtho(0, window.getWidth(), window.getHeight(), 0, -1, 1);
-        GL11.glMatrixMode(GL11.GL_MODELVIEW);
-        GL11.glPushMatrix();
-        GL11.glLoadIdentity();
+    private static void exportTrace() {
+        java.nio.file.Path path = java.nio.file.Paths.get("trace-" + System.currentTimeMillis() + ".json");
+        try {
+            int events = Profiler.exportChromeTrace(path);
+            System.out.println("Wrote " + events + " profiler events to " + path.toAbsolutePath());
+        } catch (java.io.IOException e) {
+            System.err.println("Failed to write profiler trace: " + e.getMessage());
+        }
+    }
+
+    private void renderUI(int width, int height, RenderSnapshot snapshot) {
+        Render.gl().glDisable(GL11.GL_DEPTH_TEST);
+        Render.gl().glMatrixMode(GL11.GL_PROJECTION);
+        Render.gl().glPushMatrix();
+        Render.gl().glLoadIdentity();
+        Render.gl().glOrtho(0, width, height, 0, -1, 1);
+        Render.gl().glMatrixMode(GL11.GL_MODELVIEW);
+        Render.gl().glPushMatrix();
+        Render.gl().glLoadIdentity();
         
         // Reset color for UI elements
-        GL11.glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
+        Render.gl().glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
         
         // Enhanced performance metrics
         if (Debug.showFPS() && timer != null) {
@@ -243,21 +372,21 @@ public class Game implements IGameLogic {
             
             // Show game state (paused, time scale)
             if (paused) {
-                GL11.glColor3f(1.0f, 0.3f, 0.3f);
-                renderText("PAUSED", window.getWidth() / 2 - 50, 30);
-                GL11.glColor3f(1.0f, 1.0f, 1.0f);
+                Render.gl().glColor3f(1.0f, 0.3f, 0.3f);
+                renderText("PAUSED", width / 2 - 50, 30);
+                Render.gl().glColor3f(1.0f, 1.0f, 1.0f);
             }
             
             if (timer.getTimeScale() != 1.0) {
-                GL11.glColor3f(1.0f, 1.0f, 0.0f);
+                Render.gl().glColor3f(1.0f, 1.0f, 0.0f);
                 renderText(String.format("Time Scale: %.2fx", timer.getTimeScale()), 
-                          window.getWidth() - 200, startY + lineHeight * line++);
-                GL11.glColor3f(1.0f, 1.0f, 1.0f);
+                          width - 200, startY + lineHeight * line++);
+                Render.gl().glColor3f(1.0f, 1.0f, 1.0f);
             }
             
             // Show instantaneous frame time and current FPS from Timer
             String fpsText = String.format("FPS: %d", timer.getFPS());
-            renderText(fpsText, window.getWidth() - 150, startY + lineHeight * line++);
+            renderText(fpsText, width - 150, startY + lineHeight * line++);
             
             // Show frame timing statistics from Timer
             String frameTimeText = String.format("Frame Time: %.1fms (Avg: %.1fms, Max: %.1fms, Min: %.1fms)", 
@@ -265,14 +394,24 @@ public class Game implements IGameLogic {
                 timer.getAverageFrameTime(), 
                 timer.getMaxFrameTime(),
                 timer.getMinFrameTime());
-            renderText(frameTimeText, window.getWidth() - 400, startY + lineHeight * line++);
+            renderText(frameTimeText, width - 400, startY + lineHeight * line++);
+            
+            // Tail latency matters more than the mean for stutter
+            String frameTailText = String.format("Frame p50/p99/p99.9: %.1f / %.1f / %.1fms, Over budget: %d",
+                timer.getFrameTimePercentile(50), timer.getFrameTimePercentile(99),
+                timer.getFrameTimePercentile(99.9), timer.getFramesOverBudget());
+            renderText(frameTailText, width - 400, startY + lineHeight * line++);
+            String tickTailText = String.format("Tick p50/p99/p99.9: %.2f / %.2f / %.2fms, Over budget: %d",
+                timer.getTickTimePercentile(50), timer.getTickTimePercentile(99),
+                timer.getTickTimePercentile(99.9), timer.getTicksOverBudget());
+            renderText(tickTailText, width - 400, startY + lineHeight * line++);
             
             // Show CPU utilization
             renderText(String.format("CPU: %.1f%%", timer.getFrameUtilization()), 
-                     window.getWidth() - 150, startY + lineHeight * line++);
+                     width - 150, startY + lineHeight * line++);
             
             // Draw CPU utilization graph
-            drawUtilizationGraph(window.getWidth() - 300, startY + lineHeight * line, 280, 40);
+            drawUtilizationGraph(width - 300, startY + lineHeight * line, 280, 40);
             line += 3; // Graph takes 3 lines worth of space
             
             // Memory usage
@@ -280,46 +419,94 @@ public class Game implements IGameLogic {
             long freeMemory = Runtime.getRuntime().freeMemory() / (1024 * 1024);
             long usedMemory = totalMemory - freeMemory;
             String memoryText = String.format("Memory: %dMB / %dMB", usedMemory, totalMemory);
-            renderText(memoryText, window.getWidth() - 200, startY + lineHeight * line++);
+            renderText(memoryText, width - 200, startY + lineHeight * line++);
+            
+            // Who holds it: estimated bytes per subsystem
+            String worldText = String.format("Footprint: blocks %s, chunk arrays %s, chunk views %s, mesh %s gpu",
+                MemoryFootprint.formatBytes(MemoryFootprint.get("world.blocks")),
+                MemoryFootprint.formatBytes(MemoryFootprint.get("world.chunk_arrays")),
+                MemoryFootprint.formatBytes(MemoryFootprint.get("world.chunk_views")),
+                MemoryFootprint.formatBytes(MemoryFootprint.get("mesh.gpu")));
+            renderText(worldText, width - 400, startY + lineHeight * line++);
+            String assetText = String.format("Footprint: textures %s, fonts %s, total %s",
+                MemoryFootprint.formatBytes(MemoryFootprint.get("textures")),
+                MemoryFootprint.formatBytes(MemoryFootprint.get("fonts")),
+                MemoryFootprint.formatBytes(MemoryFootprint.getTotal()));
+            renderText(assetText, width - 400, startY + lineHeight * line++);
+            
+            // Allocation churn and GC pauses cause the hitches, not the heap size
+            if (memory != null) {
+                String allocText = String.format("Alloc: %d KB/frame, %d KB/tick (peak %d / %d KB)",
+                    memory.getLastFrameBytes() / 1024, memory.getLastTickBytes() / 1024,
+                    memory.getMaxFrameBytes() / 1024, memory.getMaxTickBytes() / 1024);
+                renderText(allocText, width - 400, startY + lineHeight * line++);
+                String gcText = String.format("GC: %d pauses, %dms total, last %s",
+                    memory.getGcPauseCount(), memory.getGcPauseTotalMs(), memory.getLastGcDescription());
+                renderText(gcText, width - 400, startY + lineHeight * line++);
+            }
+            
+            // GL call counts from the previous frame (--gl-stats)
+            CountingRenderBackend glStats = Render.getCounters();
+            if (glStats != null) {
+                String drawText = String.format("GL: %d calls, %d draws (%d lists), %d verts, %d binds, %d compiled",
+                    glStats.getLastFrame(CountingRenderBackend.Stat.CALLS),
+                    glStats.getLastFrame(CountingRenderBackend.Stat.DRAW_CALLS),
+                    glStats.getLastFrame(CountingRenderBackend.Stat.LIST_CALLS),
+                    glStats.getLastFrame(CountingRenderBackend.Stat.VERTICES),
+                    glStats.getLastFrame(CountingRenderBackend.Stat.TEXTURE_BINDS),
+                    glStats.getLastFrame(CountingRenderBackend.Stat.COMPILED_COMMANDS));
+                renderText(drawText, width - 400, startY + lineHeight * line++);
+                String stateText = String.format("GL: %d state, %d attrib pushes (%d full), %d matrix pushes, %d KB up",
+                    glStats.getLastFrame(CountingRenderBackend.Stat.STATE_CHANGES),
+                    glStats.getLastFrame(CountingRenderBackend.Stat.ATTRIB_PUSHES),
+                    glStats.getLastFrame(CountingRenderBackend.Stat.FULL_ATTRIB_PUSHES),
+                    glStats.getLastFrame(CountingRenderBackend.Stat.MATRIX_PUSHES),
+                    glStats.getLastFrame(CountingRenderBackend.Stat.UPLOAD_BYTES) / 1024);
+                renderText(stateText, width - 400, startY + lineHeight * line++);
+            }
             
             // Frame timing breakdown
             String timingText = String.format("Update: %.2fms, Render: %.2fms, Sleep: %.2fms", 
                                            timer.getUpdateTimeMs(), timer.getRenderTimeMs(), timer.getSleepTimeMs());
-            renderText(timingText, window.getWidth() - 350, startY + lineHeight * line++);
+            renderText(timingText, width - 350, startY + lineHeight * line++);
             
             // Visual warnings for performance issues
             if (timer.getMaxFrameTime() > 32.0f) {
-                GL11.glColor3f(1.0f, 0.0f, 0.0f);
-                renderText("WARNING: Frame time spikes detected!", window.getWidth() - 300, startY + lineHeight * line++);
-                GL11.glColor3f(1.0f, 1.0f, 1.0f);
+                Render.gl().glColor3f(1.0f, 0.0f, 0.0f);
+                renderText("WARNING: Frame time spikes detected!", width - 300, startY + lineHeight * line++);
+                Render.gl().glColor3f(1.0f, 1.0f, 1.0f);
             }
             
             if (usedMemory > totalMemory * 0.9) {
-                GL11.glColor3f(1.0f, 0.5f, 0.0f);
-                renderText("WARNING: High memory usage!", window.getWidth() - 250, startY + lineHeight * line++);
-                GL11.glColor3f(1.0f, 1.0f, 1.0f);
+                Render.gl().glColor3f(1.0f, 0.5f, 0.0f);
+                String largest = MemoryFootprint.getLargestCategory();
+                String warning = largest == null ? "WARNING: High memory usage!"
+                    : "WARNING: High memory usage! Largest: " + largest + " "
+                        + MemoryFootprint.formatBytes(MemoryFootprint.get(largest));
+                renderText(warning, width - 400, startY + lineHeight * line++);
+                Render.gl().glColor3f(1.0f, 1.0f, 1.0f);
             }
         }
         
         // Enhanced player info
         if (Debug.showPlayerInfo()) {
             String posText = String.format("Position: %.2f, %.2f, %.2f", 
-                camera.getX(), camera.getY(), camera.getZ());
+                snapshot.getCameraX(), snapshot.getCameraY(), snapshot.getCameraZ());
             renderText(posText, 10, 30);
             
             String rotText = String.format("Rotation: Pitch %.1f°, Yaw %.1f°", 
-                camera.getPitch(), camera.getYaw());
+                snapshot.getPitch(), snapshot.getYaw());
             renderText(rotText, 10, 50);
             
             if (player != null) {
-                String modeText = "Mode: " + (player.isNoClipMode() ? "NoClip" : "Normal");
+                String modeText = "Mode: " + (snapshot.isNoClipMode() ? "NoClip" : "Normal");
                 renderText(modeText, 10, 70);
                 
                 // Display sprint status
-                if (player.isSprinting()) {
-                    GL11.glColor3f(0.0f, 1.0f, 0.0f); // Green for sprint
+                if (snapshot.isSprinting()) {
+                    Render.gl().glColor3f(0.0f, 1.0f, 0.0f); // Green for sprint
                     renderText("SPRINTING", 10, 90);
-                    GL11.glColor3f(1.0f, 1.0f, 1.0f); // Reset color
+                    Render.gl().glColor3f(1.0f, 1.0f, 1.0f); // Reset color
                 }
                 
                 // Display wireframe mode
@@ -329,14 +516,14 @@ public class Game implements IGameLogic {
             }
             
             // Game time
-            renderText(String.format("Game Time: %.1fs", gameTime), 10, 130);
+            renderText(String.format("Game Time: %.1fs", snapshot.getGameTime()), 10, 130);
         }
         
-        GL11.glPopMatrix();
-        GL11.glMatrixMode(GL11.GL_PROJECTION);
-        GL11.glPopMatrix();
-        GL11.glMatrixMode(GL11.GL_MODELVIEW);
-        GL11.glEnable(GL11.GL_DEPTH_TEST);
+        Render.gl().glPopMatrix();
+        Render.gl().glMatrixMode(GL11.GL_PROJECTION);
+        Render.gl().glPopMatrix();
+        Render.gl().glMatrixMode(GL11.GL_MODELVIEW);
+        Render.gl().glEnable(GL11.GL_DEPTH_TEST);
     }
     
     /**
@@ -344,39 +531,39 @@ public class Game implements IGameLogic {
      */
     private void drawUtilizationGraph(int x, int y, int width, int height) {
         // Draw background
-        GL11.glDisable(GL11.GL_TEXTURE_2D);
-        GL11.glColor4f(0.0f, 0.0f, 0.0f, 0.5f);
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex2f(x, y);
-        GL11.glVertex2f(x + width, y);
-        GL11.glVertex2f(x + width, y + height);
-        GL11.glVertex2f(x, y + height);
-        GL11.glEnd();
+        Render.gl().glDisable(GL11.GL_TEXTURE_2D);
+        Render.gl().glColor4f(0.0f, 0.0f, 0.0f, 0.5f);
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glVertex2f(x, y);
+        Render.gl().glVertex2f(x + width, y);
+        Render.gl().glVertex2f(x + width, y + height);
+        Render.gl().glVertex2f(x, y + height);
+        Render.gl().glEnd();
         
         // Draw grid lines
-        GL11.glColor4f(0.3f, 0.3f, 0.3f, 0.5f);
-        GL11.glBegin(GL11.GL_LINES);
+        Render.gl().glColor4f(0.3f, 0.3f, 0.3f, 0.5f);
+        Render.gl().glBegin(GL11.GL_LINES);
         // Horizontal lines at 25%, 50%, 75%
         for (int i = 1; i < 4; i++) {
             float lineY = y + height * (1.0f - i/4.0f);
-            GL11.glVertex2f(x, lineY);
-            GL11.glVertex2f(x + width, lineY);
+            Render.gl().glVertex2f(x, lineY);
+            Render.gl().glVertex2f(x + width, lineY);
         }
-        GL11.glEnd();
+        Render.gl().glEnd();
         
         // Draw graph
-        GL11.glColor4f(0.0f, 1.0f, 0.0f, 1.0f);
-        GL11.glBegin(GL11.GL_LINE_STRIP);
+        Render.gl().glColor4f(0.0f, 1.0f, 0.0f, 1.0f);
+        Render.gl().glBegin(GL11.GL_LINE_STRIP);
         for (int i = 0; i < cpuUtilizationHistory.length; i++) {
             int idx = (utilizationIndex + i) % cpuUtilizationHistory.length;
             float value = cpuUtilizationHistory[idx] / 100.0f; // Convert to 0.0-1.0 range
             value = Math.min(1.0f, Math.max(0.0f, value)); // Clamp to valid range
             float pointX = x + (width * i / (float)cpuUtilizationHistory.length);
             float pointY = y + height - (value * height);
-            GL11.glVertex2f(pointX, pointY);
+            Render.gl().glVertex2f(pointX, pointY);
         }
-        GL11.glEnd();
-        GL11.glEnable(GL11.GL_TEXTURE_2D);
+        Render.gl().glEnd();
+        Render.gl().glEnable(GL11.GL_TEXTURE_2D);
     }
 
     private void renderText(String text, int x, int y) {
@@ -389,23 +576,125 @@ public class Game implements IGameLogic {
         if (world != null) world.cleanup();
         if (skybox != null) skybox.cleanup();
         if (playerRenderer != null) playerRenderer.cleanup();
-        mystuff.utils.TextureLoader.cleanup();
+        TextureLoader.cleanup();
         mystuff.utils.FontLoader.cleanup();
+        InputManager.stopRecording();
     }
 
     public static void main(String[] args) {
         Game game = new Game();
+        
+        // --headless runs the simulation without a window, optionally for a fixed number of ticks;
+        // --unthrottled runs those ticks back-to-back to measure raw simulation throughput.
+        // --record <file> saves every tick's input; --replay <file> plays it back with the
+        // recorded seed and tick rate, then stops, so runs can be compared across builds.
+        // --jfr <file> keeps a continuous flight recording and writes it there on exit
+        // --metrics <file> appends a metrics snapshot every second (.csv or JSON lines);
+        // --metrics-port <port> serves them for Prometheus on localhost
+        // --gl-stats counts GL calls per frame for the HUD and metrics
+        boolean headless = false;
+        boolean unthrottled = false;
+        long maxTicks = 0;
+        String recordPath = null;
+        String replayPath = null;
+        String jfrPath = null;
+        String metricsPath = null;
+        int metricsPort = 0;
+        for (int i = 0; i < args.length; i++) {
+            if (args[i].equals("--headless")) {
+                headless = true;
+            } else if (args[i].equals("--unthrottled")) {
+                unthrottled = true;
+            } else if (args[i].equals("--ticks") && i + 1 < args.length) {
+                maxTicks = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--seed") && i + 1 < args.length) {
+                game.worldSeed = Long.parseLong(args[++i]);
+            } else if (args[i].equals("--record") && i + 1 < args.length) {
+                recordPath = args[++i];
+            } else if (args[i].equals("--replay") && i + 1 < args.length) {
+                replayPath = args[++i];
+            } else if (args[i].equals("--jfr") && i + 1 < args.length) {
+                jfrPath = args[++i];
+            } else if (args[i].equals("--metrics") && i + 1 < args.length) {
+                metricsPath = args[++i];
+            } else if (args[i].equals("--metrics-port") && i + 1 < args.length) {
+                metricsPort = Integer.parseInt(args[++i]);
+            } else if (args[i].equals("--gl-stats")) {
+                Render.enableCounting();
+            }
+        }
+        
+        int ups = headless ? 120 : 60;
+        try {
+            if (replayPath != null) {
+                InputReplay replay = InputReplay.open(java.nio.file.Paths.get(replayPath));
+                game.worldSeed = replay.getSeed();
+                ups = replay.getTicksPerSecond();
+                maxTicks = maxTicks > 0 ? Math.min(maxTicks, replay.getTickCount()) : replay.getTickCount();
+                InputManager.startReplay(replay);
+            } else if (recordPath != null) {
+                InputManager.startRecording(java.nio.file.Paths.get(recordPath), game.worldSeed, 1.0f / ups);
+            }
+        } catch (java.io.IOException e) {
+            System.err.println("Input recording unavailable: " + e.getMessage());
+            return;
+        }
+        
+        if (headless) {
+            GameEngine engine = GameEngine.createHeadless(game, ups);
+            engine.setMaxTicks(maxTicks);
+            engine.setRealtime(!unthrottled);
+            if (jfrPath != null) engine.setFlightRecording(java.nio.file.Paths.get(jfrPath));
+            if (metricsPath != null) engine.setMetricsFile(java.nio.file.Paths.get(metricsPath));
+            engine.setMetricsPort(metricsPort);
+            engine.start();
+            return;
+        }
+        
         GameEngine engine = new GameEngine("Minecraft Clone", 1920, 1080, game, 144); // Higher target FPS
         
         // Enable high-performance options
         engine.setHighPrecisionThread(true);
-        engine.setSleepMode(GameEngine.SleepMode.BUSY_WAIT); // Better timing accuracy
+        engine.setSleepMode(GameEngine.SleepMode.PRECISE); // Accurate pacing without spinning a core
+        engine.setThreadedSimulation(true); // Tick on a separate thread from rendering
+        engine.setTargetUPS(ups); // Rendering interpolates between ticks, so 60 UPS looks smooth
+        engine.setMaxTicks(maxTicks);
+        if (jfrPath != null) engine.setFlightRecording(java.nio.file.Paths.get(jfrPath));
+        if (metricsPath != null) engine.setMetricsFile(java.nio.file.Paths.get(metricsPath));
+        engine.setMetricsPort(metricsPort);
         
         // Start the game
         engine.start();
     }
 
+    /**
+     * Overrides the world generated by init(). Call before init().
+     */
+    public void setWorldOptions(long seed, int width, int height, int depth, int groundHeight) {
+        this.worldSeed = seed;
+        this.worldWidth = width;
+        this.worldHeight = height;
+        this.worldDepth = depth;
+        this.worldGroundHeight = groundHeight;
+    }
+    
+    public World getWorld() {
+        return world;
+    }
+    
+    public Player getPlayer() {
+        return player;
+    }
+    
+    public Camera getCamera() {
+        return camera;
+    }
+
     public void setTimer(Timer timer) {
         this.timer = timer;
     }
+
+    public void setMemoryTelemetry(MemoryTelemetry memory) {
+        this.memory = memory;
+    }
 } 
\ No newline at end of file
@@ -3,24 +3,24 @@ package mystuff.game;
 import mystuff.utils.Shapes;
 import mystuff.utils.TextureLoader;
 import static org.lwjgl.opengl.GL11.*;
+import mystuff.engine.Render;
 
 public class Leaves {
     private static final int NUM_CROSS_QUADS = 4;   // Number of crossing billboard quads
     private static final float LEAF_WIDTH = 30.0f;   // Width of leaf billboards
     private static final float LEAF_HEIGHT = 40.0f;  // Height of leaf billboards
-    private static int leavesTexture = -1;
+    static final String TEXTURE_PATH = "resources/textures/bigtree.png";
+    private TextureLoader.Texture leavesTexture; // Shared by every tree; each holds a reference
     
-    public Leaves() {
-        if (leavesTexture == -1) {
-            System.out.println("Attempting to load leaves texture...");
-            leavesTexture = TextureLoader.loadTexture("resources/textures/bigtree.png");
-            if (leavesTexture != -1) {
-                System.out.println("Successfully loaded leaves texture with ID: " + leavesTexture);
-                glBindTexture(GL_TEXTURE_2D, leavesTexture);
-                glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_LINEAR);
-                glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_LINEAR);
-                glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_S, GL_CLAMP);
-                glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_WRAP_T, GL_CLAMP);
+    /**
+     * Takes a reference to the shared texture on first render, once a GL context is available
+     */
+    private void loadTexture() {
+        if (leavesTexture == null) {
+            leavesTexture = TextureLoader.acquire(TEXTURE_PATH).await();
+            if (leavesTexture.isLoaded()) {
+                leavesTexture.setFilter(GL_LINEAR_MIPMAP_LINEAR, GL_LINEAR);
+                leavesTexture.setWrap(GL_CLAMP, GL_CLAMP);
             } else {
                 System.err.println("Failed to load leaves texture!");
             }
@@ -28,37 +28,38 @@ public class Leaves {
     }
 
     private void renderLeafQuad(float width, float height, float angle, float yOffset, java.util.Random random) {
-        glPushMatrix();
+        Render.gl().glPushMatrix();
         
         // Add vertical offset for layering
-        glTranslatef(0, yOffset, 0);
+        Render.gl().glTranslatef(0, yOffset, 0);
         
         // Rotate around Y axis for crossed billboard effect
-        glRotatef(angle, 0, 1, 0);
+        Render.gl().glRotatef(angle, 0, 1, 0);
         
         // Add slight random tilt for variation
         float tiltX = (random.nextFloat() * 10.0f - 5.0f);
         float tiltZ = (random.nextFloat() * 10.0f - 5.0f);
-        glRotatef(tiltX, 1, 0, 0);
-        glRotatef(tiltZ, 0, 0, 1);
+        Render.gl().glRotatef(tiltX, 1, 0, 0);
+        Render.gl().glRotatef(tiltZ, 0, 0, 1);
         
         // Draw the leaf quad
-        glBegin(GL_QUADS);
-        glTexCoord2f(0.0f, 0.0f);
-        glVertex3f(-width/2, 0, 0);
-        glTexCoord2f(1.0f, 0.0f);
-        glVertex3f(width/2, 0, 0);
-        glTexCoord2f(1.0f, 1.0f);
-        glVertex3f(width/2, height, 0);
-        glTexCoord2f(0.0f, 1.0f);
-        glVertex3f(-width/2, height, 0);
-        glEnd();
+        Render.gl().glBegin(GL_QUADS);
+        Render.gl().glTexCoord2f(0.0f, 0.0f);
+        Render.gl().glVertex3f(-width/2, 0, 0);
+        Render.gl().glTexCoord2f(1.0f, 0.0f);
+        Render.gl().glVertex3f(width/2, 0, 0);
+        Render.gl().glTexCoord2f(1.0f, 1.0f);
+        Render.gl().glVertex3f(width/2, height, 0);
+        Render.gl().glTexCoord2f(0.0f, 1.0f);
+        Render.gl().glVertex3f(-width/2, height, 0);
+        Render.gl().glEnd();
         
-        glPopMatrix();
+        Render.gl().glPopMatrix();
     }
 
     public void render(float x, float y, float z) {
-        if (leavesTexture == -1) {
+        loadTexture();
+        if (!leavesTexture.isLoaded()) {
             System.err.println("Warning: Leaves texture not loaded!");
             return;
         }
@@ -68,27 +69,27 @@ public class Leaves {
         java.util.Random random = new java.util.Random(seed);
         
         // Setup for leaves
-        glPushMatrix();
-        glTranslatef(x, y, z);  // Position at the specified coordinates
+        Render.gl().glPushMatrix();
+        Render.gl().glTranslatef(x, y, z);  // Position at the specified coordinates
         
         // Save current OpenGL state
-        glPushAttrib(GL_ALL_ATTRIB_BITS);
+        Render.gl().glPushAttrib(GL_ALL_ATTRIB_BITS);
         
         // Enable alpha testing to discard fully transparent pixels
-        glEnable(GL_ALPHA_TEST);
-        glAlphaFunc(GL_GREATER, 0.1f);
+        Render.gl().glEnable(GL_ALPHA_TEST);
+        Render.gl().glAlphaFunc(GL_GREATER, 0.1f);
         
         // Enable texturing and blending
-        glEnable(GL_TEXTURE_2D);
-        glEnable(GL_BLEND);
-        glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+        Render.gl().glEnable(GL_TEXTURE_2D);
+        Render.gl().glEnable(GL_BLEND);
+        Render.gl().glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
         
         // Bind texture and set color to white (no tint)
-        glBindTexture(GL_TEXTURE_2D, leavesTexture);
-        glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
+        leavesTexture.bind();
+        Render.gl().glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
         
         // Temporarily disable depth writing but keep depth testing
-        glDepthMask(false);
+        Render.gl().glDepthMask(false);
         
         // Calculate angle step for evenly distributed quads
         float angleStep = 180.0f / NUM_CROSS_QUADS;
@@ -105,17 +106,17 @@ public class Leaves {
         }
         
         // Restore depth writing
-        glDepthMask(true);
+        Render.gl().glDepthMask(true);
         
         // Restore previous OpenGL state
-        glPopAttrib();
-        glPopMatrix();
+        Render.gl().glPopAttrib();
+        Render.gl().glPopMatrix();
     }
 
     public void cleanup() {
-        if (leavesTexture != -1) {
-            glDeleteTextures(leavesTexture);
-            leavesTexture = -1;
+        if (leavesTexture != null) {
+            leavesTexture.release();
+            leavesTexture = null;
         }
     }
 } 
\ No newline at end of file
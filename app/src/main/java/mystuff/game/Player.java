@@ -5,11 +5,15 @@ import org.lwjgl.opengl.GL11;
 import mystuff.engine.GameObject;
 import mystuff.engine.Window;
 import mystuff.engine.Camera;
+import mystuff.engine.Profiler;
+import mystuff.engine.Render;
 import mystuff.utils.Shapes;
 import mystuff.utils.TextureLoader;
 import java.util.List;
 import mystuff.utils.Debug;
 import mystuff.utils.KeyboardManager;
+import mystuff.utils.Log;
+import mystuff.utils.MouseManager;
 
 public class Player extends GameObject {
     private float speed = 5.0f;
@@ -18,8 +22,6 @@ public class Player extends GameObject {
     private float size = 10.0f;
     private Camera camera;  // Reference to the camera
     private float mouseSensitivity = 0.2f;
-    private boolean firstMouse = true;
-    private float lastX = 400, lastY = 300;
     private float velocity = 0.0f;
     private float gravity = -9.0f;
     private World world;  // Reference to the world
@@ -29,6 +31,7 @@ public class Player extends GameObject {
     private boolean wasSpacePressed = false;  // Track space key state
     private static final float GROUND_CHECK_DISTANCE = 0.05f;  // How far below to check for ground
     private static final float MAX_VELOCITY = 20.0f;  // Reduced maximum velocity
+    private static final Log.Site LOG_STATE = Log.site("player.state", 2, 1); // Debug output, twice a second
     private BoundingBox boundingBox; // Player's bounding box
     
     // Player dimensions for bounding box
@@ -50,7 +53,7 @@ public class Player extends GameObject {
     // Store last position before entering no-clip mode
     private float lastNormalX, lastNormalY, lastNormalZ;
 
-    private static int playerTexture = -1;
+    private TextureLoader.Texture playerTexture;
     private static final float TEXTURE_SCALE = 1280.0f;  // Your texture width
 
     private PlayerRenderer renderer;
@@ -67,25 +70,29 @@ public class Player extends GameObject {
         // Create player's bounding box
         updateBoundingBox();
 
+        // Initialize physics; rendering resources are created on first render
+        this.physics = new PlayerPhysics();
+    }
+
+    /**
+     * Loads the player texture and renderer. Needs a GL context, so it is deferred
+     * until the player is first drawn.
+     */
+    private void initRendering() {
         // Load player texture if not already loaded
-        if (playerTexture == -1) {
-            playerTexture = TextureLoader.loadTexture("resources/textures/player.png");
-            if (playerTexture == -1) {
+        if (playerTexture == null) {
+            playerTexture = TextureLoader.acquire(PlayerRenderer.TEXTURE_PATH).await();
+            if (!playerTexture.isLoaded()) {
                 System.err.println("Failed to load player texture!");
             } else {
-                System.out.println("Successfully loaded player texture with ID: " + playerTexture);
+                System.out.println("Successfully loaded player texture with ID: " + playerTexture.getId());
                 // Set texture parameters for smoother rendering
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, playerTexture);
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL11.GL_CLAMP);
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL11.GL_CLAMP);
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+                playerTexture.setFilter(GL11.GL_LINEAR, GL11.GL_LINEAR);
+                playerTexture.setWrap(GL11.GL_CLAMP, GL11.GL_CLAMP);
+                Render.gl().glBindTexture(GL11.GL_TEXTURE_2D, 0);
             }
         }
 
-        // Initialize physics and renderer
-        this.physics = new PlayerPhysics();
         this.renderer = new PlayerRenderer();
         this.renderer.init();
     }
@@ -124,43 +131,47 @@ public class Player extends GameObject {
             Debug.togglePlayerInfo();
         }
 
+        // Apply this tick's mouse look
+        applyMouseInput();
+
         // Delegate physics updates to the PlayerPhysics class
-        physics.updatePhysics(this, window, deltaTime, camera, world, noClipMode, Debug.showPlayerInfo());
+        try (Profiler.Zone z = Profiler.zone("player.physics")) {
+            physics.updatePhysics(this, window, deltaTime, camera, world, noClipMode, Debug.showPlayerInfo());
+        }
 
-        if (Debug.showPlayerInfo()) {
-            System.out.printf("Position: (%.2f, %.2f, %.2f) Velocity: %.2f OnGround: %b NoClip: %b%n", 
+        if (Debug.showPlayerInfo() && LOG_STATE.shouldLog()) {
+            LOG_STATE.log("Position: (%.2f, %.2f, %.2f) Velocity: %.2f OnGround: %b NoClip: %b", 
                 x, y, z, velocity, isOnGround, noClipMode);
         }
     }
 
     @Override
     public void render() {
-        renderer.render(this, camera.getYaw(), camera.getPitch());
+        if (renderer == null) {
+            initRendering();
+        }
+        renderer.render(x, y, z, noClipMode, camera.getYaw(), camera.getPitch());
     }
 
     public void cleanup() {
         if (renderer != null) {
             renderer.cleanup();
         }
+        if (playerTexture != null) {
+            playerTexture.release();
+            playerTexture = null;
+        }
     }
 
-    public void handleMouseInput(float xpos, float ypos) {
-        if (firstMouse) {
-            lastX = xpos;
-            lastY = ypos;
-            firstMouse = false;
-            return;
+    /**
+     * Turns the camera by the cursor movement drained for this tick
+     */
+    private void applyMouseInput() {
+        float xoffset = MouseManager.getDeltaX();
+        float yoffset = -MouseManager.getDeltaY(); // Screen y grows downwards
+        if (xoffset != 0 || yoffset != 0) {
+            camera.rotate(yoffset * mouseSensitivity, xoffset * mouseSensitivity);
         }
-
-        float xoffset = xpos - lastX;
-        float yoffset = lastY - ypos;
-        lastX = xpos;
-        lastY = ypos;
-
-        xoffset *= mouseSensitivity;
-        yoffset *= mouseSensitivity;
-
-        camera.rotate(yoffset, xoffset);
     }
     
     public BoundingBox getBoundingBox() {
@@ -3,7 +3,9 @@ package mystuff.game;
 import org.lwjgl.glfw.GLFW;
 import mystuff.engine.Window;
 import mystuff.engine.Camera;
+import mystuff.engine.JfrEvents;
 import mystuff.utils.KeyboardManager;
+import mystuff.utils.Log;
 import java.util.List;
 
 /**
@@ -15,6 +17,11 @@ public class PlayerPhysics {
     private static final float MAX_VELOCITY = 20.0f;
     private static final float GRAVITY = -20.0f;
     
+    // Debug output, sampled so it doesn't distort the timings it reports
+    private static final Log.Site LOG_JUMP = Log.site("physics.jump", 5, 1);
+    private static final Log.Site LOG_CLAMP = Log.site("physics.clamp", 1, 1);
+    private static final Log.Site LOG_TIMING = Log.site("physics.timing", 2, 1);
+    
     // State variables
     private float velocity = 0.0f;
     private boolean isOnGround = false;
@@ -26,11 +33,16 @@ public class PlayerPhysics {
      * Main update method that delegates to the appropriate physics handler
      */
     public void updatePhysics(Player player, Window window, float deltaTime, Camera camera, World world, boolean noClipMode, boolean debugMode) {
+        JfrEvents.PhysicsTick event = new JfrEvents.PhysicsTick();
+        event.begin();
         if (noClipMode) {
             updateCameraNoClip(player, window, deltaTime, camera);
         } else {
-            updatePlayerPhysics(player, window, deltaTime, camera, world, debugMode);
+            event.blocksChecked = updatePlayerPhysics(player, window, deltaTime, camera, world, debugMode);
         }
+        event.noClip = noClipMode;
+        event.onGround = isOnGround;
+        event.commit();
     }
 
     /**
@@ -104,8 +116,9 @@ public class PlayerPhysics {
 
     /**
      * Updates player position with collision detection and physics
+     * @return number of blocks checked for collisions
      */
-    private void updatePlayerPhysics(Player player, Window window, float deltaTime, Camera camera, World world, boolean debugMode) {
+    private int updatePlayerPhysics(Player player, Window window, float deltaTime, Camera camera, World world, boolean debugMode) {
         // Performance timing - start
         long startTime = System.nanoTime();
         
@@ -124,7 +137,7 @@ public class PlayerPhysics {
         if (KeyboardManager.isKeyJustPressed(GLFW.GLFW_KEY_R)) {
             player.setPosition(5.0f, 5.0f, 5.0f);
             player.updateBoundingBox();
-            return;
+            return blocks.size();
         }
         
         // Check if player is standing on ground
@@ -151,7 +164,7 @@ public class PlayerPhysics {
             velocity = player.getJumpForce();
             isOnGround = false;
             player.setOnGround(false);
-            if (debugMode) System.out.println("Jump initiated! Velocity: " + velocity);
+            if (debugMode && LOG_JUMP.shouldLog()) LOG_JUMP.log("Jump initiated! Velocity: %.2f", velocity);
         }
         wasSpacePressed = isSpacePressed;
 
@@ -160,8 +173,8 @@ public class PlayerPhysics {
             velocity += GRAVITY * deltaTime;
             // Clamp velocity to maximum speed
             velocity = Math.max(Math.min(velocity, MAX_VELOCITY), -MAX_VELOCITY);
-            if (debugMode && Math.abs(velocity) >= MAX_VELOCITY) {
-                System.out.println("Velocity clamped at: " + velocity);
+            if (debugMode && Math.abs(velocity) >= MAX_VELOCITY && LOG_CLAMP.shouldLog()) {
+                LOG_CLAMP.log("Velocity clamped at: %.2f", velocity);
             }
         } else {
             // Reset velocity when on ground
@@ -291,9 +304,10 @@ public class PlayerPhysics {
         
         // Performance timing - end
         long totalTime = System.nanoTime() - startTime;
-        if (debugMode) {
-            System.out.printf("Physics performance: Block fetch: %.2fms, Total physics: %.2fms, Blocks checked: %d%n", 
+        if (debugMode && LOG_TIMING.shouldLog()) {
+            LOG_TIMING.log("Physics performance: Block fetch: %.2fms, Total physics: %.2fms, Blocks checked: %d", 
                 blockFetchTime / 1_000_000.0, totalTime / 1_000_000.0, blocks.size());
         }
+        return blocks.size();
     }
 } 
\ No newline at end of file
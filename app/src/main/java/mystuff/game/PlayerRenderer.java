@@ -1,13 +1,15 @@
 package mystuff.game;
 
 import static org.lwjgl.opengl.GL11.*;
+import mystuff.engine.Render;
 import mystuff.utils.TextureLoader;
 import mystuff.utils.Shapes;
 import mystuff.game.PlayerTextureMap.BodyPart;
 import mystuff.utils.Debug;
 
 public class PlayerRenderer {
-    private static int playerTexture = -1;
+    static final String TEXTURE_PATH = "resources/textures/player.png";
+    private TextureLoader.Texture playerTexture;
     
     // Model dimensions
     private static final float HEAD_SIZE = 0.5f;
@@ -26,12 +28,10 @@ public class PlayerRenderer {
     private static final int SPHERE_STACKS = 16;
     
     public void init() {
-        if (playerTexture == -1) {
-            playerTexture = TextureLoader.loadTexture("resources/textures/player.png");
-            if (playerTexture != -1) {
-                glBindTexture(GL_TEXTURE_2D, playerTexture);
-                glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
-                glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
+        if (playerTexture == null) {
+            playerTexture = TextureLoader.acquire(TEXTURE_PATH).await();
+            if (playerTexture.isLoaded()) {
+                playerTexture.setFilter(GL_NEAREST, GL_NEAREST);
                 System.out.println("Player texture loaded successfully!");
             } else {
                 System.err.println("Failed to load player texture!");
@@ -39,28 +39,32 @@ public class PlayerRenderer {
         }
     }
 
-    public void render(Player player, float yaw, float pitch) {
+    /**
+     * Renders the player body at the given pose. Takes plain values rather than the
+     * Player so it can draw from a render snapshot.
+     */
+    public void render(float x, float y, float z, boolean noClipMode, float yaw, float pitch) {
         // Only render player model if texture is loaded AND we're in no-clip mode
         // In first-person mode, the body should be hidden
-        if (playerTexture == -1 || !player.isNoClipMode()) return;
+        if (playerTexture == null || !playerTexture.isLoaded() || !noClipMode) return;
 
-        glPushMatrix();
+        Render.gl().glPushMatrix();
         
         // Move to player position and adjust height to make feet touch ground
-        glTranslatef(player.getX(), player.getY() - LEG_HEIGHT/3, player.getZ());
+        Render.gl().glTranslatef(x, y - LEG_HEIGHT/3, z);
         
         // Enable texturing
-        glEnable(GL_TEXTURE_2D);
-        glBindTexture(GL_TEXTURE_2D, playerTexture);
+        Render.gl().glEnable(GL_TEXTURE_2D);
+        playerTexture.bind();
         
         // Set color to white to render texture properly
-        glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
+        Render.gl().glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
         
         // Draw head with rotation
-        glPushMatrix();
-        glTranslatef(0, BODY_HEIGHT + HEAD_SIZE/2, 0); // Position head above body
-        glRotatef(-yaw, 0, 1, 0);  // Rotate around Y axis (left/right)
-        glRotatef(-pitch, 1, 0, 0);  // Invert pitch rotation for natural up/down movement
+        Render.gl().glPushMatrix();
+        Render.gl().glTranslatef(0, BODY_HEIGHT + HEAD_SIZE/2, 0); // Position head above body
+        Render.gl().glRotatef(-yaw, 0, 1, 0);  // Rotate around Y axis (left/right)
+        Render.gl().glRotatef(-pitch, 1, 0, 0);  // Invert pitch rotation for natural up/down movement
         
         // Set up texture coordinates for the head
         float startU = 160.0f/1280.0f;
@@ -73,7 +77,7 @@ public class PlayerRenderer {
             float phi1 = (float) Math.PI * i / SPHERE_STACKS;
             float phi2 = (float) Math.PI * (i + 1) / SPHERE_STACKS;
             
-            glBegin(GL_QUAD_STRIP);
+            Render.gl().glBegin(GL_QUAD_STRIP);
             for (int j = 0; j <= SPHERE_SLICES; j++) {
                 float theta = 2.0f * (float) Math.PI * j / SPHERE_SLICES;
                 
@@ -86,49 +90,48 @@ public class PlayerRenderer {
                 float x1 = (float) (Math.sin(phi1) * Math.cos(theta));
                 float y1 = (float) Math.cos(phi1);
                 float z1 = (float) (Math.sin(phi1) * Math.sin(theta));
-                glTexCoord2f(u, v1);
-                glNormal3f(x1, y1, z1);
-                glVertex3f(HEAD_SIZE * x1, HEAD_SIZE * y1, HEAD_SIZE * z1);
+                Render.gl().glTexCoord2f(u, v1);
+                Render.gl().glNormal3f(x1, y1, z1);
+                Render.gl().glVertex3f(HEAD_SIZE * x1, HEAD_SIZE * y1, HEAD_SIZE * z1);
                 
                 // Second vertex
                 float x2 = (float) (Math.sin(phi2) * Math.cos(theta));
                 float y2 = (float) Math.cos(phi2);
                 float z2 = (float) (Math.sin(phi2) * Math.sin(theta));
-                glTexCoord2f(u, v2);
-                glNormal3f(x2, y2, z2);
-                glVertex3f(HEAD_SIZE * x2, HEAD_SIZE * y2, HEAD_SIZE * z2);
+                Render.gl().glTexCoord2f(u, v2);
+                Render.gl().glNormal3f(x2, y2, z2);
+                Render.gl().glVertex3f(HEAD_SIZE * x2, HEAD_SIZE * y2, HEAD_SIZE * z2);
             }
-            glEnd();
+            Render.gl().glEnd();
         }
-        glPopMatrix();
+        Render.gl().glPopMatrix();
 
         // Draw body (cuboid) without rotation
-        glPushMatrix();
-        glTranslatef(0, BODY_HEIGHT/2, 0);
+        Render.gl().glPushMatrix();
+        Render.gl().glTranslatef(0, BODY_HEIGHT/2, 0);
         renderBody();
-        glPopMatrix();
+        Render.gl().glPopMatrix();
 
         // Draw arms and legs without rotation
         renderArms();
         renderLegs();
         
         // Cleanup
-        glDisable(GL_TEXTURE_2D);
+        Render.gl().glDisable(GL_TEXTURE_2D);
         
         // Render bounding box if debug mode is enabled
         if (Debug.showBoundingBoxes()) {
-            BoundingBox bb = player.getBoundingBox();
-            glPushMatrix();
+            Render.gl().glPushMatrix();
             // Reset position since we're already at player's position
-            glColor3f(1.0f, 0.0f, 0.0f);  // Red for player bounding box
-            glPolygonMode(GL_FRONT_AND_BACK, GL_LINE);  // Wireframe mode
-            Shapes.cuboid(bb.getWidth(), bb.getHeight(), bb.getDepth());
-            glPolygonMode(GL_FRONT_AND_BACK, GL_FILL);  // Back to fill mode
-            glColor4f(1.0f, 1.0f, 1.0f, 1.0f);  // Reset color
-            glPopMatrix();
+            Render.gl().glColor3f(1.0f, 0.0f, 0.0f);  // Red for player bounding box
+            Render.gl().glPolygonMode(GL_FRONT_AND_BACK, GL_LINE);  // Wireframe mode
+            Shapes.cuboid(Player.PLAYER_WIDTH, Player.PLAYER_HEIGHT, Player.PLAYER_DEPTH);
+            Render.gl().glPolygonMode(GL_FRONT_AND_BACK, GL_FILL);  // Back to fill mode
+            Render.gl().glColor4f(1.0f, 1.0f, 1.0f, 1.0f);  // Reset color
+            Render.gl().glPopMatrix();
         }
 
-        glPopMatrix();
+        Render.gl().glPopMatrix();
     }
     
     private void renderHead() {
@@ -327,46 +330,46 @@ public class PlayerRenderer {
     }
     
     private void renderQuad(BodyPart part, float[] v1, float[] v2, float[] v3, float[] v4) {
-        glBegin(GL_QUADS);
-        glTexCoord2f(part.u, part.getEndV()); glVertex3f(v1[0], v1[1], v1[2]);
-        glTexCoord2f(part.getEndU(), part.getEndV()); glVertex3f(v2[0], v2[1], v2[2]);
-        glTexCoord2f(part.getEndU(), part.v); glVertex3f(v3[0], v3[1], v3[2]);
-        glTexCoord2f(part.u, part.v); glVertex3f(v4[0], v4[1], v4[2]);
-        glEnd();
+        Render.gl().glBegin(GL_QUADS);
+        Render.gl().glTexCoord2f(part.u, part.getEndV()); Render.gl().glVertex3f(v1[0], v1[1], v1[2]);
+        Render.gl().glTexCoord2f(part.getEndU(), part.getEndV()); Render.gl().glVertex3f(v2[0], v2[1], v2[2]);
+        Render.gl().glTexCoord2f(part.getEndU(), part.v); Render.gl().glVertex3f(v3[0], v3[1], v3[2]);
+        Render.gl().glTexCoord2f(part.u, part.v); Render.gl().glVertex3f(v4[0], v4[1], v4[2]);
+        Render.gl().glEnd();
     }
     
     private void renderArms() {
         // Right Arm
-        glPushMatrix();
-        glTranslatef(BODY_WIDTH + ARM_WIDTH/2, BODY_HEIGHT, 0);
+        Render.gl().glPushMatrix();
+        Render.gl().glTranslatef(BODY_WIDTH + ARM_WIDTH/2, BODY_HEIGHT, 0);
         renderArm(true);
-        glPopMatrix();
+        Render.gl().glPopMatrix();
 
         // Left Arm
-        glPushMatrix();
-        glTranslatef(-(BODY_WIDTH + ARM_WIDTH/2), BODY_HEIGHT, 0);
+        Render.gl().glPushMatrix();
+        Render.gl().glTranslatef(-(BODY_WIDTH + ARM_WIDTH/2), BODY_HEIGHT, 0);
         renderArm(false);
-        glPopMatrix();
+        Render.gl().glPopMatrix();
     }
 
     private void renderLegs() {
         // Right Leg
-        glPushMatrix();
-        glTranslatef(LEG_WIDTH/2, 0, 0);
+        Render.gl().glPushMatrix();
+        Render.gl().glTranslatef(LEG_WIDTH/2, 0, 0);
         renderLeg(true);
-        glPopMatrix();
+        Render.gl().glPopMatrix();
 
         // Left Leg
-        glPushMatrix();
-        glTranslatef(-LEG_WIDTH/2, 0, 0);
+        Render.gl().glPushMatrix();
+        Render.gl().glTranslatef(-LEG_WIDTH/2, 0, 0);
         renderLeg(false);
-        glPopMatrix();
+        Render.gl().glPopMatrix();
     }
     
     public void cleanup() {
-        if (playerTexture != -1) {
-            glDeleteTextures(playerTexture);
-            playerTexture = -1;
+        if (playerTexture != null) {
+            playerTexture.release();
+            playerTexture = null;
         }
     }
 } 
\ No newline at end of file
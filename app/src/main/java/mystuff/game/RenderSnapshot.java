@@ -0,0 +1,114 @@
+package mystuff.game;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import mystuff.engine.Camera;
+import mystuff.utils.Debug;
+
+/**
+ * Everything the renderer needs from one simulation tick. Filled on the simulation
+ * thread and handed to the render thread through a TripleBuffer; once published it
+ * is read-only, so rendering never touches live Camera, Player or World state.
+ */
+public class RenderSnapshot {
+    private long tick;
+    private float gameTime;
+
+    // Camera pose at the end of this tick and at the start of it, for interpolation
+    private float cameraX, cameraY, cameraZ;
+    private float pitch, yaw;
+    private float prevCameraX, prevCameraY, prevCameraZ;
+    private float prevPitch, prevYaw;
+
+    // Player pose, likewise with the previous tick's values
+    private float playerX, playerY, playerZ;
+    private float prevPlayerX, prevPlayerY, prevPlayerZ;
+    private boolean noClipMode;
+    private boolean sprinting;
+
+    // Views of the chunks within render distance of the player, frustum culling happens on the render side
+    private final List<Chunk.View> visibleChunks = new ArrayList<>();
+    private final List<Chunk.View> visibleChunksView = Collections.unmodifiableList(visibleChunks);
+
+    // Every loaded chunk as x, y, z triples, only captured for the chunk bounds debug view
+    private int loadedChunkCount;
+    private int[] loadedChunkCoords = new int[0];
+    private int loadedChunkCoordCount;
+
+    /**
+     * Copies the current simulation state into this snapshot
+     */
+    void capture(long tick, float gameTime, Camera camera, Player player, World world) {
+        this.tick = tick;
+        this.gameTime = gameTime;
+
+        cameraX = camera.getX();
+        cameraY = camera.getY();
+        cameraZ = camera.getZ();
+        pitch = camera.getPitch();
+        yaw = camera.getYaw();
+        prevCameraX = camera.getPrevX();
+        prevCameraY = camera.getPrevY();
+        prevCameraZ = camera.getPrevZ();
+        prevPitch = camera.getPrevPitch();
+        prevYaw = camera.getPrevYaw();
+
+        playerX = player.getX();
+        playerY = player.getY();
+        playerZ = player.getZ();
+        prevPlayerX = player.getPrevX();
+        prevPlayerY = player.getPrevY();
+        prevPlayerZ = player.getPrevZ();
+        noClipMode = player.isNoClipMode();
+        sprinting = player.isSprinting();
+
+        world.collectChunksInRenderDistance(playerX, playerY, playerZ, visibleChunks);
+        loadedChunkCount = world.getLoadedChunkCount();
+        if (Debug.showBoundingBoxes()) {
+            if (loadedChunkCoords.length < loadedChunkCount * 3) {
+                loadedChunkCoords = new int[loadedChunkCount * 3];
+            }
+            loadedChunkCoordCount = world.collectLoadedChunkCoords(loadedChunkCoords);
+        } else {
+            loadedChunkCoordCount = 0;
+        }
+    }
+
+    public long getTick() { return tick; }
+    public float getGameTime() { return gameTime; }
+    public float getCameraX() { return cameraX; }
+    public float getCameraY() { return cameraY; }
+    public float getCameraZ() { return cameraZ; }
+    public float getPitch() { return pitch; }
+    public float getYaw() { return yaw; }
+    public float getPlayerX() { return playerX; }
+    public float getPlayerY() { return playerY; }
+    public float getPlayerZ() { return playerZ; }
+    public boolean isNoClipMode() { return noClipMode; }
+    public boolean isSprinting() { return sprinting; }
+    public List<Chunk.View> getVisibleChunks() { return visibleChunksView; }
+    public int getLoadedChunkCount() { return loadedChunkCount; }
+
+    /**
+     * Coordinates of loaded chunk i, 0 <= i < getLoadedChunkCoordCount(), in chunk units
+     */
+    public int getLoadedChunkX(int i) { return loadedChunkCoords[i * 3]; }
+    public int getLoadedChunkY(int i) { return loadedChunkCoords[i * 3 + 1]; }
+    public int getLoadedChunkZ(int i) { return loadedChunkCoords[i * 3 + 2]; }
+    public int getLoadedChunkCoordCount() { return loadedChunkCoordCount; }
+
+    // Pose blended between the previous and current tick, alpha in [0, 1]
+    public float getCameraX(float alpha) { return lerp(prevCameraX, cameraX, alpha); }
+    public float getCameraY(float alpha) { return lerp(prevCameraY, cameraY, alpha); }
+    public float getCameraZ(float alpha) { return lerp(prevCameraZ, cameraZ, alpha); }
+    public float getPitch(float alpha) { return lerp(prevPitch, pitch, alpha); }
+    public float getYaw(float alpha) { return Camera.lerpYaw(prevYaw, yaw, alpha); }
+    public float getPlayerX(float alpha) { return lerp(prevPlayerX, playerX, alpha); }
+    public float getPlayerY(float alpha) { return lerp(prevPlayerY, playerY, alpha); }
+    public float getPlayerZ(float alpha) { return lerp(prevPlayerZ, playerZ, alpha); }
+
+    private static float lerp(float from, float to, float alpha) {
+        return from + (to - from) * alpha;
+    }
+}
@@ -1,21 +1,20 @@
 package mystuff.game;
 
 import org.lwjgl.opengl.GL11;
+import mystuff.engine.Render;
 import mystuff.utils.TextureLoader;
 
 public class Skybox {
     private static final float SIZE = 5000f;  // Size of the skybox
-    private int textureID = -1;
+    static final String TEXTURE_PATH = "resources/textures/Skyboxes/BlueSkySkybox.png";
+    private TextureLoader.Texture texture;
 
     public void init() {
         // Load the skybox texture
-        textureID = TextureLoader.loadTexture("resources/textures/Skyboxes/BlueSkySkybox.png");
-        if (textureID != -1) {
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureID);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL11.GL_CLAMP);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL11.GL_CLAMP);
+        texture = TextureLoader.acquire(TEXTURE_PATH).await();
+        if (texture.isLoaded()) {
+            texture.setFilter(GL11.GL_LINEAR, GL11.GL_LINEAR);
+            texture.setWrap(GL11.GL_CLAMP, GL11.GL_CLAMP);
             System.out.println("Skybox texture loaded successfully!");
         } else {
             System.err.println("Failed to load skybox texture!");
@@ -23,75 +22,75 @@ public class Skybox {
     }
 
     public void render() {
-        if (textureID == -1) return;
+        if (texture == null || !texture.isLoaded()) return;
 
         // Save current OpenGL state
-        GL11.glPushAttrib(GL11.GL_ENABLE_BIT);
-        GL11.glPushMatrix();
+        Render.gl().glPushAttrib(GL11.GL_ENABLE_BIT);
+        Render.gl().glPushMatrix();
         
         // Disable depth writing so skybox is always in background
-        GL11.glDepthMask(false);
-        GL11.glEnable(GL11.GL_TEXTURE_2D);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureID);
+        Render.gl().glDepthMask(false);
+        Render.gl().glEnable(GL11.GL_TEXTURE_2D);
+        texture.bind();
 
         // Front face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glTexCoord2f(0.0f, 0.0f); GL11.glVertex3f(-SIZE, -SIZE, SIZE);
-        GL11.glTexCoord2f(1.0f, 0.0f); GL11.glVertex3f(SIZE, -SIZE, SIZE);
-        GL11.glTexCoord2f(1.0f, 1.0f); GL11.glVertex3f(SIZE, SIZE, SIZE);
-        GL11.glTexCoord2f(0.0f, 1.0f); GL11.glVertex3f(-SIZE, SIZE, SIZE);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glTexCoord2f(0.0f, 0.0f); Render.gl().glVertex3f(-SIZE, -SIZE, SIZE);
+        Render.gl().glTexCoord2f(1.0f, 0.0f); Render.gl().glVertex3f(SIZE, -SIZE, SIZE);
+        Render.gl().glTexCoord2f(1.0f, 1.0f); Render.gl().glVertex3f(SIZE, SIZE, SIZE);
+        Render.gl().glTexCoord2f(0.0f, 1.0f); Render.gl().glVertex3f(-SIZE, SIZE, SIZE);
+        Render.gl().glEnd();
 
         // Back face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glTexCoord2f(1.0f, 0.0f); GL11.glVertex3f(-SIZE, -SIZE, -SIZE);
-        GL11.glTexCoord2f(1.0f, 1.0f); GL11.glVertex3f(-SIZE, SIZE, -SIZE);
-        GL11.glTexCoord2f(0.0f, 1.0f); GL11.glVertex3f(SIZE, SIZE, -SIZE);
-        GL11.glTexCoord2f(0.0f, 0.0f); GL11.glVertex3f(SIZE, -SIZE, -SIZE);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glTexCoord2f(1.0f, 0.0f); Render.gl().glVertex3f(-SIZE, -SIZE, -SIZE);
+        Render.gl().glTexCoord2f(1.0f, 1.0f); Render.gl().glVertex3f(-SIZE, SIZE, -SIZE);
+        Render.gl().glTexCoord2f(0.0f, 1.0f); Render.gl().glVertex3f(SIZE, SIZE, -SIZE);
+        Render.gl().glTexCoord2f(0.0f, 0.0f); Render.gl().glVertex3f(SIZE, -SIZE, -SIZE);
+        Render.gl().glEnd();
 
         // Top face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glTexCoord2f(0.0f, 1.0f); GL11.glVertex3f(-SIZE, SIZE, -SIZE);
-        GL11.glTexCoord2f(0.0f, 0.0f); GL11.glVertex3f(-SIZE, SIZE, SIZE);
-        GL11.glTexCoord2f(1.0f, 0.0f); GL11.glVertex3f(SIZE, SIZE, SIZE);
-        GL11.glTexCoord2f(1.0f, 1.0f); GL11.glVertex3f(SIZE, SIZE, -SIZE);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glTexCoord2f(0.0f, 1.0f); Render.gl().glVertex3f(-SIZE, SIZE, -SIZE);
+        Render.gl().glTexCoord2f(0.0f, 0.0f); Render.gl().glVertex3f(-SIZE, SIZE, SIZE);
+        Render.gl().glTexCoord2f(1.0f, 0.0f); Render.gl().glVertex3f(SIZE, SIZE, SIZE);
+        Render.gl().glTexCoord2f(1.0f, 1.0f); Render.gl().glVertex3f(SIZE, SIZE, -SIZE);
+        Render.gl().glEnd();
 
         // Bottom face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glTexCoord2f(1.0f, 1.0f); GL11.glVertex3f(-SIZE, -SIZE, -SIZE);
-        GL11.glTexCoord2f(0.0f, 1.0f); GL11.glVertex3f(SIZE, -SIZE, -SIZE);
-        GL11.glTexCoord2f(0.0f, 0.0f); GL11.glVertex3f(SIZE, -SIZE, SIZE);
-        GL11.glTexCoord2f(1.0f, 0.0f); GL11.glVertex3f(-SIZE, -SIZE, SIZE);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glTexCoord2f(1.0f, 1.0f); Render.gl().glVertex3f(-SIZE, -SIZE, -SIZE);
+        Render.gl().glTexCoord2f(0.0f, 1.0f); Render.gl().glVertex3f(SIZE, -SIZE, -SIZE);
+        Render.gl().glTexCoord2f(0.0f, 0.0f); Render.gl().glVertex3f(SIZE, -SIZE, SIZE);
+        Render.gl().glTexCoord2f(1.0f, 0.0f); Render.gl().glVertex3f(-SIZE, -SIZE, SIZE);
+        Render.gl().glEnd();
 
         // Right face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glTexCoord2f(1.0f, 0.0f); GL11.glVertex3f(SIZE, -SIZE, -SIZE);
-        GL11.glTexCoord2f(1.0f, 1.0f); GL11.glVertex3f(SIZE, SIZE, -SIZE);
-        GL11.glTexCoord2f(0.0f, 1.0f); GL11.glVertex3f(SIZE, SIZE, SIZE);
-        GL11.glTexCoord2f(0.0f, 0.0f); GL11.glVertex3f(SIZE, -SIZE, SIZE);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glTexCoord2f(1.0f, 0.0f); Render.gl().glVertex3f(SIZE, -SIZE, -SIZE);
+        Render.gl().glTexCoord2f(1.0f, 1.0f); Render.gl().glVertex3f(SIZE, SIZE, -SIZE);
+        Render.gl().glTexCoord2f(0.0f, 1.0f); Render.gl().glVertex3f(SIZE, SIZE, SIZE);
+        Render.gl().glTexCoord2f(0.0f, 0.0f); Render.gl().glVertex3f(SIZE, -SIZE, SIZE);
+        Render.gl().glEnd();
 
         // Left face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glTexCoord2f(0.0f, 0.0f); GL11.glVertex3f(-SIZE, -SIZE, -SIZE);
-        GL11.glTexCoord2f(1.0f, 0.0f); GL11.glVertex3f(-SIZE, -SIZE, SIZE);
-        GL11.glTexCoord2f(1.0f, 1.0f); GL11.glVertex3f(-SIZE, SIZE, SIZE);
-        GL11.glTexCoord2f(0.0f, 1.0f); GL11.glVertex3f(-SIZE, SIZE, -SIZE);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glTexCoord2f(0.0f, 0.0f); Render.gl().glVertex3f(-SIZE, -SIZE, -SIZE);
+        Render.gl().glTexCoord2f(1.0f, 0.0f); Render.gl().glVertex3f(-SIZE, -SIZE, SIZE);
+        Render.gl().glTexCoord2f(1.0f, 1.0f); Render.gl().glVertex3f(-SIZE, SIZE, SIZE);
+        Render.gl().glTexCoord2f(0.0f, 1.0f); Render.gl().glVertex3f(-SIZE, SIZE, -SIZE);
+        Render.gl().glEnd();
 
         // Restore OpenGL state
-        GL11.glDepthMask(true);
-        GL11.glPopMatrix();
-        GL11.glPopAttrib();
+        Render.gl().glDepthMask(true);
+        Render.gl().glPopMatrix();
+        Render.gl().glPopAttrib();
     }
 
     public void cleanup() {
-        if (textureID != -1) {
-            GL11.glDeleteTextures(textureID);
-            textureID = -1;
+        if (texture != null) {
+            texture.release();
+            texture = null;
         }
     }
 } 
\ No newline at end of file
@@ -2,6 +2,7 @@ package mystuff.game;
 
 import mystuff.utils.Shapes;
 import mystuff.engine.GameObject;
+import mystuff.engine.Render;
 import mystuff.utils.TextureLoader;
 import static org.lwjgl.opengl.GL11.*;
 
@@ -10,23 +11,27 @@ public class Tree extends GameObject {
     private static final float TREE_WIDTH = 2.0f;
     private static final float TREE_DEPTH = 2.0f;
     private static final int SIDES = 8;
-    private static int treeTexture = -1;
+    static final String TEXTURE_PATH = "resources/textures/Wood.png";
+    private TextureLoader.Texture treeTexture; // Shared by every tree; each holds a reference
     private Leaves leaves; 
 
     public Tree(float x, float y, float z) {
         super(x, y, z);
-        if (treeTexture == -1) {
-            treeTexture = TextureLoader.loadTexture("resources/textures/Wood.png");
-            if (treeTexture != -1) {
-                glBindTexture(GL_TEXTURE_2D, treeTexture);
-                glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
-                glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
-                System.out.println("Tree texture loaded successfully!");
+        leaves = new Leaves();
+    }
+
+    /**
+     * Takes a reference to the shared texture on first render, once a GL context is available
+     */
+    private void loadTexture() {
+        if (treeTexture == null) {
+            treeTexture = TextureLoader.acquire(TEXTURE_PATH).await();
+            if (treeTexture.isLoaded()) {
+                treeTexture.setFilter(GL_NEAREST_MIPMAP_LINEAR, GL_NEAREST);
             } else {
                 System.err.println("Failed to load tree texture!");
             }
         }
-        leaves = new Leaves();
     }
 
     @Override
@@ -36,19 +41,20 @@ public class Tree extends GameObject {
 
     @Override
     public void render() {
-        if (treeTexture == -1) return;
+        loadTexture();
+        if (!treeTexture.isLoaded()) return;
 
-        glPushMatrix();
+        Render.gl().glPushMatrix();
         
         // Move to tree position and offset down by half width to align with ground
-        glTranslatef(x, y - TREE_WIDTH/3, z);
+        Render.gl().glTranslatef(x, y - TREE_WIDTH/3, z);
         
         // Enable texturing
-        glEnable(GL_TEXTURE_2D);
-        glBindTexture(GL_TEXTURE_2D, treeTexture);
+        Render.gl().glEnable(GL_TEXTURE_2D);
+        treeTexture.bind();
         
         // Set color to white to render texture properly
-        glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
+        Render.gl().glColor4f(1.0f, 1.0f, 1.0f, 1.0f);
 
         float radius = TREE_WIDTH / 2;
         float angleStep = (float) (2 * Math.PI / SIDES);
@@ -64,17 +70,17 @@ public class Tree extends GameObject {
             float z2 = (float) (radius * Math.sin(angle2));
             
             // Draw the side face
-            glBegin(GL_QUADS);
-            glTexCoord2f(i / (float)SIDES, 1);       glVertex3f(x1, 0, z1);
-            glTexCoord2f((i + 1) / (float)SIDES, 1); glVertex3f(x2, 0, z2);
-            glTexCoord2f((i + 1) / (float)SIDES, 0); glVertex3f(x2, TREE_HEIGHT, z2);
-            glTexCoord2f(i / (float)SIDES, 0);       glVertex3f(x1, TREE_HEIGHT, z1);
-            glEnd();
+            Render.gl().glBegin(GL_QUADS);
+            Render.gl().glTexCoord2f(i / (float)SIDES, 1);       Render.gl().glVertex3f(x1, 0, z1);
+            Render.gl().glTexCoord2f((i + 1) / (float)SIDES, 1); Render.gl().glVertex3f(x2, 0, z2);
+            Render.gl().glTexCoord2f((i + 1) / (float)SIDES, 0); Render.gl().glVertex3f(x2, TREE_HEIGHT, z2);
+            Render.gl().glTexCoord2f(i / (float)SIDES, 0);       Render.gl().glVertex3f(x1, TREE_HEIGHT, z1);
+            Render.gl().glEnd();
         }
 
         // Cleanup trunk rendering
-        glDisable(GL_TEXTURE_2D);
-        glPopMatrix();
+        Render.gl().glDisable(GL_TEXTURE_2D);
+        Render.gl().glPopMatrix();
 
         // Render leaves starting from about 1/4 up the trunk
         float leavesStartHeight = TREE_HEIGHT * 0.25f;
@@ -82,9 +88,10 @@ public class Tree extends GameObject {
     }
 
     public void cleanup() {
-        if (treeTexture != -1) {
-            glDeleteTextures(treeTexture);
-            treeTexture = -1;
+        // Only drops this tree's reference; the loader deletes the texture once unused
+        if (treeTexture != null) {
+            treeTexture.release();
+            treeTexture = null;
         }
         if (leaves != null) {
             leaves.cleanup();
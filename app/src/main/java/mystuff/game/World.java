@@ -9,47 +9,126 @@ import mystuff.engine.Window;
 import org.lwjgl.opengl.GL11;
 import mystuff.engine.Camera;
 import mystuff.utils.Debug;
+import mystuff.utils.Log;
+import mystuff.engine.EntitySimulator;
 import mystuff.engine.Frustum;
+import mystuff.engine.FrameBudgetScheduler;
+import mystuff.engine.JfrEvents;
+import mystuff.engine.Metrics;
+import mystuff.engine.Profiler;
+import mystuff.engine.Render;
 
 public class World {
     // World constants
     public static final float BLOCK_SIZE = 1.0f;  // Size of each block
-    private static final int WORLD_WIDTH = 400;    // Width of the world in blocks
-    private static final int WORLD_HEIGHT = 400;   // Height of the world in blocks
-    private static final int WORLD_DEPTH = 400;    // Depth of the world in blocks
+    public static final int WORLD_WIDTH = 400;     // Default width of the world in blocks
+    public static final int WORLD_HEIGHT = 400;    // Default height of the world in blocks
+    public static final int WORLD_DEPTH = 400;     // Default depth of the world in blocks
+    public static final int GROUND_HEIGHT = 10;    // Default height of the flat ground
+    private final int width, height, depth;        // This world's size in blocks
+    private final int groundHeight;                // Top dirt layer sits at groundHeight - 1 (0 = empty world)
     
     private Map<ChunkKey, Chunk> chunks;
     private List<Tree> trees;
+    private EntitySimulator entities;
+    private final ChunkRenderer chunkRenderer = new ChunkRenderer(); // Render thread, apart from unload()
+    private final List<Chunk.View> chunksInFrustum = new ArrayList<>(); // Render thread scratch list
+    private volatile int loadedChunkCount; // chunks.size(), for readers off the simulation thread
+    private volatile int lastChunksRendered; // Published for metrics
+    private volatile int lastChunksInRange;
+    private final long seed; // Any randomness in generation must come from this, so replays match
+    public static final long DEFAULT_SEED = 20240101L;
     private Camera camera;
     private Player player;
     private static final int RENDER_DISTANCE = 4;
     private static final float CLOSE_DISTANCE = 32.0f; // Distance threshold for color change
+    private static final int ENTITY_REGION_CHUNKS = 4; // Entity simulation regions span 4x4 chunks
 
     // Add chunk cache
     private static final int CHUNK_CACHE_SIZE = 64;
+
+    // Per-frame and per-tick debug output, rate limited
+    private static final Log.Site LOG_CULLING = Log.site("world.culling", 1, 1);
+    private static final Log.Site LOG_COLLISION = Log.site("world.collision", 1, 1);
     private LinkedHashMap<ChunkKey, Chunk> chunkCache;
 
     public World(Camera camera) {
+        this(camera, DEFAULT_SEED);
+    }
+
+    public World(Camera camera, long seed) {
+        this(camera, seed, WORLD_WIDTH, WORLD_HEIGHT, WORLD_DEPTH, GROUND_HEIGHT);
+    }
+
+    /**
+     * Creates a world of the given size in blocks, e.g. small worlds for benchmarks.
+     * A groundHeight of 0 leaves the world empty.
+     */
+    public World(Camera camera, long seed, int width, int height, int depth, int groundHeight) {
         this.camera = camera;
-        // Initialize chunk cache with LRU eviction
+        this.seed = seed;
+        this.width = width;
+        this.height = height;
+        this.depth = depth;
+        this.groundHeight = groundHeight;
+        // Initialize chunk cache with LRU eviction. It only speeds up lookups: an evicted
+        // chunk is still loaded in chunks, so eviction must not release it
         this.chunkCache = new LinkedHashMap<ChunkKey, Chunk>(CHUNK_CACHE_SIZE, 0.75f, true) {
             @Override
             protected boolean removeEldestEntry(Map.Entry<ChunkKey, Chunk> eldest) {
-                if (size() > CHUNK_CACHE_SIZE) {
-                    eldest.getValue().cleanup();
-                    return true;
-                }
-                return false;
+                return size() > CHUNK_CACHE_SIZE;
             }
         };
         this.chunks = new HashMap<>();
         this.trees = new ArrayList<>();
+        this.entities = new EntitySimulator(ENTITY_REGION_CHUNKS * Chunk.CHUNK_SIZE * BLOCK_SIZE);
         generateWorld();
+        registerMetrics();
+    }
+
+    private void registerMetrics() {
+        Metrics.gauge("world.chunks.loaded", () -> loadedChunkCount);
+        Metrics.gauge("world.chunks.in_range", () -> lastChunksInRange);
+        Metrics.gauge("world.chunks.rendered", () -> lastChunksRendered);
+        Metrics.gauge("world.trees", () -> trees.size());
     }
 
-    // Add method to set player reference
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public int getDepth() { return depth; }
+
+    /**
+     * Sets the player, who is simulated with the world's other entities from then on
+     */
     public void setPlayer(Player player) {
+        if (this.player != null) {
+            entities.remove(this.player);
+        }
         this.player = player;
+        entities.add(player);
+    }
+
+    /**
+     * Defers chunk display list rebuilds to the engine's frame scheduler, nearest first
+     */
+    public void setFrameScheduler(FrameBudgetScheduler frameScheduler) {
+        chunkRenderer.setFrameScheduler(frameScheduler);
+    }
+
+    public int getLoadedChunkCount() {
+        return loadedChunkCount;
+    }
+
+    /**
+     * Adds a tree to the world and to the entity simulation
+     */
+    public void addTree(Tree tree) {
+        trees.add(tree);
+        entities.add(tree);
     }
 
     /**
@@ -62,9 +141,9 @@ public class World {
      */
     public boolean setBlock(int x, int y, int z, BlockType type) {
         // Check if coordinates are within bounds
-        if (x < 0 || x >= WORLD_WIDTH || 
-            y < 0 || y >= WORLD_HEIGHT || 
-            z < 0 || z >= WORLD_DEPTH) {
+        if (x < 0 || x >= width || 
+            y < 0 || y >= height || 
+            z < 0 || z >= depth) {
             return false;
         }
         
@@ -88,143 +167,216 @@ public class World {
     }
 
     private void generateWorld() {
-        int groundHeight = 10; // Height of the flat world
-        
-        // Generate a flat world of dirt blocks
-        for(int x = 0; x < WORLD_WIDTH; x++) {
-            for(int z = 0; z < WORLD_DEPTH; z++) {
-                // Create columns of blocks
-                for(int y = 0; y < groundHeight; y++) {
-                    if (y == groundHeight - 1) {
-                        setBlock(x, y, z, BlockType.DIRT); // Top layer is dirt
+        // Generate a flat world of dirt blocks, one chunk column at a time
+        if (groundHeight <= 0) return;
+        for (int chunkX = 0; chunkX * Chunk.CHUNK_SIZE < width; chunkX++) {
+            for (int chunkZ = 0; chunkZ * Chunk.CHUNK_SIZE < depth; chunkZ++) {
+                JfrEvents.ChunkGeneration event = new JfrEvents.ChunkGeneration();
+                event.begin();
+                int placed = 0;
+                int endX = Math.min(width, (chunkX + 1) * Chunk.CHUNK_SIZE);
+                int endZ = Math.min(depth, (chunkZ + 1) * Chunk.CHUNK_SIZE);
+                for (int x = chunkX * Chunk.CHUNK_SIZE; x < endX; x++) {
+                    for (int z = chunkZ * Chunk.CHUNK_SIZE; z < endZ; z++) {
+                        // Create columns of blocks
+                        for (int y = 0; y < groundHeight; y++) {
+                            if (y == groundHeight - 1) {
+                                setBlock(x, y, z, BlockType.DIRT); // Top layer is dirt
+                                placed++;
+                            }
+                        }
                     }
                 }
+                event.chunkX = chunkX;
+                event.chunkZ = chunkZ;
+                event.blocks = placed;
+                event.commit();
             }
         }
 
         if (Debug.showPlayerInfo()) {
             System.out.println("Flat dirt world generated with dimensions: " + 
-                             WORLD_WIDTH + "x" + groundHeight + "x" + WORLD_DEPTH);
+                             width + "x" + groundHeight + "x" + depth);
         }
     }
 
     public void update(Window window, float deltaTime) {
-        // Update trees if needed
-        for (Tree tree : trees) {
-            tree.update(window, deltaTime);
+        // Update the player, trees and other entities, partitioned by region across cores
+        try (Profiler.Zone z = Profiler.zone("world.entities")) {
+            entities.update(window, deltaTime);
         }
     }
 
-    public void render(Camera camera) {
+    /**
+     * Collects views of the chunks within render distance of the given position. Runs on
+     * the simulation side; the result goes into the render snapshot.
+     */
+    public void collectChunksInRenderDistance(float x, float y, float z, List<Chunk.View> out) {
+        out.clear();
+        float renderDistanceSquared = (RENDER_DISTANCE * Chunk.CHUNK_SIZE) * (RENDER_DISTANCE * Chunk.CHUNK_SIZE);
+        for (Chunk chunk : chunks.values()) {
+            float dx = chunk.getChunkX() * Chunk.CHUNK_SIZE + Chunk.CHUNK_SIZE/2 - x;
+            float dy = chunk.getChunkY() * Chunk.CHUNK_SIZE + Chunk.CHUNK_SIZE/2 - y;
+            float dz = chunk.getChunkZ() * Chunk.CHUNK_SIZE + Chunk.CHUNK_SIZE/2 - z;
+            if (dx*dx + dy*dy + dz*dz <= renderDistanceSquared) {
+                out.add(chunk.getView());
+            }
+        }
+    }
+
+    /**
+     * Writes the coordinates of every loaded chunk into out as x, y, z triples
+     * @param out at least getLoadedChunkCount() * 3 long
+     * @return number of chunks written
+     */
+    public int collectLoadedChunkCoords(int[] out) {
+        int i = 0;
+        for (Chunk chunk : chunks.values()) {
+            out[i++] = chunk.getChunkX();
+            out[i++] = chunk.getChunkY();
+            out[i++] = chunk.getChunkZ();
+        }
+        return i / 3;
+    }
+
+    /**
+     * Renders the world as captured in the snapshot. Only reads snapshot state, so it is
+     * safe to call while the simulation thread is updating the world.
+     */
+    public void render(Camera camera, RenderSnapshot snapshot) {
         // Update camera frustum
         camera.update();
         
-        int chunksInView = 0;
-        int chunksInFrustum = 0;
-        int totalChunks = chunks.size();
+        List<Chunk.View> candidates = snapshot.getVisibleChunks();
+        int totalChunks = snapshot.getLoadedChunkCount();
+        chunkRenderer.processUnloads();
         
         // Save OpenGL state
-        GL11.glPushAttrib(GL11.GL_ALL_ATTRIB_BITS);
+        Render.gl().glPushAttrib(GL11.GL_ALL_ATTRIB_BITS);
 
-        // Use player position for culling if available, otherwise use camera
-        float cullingX = (player != null) ? player.getX() : camera.getX();
-        float cullingY = (player != null) ? player.getY() : camera.getY();
-        float cullingZ = (player != null) ? player.getZ() : camera.getZ();
+        // Cull from the player's position (the body stays put in no-clip mode)
+        float cullingX = snapshot.getPlayerX();
+        float cullingY = snapshot.getPlayerY();
+        float cullingZ = snapshot.getPlayerZ();
+        Frustum cullingFrustum;
         
-        // Render opaque blocks first
-        for (Chunk chunk : chunks.values()) {
-            // Get chunk bounds
-            float chunkX = chunk.getChunkX() * Chunk.CHUNK_SIZE;
-            float chunkY = chunk.getChunkY() * Chunk.CHUNK_SIZE;
-            float chunkZ = chunk.getChunkZ() * Chunk.CHUNK_SIZE;
-            
-            // Calculate distance from player (not camera) to chunk center
-            float dx = chunkX + Chunk.CHUNK_SIZE/2 - cullingX;
-            float dy = chunkY + Chunk.CHUNK_SIZE/2 - cullingY;
-            float dz = chunkZ + Chunk.CHUNK_SIZE/2 - cullingZ;
-            float distanceSquared = dx*dx + dy*dy + dz*dz;
-            float renderDistanceSquared = (RENDER_DISTANCE * Chunk.CHUNK_SIZE) * (RENDER_DISTANCE * Chunk.CHUNK_SIZE);
-            
-            // Check if chunk is in view frustum relative to player position
-            boolean inFrustum = isBoxInViewFromPosition(
-                chunkX, chunkY, chunkZ,
-                Chunk.CHUNK_SIZE, Chunk.CHUNK_SIZE, Chunk.CHUNK_SIZE,
-                cullingX, cullingY, cullingZ,
-                camera.getPitch(), camera.getYaw()
-            );
-            
-            if (inFrustum) {
-                chunksInFrustum++;
-                // Only render if within render distance
-                if (distanceSquared <= renderDistanceSquared) {
-                    chunksInView++;
-                    chunk.render();
+        // The snapshot already filtered by render distance; keep what the frustum can see
+        try (Profiler.Zone z = Profiler.zone("world.cull")) {
+            cullingFrustum = frustumFromPosition(cullingX, cullingY, cullingZ,
+                camera.getPitch(), camera.getYaw());
+            chunksInFrustum.clear();
+            for (Chunk.View chunk : candidates) {
+                if (cullingFrustum.isBoxInFrustum(
+                        chunk.getChunkX() * Chunk.CHUNK_SIZE,
+                        chunk.getChunkY() * Chunk.CHUNK_SIZE,
+                        chunk.getChunkZ() * Chunk.CHUNK_SIZE,
+                        Chunk.CHUNK_SIZE, Chunk.CHUNK_SIZE, Chunk.CHUNK_SIZE)) {
+                    chunksInFrustum.add(chunk);
                 }
             }
-            
-            // Debug visualization when debug mode is on
-            if (Debug.showBoundingBoxes()) {
-                GL11.glPushAttrib(GL11.GL_CURRENT_BIT | GL11.GL_POLYGON_BIT);
-                GL11.glPushMatrix();
-                GL11.glTranslatef(chunkX + Chunk.CHUNK_SIZE/2, chunkY + Chunk.CHUNK_SIZE/2, chunkZ + Chunk.CHUNK_SIZE/2);
-                
-                float distance = (float)Math.sqrt(distanceSquared);
-                
-                if (inFrustum) {
-                    if (distance <= CLOSE_DISTANCE) {
-                        // Green for close chunks in frustum
-                        GL11.glColor3f(0.0f, 1.0f, 0.0f);
-                    } else if (distanceSquared <= renderDistanceSquared) {
-                        // Yellow for far chunks in frustum but within render distance
-                        GL11.glColor3f(1.0f, 1.0f, 0.0f);
-                    } else {
-                        // Red for chunks in frustum but beyond render distance
-                        GL11.glColor3f(1.0f, 0.0f, 0.0f);
-                    }
-                } else {
-                    // Blue for chunks outside frustum
-                    GL11.glColor3f(0.0f, 0.0f, 1.0f);
-                }
-                
-                GL11.glPolygonMode(GL11.GL_FRONT_AND_BACK, GL11.GL_LINE);
-                mystuff.utils.Shapes.cuboid(Chunk.CHUNK_SIZE, Chunk.CHUNK_SIZE, Chunk.CHUNK_SIZE);
-                GL11.glPopMatrix();
-                GL11.glPopAttrib();
+        }
+        int chunksInView = chunksInFrustum.size();
+        lastChunksRendered = chunksInView;
+        lastChunksInRange = candidates.size();
+        
+        // Render opaque blocks first
+        try (Profiler.Zone z = Profiler.zone("world.chunks")) {
+            chunkRenderer.rebuildStale(chunksInFrustum);
+            for (Chunk.View chunk : chunksInFrustum) {
+                // Nearest chunks rebuild first when rebuilds are deferred
+                float dx = (chunk.getChunkX() + 0.5f) * Chunk.CHUNK_SIZE - cullingX;
+                float dy = (chunk.getChunkY() + 0.5f) * Chunk.CHUNK_SIZE - cullingY;
+                float dz = (chunk.getChunkZ() + 0.5f) * Chunk.CHUNK_SIZE - cullingZ;
+                chunkRenderer.render(chunk, -(int) (dx*dx + dy*dy + dz*dz));
             }
         }
         
-        if (Debug.showPlayerInfo()) {
-            System.out.printf("Chunks rendered: %d/%d (%.1f%%), In frustum: %d/%d (%.1f%%)%n", 
+        // Debug visualization when debug mode is on
+        if (Debug.showBoundingBoxes()) {
+            renderChunkBounds(snapshot, cullingFrustum, cullingX, cullingY, cullingZ);
+        }
+        
+        if (Debug.showPlayerInfo() && LOG_CULLING.shouldLog()) {
+            LOG_CULLING.log("Chunks rendered: %d/%d (%.1f%%), In range: %d/%d (%.1f%%)", 
                 chunksInView, totalChunks, (chunksInView * 100.0f) / totalChunks,
-                chunksInFrustum, totalChunks, (chunksInFrustum * 100.0f) / totalChunks);
+                candidates.size(), totalChunks, (candidates.size() * 100.0f) / totalChunks);
         }
         
         // Render transparent objects last
-        GL11.glEnable(GL11.GL_BLEND);
-        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+        Render.gl().glEnable(GL11.GL_BLEND);
+        Render.gl().glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
         
-        for (Tree tree : trees) {
-            float treeX = tree.getX();
-            float treeY = tree.getY();
-            float treeZ = tree.getZ();
-            
-            // Check if tree is in view frustum before rendering
-            if (camera.isBoxInView(treeX, treeY, treeZ, 1, 5, 1)) {
-                tree.render();
+        try (Profiler.Zone z = Profiler.zone("world.trees")) {
+            for (Tree tree : trees) {
+                float treeX = tree.getX();
+                float treeY = tree.getY();
+                float treeZ = tree.getZ();
+                
+                // Check if tree is in view frustum before rendering
+                if (camera.isBoxInView(treeX, treeY, treeZ, 1, 5, 1)) {
+                    tree.render();
+                }
             }
         }
         
-        GL11.glDisable(GL11.GL_BLEND);
+        Render.gl().glDisable(GL11.GL_BLEND);
         
         // Restore OpenGL state
-        GL11.glPopAttrib();
+        Render.gl().glPopAttrib();
+    }
+
+    /**
+     * Draws the bounds of every chunk loaded when the snapshot was taken, colored by
+     * culling result
+     */
+    private void renderChunkBounds(RenderSnapshot snapshot, Frustum cullingFrustum, float cullingX, float cullingY, float cullingZ) {
+        float renderDistanceSquared = (RENDER_DISTANCE * Chunk.CHUNK_SIZE) * (RENDER_DISTANCE * Chunk.CHUNK_SIZE);
+        for (int i = 0; i < snapshot.getLoadedChunkCoordCount(); i++) {
+            float chunkX = snapshot.getLoadedChunkX(i) * Chunk.CHUNK_SIZE;
+            float chunkY = snapshot.getLoadedChunkY(i) * Chunk.CHUNK_SIZE;
+            float chunkZ = snapshot.getLoadedChunkZ(i) * Chunk.CHUNK_SIZE;
+            
+            float dx = chunkX + Chunk.CHUNK_SIZE/2 - cullingX;
+            float dy = chunkY + Chunk.CHUNK_SIZE/2 - cullingY;
+            float dz = chunkZ + Chunk.CHUNK_SIZE/2 - cullingZ;
+            float distanceSquared = dx*dx + dy*dy + dz*dz;
+            boolean inFrustum = cullingFrustum.isBoxInFrustum(chunkX, chunkY, chunkZ,
+                Chunk.CHUNK_SIZE, Chunk.CHUNK_SIZE, Chunk.CHUNK_SIZE);
+            
+            Render.gl().glPushAttrib(GL11.GL_CURRENT_BIT | GL11.GL_POLYGON_BIT);
+            Render.gl().glPushMatrix();
+            Render.gl().glTranslatef(chunkX + Chunk.CHUNK_SIZE/2, chunkY + Chunk.CHUNK_SIZE/2, chunkZ + Chunk.CHUNK_SIZE/2);
+            
+            float distance = (float)Math.sqrt(distanceSquared);
+            
+            if (inFrustum) {
+                if (distance <= CLOSE_DISTANCE) {
+                    // Green for close chunks in frustum
+                    Render.gl().glColor3f(0.0f, 1.0f, 0.0f);
+                } else if (distanceSquared <= renderDistanceSquared) {
+                    // Yellow for far chunks in frustum but within render distance
+                    Render.gl().glColor3f(1.0f, 1.0f, 0.0f);
+                } else {
+                    // Red for chunks in frustum but beyond render distance
+                    Render.gl().glColor3f(1.0f, 0.0f, 0.0f);
+                }
+            } else {
+                // Blue for chunks outside frustum
+                Render.gl().glColor3f(0.0f, 0.0f, 1.0f);
+            }
+            
+            Render.gl().glPolygonMode(GL11.GL_FRONT_AND_BACK, GL11.GL_LINE);
+            mystuff.utils.Shapes.cuboid(Chunk.CHUNK_SIZE, Chunk.CHUNK_SIZE, Chunk.CHUNK_SIZE);
+            Render.gl().glPopMatrix();
+            Render.gl().glPopAttrib();
+        }
     }
     
     // Get block at world coordinates
     public Block getBlock(int x, int y, int z) {
-        if (x < 0 || x >= WORLD_WIDTH || 
-            y < 0 || y >= WORLD_HEIGHT || 
-            z < 0 || z >= WORLD_DEPTH) {
+        if (x < 0 || x >= width || 
+            y < 0 || y >= height || 
+            z < 0 || z >= depth) {
             return null;
         }
 
@@ -304,8 +456,8 @@ public class World {
             }
         }
         
-        if (Debug.showPlayerInfo()) {
-            System.out.println("Collision checking with " + nearbyBlocks.size() + " blocks (radius: " + radius + ")");
+        if (Debug.showPlayerInfo() && LOG_COLLISION.shouldLog()) {
+            LOG_COLLISION.log("Collision checking with %d blocks (radius: %d)", nearbyBlocks.size(), radius);
         }
         
         return nearbyBlocks;
@@ -316,22 +468,37 @@ public class World {
     }
 
     public void cleanup() {
-        // Cleanup chunks
-        for (Chunk chunk : chunks.values()) {
-            chunk.cleanup();
+        // Cleanup chunks; nothing renders any more, so their meshes go right away
+        for (ChunkKey key : new ArrayList<>(chunks.keySet())) {
+            unloadChunk(key);
         }
-        chunks.clear();
+        chunkRenderer.cleanup();
 
         // Cleanup trees
         for (Tree tree : trees) {
             tree.cleanup();
         }
         trees.clear();
+        entities.cleanup();
 
         // Cleanup block textures
         Block.cleanupTextures();
     }
     
+    /**
+     * Takes a chunk out of the world and releases it. Chunks only leave chunks through
+     * here, so each gives back its memory footprint exactly once. Its mesh is queued for
+     * the render thread, which owns the display list.
+     */
+    private void unloadChunk(ChunkKey key) {
+        Chunk chunk = chunks.remove(key);
+        if (chunk == null) return;
+        loadedChunkCount = chunks.size();
+        chunkCache.remove(key);
+        chunk.cleanup();
+        chunkRenderer.unload(chunk.getMesh());
+    }
+    
     // Inner class to use as key for chunk map
     private static class ChunkKey {
         private final int x, y, z;
@@ -359,41 +526,41 @@ public class World {
         }
     }
 
+    public EntitySimulator getEntities() {
+        return entities;
+    }
+
     // Get chunk at chunk coordinates
     public Chunk getChunk(int chunkX, int chunkY, int chunkZ) {
         return chunks.get(new ChunkKey(chunkX, chunkY, chunkZ));
     }
 
-    // Helper method to check if a box is in view from a specific position
-    private boolean isBoxInViewFromPosition(
-        float boxX, float boxY, float boxZ,
-        float width, float height, float depth,
+    // Builds a view frustum as seen from a specific position, once per frame
+    private Frustum frustumFromPosition(
         float viewX, float viewY, float viewZ,
         float pitch, float yaw
     ) {
         // Create temporary matrices for the view from player position
-        GL11.glPushMatrix();
-        GL11.glLoadIdentity();
-        GL11.glRotatef(pitch, 1.0f, 0.0f, 0.0f);
-        GL11.glRotatef(yaw, 0.0f, 1.0f, 0.0f);
-        GL11.glTranslatef(-viewX, -viewY, -viewZ);
+        Render.gl().glPushMatrix();
+        Render.gl().glLoadIdentity();
+        Render.gl().glRotatef(pitch, 1.0f, 0.0f, 0.0f);
+        Render.gl().glRotatef(yaw, 0.0f, 1.0f, 0.0f);
+        Render.gl().glTranslatef(-viewX, -viewY, -viewZ);
         
         // Get the modelview matrix from player's perspective
         float[] modelViewMatrix = new float[16];
-        GL11.glGetFloatv(GL11.GL_MODELVIEW_MATRIX, modelViewMatrix);
+        Render.gl().glGetFloatv(GL11.GL_MODELVIEW_MATRIX, modelViewMatrix);
         
         // Get the current projection matrix
         float[] projectionMatrix = new float[16];
-        GL11.glGetFloatv(GL11.GL_PROJECTION_MATRIX, projectionMatrix);
+        Render.gl().glGetFloatv(GL11.GL_PROJECTION_MATRIX, projectionMatrix);
         
         // Restore the original matrix
-        GL11.glPopMatrix();
-        
-        // Create a temporary frustum for this check
-        Frustum tempFrustum = new Frustum();
-        tempFrustum.update(projectionMatrix, modelViewMatrix);
+        Render.gl().glPopMatrix();
         
-        return tempFrustum.isBoxInFrustum(boxX, boxY, boxZ, width, height, depth);
+        Frustum frustum = new Frustum();
+        frustum.update(projectionMatrix, modelViewMatrix);
+        return frustum;
     }
 
     private Chunk getOrLoadChunk(ChunkKey key) {
@@ -414,6 +581,7 @@ public class World {
         // Create new chunk
         chunk = new Chunk(this, key.x, key.y, key.z);
         chunks.put(key, chunk);
+        loadedChunkCount = chunks.size();
         chunkCache.put(key, chunk);
         return chunk;
     }
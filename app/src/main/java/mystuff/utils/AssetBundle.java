@@ -0,0 +1,239 @@
+package mystuff.utils;
+
+import org.lwjgl.BufferUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A single file of pre-decoded assets, built by AssetPacker and memory-mapped once at
+ * startup. Entries are looked up by the path of the source file they were packed from
+ * ("resources/textures/dirt.png") and handed out as slices of the mapping, so loading
+ * one costs no file I/O and no copy. Loaders fall back to the loose file when the bundle
+ * is missing or has no entry.
+ *
+ * The shared bundle is checked against its sources once, when it is opened: if a
+ * directory it was packed from changed after the bundle was written (a file added,
+ * removed or saved by replacing it, as editors and checkouts do), the whole bundle is
+ * ignored until packAssets runs again. Files rewritten in place don't touch their
+ * directory and go unnoticed; gradle run repacks those anyway.
+ *
+ * Layout (little endian): magic, version, entry count, index size in bytes; then per
+ * entry: type, offset, length, name length, UTF-8 name; then the entry data, each entry
+ * aligned to 16 bytes.
+ */
+public final class AssetBundle {
+    public static final String DEFAULT_PATH = "resources/assets.bundle";
+    private static final int MAGIC = 0x3142574C; // "LWB1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 4 * 4;
+    private static final int ALIGNMENT = 16;
+
+    /**
+     * What an entry holds; stored by ordinal, so only append
+     */
+    public enum Type {
+        TEXTURE, // TextureCache file layout: header and mip chain
+        FONT     // FontLoader baked atlas and glyph metrics
+    }
+
+    private static AssetBundle shared;
+    private static boolean sharedOpened;
+
+    private final Map<String, Entry> entries;
+    private final ByteBuffer data;
+
+    private static final class Entry {
+        final Type type;
+        final long offset;
+        final long length;
+
+        Entry(Type type, long offset, long length) {
+            this.type = type;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    private AssetBundle(Map<String, Entry> entries, ByteBuffer data) {
+        this.entries = entries;
+        this.data = data;
+    }
+
+    /**
+     * The bundle at DEFAULT_PATH, mapped on first use and kept for the life of the
+     * process (glyph metrics point straight into it)
+     * @return null if there is no usable bundle
+     */
+    public static synchronized AssetBundle shared() {
+        if (!sharedOpened) {
+            sharedOpened = true;
+            Path path = Paths.get(DEFAULT_PATH);
+            if (Files.isRegularFile(path)) {
+                try {
+                    AssetBundle bundle = open(path);
+                    Path changed = findChangedSourceDirectory(bundle, Files.getLastModifiedTime(path));
+                    if (changed == null) {
+                        shared = bundle;
+                        System.out.println("Opened asset bundle " + path + " with " + bundle.entries.size() + " entries");
+                    } else {
+                        System.out.println("Asset bundle " + path + " is older than " + changed
+                            + ", loading loose files until packAssets runs");
+                    }
+                } catch (IOException e) {
+                    System.err.println("Ignoring asset bundle " + path + ": " + e.getMessage());
+                }
+            } else {
+                System.out.println("No asset bundle at " + path + ", loading loose files");
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * One stat per directory the entries were packed from
+     * @return a directory modified after the bundle was written, or null if there is none;
+     *         directories that no longer exist count as unchanged
+     */
+    private static Path findChangedSourceDirectory(AssetBundle bundle, FileTime written) {
+        Set<Path> directories = new HashSet<>();
+        for (String name : bundle.entries.keySet()) {
+            Path parent = Paths.get(name).getParent();
+            if (parent != null) directories.add(parent);
+        }
+        for (Path directory : directories) {
+            try {
+                if (Files.getLastModifiedTime(directory).compareTo(written) > 0) {
+                    return directory;
+                }
+            } catch (IOException e) {
+                // Shipped without its sources: the bundle is all there is
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Maps a bundle and reads its index
+     * @throws IOException if the file is unreadable or not a bundle of this version
+     */
+    public static AssetBundle open(Path path) throws IOException {
+        ByteBuffer data;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (data.capacity() < HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            throw new IOException("not an asset bundle of version " + VERSION);
+        }
+        int count = data.getInt(8);
+        Map<String, Entry> entries = new HashMap<>(count * 2);
+        try {
+            data.position(HEADER_BYTES);
+            for (int i = 0; i < count; i++) {
+                int type = data.getInt();
+                long offset = data.getLong();
+                long length = data.getLong();
+                byte[] name = new byte[data.getInt()];
+                data.get(name);
+                if (type < 0 || type >= Type.values().length || offset < 0 || offset + length > data.capacity()) {
+                    throw new IOException("corrupt index entry " + i);
+                }
+                entries.put(new String(name, StandardCharsets.UTF_8), new Entry(Type.values()[type], offset, length));
+            }
+        } catch (RuntimeException e) {
+            throw new IOException("truncated index", e);
+        }
+        data.position(0);
+        return new AssetBundle(entries, data);
+    }
+
+    /**
+     * @return the entry's bytes as a little-endian slice of the mapping, or null if the
+     *         bundle has no entry of that type under the name
+     */
+    public ByteBuffer get(String name, Type type) {
+        Entry entry = entries.get(name);
+        if (entry == null || entry.type != type) return null;
+        ByteBuffer slice = data.duplicate();
+        slice.position((int) entry.offset).limit((int) (entry.offset + entry.length));
+        return slice.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Collects entries and writes them out as one bundle
+     */
+    public static final class Writer {
+        private final List<String> names = new ArrayList<>();
+        private final List<Type> types = new ArrayList<>();
+        private final List<ByteBuffer> blobs = new ArrayList<>();
+
+        public void add(String name, Type type, ByteBuffer blob) {
+            names.add(name);
+            types.add(type);
+            blobs.add(blob.duplicate());
+        }
+
+        /**
+         * @return size of the written file in bytes
+         */
+        public long write(Path file) throws IOException {
+            List<byte[]> encodedNames = new ArrayList<>();
+            int indexBytes = 0;
+            for (String name : names) {
+                byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+                encodedNames.add(encoded);
+                indexBytes += 4 + 8 + 8 + 4 + encoded.length;
+            }
+            long[] offsets = new long[blobs.size()];
+            long size = align(HEADER_BYTES + indexBytes);
+            for (int i = 0; i < blobs.size(); i++) {
+                offsets[i] = size;
+                size = align(size + blobs.get(i).remaining());
+            }
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("bundle of " + size + " bytes is too large to map as one buffer");
+            }
+
+            ByteBuffer out = BufferUtils.createByteBuffer((int) size).order(ByteOrder.LITTLE_ENDIAN);
+            out.putInt(MAGIC).putInt(VERSION).putInt(names.size()).putInt(indexBytes);
+            for (int i = 0; i < names.size(); i++) {
+                out.putInt(types.get(i).ordinal()).putLong(offsets[i]).putLong(blobs.get(i).remaining());
+                out.putInt(encodedNames.get(i).length).put(encodedNames.get(i));
+            }
+            for (int i = 0; i < blobs.size(); i++) {
+                out.position((int) offsets[i]);
+                out.put(blobs.get(i).duplicate());
+            }
+            out.position(0);
+            TextureCache.writeAtomically(file, out);
+            return size;
+        }
+
+        public List<String> getNames() {
+            return Collections.unmodifiableList(names);
+        }
+
+        private static long align(long offset) {
+            return (offset + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package mystuff.utils;
+
+import mystuff.engine.JobSystem;
+import mystuff.engine.Metrics;
+import mystuff.engine.Timer;
+
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Splits asset loading into a decode step that runs on the shared JobSystem (file I/O,
+ * image decoding, font baking: anything that does not touch GL) and an upload step that
+ * runs on the GL thread. Uploads wait in a queue until the GL thread drains it, either
+ * once a frame through processUploads or while blocking in await.
+ *
+ * Futures are completed on the GL thread, so stages chained onto them may call GL.
+ */
+public final class AssetLoader {
+    private static final Queue<Runnable> uploads = new ConcurrentLinkedQueue<>();
+    private static final Metrics.Counter DECODED = Metrics.counter("assets.decoded");
+
+    static {
+        Metrics.gauge("assets.pending_uploads", uploads::size);
+    }
+
+    private AssetLoader() {
+    }
+
+    /**
+     * Decodes on a worker, then uploads on the GL thread
+     * @param name job name, shown in profiles
+     * @param decode runs on a worker; must not call GL
+     * @param upload runs on the GL thread with the decoded data
+     */
+    public static <D, T> CompletableFuture<T> load(String name, Callable<D> decode, Function<D, T> upload) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        JobSystem.shared().submit(name, () -> {
+            try {
+                D decoded = decode.call();
+                DECODED.increment();
+                uploads.add(() -> {
+                    try {
+                        result.complete(upload.apply(decoded));
+                    } catch (RuntimeException e) {
+                        result.completeExceptionally(e);
+                    }
+                });
+            } catch (Exception e) {
+                uploads.add(() -> result.completeExceptionally(e));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Runs queued uploads on the GL thread until the queue is empty or the budget is spent.
+     * At least one upload runs per call, so a large texture cannot stall the queue.
+     * @return number of uploads run
+     */
+    public static int processUploads(long budgetNanos) {
+        long start = Timer.getCurrentTime();
+        int count = 0;
+        Runnable upload;
+        while ((upload = uploads.poll()) != null) {
+            upload.run();
+            count++;
+            if (Timer.getCurrentTime() - start >= budgetNanos) break;
+        }
+        return count;
+    }
+
+    /**
+     * Blocks the GL thread until the future is done, running uploads while it waits (the
+     * future may be waiting on one of them)
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        while (!future.isDone()) {
+            Runnable upload = uploads.poll();
+            if (upload != null) {
+                upload.run();
+            } else {
+                LockSupport.parkNanos(100_000);
+            }
+        }
+        return future.join();
+    }
+}
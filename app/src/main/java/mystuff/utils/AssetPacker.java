@@ -0,0 +1,58 @@
+package mystuff.utils;
+
+import mystuff.engine.MemoryFootprint;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Build-time packer for AssetBundle: decodes every PNG into its mip chain and bakes every
+ * TTF into an atlas, then writes them all to one file. Entry names are the paths as given,
+ * relative to the working directory, which is how the game asks for them.
+ *
+ * Usage: AssetPacker <bundle file> <directory>...
+ */
+public class AssetPacker {
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            System.err.println("Usage: AssetPacker <bundle file> <directory>...");
+            System.exit(2);
+        }
+        long start = System.nanoTime();
+        AssetBundle.Writer writer = new AssetBundle.Writer();
+        try {
+            for (int i = 1; i < args.length; i++) {
+                List<Path> files;
+                try (Stream<Path> walk = Files.walk(Paths.get(args[i]))) {
+                    files = walk.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+                }
+                for (Path file : files) {
+                    String name = file.toString().replace('\\', '/');
+                    String lower = name.toLowerCase(Locale.ROOT);
+                    try {
+                        if (lower.endsWith(".png")) {
+                            writer.add(name, AssetBundle.Type.TEXTURE, TextureCache.encode(name, Files.readAllBytes(file)));
+                        } else if (lower.endsWith(".ttf")) {
+                            writer.add(name, AssetBundle.Type.FONT, FontLoader.encodeForBundle(name));
+                        }
+                    } catch (IOException e) {
+                        // Left out; the game reports it if it ever loads the loose file
+                        System.err.println("Skipping " + name + ": " + e.getMessage());
+                    }
+                }
+            }
+            long bytes = writer.write(Paths.get(args[0]));
+            System.out.printf("Packed %d assets into %s (%s) in %d ms%n", writer.getNames().size(), args[0],
+                MemoryFootprint.formatBytes(bytes), (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Asset packing failed: " + e);
+            System.exit(1);
+        }
+    }
+}
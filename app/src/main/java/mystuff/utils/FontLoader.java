@@ -1,5 +1,7 @@
 package mystuff.utils;
 
+import mystuff.engine.MemoryFootprint;
+import mystuff.engine.Render;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
 import org.lwjgl.stb.STBTTAlignedQuad;
@@ -7,12 +9,15 @@ import org.lwjgl.stb.STBTTBakedChar;
 import org.lwjgl.stb.STBTTFontinfo;
 import org.lwjgl.stb.STBTruetype;
 import org.lwjgl.system.MemoryStack;
+import org.lwjgl.system.MemoryUtil;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.nio.FloatBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
 
 public class FontLoader {
     private static final int BITMAP_WIDTH = 512;
@@ -25,64 +30,160 @@ public class FontLoader {
     private static STBTTFontinfo fontInfo;
     private static STBTTBakedChar.Buffer charData;
     private static int fontTexture = -1;
+    private static String fontName; // Footprint item prefix
     private static float scale;
+    private static boolean charDataOwned; // False when the metrics point into the asset bundle
+    private static final int BUNDLE_HEADER_BYTES = 32;
     
     public static void init(String fontPath) {
-        try {
-            // Load font file
-            byte[] ttfBytes = Files.readAllBytes(Paths.get(fontPath));
-            ttfData = BufferUtils.createByteBuffer(ttfBytes.length);
-            ttfData.put(ttfBytes);
-            ttfData.flip();
-
-            // Initialize font
-            fontInfo = STBTTFontinfo.create();
-            if (!STBTruetype.stbtt_InitFont(fontInfo, ttfData)) {
-                throw new RuntimeException("Failed to initialize font");
-            }
-
-            // Create bitmap for font
-            ByteBuffer bitmap = BufferUtils.createByteBuffer(BITMAP_WIDTH * BITMAP_HEIGHT);
-            charData = STBTTBakedChar.malloc(NUM_CHARS);
-            
-            STBTruetype.stbtt_BakeFontBitmap(ttfData, FONT_HEIGHT, bitmap, 
-                BITMAP_WIDTH, BITMAP_HEIGHT, FIRST_CHAR, charData);
-
-            // Convert bitmap to texture
-            fontTexture = GL11.glGenTextures();
-            GL11.glBindTexture(GL11.GL_TEXTURE_2D, fontTexture);
-            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_ALPHA, BITMAP_WIDTH, BITMAP_HEIGHT, 
-                0, GL11.GL_ALPHA, GL11.GL_UNSIGNED_BYTE, bitmap);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
-            GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
-
-            // Calculate scale
-            try (MemoryStack stack = MemoryStack.stackPush()) {
-                scale = STBTruetype.stbtt_ScaleForPixelHeight(fontInfo, FONT_HEIGHT);
-            }
+        AssetLoader.await(initAsync(fontPath));
+    }
 
-            System.out.println("Font loaded successfully: " + fontPath);
-        } catch (IOException e) {
+    /**
+     * Reads and bakes the font on a worker (or takes the pre-baked atlas from the asset
+     * bundle), then uploads the atlas on the GL thread
+     * @return future that completes once the font can be drawn (failures are logged)
+     */
+    public static CompletableFuture<Void> initAsync(String fontPath) {
+        return AssetLoader.load("font.bake", () -> {
+            AssetBundle bundle = AssetBundle.shared();
+            ByteBuffer blob = bundle != null ? bundle.get(fontPath, AssetBundle.Type.FONT) : null;
+            BakedFont baked = blob != null ? fromBundle(blob) : null;
+            return baked != null ? baked : bake(fontPath);
+        }, baked -> {
+            upload(fontPath, baked);
+            return (Void) null;
+        }).exceptionally(e -> {
             System.err.println("Failed to load font: " + e.getMessage());
             e.printStackTrace();
+            return null;
+        });
+    }
+
+    /**
+     * Font file and glyph bitmap, ready for upload. Font file and info are null when the
+     * font came baked from the asset bundle.
+     */
+    private static final class BakedFont {
+        ByteBuffer ttf;
+        STBTTFontinfo info;
+        ByteBuffer bitmap;
+        STBTTBakedChar.Buffer chars;
+        boolean ownsChars = true;
+        float scale;
+    }
+
+    private static BakedFont bake(String fontPath) throws IOException {
+        BakedFont baked = new BakedFont();
+
+        // Load font file
+        byte[] ttfBytes = Files.readAllBytes(Paths.get(fontPath));
+        baked.ttf = BufferUtils.createByteBuffer(ttfBytes.length);
+        baked.ttf.put(ttfBytes);
+        baked.ttf.flip();
+
+        // Initialize font
+        baked.info = STBTTFontinfo.create();
+        if (!STBTruetype.stbtt_InitFont(baked.info, baked.ttf)) {
+            throw new IOException("Failed to initialize font");
         }
+
+        // Create bitmap for font
+        baked.bitmap = BufferUtils.createByteBuffer(BITMAP_WIDTH * BITMAP_HEIGHT);
+        baked.chars = STBTTBakedChar.malloc(NUM_CHARS);
+
+        STBTruetype.stbtt_BakeFontBitmap(baked.ttf, FONT_HEIGHT, baked.bitmap,
+            BITMAP_WIDTH, BITMAP_HEIGHT, FIRST_CHAR, baked.chars);
+
+        // Calculate scale
+        baked.scale = STBTruetype.stbtt_ScaleForPixelHeight(baked.info, FONT_HEIGHT);
+        return baked;
+    }
+
+    /**
+     * Bakes a font for AssetPacker: a header with the bake settings, the atlas bitmap and
+     * the glyph metrics
+     */
+    static ByteBuffer encodeForBundle(String fontPath) throws IOException {
+        BakedFont baked = bake(fontPath);
+        try {
+            int charBytes = NUM_CHARS * STBTTBakedChar.SIZEOF;
+            ByteBuffer blob = BufferUtils.createByteBuffer(BUNDLE_HEADER_BYTES + BITMAP_WIDTH * BITMAP_HEIGHT + charBytes)
+                .order(ByteOrder.LITTLE_ENDIAN);
+            blob.putFloat(FONT_HEIGHT).putInt(BITMAP_WIDTH).putInt(BITMAP_HEIGHT).putInt(FIRST_CHAR).putInt(NUM_CHARS)
+                .putInt(STBTTBakedChar.SIZEOF).putFloat(baked.scale);
+            blob.position(BUNDLE_HEADER_BYTES);
+            blob.put(baked.bitmap.duplicate());
+            blob.put(MemoryUtil.memByteBuffer(baked.chars.address(), charBytes));
+            blob.flip();
+            return blob;
+        } finally {
+            baked.chars.free();
+        }
+    }
+
+    /**
+     * Uses a pre-baked font without copying: bitmap and glyph metrics are slices of the blob
+     * @return null if the font was baked with other settings than this build uses
+     */
+    private static BakedFont fromBundle(ByteBuffer blob) {
+        int charBytes = NUM_CHARS * STBTTBakedChar.SIZEOF;
+        if (blob.capacity() != BUNDLE_HEADER_BYTES + BITMAP_WIDTH * BITMAP_HEIGHT + charBytes
+                || blob.getFloat(0) != FONT_HEIGHT || blob.getInt(4) != BITMAP_WIDTH || blob.getInt(8) != BITMAP_HEIGHT
+                || blob.getInt(12) != FIRST_CHAR || blob.getInt(16) != NUM_CHARS || blob.getInt(20) != STBTTBakedChar.SIZEOF) {
+            return null;
+        }
+        BakedFont baked = new BakedFont();
+        baked.scale = blob.getFloat(24);
+        ByteBuffer bitmap = blob.duplicate();
+        bitmap.position(BUNDLE_HEADER_BYTES).limit(BUNDLE_HEADER_BYTES + BITMAP_WIDTH * BITMAP_HEIGHT);
+        baked.bitmap = bitmap.slice();
+        // The bundle mapping lives as long as the process, so the metrics can point into it
+        baked.chars = STBTTBakedChar.create(MemoryUtil.memAddress(blob) + BUNDLE_HEADER_BYTES + BITMAP_WIDTH * BITMAP_HEIGHT, NUM_CHARS);
+        baked.ownsChars = false;
+        return baked;
+    }
+
+    private static void upload(String fontPath, BakedFont baked) {
+        ttfData = baked.ttf;
+        fontInfo = baked.info;
+        charData = baked.chars;
+        charDataOwned = baked.ownsChars;
+
+        // Convert bitmap to texture
+        fontTexture = Render.gl().glGenTextures();
+        Render.gl().glBindTexture(GL11.GL_TEXTURE_2D, fontTexture);
+        Render.gl().glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_ALPHA, BITMAP_WIDTH, BITMAP_HEIGHT, 
+            0, GL11.GL_ALPHA, GL11.GL_UNSIGNED_BYTE, baked.bitmap);
+        Render.gl().glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+        Render.gl().glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+
+        scale = baked.scale;
+
+        // The atlas lives on the GPU; the font file and glyph metrics stay in native memory
+        fontName = fontPath;
+        MemoryFootprint.set("fonts", fontName + " atlas", (long) BITMAP_WIDTH * BITMAP_HEIGHT);
+        long fileBytes = ttfData != null ? ttfData.capacity() : 0;
+        MemoryFootprint.set("fonts", fontName + " data", fileBytes + (long) NUM_CHARS * STBTTBakedChar.SIZEOF);
+
+        System.out.println("Font loaded successfully: " + fontPath);
     }
 
     public static void renderText(String text, float x, float y) {
         if (fontTexture == -1) return;
 
-        GL11.glEnable(GL11.GL_TEXTURE_2D);
-        GL11.glEnable(GL11.GL_BLEND);
-        GL11.glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+        Render.gl().glEnable(GL11.GL_TEXTURE_2D);
+        Render.gl().glEnable(GL11.GL_BLEND);
+        Render.gl().glBlendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
         
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, fontTexture);
+        Render.gl().glBindTexture(GL11.GL_TEXTURE_2D, fontTexture);
         
         try (MemoryStack stack = MemoryStack.stackPush()) {
             FloatBuffer xpos = stack.floats(x);
             FloatBuffer ypos = stack.floats(y);
             STBTTAlignedQuad q = STBTTAlignedQuad.malloc(stack);
             
-            GL11.glBegin(GL11.GL_QUADS);
+            Render.gl().glBegin(GL11.GL_QUADS);
             for (int i = 0; i < text.length(); i++) {
                 char c = text.charAt(i);
                 if (c < FIRST_CHAR || c >= FIRST_CHAR + NUM_CHARS) continue;
@@ -90,26 +191,31 @@ public class FontLoader {
                 STBTruetype.stbtt_GetBakedQuad(charData, BITMAP_WIDTH, BITMAP_HEIGHT, 
                     c - FIRST_CHAR, xpos, ypos, q, true);
                 
-                GL11.glTexCoord2f(q.s0(), q.t0()); GL11.glVertex2f(q.x0(), q.y0());
-                GL11.glTexCoord2f(q.s1(), q.t0()); GL11.glVertex2f(q.x1(), q.y0());
-                GL11.glTexCoord2f(q.s1(), q.t1()); GL11.glVertex2f(q.x1(), q.y1());
-                GL11.glTexCoord2f(q.s0(), q.t1()); GL11.glVertex2f(q.x0(), q.y1());
+                Render.gl().glTexCoord2f(q.s0(), q.t0()); Render.gl().glVertex2f(q.x0(), q.y0());
+                Render.gl().glTexCoord2f(q.s1(), q.t0()); Render.gl().glVertex2f(q.x1(), q.y0());
+                Render.gl().glTexCoord2f(q.s1(), q.t1()); Render.gl().glVertex2f(q.x1(), q.y1());
+                Render.gl().glTexCoord2f(q.s0(), q.t1()); Render.gl().glVertex2f(q.x0(), q.y1());
             }
-            GL11.glEnd();
+            Render.gl().glEnd();
         }
         
-        GL11.glDisable(GL11.GL_BLEND);
-        GL11.glDisable(GL11.GL_TEXTURE_2D);
+        Render.gl().glDisable(GL11.GL_BLEND);
+        Render.gl().glDisable(GL11.GL_TEXTURE_2D);
     }
 
     public static void cleanup() {
         if (fontTexture != -1) {
-            GL11.glDeleteTextures(fontTexture);
+            Render.gl().glDeleteTextures(fontTexture);
             fontTexture = -1;
         }
         if (charData != null) {
-            charData.free();
+            if (charDataOwned) charData.free();
             charData = null;
         }
+        if (fontName != null) {
+            MemoryFootprint.remove("fonts", fontName + " atlas");
+            MemoryFootprint.remove("fonts", fontName + " data");
+            fontName = null;
+        }
     }
 } 
\ No newline at end of file
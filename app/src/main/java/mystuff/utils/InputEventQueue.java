@@ -0,0 +1,86 @@
+package mystuff.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free single-producer/single-consumer ring of input events. GLFW callbacks push on
+ * the thread that polls events; the simulation drains at the start of each tick. The
+ * producer never blocks: when the ring is full the event is dropped and counted.
+ */
+public class InputEventQueue {
+    public static final int KEY = 1;
+    public static final int CURSOR = 2;
+
+    /**
+     * Receives drained events. Key events carry code = key and action = GLFW action;
+     * cursor events carry the absolute position in x and y.
+     */
+    public interface Handler {
+        void onEvent(int type, int code, int action, double x, double y);
+    }
+
+    private final int mask;
+    private final int[] types;
+    private final int[] codes;
+    private final int[] actions;
+    private final double[] xs;
+    private final double[] ys;
+    private final AtomicLong head = new AtomicLong(); // Next slot to read, only advanced by the consumer
+    private final AtomicLong tail = new AtomicLong(); // Next slot to write, only advanced by the producer
+    private volatile long dropped = 0;                 // Only written by the producer
+
+    /**
+     * @param capacity rounded up to a power of two
+     */
+    public InputEventQueue(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        mask = size - 1;
+        types = new int[size];
+        codes = new int[size];
+        actions = new int[size];
+        xs = new double[size];
+        ys = new double[size];
+    }
+
+    /**
+     * Producer side. Returns false if the ring was full and the event was dropped.
+     */
+    public boolean offer(int type, int code, int action, double x, double y) {
+        long t = tail.get();
+        if (t - head.get() > mask) {
+            dropped++;
+            return false;
+        }
+        int i = (int) t & mask;
+        types[i] = type;
+        codes[i] = code;
+        actions[i] = action;
+        xs[i] = x;
+        ys[i] = y;
+        tail.lazySet(t + 1); // Publish the slot after it is filled
+        return true;
+    }
+
+    /**
+     * Consumer side. Hands every queued event to the handler in arrival order.
+     * @return number of events drained
+     */
+    public int drain(Handler handler) {
+        long h = head.get();
+        long t = tail.get();
+        for (long s = h; s < t; s++) {
+            int i = (int) s & mask;
+            handler.onEvent(types[i], codes[i], actions[i], xs[i], ys[i]);
+        }
+        head.lazySet(t); // Hand the slots back to the producer
+        return (int) (t - h);
+    }
+
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    public long getDroppedCount() {
+        return dropped;
+    }
+}
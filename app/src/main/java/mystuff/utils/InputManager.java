@@ -0,0 +1,134 @@
+package mystuff.utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.lwjgl.glfw.GLFW;
+
+/**
+ * Event-driven input. GLFW key and cursor callbacks push into a lock-free queue, and the
+ * simulation drains it once at the start of each tick into KeyboardManager and
+ * MouseManager. Input that arrives mid-tick is picked up by the next tick, and the
+ * cost scales with the number of events rather than the number of keys.
+ */
+public class InputManager {
+    private static final InputEventQueue events = new InputEventQueue(1024);
+    private static final InputEventQueue.Handler dispatcher = InputManager::dispatch;
+    private static final InputEventQueue.Handler IGNORE = (type, code, action, x, y) -> { };
+    private static long lastDropped = 0;
+    
+    // At most one of these is active
+    private static InputRecorder recorder;
+    private static InputReplay replay;
+
+    /**
+     * Registers the GLFW callbacks for a window. Callbacks run on the thread that polls
+     * events, which is the only producer for the queue.
+     */
+    public static void install(long window) {
+        GLFW.glfwSetKeyCallback(window, (handle, key, scancode, action, mods) -> {
+            KeyboardManager.recordRaw(key, action);
+            events.offer(InputEventQueue.KEY, key, action, 0, 0);
+        });
+        GLFW.glfwSetCursorPosCallback(window, (handle, xpos, ypos) -> {
+            events.offer(InputEventQueue.CURSOR, 0, 0, xpos, ypos);
+        });
+    }
+
+    /**
+     * Drains queued events into this tick's keyboard and mouse state. Call once at the
+     * start of every update tick, from the thread that runs updates.
+     */
+    public static void beginTick() {
+        KeyboardManager.nextTick();
+        MouseManager.nextTick();
+        
+        if (replay != null) {
+            // Live input is discarded; the tick sees exactly what was recorded
+            events.drain(IGNORE);
+            replay.playTick();
+            return;
+        }
+        
+        events.drain(dispatcher);
+        
+        long dropped = events.getDroppedCount();
+        if (dropped != lastDropped) {
+            // Lost events (e.g. while paused); don't leave keys stuck
+            lastDropped = dropped;
+            resyncKeys();
+        }
+        
+        if (recorder != null) {
+            try {
+                recorder.endTick(MouseManager.getDeltaX(), MouseManager.getDeltaY());
+            } catch (IOException e) {
+                System.err.println("Input recording failed, stopping: " + e.getMessage());
+                stopRecording();
+            }
+        }
+    }
+    
+    /**
+     * Realigns tick state with the raw callback state, as synthetic events so a recording
+     * sees the same change. Reads the callback's state across threads; a stale entry only
+     * delays the fix by a tick.
+     */
+    private static void resyncKeys() {
+        for (int key = 0; key <= GLFW.GLFW_KEY_LAST; key++) {
+            boolean down = KeyboardManager.isKeyDown(key);
+            if (down != KeyboardManager.isKeyPressed(key)) {
+                dispatch(InputEventQueue.KEY, key, down ? GLFW.GLFW_PRESS : GLFW.GLFW_RELEASE, 0, 0);
+            }
+        }
+    }
+
+    private static void dispatch(int type, int code, int action, double x, double y) {
+        if (type == InputEventQueue.KEY) {
+            KeyboardManager.applyEvent(code, action);
+            if (recorder != null) {
+                recorder.recordKey(code, action);
+            }
+        } else if (type == InputEventQueue.CURSOR) {
+            MouseManager.applyCursor(x, y);
+        }
+    }
+
+    /**
+     * Records every tick's input to a file until stopRecording()
+     */
+    public static void startRecording(Path path, long seed, float tickInterval) throws IOException {
+        stopRecording();
+        replay = null;
+        recorder = new InputRecorder(path, seed, tickInterval);
+        System.out.println("Recording input to " + path);
+    }
+    
+    public static void stopRecording() {
+        if (recorder != null) {
+            try {
+                recorder.close();
+                System.out.println("Recorded " + recorder.getTickCount() + " ticks of input");
+            } catch (IOException e) {
+                System.err.println("Failed to finish input recording: " + e.getMessage());
+            }
+            recorder = null;
+        }
+    }
+    
+    /**
+     * Feeds ticks from a recording instead of live input
+     */
+    public static void startReplay(InputReplay recording) {
+        stopRecording();
+        replay = recording;
+        System.out.println("Replaying " + recording.getTickCount() + " ticks of input");
+    }
+    
+    public static InputReplay getReplay() {
+        return replay;
+    }
+    
+    public static long getDroppedEventCount() {
+        return events.getDroppedCount();
+    }
+}
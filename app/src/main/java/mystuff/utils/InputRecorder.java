@@ -0,0 +1,79 @@
+package mystuff.utils;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes the input each tick consumed to a compact binary file, so a session can be
+ * replayed tick for tick with InputReplay.
+ *
+ * Layout: header (magic, version, world seed, tick interval), then one record per tick:
+ * a flags byte, the key events if FLAG_KEYS (count, then key + action each) and the
+ * cursor delta if FLAG_MOUSE. A tick with no input costs one byte.
+ */
+public class InputRecorder {
+    static final int MAGIC = 0x494E5052; // "INPR"
+    static final int VERSION = 1;
+    static final int FLAG_KEYS = 1;
+    static final int FLAG_MOUSE = 2;
+
+    private static final int MAX_KEY_EVENTS_PER_TICK = 256;
+
+    private final DataOutputStream out;
+    private final short[] keys = new short[MAX_KEY_EVENTS_PER_TICK];
+    private final byte[] actions = new byte[MAX_KEY_EVENTS_PER_TICK];
+    private int keyCount = 0;
+    private long ticks = 0;
+
+    public InputRecorder(Path path, long seed, float tickInterval) throws IOException {
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeLong(seed);
+        out.writeFloat(tickInterval);
+    }
+
+    /**
+     * Adds a key event to the current tick
+     */
+    void recordKey(int key, int action) {
+        if (keyCount < keys.length) {
+            keys[keyCount] = (short) key;
+            actions[keyCount] = (byte) action;
+            keyCount++;
+        }
+    }
+
+    /**
+     * Writes the current tick's record
+     */
+    void endTick(float mouseDeltaX, float mouseDeltaY) throws IOException {
+        boolean mouse = mouseDeltaX != 0 || mouseDeltaY != 0;
+        int flags = (keyCount > 0 ? FLAG_KEYS : 0) | (mouse ? FLAG_MOUSE : 0);
+        out.writeByte(flags);
+        if (keyCount > 0) {
+            out.writeByte(keyCount - 1);
+            for (int i = 0; i < keyCount; i++) {
+                out.writeShort(keys[i]);
+                out.writeByte(actions[i]);
+            }
+        }
+        if (mouse) {
+            out.writeFloat(mouseDeltaX);
+            out.writeFloat(mouseDeltaY);
+        }
+        keyCount = 0;
+        ticks++;
+    }
+
+    public long getTickCount() {
+        return ticks;
+    }
+
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,131 @@
+package mystuff.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Plays back a file written by InputRecorder, feeding each tick exactly the input it
+ * had when recorded. Together with the recorded seed and tick interval this makes a
+ * run repeatable, so different builds can be compared on the same flythrough.
+ */
+public class InputReplay {
+    private final DataInputStream in;
+    private final long seed;
+    private final float tickInterval;
+    private final long tickCount;
+    private long ticksPlayed = 0;
+
+    private InputReplay(byte[] data) throws IOException {
+        in = new DataInputStream(new ByteArrayInputStream(data));
+        if (in.readInt() != InputRecorder.MAGIC) {
+            throw new IOException("Not an input recording");
+        }
+        int version = in.readShort();
+        if (version != InputRecorder.VERSION) {
+            throw new IOException("Unsupported input recording version " + version);
+        }
+        seed = in.readLong();
+        tickInterval = in.readFloat();
+
+        // Count the ticks up front so the engine can stop exactly at the end. A file cut
+        // short by a crash still plays up to its last complete tick.
+        in.mark(data.length);
+        long count = 0;
+        try {
+            while (in.available() > 0) {
+                skipTick();
+                count++;
+            }
+        } catch (EOFException e) {
+            System.err.println("Input recording is truncated after " + count + " ticks");
+        }
+        in.reset();
+        tickCount = count;
+    }
+
+    /**
+     * Loads a recording fully into memory
+     */
+    public static InputReplay open(Path path) throws IOException {
+        return new InputReplay(Files.readAllBytes(path));
+    }
+
+    /**
+     * Applies the next recorded tick to the keyboard and mouse state
+     * @return false once the recording is exhausted
+     */
+    boolean playTick() {
+        try {
+            if (isFinished()) {
+                return false;
+            }
+            int flags = in.readUnsignedByte();
+            if ((flags & InputRecorder.FLAG_KEYS) != 0) {
+                int count = in.readUnsignedByte() + 1;
+                for (int i = 0; i < count; i++) {
+                    int key = in.readShort();
+                    int action = in.readByte();
+                    KeyboardManager.applyEvent(key, action);
+                }
+            }
+            if ((flags & InputRecorder.FLAG_MOUSE) != 0) {
+                MouseManager.setDelta(in.readFloat(), in.readFloat());
+            }
+            ticksPlayed++;
+            return true;
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to read input recording", e);
+        }
+    }
+
+    private void skipTick() throws IOException {
+        int flags = in.readUnsignedByte();
+        if ((flags & InputRecorder.FLAG_KEYS) != 0) {
+            int count = in.readUnsignedByte() + 1;
+            skipFully(count * 3);
+        }
+        if ((flags & InputRecorder.FLAG_MOUSE) != 0) {
+            skipFully(8);
+        }
+    }
+
+    /**
+     * skipBytes stops quietly at the end of the data; a tick cut off there must not count
+     */
+    private void skipFully(int bytes) throws IOException {
+        if (in.skipBytes(bytes) != bytes) {
+            throw new EOFException();
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public float getTickInterval() {
+        return tickInterval;
+    }
+
+    /**
+     * Tick rate the recording was made at
+     */
+    public int getTicksPerSecond() {
+        return Math.round(1.0f / tickInterval);
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public long getTicksPlayed() {
+        return ticksPlayed;
+    }
+
+    public boolean isFinished() {
+        return ticksPlayed >= tickCount;
+    }
+}
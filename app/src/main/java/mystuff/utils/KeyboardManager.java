@@ -1,27 +1,84 @@
 package mystuff.utils;
 
+import java.util.Arrays;
 import org.lwjgl.glfw.GLFW;
 
+/**
+ * Keyboard state built from GLFW key events. Tick state (isKeyPressed and friends) is
+ * advanced by InputManager.beginTick() and should only be read from update code.
+ * Render-side code such as Game.input reads the raw state through isKeyDown instead.
+ */
 public class KeyboardManager {
-    private static boolean[] currentKeys = new boolean[GLFW.GLFW_KEY_LAST];
-    private static boolean[] previousKeys = new boolean[GLFW.GLFW_KEY_LAST];
-
-    public static void update(long window) {
-        // Update previous key states
-        System.arraycopy(currentKeys, 0, previousKeys, 0, currentKeys.length);
-        
-        // Update current key states
-        for (int i = 0; i < currentKeys.length; i++) {
-            currentKeys[i] = GLFW.glfwGetKey(window, i) == GLFW.GLFW_PRESS;
+    private static final int KEY_COUNT = GLFW.GLFW_KEY_LAST + 1;
+
+    // Per-tick state, owned by the thread running updates
+    private static final boolean[] currentKeys = new boolean[KEY_COUNT];
+    private static final long[] pressedTick = new long[KEY_COUNT];
+    private static final long[] releasedTick = new long[KEY_COUNT];
+    private static long tick = 0;
+
+    // Latest state straight from the callback, owned by the thread polling events
+    private static final boolean[] rawKeys = new boolean[KEY_COUNT];
+
+    static {
+        Arrays.fill(pressedTick, -1);
+        Arrays.fill(releasedTick, -1);
+    }
+
+    /**
+     * Starts a new tick; edges from the previous tick stop reporting
+     */
+    static void nextTick() {
+        tick++;
+    }
+
+    /**
+     * Applies one queued key event to the tick state
+     */
+    static void applyEvent(int key, int action) {
+        if (key < 0 || key >= KEY_COUNT) return;
+        if (action == GLFW.GLFW_PRESS) {
+            if (!currentKeys[key]) {
+                currentKeys[key] = true;
+                pressedTick[key] = tick;
+            }
+        } else if (action == GLFW.GLFW_RELEASE) {
+            if (currentKeys[key]) {
+                currentKeys[key] = false;
+                releasedTick[key] = tick;
+            }
+        }
+        // GLFW_REPEAT doesn't change state
+    }
+
+    /**
+     * Records the raw state, called from the key callback
+     */
+    static void recordRaw(int key, int action) {
+        if (key < 0 || key >= KEY_COUNT) return;
+        if (action == GLFW.GLFW_PRESS) {
+            rawKeys[key] = true;
+        } else if (action == GLFW.GLFW_RELEASE) {
+            rawKeys[key] = false;
         }
     }
 
+    /**
+     * Raw key state as of the last event poll, for code running outside the update tick
+     */
+    public static boolean isKeyDown(int key) {
+        return rawKeys[key];
+    }
+
     public static boolean isKeyPressed(int key) {
         return currentKeys[key];
     }
 
+    /**
+     * True on the tick a key went down, even if it was released again within the tick
+     */
     public static boolean isKeyJustPressed(int key) {
-        return currentKeys[key] && !previousKeys[key];
+        return pressedTick[key] == tick;
     }
 
     public static boolean isKeyReleased(int key) {
@@ -29,6 +86,6 @@ public class KeyboardManager {
     }
 
     public static boolean isKeyJustReleased(int key) {
-        return !currentKeys[key] && previousKeys[key];
+        return releasedTick[key] == tick;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,199 @@
+package mystuff.utils;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.util.IllegalFormatException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sampled, rate-limited logging for per-frame and per-tick debug output. Each call site
+ * declares a static Site with its own limits; messages that pass go onto a bounded queue
+ * together with their unformatted arguments, and a background thread formats and writes
+ * them, so the game thread never blocks on the console.
+ *
+ *     private static final Log.Site POSITION = Log.site("player.position", 2, 1);
+ *     ...
+ *     if (Debug.showPlayerInfo() && POSITION.shouldLog()) POSITION.log("x=%.2f", x);
+ *
+ * Check shouldLog() before log() so suppressed calls don't even box their arguments.
+ */
+public final class Log {
+    private static final int QUEUE_CAPACITY = 1024;
+    private static final BlockingQueue<Entry> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final AtomicLong dropped = new AtomicLong(); // Queue full
+    private static final AtomicInteger pending = new AtomicInteger(); // Queued or being written
+    private static final Object FLUSH_LOCK = new Object();
+    private static volatile Thread writer;
+
+    private Log() {
+    }
+
+    /**
+     * Creates a call site that logs every sampleEvery-th call, at most maxPerSecond times a second
+     */
+    public static Site site(String name, int maxPerSecond, int sampleEvery) {
+        return new Site(name, maxPerSecond, sampleEvery);
+    }
+
+    /**
+     * Messages dropped because the writer fell behind
+     */
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * Waits up to the timeout for queued messages to be written, e.g. on shutdown
+     */
+    public static void flush(long timeoutMillis) {
+        long deadline = System.currentTimeMillis() + timeoutMillis;
+        synchronized (FLUSH_LOCK) {
+            while (pending.get() > 0) {
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) return;
+                try {
+                    FLUSH_LOCK.wait(remaining);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void enqueue(Entry entry) {
+        ensureWriter();
+        pending.incrementAndGet();
+        if (!queue.offer(entry)) {
+            pending.decrementAndGet();
+            dropped.incrementAndGet();
+        }
+    }
+
+    private static void ensureWriter() {
+        if (writer != null) return;
+        synchronized (Log.class) {
+            if (writer != null) return;
+            Thread thread = new Thread(Log::writeLoop, "LogWriter");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            thread.start();
+            writer = thread;
+        }
+    }
+
+    private static void writeLoop() {
+        BufferedWriter out = new BufferedWriter(new OutputStreamWriter(System.out));
+        long reportedDrops = 0;
+        try {
+            while (true) {
+                Entry entry = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (entry != null) {
+                    out.write(entry.format());
+                    out.newLine();
+                }
+                boolean idle = queue.isEmpty();
+                long drops = dropped.get();
+                if (drops != reportedDrops) {
+                    out.write("[log] " + (drops - reportedDrops) + " messages dropped, writer fell behind");
+                    out.newLine();
+                    reportedDrops = drops;
+                }
+                if (idle) {
+                    out.flush();
+                }
+                if (entry != null && pending.decrementAndGet() == 0) {
+                    synchronized (FLUSH_LOCK) {
+                        FLUSH_LOCK.notifyAll();
+                    }
+                }
+            }
+        } catch (InterruptedException | IOException e) {
+            // Writer ends with the process; nothing useful to report to
+        }
+    }
+
+    /**
+     * A log call site with its own sampling and rate limit. Intended to be used from one
+     * thread (each site is a static field at one place in the code).
+     */
+    public static final class Site {
+        private final String name;
+        private final int maxPerSecond;
+        private final int sampleEvery;
+
+        private long calls = 0;
+        private long windowStart = 0;
+        private int inWindow = 0;
+        private int suppressed = 0; // Calls not logged since the last message
+
+        private Site(String name, int maxPerSecond, int sampleEvery) {
+            this.name = name;
+            this.maxPerSecond = Math.max(1, maxPerSecond);
+            this.sampleEvery = Math.max(1, sampleEvery);
+        }
+
+        /**
+         * Whether this call should be logged; counts the call either way
+         */
+        public boolean shouldLog() {
+            if (calls++ % sampleEvery != 0) {
+                suppressed++;
+                return false;
+            }
+            long now = System.nanoTime();
+            if (now - windowStart >= 1_000_000_000L) {
+                windowStart = now;
+                inWindow = 0;
+            }
+            if (inWindow >= maxPerSecond) {
+                suppressed++;
+                return false;
+            }
+            inWindow++;
+            return true;
+        }
+
+        /**
+         * Queues a message; formatting happens on the writer thread. Arguments must not be
+         * mutated afterwards, so pass values rather than live objects.
+         */
+        public void log(String format, Object... args) {
+            enqueue(new Entry(name, format, args, suppressed));
+            suppressed = 0;
+        }
+    }
+
+    private static final class Entry {
+        private final String site;
+        private final String format;
+        private final Object[] args;
+        private final int suppressed;
+
+        Entry(String site, String format, Object[] args, int suppressed) {
+            this.site = site;
+            this.format = format;
+            this.args = args;
+            this.suppressed = suppressed;
+        }
+
+        String format() {
+            String message;
+            try {
+                message = args.length == 0 ? format : String.format(format, args);
+            } catch (IllegalFormatException e) {
+                message = format + " (bad format: " + e.getMessage() + ")";
+            }
+            StringBuilder line = new StringBuilder().append('[').append(site).append("] ").append(message);
+            if (suppressed > 0) {
+                line.append(" (+").append(suppressed).append(" suppressed)");
+            }
+            return line.toString();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package mystuff.utils;
+
+/**
+ * Cursor movement per tick, built from queued GLFW cursor events by InputManager
+ */
+public class MouseManager {
+    private static boolean hasPosition = false;
+    private static double lastX, lastY;
+    private static float deltaX, deltaY;
+
+    static void nextTick() {
+        deltaX = 0;
+        deltaY = 0;
+    }
+
+    static void applyCursor(double x, double y) {
+        if (hasPosition) {
+            deltaX += (float) (x - lastX);
+            deltaY += (float) (y - lastY);
+        }
+        lastX = x;
+        lastY = y;
+        hasPosition = true;
+    }
+
+    /**
+     * Sets this tick's movement directly, used when replaying a recording
+     */
+    static void setDelta(float x, float y) {
+        deltaX = x;
+        deltaY = y;
+    }
+
+    /**
+     * Horizontal cursor movement during this tick, in pixels, positive to the right
+     */
+    public static float getDeltaX() {
+        return deltaX;
+    }
+
+    /**
+     * Vertical cursor movement during this tick, in pixels, positive downwards
+     */
+    public static float getDeltaY() {
+        return deltaY;
+    }
+}
@@ -1,6 +1,7 @@
 package mystuff.utils;
 
 import org.lwjgl.opengl.GL11;
+import mystuff.engine.Render;
 
 public class Shapes {
 
@@ -12,52 +13,52 @@ public class Shapes {
     public static void cube(float size) {
         float halfSize = size / 2;
         // Front face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex3f(-halfSize, -halfSize, halfSize);
-        GL11.glVertex3f(halfSize, -halfSize, halfSize);
-        GL11.glVertex3f(halfSize, halfSize, halfSize);
-        GL11.glVertex3f(-halfSize, halfSize, halfSize);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glVertex3f(-halfSize, -halfSize, halfSize);
+        Render.gl().glVertex3f(halfSize, -halfSize, halfSize);
+        Render.gl().glVertex3f(halfSize, halfSize, halfSize);
+        Render.gl().glVertex3f(-halfSize, halfSize, halfSize);
+        Render.gl().glEnd();
 
         // Back face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex3f(-halfSize, -halfSize, -halfSize);
-        GL11.glVertex3f(-halfSize, halfSize, -halfSize);
-        GL11.glVertex3f(halfSize, halfSize, -halfSize);
-        GL11.glVertex3f(halfSize, -halfSize, -halfSize);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glVertex3f(-halfSize, -halfSize, -halfSize);
+        Render.gl().glVertex3f(-halfSize, halfSize, -halfSize);
+        Render.gl().glVertex3f(halfSize, halfSize, -halfSize);
+        Render.gl().glVertex3f(halfSize, -halfSize, -halfSize);
+        Render.gl().glEnd();
 
         // Top face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex3f(-halfSize, halfSize, -halfSize);
-        GL11.glVertex3f(-halfSize, halfSize, halfSize);
-        GL11.glVertex3f(halfSize, halfSize, halfSize);
-        GL11.glVertex3f(halfSize, halfSize, -halfSize);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glVertex3f(-halfSize, halfSize, -halfSize);
+        Render.gl().glVertex3f(-halfSize, halfSize, halfSize);
+        Render.gl().glVertex3f(halfSize, halfSize, halfSize);
+        Render.gl().glVertex3f(halfSize, halfSize, -halfSize);
+        Render.gl().glEnd();
 
         // Bottom face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex3f(-halfSize, -halfSize, -halfSize);
-        GL11.glVertex3f(halfSize, -halfSize, -halfSize);
-        GL11.glVertex3f(halfSize, -halfSize, halfSize);
-        GL11.glVertex3f(-halfSize, -halfSize, halfSize);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glVertex3f(-halfSize, -halfSize, -halfSize);
+        Render.gl().glVertex3f(halfSize, -halfSize, -halfSize);
+        Render.gl().glVertex3f(halfSize, -halfSize, halfSize);
+        Render.gl().glVertex3f(-halfSize, -halfSize, halfSize);
+        Render.gl().glEnd();
 
         // Right face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex3f(halfSize, -halfSize, -halfSize);
-        GL11.glVertex3f(halfSize, halfSize, -halfSize);
-        GL11.glVertex3f(halfSize, halfSize, halfSize);
-        GL11.glVertex3f(halfSize, -halfSize, halfSize);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glVertex3f(halfSize, -halfSize, -halfSize);
+        Render.gl().glVertex3f(halfSize, halfSize, -halfSize);
+        Render.gl().glVertex3f(halfSize, halfSize, halfSize);
+        Render.gl().glVertex3f(halfSize, -halfSize, halfSize);
+        Render.gl().glEnd();
 
         // Left face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex3f(-halfSize, -halfSize, -halfSize);
-        GL11.glVertex3f(-halfSize, -halfSize, halfSize);
-        GL11.glVertex3f(-halfSize, halfSize, halfSize);
-        GL11.glVertex3f(-halfSize, halfSize, -halfSize);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glVertex3f(-halfSize, -halfSize, -halfSize);
+        Render.gl().glVertex3f(-halfSize, -halfSize, halfSize);
+        Render.gl().glVertex3f(-halfSize, halfSize, halfSize);
+        Render.gl().glVertex3f(-halfSize, halfSize, -halfSize);
+        Render.gl().glEnd();
     }
     
     /**
@@ -72,52 +73,52 @@ public class Shapes {
         float halfDepth = depth / 2;
         
         // Front face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex3f(-halfWidth, -halfHeight, halfDepth);
-        GL11.glVertex3f(halfWidth, -halfHeight, halfDepth);
-        GL11.glVertex3f(halfWidth, halfHeight, halfDepth);
-        GL11.glVertex3f(-halfWidth, halfHeight, halfDepth);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glVertex3f(-halfWidth, -halfHeight, halfDepth);
+        Render.gl().glVertex3f(halfWidth, -halfHeight, halfDepth);
+        Render.gl().glVertex3f(halfWidth, halfHeight, halfDepth);
+        Render.gl().glVertex3f(-halfWidth, halfHeight, halfDepth);
+        Render.gl().glEnd();
 
         // Back face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex3f(-halfWidth, -halfHeight, -halfDepth);
-        GL11.glVertex3f(-halfWidth, halfHeight, -halfDepth);
-        GL11.glVertex3f(halfWidth, halfHeight, -halfDepth);
-        GL11.glVertex3f(halfWidth, -halfHeight, -halfDepth);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glVertex3f(-halfWidth, -halfHeight, -halfDepth);
+        Render.gl().glVertex3f(-halfWidth, halfHeight, -halfDepth);
+        Render.gl().glVertex3f(halfWidth, halfHeight, -halfDepth);
+        Render.gl().glVertex3f(halfWidth, -halfHeight, -halfDepth);
+        Render.gl().glEnd();
 
         // Top face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex3f(-halfWidth, halfHeight, -halfDepth);
-        GL11.glVertex3f(-halfWidth, halfHeight, halfDepth);
-        GL11.glVertex3f(halfWidth, halfHeight, halfDepth);
-        GL11.glVertex3f(halfWidth, halfHeight, -halfDepth);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glVertex3f(-halfWidth, halfHeight, -halfDepth);
+        Render.gl().glVertex3f(-halfWidth, halfHeight, halfDepth);
+        Render.gl().glVertex3f(halfWidth, halfHeight, halfDepth);
+        Render.gl().glVertex3f(halfWidth, halfHeight, -halfDepth);
+        Render.gl().glEnd();
 
         // Bottom face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex3f(-halfWidth, -halfHeight, -halfDepth);
-        GL11.glVertex3f(halfWidth, -halfHeight, -halfDepth);
-        GL11.glVertex3f(halfWidth, -halfHeight, halfDepth);
-        GL11.glVertex3f(-halfWidth, -halfHeight, halfDepth);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glVertex3f(-halfWidth, -halfHeight, -halfDepth);
+        Render.gl().glVertex3f(halfWidth, -halfHeight, -halfDepth);
+        Render.gl().glVertex3f(halfWidth, -halfHeight, halfDepth);
+        Render.gl().glVertex3f(-halfWidth, -halfHeight, halfDepth);
+        Render.gl().glEnd();
 
         // Right face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex3f(halfWidth, -halfHeight, -halfDepth);
-        GL11.glVertex3f(halfWidth, halfHeight, -halfDepth);
-        GL11.glVertex3f(halfWidth, halfHeight, halfDepth);
-        GL11.glVertex3f(halfWidth, -halfHeight, halfDepth);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glVertex3f(halfWidth, -halfHeight, -halfDepth);
+        Render.gl().glVertex3f(halfWidth, halfHeight, -halfDepth);
+        Render.gl().glVertex3f(halfWidth, halfHeight, halfDepth);
+        Render.gl().glVertex3f(halfWidth, -halfHeight, halfDepth);
+        Render.gl().glEnd();
 
         // Left face
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex3f(-halfWidth, -halfHeight, -halfDepth);
-        GL11.glVertex3f(-halfWidth, -halfHeight, halfDepth);
-        GL11.glVertex3f(-halfWidth, halfHeight, halfDepth);
-        GL11.glVertex3f(-halfWidth, halfHeight, -halfDepth);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glVertex3f(-halfWidth, -halfHeight, -halfDepth);
+        Render.gl().glVertex3f(-halfWidth, -halfHeight, halfDepth);
+        Render.gl().glVertex3f(-halfWidth, halfHeight, halfDepth);
+        Render.gl().glVertex3f(-halfWidth, halfHeight, -halfDepth);
+        Render.gl().glEnd();
     }
 
     /**
@@ -133,22 +134,22 @@ public class Shapes {
 
         for (int i = 0; i < stacks; i++) {
             phi = i * dphi;
-            GL11.glBegin(GL11.GL_TRIANGLE_STRIP);
+            Render.gl().glBegin(GL11.GL_TRIANGLE_STRIP);
             for (int j = 0; j <= slices; j++) {
                 theta = (j == slices) ? 0.0f : j * dtheta;
                 float x = (float) (Math.sin(phi) * Math.cos(theta));
                 float y = (float) Math.cos(phi);
                 float z = (float) (Math.sin(phi) * Math.sin(theta));
-                GL11.glNormal3f(x, y, z);
-                GL11.glVertex3f(radius * x, radius * y, radius * z);
+                Render.gl().glNormal3f(x, y, z);
+                Render.gl().glVertex3f(radius * x, radius * y, radius * z);
                 
                 x = (float) (Math.sin(phi + dphi) * Math.cos(theta));
                 y = (float) Math.cos(phi + dphi);
                 z = (float) (Math.sin(phi + dphi) * Math.sin(theta));
-                GL11.glNormal3f(x, y, z);
-                GL11.glVertex3f(radius * x, radius * y, radius * z);
+                Render.gl().glNormal3f(x, y, z);
+                Render.gl().glVertex3f(radius * x, radius * y, radius * z);
             }
-            GL11.glEnd();
+            Render.gl().glEnd();
         }
     }
 
@@ -167,41 +168,41 @@ public class Shapes {
         dtheta = 2.0f * (float) Math.PI / slices;
 
         // Draw the sides
-        GL11.glBegin(GL11.GL_QUAD_STRIP);
+        Render.gl().glBegin(GL11.GL_QUAD_STRIP);
         for (int i = 0; i <= slices; i++) {
             theta = (i == slices) ? 0.0f : i * dtheta;
             float x = (float) Math.cos(theta);
             float y = (float) Math.sin(theta);
 
-            GL11.glNormal3f(x, y, 0);
-            GL11.glVertex3f(topRadius * x, topRadius * y, z1);
-            GL11.glVertex3f(baseRadius * x, baseRadius * y, z0);
+            Render.gl().glNormal3f(x, y, 0);
+            Render.gl().glVertex3f(topRadius * x, topRadius * y, z1);
+            Render.gl().glVertex3f(baseRadius * x, baseRadius * y, z0);
         }
-        GL11.glEnd();
+        Render.gl().glEnd();
 
         // Draw the top circle
-        GL11.glBegin(GL11.GL_TRIANGLE_FAN);
-        GL11.glNormal3f(0, 0, 1);
-        GL11.glVertex3f(0, 0, z1);
+        Render.gl().glBegin(GL11.GL_TRIANGLE_FAN);
+        Render.gl().glNormal3f(0, 0, 1);
+        Render.gl().glVertex3f(0, 0, z1);
         for (int i = 0; i <= slices; i++) {
             theta = (i == slices) ? 0.0f : i * dtheta;
             float x = (float) Math.cos(theta);
             float y = (float) Math.sin(theta);
-            GL11.glVertex3f(topRadius * x, topRadius * y, z1);
+            Render.gl().glVertex3f(topRadius * x, topRadius * y, z1);
         }
-        GL11.glEnd();
+        Render.gl().glEnd();
 
         // Draw the bottom circle
-        GL11.glBegin(GL11.GL_TRIANGLE_FAN);
-        GL11.glNormal3f(0, 0, -1);
-        GL11.glVertex3f(0, 0, z0);
+        Render.gl().glBegin(GL11.GL_TRIANGLE_FAN);
+        Render.gl().glNormal3f(0, 0, -1);
+        Render.gl().glVertex3f(0, 0, z0);
         for (int i = slices; i >= 0; i--) {
             theta = (i == slices) ? 0.0f : i * dtheta;
             float x = (float) Math.cos(theta);
             float y = (float) Math.sin(theta);
-            GL11.glVertex3f(baseRadius * x, baseRadius * y, z0);
+            Render.gl().glVertex3f(baseRadius * x, baseRadius * y, z0);
         }
-        GL11.glEnd();
+        Render.gl().glEnd();
     }
 
     /**
@@ -214,39 +215,39 @@ public class Shapes {
         float b2 = baseSize;
 
         // Base
-        GL11.glBegin(GL11.GL_QUADS);
-        GL11.glVertex3f(-b2, -h2, b2);
-        GL11.glVertex3f(b2, -h2, b2);
-        GL11.glVertex3f(b2, -h2, -b2);
-        GL11.glVertex3f(-b2, -h2, -b2);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_QUADS);
+        Render.gl().glVertex3f(-b2, -h2, b2);
+        Render.gl().glVertex3f(b2, -h2, b2);
+        Render.gl().glVertex3f(b2, -h2, -b2);
+        Render.gl().glVertex3f(-b2, -h2, -b2);
+        Render.gl().glEnd();
 
         // Front face
-        GL11.glBegin(GL11.GL_TRIANGLES);
-        GL11.glVertex3f(0, h2, 0);
-        GL11.glVertex3f(-b2, -h2, b2);
-        GL11.glVertex3f(b2, -h2, b2);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_TRIANGLES);
+        Render.gl().glVertex3f(0, h2, 0);
+        Render.gl().glVertex3f(-b2, -h2, b2);
+        Render.gl().glVertex3f(b2, -h2, b2);
+        Render.gl().glEnd();
 
         // Right face
-        GL11.glBegin(GL11.GL_TRIANGLES);
-        GL11.glVertex3f(0, h2, 0);
-        GL11.glVertex3f(b2, -h2, b2);
-        GL11.glVertex3f(b2, -h2, -b2);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_TRIANGLES);
+        Render.gl().glVertex3f(0, h2, 0);
+        Render.gl().glVertex3f(b2, -h2, b2);
+        Render.gl().glVertex3f(b2, -h2, -b2);
+        Render.gl().glEnd();
 
         // Back face
-        GL11.glBegin(GL11.GL_TRIANGLES);
-        GL11.glVertex3f(0, h2, 0);
-        GL11.glVertex3f(b2, -h2, -b2);
-        GL11.glVertex3f(-b2, -h2, -b2);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_TRIANGLES);
+        Render.gl().glVertex3f(0, h2, 0);
+        Render.gl().glVertex3f(b2, -h2, -b2);
+        Render.gl().glVertex3f(-b2, -h2, -b2);
+        Render.gl().glEnd();
 
         // Left face
-        GL11.glBegin(GL11.GL_TRIANGLES);
-        GL11.glVertex3f(0, h2, 0);
-        GL11.glVertex3f(-b2, -h2, -b2);
-        GL11.glVertex3f(-b2, -h2, b2);
-        GL11.glEnd();
+        Render.gl().glBegin(GL11.GL_TRIANGLES);
+        Render.gl().glVertex3f(0, h2, 0);
+        Render.gl().glVertex3f(-b2, -h2, -b2);
+        Render.gl().glVertex3f(-b2, -h2, b2);
+        Render.gl().glEnd();
     }
 }
@@ -0,0 +1,273 @@
+package mystuff.utils;
+
+import mystuff.engine.Metrics;
+import org.lwjgl.BufferUtils;
+import org.lwjgl.stb.STBImage;
+import org.lwjgl.system.MemoryStack;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Decoded, mipmapped RGBA texels kept on disk so a texture is only decoded from PNG once.
+ * Files live in cache/textures, named by the SHA-1 of the source image, so an edited
+ * image simply gets a new entry. A hit memory-maps the file and hands out the levels
+ * as slices of the mapping, ready for glTexImage2D.
+ *
+ * File layout (little endian): magic, version, width, height, level count, then every
+ * level's texels back to back, level 0 first.
+ */
+public final class TextureCache {
+    static final Path CACHE_DIR = Paths.get("cache", "textures");
+    private static final int MAGIC = 0x31435854; // "TXC1"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 5 * 4;
+
+    private static final Metrics.Counter HITS = Metrics.counter("textures.cache_hits");
+    private static final Metrics.Counter MISSES = Metrics.counter("textures.cache_misses");
+
+    private TextureCache() {
+    }
+
+    /**
+     * A full mip chain, down to 1x1
+     */
+    public static final class MipChain {
+        private final int width;
+        private final int height;
+        private final ByteBuffer[] levels;
+        private final boolean cached;
+
+        MipChain(int width, int height, ByteBuffer data, boolean cached) {
+            this.width = width;
+            this.height = height;
+            this.cached = cached;
+            this.levels = new ByteBuffer[levelCount(width, height)];
+            int offset = 0;
+            for (int i = 0; i < levels.length; i++) {
+                int size = levelWidth(i) * levelHeight(i) * 4;
+                ByteBuffer level = data.duplicate();
+                level.position(offset).limit(offset + size);
+                levels[i] = level.slice();
+                offset += size;
+            }
+        }
+
+        public int getLevelCount() { return levels.length; }
+        public int levelWidth(int level) { return Math.max(1, width >> level); }
+        public int levelHeight(int level) { return Math.max(1, height >> level); }
+        public ByteBuffer getLevel(int level) { return levels[level]; }
+
+        /**
+         * True if the texels came from the cache file rather than a PNG decode
+         */
+        public boolean isCached() { return cached; }
+
+        public long getBytes() {
+            return chainBytes(width, height);
+        }
+    }
+
+    /**
+     * Loads an image's mip chain, from the cache if present, otherwise by decoding and
+     * downsampling it and writing the result to the cache for the next launch
+     * @throws IOException if the image cannot be read or decoded
+     */
+    public static MipChain load(String path) throws IOException {
+        byte[] source = Files.readAllBytes(Paths.get(path));
+        Path cacheFile = CACHE_DIR.resolve(sha1(source) + ".tex");
+
+        MipChain chain = readCacheFile(cacheFile);
+        if (chain != null) {
+            HITS.increment();
+            return chain;
+        }
+        MISSES.increment();
+
+        ByteBuffer file = encode(path, source);
+        try {
+            writeAtomically(cacheFile, file);
+        } catch (IOException e) {
+            // Still usable, just decoded again next launch
+            System.err.println("Could not write texture cache " + cacheFile + ": " + e.getMessage());
+        }
+        return parse(file, false);
+    }
+
+    /**
+     * Decodes an image and builds its mip chain in the cache file layout (also used for
+     * texture entries in an AssetBundle)
+     * @return the whole file, position 0
+     */
+    static ByteBuffer encode(String path, byte[] source) throws IOException {
+        ByteBuffer encoded = BufferUtils.createByteBuffer(source.length);
+        encoded.put(source).flip();
+        try (MemoryStack stack = MemoryStack.stackPush()) {
+            IntBuffer w = stack.mallocInt(1);
+            IntBuffer h = stack.mallocInt(1);
+            IntBuffer channels = stack.mallocInt(1);
+            ByteBuffer image = STBImage.stbi_load_from_memory(encoded, w, h, channels, 4);
+            if (image == null) {
+                throw new IOException("Failed to decode " + path + ": " + STBImage.stbi_failure_reason());
+            }
+            try {
+                return buildCacheFile(image, w.get(0), h.get(0));
+            } finally {
+                STBImage.stbi_image_free(image);
+            }
+        }
+    }
+
+    /**
+     * Reads a chain in the cache file layout without copying: the levels are slices of data
+     * @return the chain, or null if the header is stale or does not match the size
+     */
+    static MipChain parse(ByteBuffer data, boolean cached) {
+        ByteBuffer file = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        file.position(0);
+        if (file.capacity() < HEADER_BYTES) return null;
+        int width = file.getInt(8);
+        int height = file.getInt(12);
+        if (file.getInt(0) != MAGIC || file.getInt(4) != VERSION || width <= 0 || height <= 0
+                || file.getInt(16) != levelCount(width, height)
+                || file.capacity() != HEADER_BYTES + chainBytes(width, height)) {
+            return null;
+        }
+        file.position(HEADER_BYTES);
+        return new MipChain(width, height, file.slice(), cached);
+    }
+
+    /**
+     * @return the mapped chain, or null if the file is missing, stale or truncated
+     */
+    private static MipChain readCacheFile(Path file) {
+        if (!Files.isRegularFile(file)) return null;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping outlives the channel; it is released when the buffer is collected
+            return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), true);
+        } catch (IOException e) {
+            System.err.println("Ignoring unreadable texture cache " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private static ByteBuffer buildCacheFile(ByteBuffer image, int width, int height) {
+        ByteBuffer file = BufferUtils.createByteBuffer((int) (HEADER_BYTES + chainBytes(width, height)));
+        file.order(ByteOrder.LITTLE_ENDIAN);
+        file.putInt(MAGIC).putInt(VERSION).putInt(width).putInt(height).putInt(levelCount(width, height));
+
+        int levelStart = HEADER_BYTES;
+        int levelBytes = width * height * 4;
+        for (int i = 0; i < levelBytes; i++) {
+            file.put(levelStart + i, image.get(i));
+        }
+        int w = width, h = height;
+        while (w > 1 || h > 1) {
+            int nw = Math.max(1, w >> 1);
+            int nh = Math.max(1, h >> 1);
+            downsample(file, levelStart, w, h, levelStart + levelBytes, nw, nh);
+            levelStart += levelBytes;
+            levelBytes = nw * nh * 4;
+            w = nw;
+            h = nh;
+        }
+        file.position(0);
+        return file;
+    }
+
+    /**
+     * 2x2 box filter. Colour is weighted by alpha so transparent texels (leaf cut-outs)
+     * do not bleed their hidden colour into the smaller levels.
+     */
+    private static void downsample(ByteBuffer buf, int src, int sw, int sh, int dst, int dw, int dh) {
+        for (int y = 0; y < dh; y++) {
+            int y0 = Math.min(y * 2, sh - 1), y1 = Math.min(y * 2 + 1, sh - 1);
+            for (int x = 0; x < dw; x++) {
+                int x0 = Math.min(x * 2, sw - 1), x1 = Math.min(x * 2 + 1, sw - 1);
+                int[] samples = {
+                    src + (y0 * sw + x0) * 4, src + (y0 * sw + x1) * 4,
+                    src + (y1 * sw + x0) * 4, src + (y1 * sw + x1) * 4
+                };
+                int r = 0, g = 0, b = 0, a = 0, pr = 0, pg = 0, pb = 0;
+                for (int s : samples) {
+                    int sa = buf.get(s + 3) & 0xFF;
+                    int sr = buf.get(s) & 0xFF, sg = buf.get(s + 1) & 0xFF, sb = buf.get(s + 2) & 0xFF;
+                    r += sr * sa;
+                    g += sg * sa;
+                    b += sb * sa;
+                    pr += sr;
+                    pg += sg;
+                    pb += sb;
+                    a += sa;
+                }
+                int out = dst + (y * dw + x) * 4;
+                if (a > 0) {
+                    buf.put(out, (byte) ((r + a / 2) / a));
+                    buf.put(out + 1, (byte) ((g + a / 2) / a));
+                    buf.put(out + 2, (byte) ((b + a / 2) / a));
+                } else {
+                    buf.put(out, (byte) ((pr + 2) / 4));
+                    buf.put(out + 1, (byte) ((pg + 2) / 4));
+                    buf.put(out + 2, (byte) ((pb + 2) / 4));
+                }
+                buf.put(out + 3, (byte) ((a + 2) / 4));
+            }
+        }
+    }
+
+    /**
+     * Written aside and moved into place, so a crash never leaves a half-written file
+     */
+    static void writeAtomically(Path file, ByteBuffer data) throws IOException {
+        Path dir = file.toAbsolutePath().getParent();
+        Files.createDirectories(dir);
+        Path temp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            ByteBuffer out = data.duplicate();
+            out.position(0);
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+        }
+        try {
+            Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    static int levelCount(int width, int height) {
+        return 32 - Integer.numberOfLeadingZeros(Math.max(width, height));
+    }
+
+    static long chainBytes(int width, int height) {
+        long bytes = 0;
+        for (int i = 0; i < levelCount(width, height); i++) {
+            bytes += (long) Math.max(1, width >> i) * Math.max(1, height >> i) * 4;
+        }
+        return bytes;
+    }
+
+    private static String sha1(byte[] data) {
+        try {
+            StringBuilder hex = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(data)) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 is required on every JVM", e);
+        }
+    }
+}
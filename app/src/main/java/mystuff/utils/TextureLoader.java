@@ -1,19 +1,126 @@
 package mystuff.utils;
 
+import mystuff.engine.JfrEvents;
+import mystuff.engine.MemoryFootprint;
+import mystuff.engine.Metrics;
+import mystuff.engine.Render;
 import org.lwjgl.BufferUtils;
 import org.lwjgl.opengl.GL11;
-import org.lwjgl.stb.STBImage;
-import org.lwjgl.system.MemoryStack;
 
 import java.nio.ByteBuffer;
-import java.nio.IntBuffer;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
+/**
+ * Loads textures and owns their GL objects. Users hold a Texture handle from acquire and
+ * give it back with release; only this class deletes textures. Unreferenced textures stay
+ * resident as a cache until the GPU budget is exceeded, then the least recently bound
+ * ones are evicted and reloaded (from the AssetBundle or TextureCache file) if acquired
+ * again.
+ *
+ * GL thread only.
+ */
 public class TextureLoader {
-    private static Map<String, Integer> textureCache = new HashMap<>();
+    public static final long DEFAULT_GPU_BUDGET_BYTES = 256L * 1024 * 1024;
+
+    private static final Map<String, Texture> textures = new HashMap<>();
+    private static long gpuBudgetBytes = DEFAULT_GPU_BUDGET_BYTES;
+    private static long residentBytes;
+    private static long bindClock; // Bumped on every bind; orders textures for eviction
+
+    private static final Metrics.Counter EVICTED = Metrics.counter("textures.evicted");
+
+    static {
+        Metrics.gauge("textures.resident_bytes", () -> residentBytes);
+        Metrics.gauge("textures.budget_bytes", () -> gpuBudgetBytes);
+    }
+
+    /**
+     * A reference-counted texture. The GL id is -1 until the upload has happened, after a
+     * failed load and while evicted. Sampling parameters set on the handle survive eviction.
+     */
+    public static final class Texture {
+        private final String path;
+        private int id = -1;
+        private int refs;
+        private long bytes;
+        private long lastBound;
+        private boolean failed;
+        private CompletableFuture<Texture> loading; // Decode or upload in flight
+        private int minFilter = GL11.GL_NEAREST_MIPMAP_LINEAR;
+        private int magFilter = GL11.GL_NEAREST;
+        private int wrapS = GL11.GL_REPEAT;
+        private int wrapT = GL11.GL_REPEAT;
+
+        private Texture(String path) {
+            this.path = path;
+        }
+
+        public String getPath() { return path; }
+        public int getId() { return id; }
+        public boolean isLoaded() { return id != -1; }
+        public boolean isFailed() { return failed; }
+        public int getRefCount() { return refs; }
+
+        /**
+         * Blocks the GL thread until the texture is uploaded or has failed
+         * @return this, for chaining onto acquire
+         */
+        public Texture await() {
+            if (loading != null) {
+                AssetLoader.await(loading);
+            }
+            return this;
+        }
+
+        /**
+         * Binds the texture, marking it recently used
+         * @return false if it is not loaded, in which case nothing is bound
+         */
+        public boolean bind() {
+            if (id == -1) return false;
+            lastBound = ++bindClock;
+            Render.gl().glBindTexture(GL11.GL_TEXTURE_2D, id);
+            return true;
+        }
+
+        public void setFilter(int min, int mag) {
+            minFilter = min;
+            magFilter = mag;
+            applyParameters();
+        }
+
+        public void setWrap(int s, int t) {
+            wrapS = s;
+            wrapT = t;
+            applyParameters();
+        }
+
+        private void applyParameters() {
+            if (id == -1) return;
+            Render.gl().glBindTexture(GL11.GL_TEXTURE_2D, id);
+            Render.gl().glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, minFilter);
+            Render.gl().glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, magFilter);
+            Render.gl().glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, wrapS);
+            Render.gl().glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, wrapT);
+        }
+
+        /**
+         * Gives back a reference from acquire. The texture stays cached until evicted.
+         */
+        public void release() {
+            if (refs <= 0) {
+                throw new IllegalStateException("Texture " + path + " released more often than acquired");
+            }
+            refs--;
+            if (refs == 0) {
+                evictToBudget();
+            }
+        }
+    }
     
     public static int createTestTexture() {
         // Create a 2x2 texture with red and white checkerboard pattern
@@ -33,107 +140,173 @@ public class TextureLoader {
         pixels.flip();
 
         // Generate texture ID
-        int textureID = GL11.glGenTextures();
+        int textureID = Render.gl().glGenTextures();
         
         // Bind the texture
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureID);
+        Render.gl().glBindTexture(GL11.GL_TEXTURE_2D, textureID);
         
         // Set texture parameters
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
-        GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
+        Render.gl().glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
+        Render.gl().glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
         
         // Upload the texture data
-        GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, width, height, 0,
+        Render.gl().glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, width, height, 0,
                 GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, pixels);
         
         return textureID;
     }
 
     /**
-     * Loads a texture from a file and returns the OpenGL texture ID
+     * Takes a reference to a texture, starting its load if it is not resident. The decode
+     * runs on a worker and the upload on the GL thread (see AssetLoader), so the handle
+     * may not be loaded yet: call await() to block, or check isLoaded() before drawing to
+     * stream it in.
+     *
+     * Textures get a full mip chain from TextureCache, so only the first launch decodes
+     * the PNG. Minification defaults to GL_NEAREST_MIPMAP_LINEAR: crisp texels up close,
+     * no shimmer in the distance.
      */
-    public static int loadTexture(String path) {
-        System.out.println("Attempting to load texture: " + path);
-        
-        // Check if texture is already loaded
-        if (textureCache.containsKey(path)) {
-            return textureCache.get(path);
+    public static Texture acquire(String path) {
+        Texture texture = load(path);
+        texture.refs++;
+        return texture;
+    }
+
+    /**
+     * Starts decoding textures that will be needed soon, without taking a reference, so
+     * later acquires find them decoded or already uploaded
+     */
+    public static void prefetch(String... paths) {
+        for (String path : paths) {
+            load(path);
         }
+    }
 
-        // First verify the file exists
-        if (!Files.exists(Paths.get(path))) {
-            System.err.println("Texture file does not exist: " + path);
-            return -1;
+    private static Texture load(String path) {
+        Texture texture = textures.computeIfAbsent(path, Texture::new);
+        if (texture.id != -1 || texture.loading != null || texture.failed) {
+            return texture;
         }
+        System.out.println("Attempting to load texture: " + path);
 
-        try (MemoryStack stack = MemoryStack.stackPush()) {
-            IntBuffer width = stack.mallocInt(1);
-            IntBuffer height = stack.mallocInt(1);
-            IntBuffer channels = stack.mallocInt(1);
+        // Pre-decoded in the asset bundle: no file access at all
+        AssetBundle bundle = AssetBundle.shared();
+        ByteBuffer bundled = bundle != null ? bundle.get(path, AssetBundle.Type.TEXTURE) : null;
 
-            // Load the image
-            ByteBuffer imageData = STBImage.stbi_load(path, width, height, channels, 4);
-            if (imageData == null) {
-                System.err.println("Failed to load texture: " + STBImage.stbi_failure_reason());
-                return -1;
-            }
+        // Otherwise verify the file exists
+        if (bundled == null && !Files.exists(Paths.get(path))) {
+            System.err.println("Texture file does not exist: " + path);
+            texture.failed = true;
+            return texture;
+        }
+        texture.loading = AssetLoader.load("texture.decode", () -> {
+                TextureCache.MipChain chain = bundled != null ? TextureCache.parse(bundled, true) : null;
+                return chain != null ? chain : TextureCache.load(path);
+            }, chain -> upload(texture, chain))
+            .exceptionally(e -> {
+                System.err.println("Error loading texture: " + path);
+                e.printStackTrace();
+                texture.failed = true;
+                return texture;
+            })
+            .whenComplete((t, e) -> texture.loading = null);
+        return texture;
+    }
 
-            try {
-                // Generate texture ID
-                int textureID = GL11.glGenTextures();
-                System.out.println("Generated texture ID: " + textureID);
+    private static Texture upload(Texture texture, TextureCache.MipChain chain) {
+        // Generate texture ID
+        int textureID = Render.gl().glGenTextures();
+        System.out.println("Generated texture ID: " + textureID);
+        texture.id = textureID;
+        texture.lastBound = ++bindClock;
 
-                // Bind the texture
-                GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureID);
+        // Set texture parameters, as last set on the handle
+        texture.applyParameters();
 
-                // Set texture parameters
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL11.GL_REPEAT);
-                GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, GL11.GL_REPEAT);
+        // Upload every level, straight from the cache mapping on a hit
+        JfrEvents.GlUpload upload = new JfrEvents.GlUpload();
+        upload.begin();
+        for (int level = 0; level < chain.getLevelCount(); level++) {
+            Render.gl().glTexImage2D(GL11.GL_TEXTURE_2D, level, GL11.GL_RGBA, chain.levelWidth(level),
+                    chain.levelHeight(level), 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, chain.getLevel(level));
+        }
+        upload.resource = texture.path;
+        upload.bytes = chain.getBytes();
+        upload.commit();
+        texture.bytes = upload.bytes;
+        residentBytes += texture.bytes;
+        MemoryFootprint.set("textures", texture.path, texture.bytes);
 
-                // Upload the texture data
-                GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, width.get(), height.get(), 0,
-                        GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, imageData);
+        System.out.println("Successfully loaded texture: " + texture.path + (chain.isCached() ? " (cached)" : ""));
+        evictToBudget();
+        return texture;
+    }
 
-                // Cache and return the texture ID
-                textureCache.put(path, textureID);
-                System.out.println("Successfully loaded texture: " + path);
-                return textureID;
+    /**
+     * Sets how many bytes of texels may stay resident. Referenced textures are never
+     * evicted, so this can be exceeded while they are all in use.
+     */
+    public static void setGpuBudget(long bytes) {
+        gpuBudgetBytes = bytes;
+        evictToBudget();
+    }
 
-            } finally {
-                STBImage.stbi_image_free(imageData);
+    public static long getResidentBytes() {
+        return residentBytes;
+    }
+
+    /**
+     * Deletes unreferenced textures, least recently bound first, until under budget
+     */
+    private static void evictToBudget() {
+        while (residentBytes > gpuBudgetBytes) {
+            Texture victim = null;
+            for (Texture texture : textures.values()) {
+                if (texture.refs == 0 && texture.id != -1 && (victim == null || texture.lastBound < victim.lastBound)) {
+                    victim = texture;
+                }
             }
-        } catch (Exception e) {
-            System.err.println("Error loading texture: " + path);
-            e.printStackTrace();
-            return -1;
+            if (victim == null) return;
+            unload(victim);
+            EVICTED.increment();
+            System.out.println("Evicted texture: " + victim.path);
         }
     }
-    
+
+    private static void unload(Texture texture) {
+        Render.gl().glDeleteTextures(texture.id);
+        texture.id = -1;
+        residentBytes -= texture.bytes;
+        MemoryFootprint.remove("textures", texture.path);
+    }
 
     /**
      * Binds a texture for rendering
      */
     public static void bindTexture(int textureID) {
         if (textureID <= 0) return;
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, textureID);
+        Render.gl().glBindTexture(GL11.GL_TEXTURE_2D, textureID);
     }
 
     /**
      * Unbinds any bound texture
      */
     public static void unbindTexture() {
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        Render.gl().glBindTexture(GL11.GL_TEXTURE_2D, 0);
     }
 
     /**
-     * Cleans up all loaded textures
+     * Deletes every texture. Handles still referenced at this point were never released.
      */
     public static void cleanup() {
-        for (int textureID : textureCache.values()) {
-            GL11.glDeleteTextures(textureID);
+        for (Texture texture : textures.values()) {
+            if (texture.refs > 0) {
+                System.err.println("Texture " + texture.path + " still has " + texture.refs + " reference(s) at cleanup");
+            }
+            if (texture.id != -1) {
+                unload(texture);
+            }
         }
-        textureCache.clear();
+        textures.clear();
     }
 } 
\ No newline at end of file
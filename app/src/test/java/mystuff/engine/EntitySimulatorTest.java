@@ -0,0 +1,132 @@
+package mystuff.engine;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Runs the same crowd of walkers through a serial and a parallel EntitySimulator and
+ * checks that every tick ends in bit-identical state. The walkers cross region
+ * boundaries and bounce off the edges of the field, and a push-apart interaction moves
+ * both objects of each pair, so merge order matters.
+ */
+public class EntitySimulatorTest {
+    private static final int WALKERS = 500;
+    private static final int TICKS = 200;
+    private static final float REGION_SIZE = 8;
+    private static final float FIELD = 64;         // Walkers stay in [0, FIELD) on x and z
+    private static final float CONTACT = 1.5f;
+    private static final float DT = 1 / 60f;
+
+    private final JobSystem jobs = new JobSystem(4);
+
+    @After
+    public void tearDown() {
+        jobs.shutdown();
+    }
+
+    /**
+     * Moves in a straight line and turns around at the edges of the field
+     */
+    private static final class Walker extends GameObject {
+        private float velocityX, velocityZ;
+
+        Walker(float x, float z, float velocityX, float velocityZ) {
+            super(x, 0, z);
+            this.velocityX = velocityX;
+            this.velocityZ = velocityZ;
+        }
+
+        @Override
+        public void update(Window window, float deltaTime) {
+            x += velocityX * deltaTime;
+            z += velocityZ * deltaTime;
+            if (x < 0 || x >= FIELD) velocityX = -velocityX;
+            if (z < 0 || z >= FIELD) velocityZ = -velocityZ;
+            rotY += velocityX * deltaTime; // Order-sensitive state beside the position
+        }
+
+        @Override
+        public void render() {
+        }
+    }
+
+    /**
+     * Pushes both walkers of a pair apart, half the overlap each
+     */
+    private static void pushApart(GameObject a, GameObject b) {
+        float dx = a.getX() - b.getX();
+        float dz = a.getZ() - b.getZ();
+        float distance = (float) Math.sqrt(dx * dx + dz * dz);
+        if (distance == 0) {
+            dx = 1;
+            distance = 1;
+        }
+        float push = (CONTACT - distance) / distance * 0.5f;
+        a.setPosition(a.getX() + dx * push, a.getY(), a.getZ() + dz * push);
+        b.setPosition(b.getX() - dx * push, b.getY(), b.getZ() - dz * push);
+    }
+
+    private static List<Walker> crowd() {
+        Random random = new Random(42);
+        List<Walker> walkers = new ArrayList<>();
+        for (int i = 0; i < WALKERS; i++) {
+            walkers.add(new Walker(random.nextFloat() * FIELD, random.nextFloat() * FIELD,
+                (random.nextFloat() - 0.5f) * 40, (random.nextFloat() - 0.5f) * 40));
+        }
+        return walkers;
+    }
+
+    private EntitySimulator simulator(List<Walker> walkers, boolean parallel) {
+        EntitySimulator simulator = new EntitySimulator(REGION_SIZE, jobs);
+        simulator.setParallel(parallel);
+        simulator.setInteraction(CONTACT, EntitySimulatorTest::pushApart);
+        for (Walker walker : walkers) {
+            simulator.add(walker);
+        }
+        return simulator;
+    }
+
+    @Test
+    public void parallelMatchesSerialEveryTick() {
+        List<Walker> serialWalkers = crowd();
+        List<Walker> parallelWalkers = crowd();
+        EntitySimulator serial = simulator(serialWalkers, false);
+        EntitySimulator parallel = simulator(parallelWalkers, true);
+        assertTrue("the crowd must span several regions", parallel.getRegionCount() > 1);
+
+        float startX = serialWalkers.get(0).getX();
+        for (int tick = 0; tick < TICKS; tick++) {
+            serial.update(null, DT);
+            parallel.update(null, DT);
+
+            assertEquals("regions after tick " + tick, serial.getRegionCount(), parallel.getRegionCount());
+            for (int i = 0; i < WALKERS; i++) {
+                Walker expected = serialWalkers.get(i);
+                Walker actual = parallelWalkers.get(i);
+                String where = "walker " + i + " after tick " + tick;
+                assertEquals(where, Float.floatToIntBits(expected.getX()), Float.floatToIntBits(actual.getX()));
+                assertEquals(where, Float.floatToIntBits(expected.getZ()), Float.floatToIntBits(actual.getZ()));
+                assertEquals(where, Float.floatToIntBits(expected.getRotY()), Float.floatToIntBits(actual.getRotY()));
+            }
+        }
+        assertTrue("walkers must have moved", serialWalkers.get(0).getX() != startX);
+        assertEquals(WALKERS, parallel.getObjectCount());
+    }
+
+    @Test
+    public void interactionRadiusIsLimitedToOneRegion() {
+        EntitySimulator simulator = new EntitySimulator(REGION_SIZE, jobs);
+        try {
+            simulator.setInteraction(REGION_SIZE + 1, EntitySimulatorTest::pushApart);
+            throw new AssertionError("expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            // Pairs farther apart than one region are never searched
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package mystuff.game;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import mystuff.engine.Camera;
+import mystuff.engine.CountingRenderBackend;
+import mystuff.engine.JobSystem;
+import mystuff.engine.RecordingRenderBackend;
+import mystuff.engine.Render;
+import mystuff.engine.RenderBackend;
+import mystuff.utils.TextureLoader;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.lwjgl.opengl.GL11;
+
+/**
+ * Renders a fixed 32x16x32 world (2x1x2 chunks, the game's dirt layer at y=9) through
+ * World.render and checks what reaches the backend. Each chunk shows the top and bottom
+ * of its 256 blocks plus 32 sides on the world edge: 544 faces, one glBegin/glEnd each.
+ * Draw calls are what the backend executed, including faces replayed from the chunk
+ * display lists; compiled draw calls are the faces recorded into lists that frame.
+ */
+public class WorldRenderTest {
+    private static final int CHUNKS = 4;
+    private static final int FACES_PER_CHUNK = 2 * 16 * 16 + 2 * 16;
+
+    private RenderBackend previous;
+    private RecordingRenderBackend backend;
+    private Camera camera;
+    private World world;
+    private Player player;
+    private RenderSnapshot snapshot;
+    private long tick;
+
+    @Before
+    public void setUp() {
+        previous = Render.gl();
+        backend = new RecordingRenderBackend();
+        Render.setBackend(backend);
+        // A box around the viewer as the projection, so every chunk is in the frustum
+        backend.glMatrixMode(GL11.GL_PROJECTION);
+        backend.glOrtho(-64, 64, -64, 64, -64, 64);
+        backend.glMatrixMode(GL11.GL_MODELVIEW);
+
+        camera = new Camera(16, 20, 16);
+        world = new World(camera, World.DEFAULT_SEED, 32, 16, 32, 10);
+        player = new Player(16, 18, 16, camera, world);
+        world.setPlayer(player);
+        snapshot = new RenderSnapshot();
+    }
+
+    @After
+    public void tearDown() {
+        world.cleanup();
+        TextureLoader.cleanup(); // Each test loads its textures afresh
+        Render.setBackend(previous);
+        JobSystem.shutdownShared();
+    }
+
+    private void renderFrame() {
+        backend.clearCommands();
+        snapshot.capture(tick++, 0, camera, player, world);
+        world.render(camera, snapshot);
+    }
+
+    @Test
+    public void firstFrameCompilesEveryChunk() {
+        renderFrame();
+
+        assertEquals(CHUNKS * FACES_PER_CHUNK, backend.getCompiledDrawCalls());
+        assertEquals(CHUNKS * FACES_PER_CHUNK, backend.getDrawCalls());
+        assertEquals(CHUNKS, backend.count(RecordingRenderBackend.Op.NEW_LIST));
+        assertEquals(CHUNKS, backend.count(RecordingRenderBackend.Op.CALL_LIST));
+    }
+
+    @Test
+    public void unchangedWorldOnlyReplaysLists() {
+        renderFrame();
+        int dirt = textureId(Block.DIRT_TEXTURE_PATH);
+
+        renderFrame();
+
+        assertEquals(0, backend.getCompiledDrawCalls());
+        assertEquals(CHUNKS * FACES_PER_CHUNK, backend.getDrawCalls());
+        assertEquals(CHUNKS, backend.count(RecordingRenderBackend.Op.CALL_LIST));
+        assertEquals(0, backend.count(RecordingRenderBackend.Op.BIND_TEXTURE, dirt));
+    }
+
+    @Test
+    public void editRebuildsOnlyItsChunk() {
+        renderFrame();
+        int dirt = textureId(Block.DIRT_TEXTURE_PATH);
+        int stone = textureId(Block.STONE_TEXTURE_PATH);
+
+        // Inside chunk (0, 0, 0): same faces, one of them now stone
+        world.setBlock(8, 9, 8, BlockType.STONE);
+        renderFrame();
+
+        assertEquals(FACES_PER_CHUNK, backend.getCompiledDrawCalls());
+        assertEquals(CHUNKS * FACES_PER_CHUNK, backend.getDrawCalls());
+        assertEquals(FACES_PER_CHUNK - 2, backend.count(RecordingRenderBackend.Op.BIND_TEXTURE, dirt));
+        assertEquals(2, backend.count(RecordingRenderBackend.Op.BIND_TEXTURE, stone));
+    }
+
+    @Test
+    public void drawCallsMatchCountingBackend() {
+        CountingRenderBackend counting = new CountingRenderBackend(backend);
+        Render.setBackend(counting);
+
+        for (int frame = 0; frame < 2; frame++) {
+            renderFrame();
+            counting.endFrame();
+            assertEquals("frame " + frame, counting.getLastFrame(CountingRenderBackend.Stat.DRAW_CALLS), backend.getDrawCalls());
+        }
+    }
+
+    @Test
+    public void texturesUploadOutsideDisplayLists() {
+        renderFrame();
+
+        // Anything executed by glTexImage2D inside GL_COMPILE would only be recorded
+        boolean compiling = false;
+        for (int i = 0; i < backend.getCommandCount(); i++) {
+            RecordingRenderBackend.Op op = backend.getOp(i);
+            if (op == RecordingRenderBackend.Op.NEW_LIST) compiling = true;
+            if (op == RecordingRenderBackend.Op.END_LIST) compiling = false;
+            assertFalse("texture upload compiled into a display list at command " + i,
+                compiling && op == RecordingRenderBackend.Op.TEX_IMAGE);
+        }
+    }
+
+    /**
+     * Id of a block texture, which the first frame has loaded
+     */
+    private static int textureId(String path) {
+        TextureLoader.Texture texture = TextureLoader.acquire(path);
+        int id = texture.getId();
+        texture.release();
+        return id;
+    }
+}
@@ -0,0 +1,73 @@
+package mystuff.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Counts the ticks of recordings cut short at every possible byte, as a crash would
+ * leave them: only complete ticks may count.
+ */
+public class InputReplayTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Header, then an empty tick, a tick with two key events and one with a mouse delta
+     */
+    private static byte[] recording() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(InputRecorder.MAGIC);
+        out.writeShort(InputRecorder.VERSION);
+        out.writeLong(42);
+        out.writeFloat(1 / 60f);
+
+        out.writeByte(0);
+
+        out.writeByte(InputRecorder.FLAG_KEYS);
+        out.writeByte(2 - 1);
+        out.writeShort(65);
+        out.writeByte(1);
+        out.writeShort(66);
+        out.writeByte(0);
+
+        out.writeByte(InputRecorder.FLAG_MOUSE);
+        out.writeFloat(3);
+        out.writeFloat(-4);
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private InputReplay open(byte[] data) throws IOException {
+        Path file = folder.newFile().toPath();
+        Files.write(file, data);
+        return InputReplay.open(file);
+    }
+
+    @Test
+    public void completeRecordingCountsEveryTick() throws IOException {
+        assertEquals(3, open(recording()).getTickCount());
+    }
+
+    @Test
+    public void truncatedTickIsNotCounted() throws IOException {
+        byte[] data = recording();
+        int header = 4 + 2 + 8 + 4;
+        int[] tickEnds = { header + 1, header + 1 + 2 + 2 * 3, data.length };
+        for (int length = header; length < data.length; length++) {
+            int complete = 0;
+            while (complete < tickEnds.length && tickEnds[complete] <= length) complete++;
+            assertEquals("cut after " + length + " bytes", complete,
+                open(Arrays.copyOf(data, length)).getTickCount());
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package mystuff.benchmarks;
+
+import mystuff.engine.RecordingRenderBackend;
+import mystuff.game.BlockType;
+import mystuff.game.Chunk;
+import mystuff.game.ChunkRenderer;
+import mystuff.game.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Chunk meshing: copying the chunk into a View, then walking every block and testing
+ * its six neighbours for exposed faces; the recording backend stands in for the
+ * display list.
+ */
+@State(Scope.Benchmark)
+public class ChunkBenchmark {
+    @Param({"FLAT", "CHECKER", "RANDOM"})
+    public String fill;
+
+    private World world;
+    private Chunk chunk;
+    private ChunkRenderer renderer;
+    private RecordingRenderBackend backend;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        backend = Fixtures.installRecordingBackend();
+        // 3x3 chunk columns so the middle chunk has neighbours on every side
+        world = Fixtures.createWorld(3 * Chunk.CHUNK_SIZE, fill);
+        chunk = world.getChunk(1, 0, 1);
+        renderer = new ChunkRenderer();
+        renderer.render(chunk.getView(), 0); // Initial mesh and texture setup
+    }
+
+    @TearDown
+    public void tearDown() {
+        renderer.cleanup();
+        world.cleanup();
+    }
+
+    /**
+     * Full rebuild: face visibility for all 4096 cells
+     */
+    @Benchmark
+    public long remesh() {
+        chunk.markDirty();
+        renderer.render(chunk.getView(), 0);
+        return backend.count(RecordingRenderBackend.Op.VERTEX3);
+    }
+
+    /**
+     * One interior block edit, then the rebuild it causes
+     */
+    @Benchmark
+    public void editAndUpdate() {
+        int i = cursor++;
+        int x = 1 + (i % 14);
+        int z = 1 + ((i / 14) % 14);
+        chunk.setBlock(x, 5, z, (i & 1) == 0 ? BlockType.STONE : BlockType.AIR);
+        renderer.render(chunk.getView(), 0);
+    }
+}
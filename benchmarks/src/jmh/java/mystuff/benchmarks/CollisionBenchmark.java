@@ -0,0 +1,66 @@
+package mystuff.benchmarks;
+
+import java.util.List;
+import mystuff.engine.Camera;
+import mystuff.game.Block;
+import mystuff.game.Player;
+import mystuff.game.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Collision candidate gathering and the full player physics tick
+ */
+@State(Scope.Benchmark)
+public class CollisionBenchmark {
+    private static final float TICK = 1.0f / 60.0f;
+
+    @Param({"64", "256"})
+    public int worldSize;
+
+    @Param({"FLAT", "RANDOM"})
+    public String fill;
+
+    @Param({"1", "2"})
+    public int radius;
+
+    private World world;
+    private Player player;
+    private float x, y, z;
+
+    @Setup
+    public void setup() {
+        Fixtures.installRecordingBackend();
+        world = Fixtures.createWorld(worldSize, fill);
+        x = worldSize / 2.0f;
+        y = 12.0f;
+        z = worldSize / 2.0f;
+        player = new Player(x, y, z, new Camera(x, y, z), world);
+        player.setCollisionCheckRadius(radius);
+        world.setPlayer(player);
+        // Settle onto the ground so the measured ticks are the steady state
+        for (int i = 0; i < 120; i++) {
+            player.update(null, TICK);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        world.cleanup();
+    }
+
+    @Benchmark
+    public List<Block> nearbyBlocks() {
+        return world.getNearbyBlocksForCollision(x, y, z, radius);
+    }
+
+    @Benchmark
+    public Player physicsTick() {
+        player.update(null, TICK);
+        return player;
+    }
+}
@@ -0,0 +1,60 @@
+package mystuff.benchmarks;
+
+import java.util.Random;
+import mystuff.engine.Camera;
+import mystuff.engine.Render;
+import mystuff.engine.RecordingRenderBackend;
+import mystuff.game.BlockType;
+import mystuff.game.World;
+
+/**
+ * Worlds and render setup shared by the benchmarks
+ */
+final class Fixtures {
+    static final long SEED = 20240101L;
+    static final int WORLD_HEIGHT = 32;
+
+    private Fixtures() {
+    }
+
+    /**
+     * Swaps GL for a backend that only counts, so render paths run without a context
+     */
+    static RecordingRenderBackend installRecordingBackend() {
+        RecordingRenderBackend backend = new RecordingRenderBackend();
+        backend.setRecordCommands(false);
+        Render.setBackend(backend);
+        return backend;
+    }
+
+    /**
+     * A size x 32 x size world filled with one of the patterns:
+     * FLAT (the game's dirt layer at y=9), CHECKER (alternating stone in the bottom
+     * 4 layers, the worst case for face culling) or RANDOM (30% stone in the bottom 16)
+     */
+    static World createWorld(int size, String fill) {
+        boolean flat = fill.equals("FLAT");
+        World world = new World(new Camera(0, 0, 0), SEED, size, WORLD_HEIGHT, size, flat ? 10 : 0);
+        if (fill.equals("CHECKER")) {
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < 4; y++) {
+                    for (int z = 0; z < size; z++) {
+                        if (((x + y + z) & 1) == 0) world.setBlock(x, y, z, BlockType.STONE);
+                    }
+                }
+            }
+        } else if (fill.equals("RANDOM")) {
+            Random random = new Random(SEED);
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < 16; y++) {
+                    for (int z = 0; z < size; z++) {
+                        if (random.nextFloat() < 0.3f) world.setBlock(x, y, z, BlockType.STONE);
+                    }
+                }
+            }
+        } else if (!flat) {
+            throw new IllegalArgumentException("Unknown fill pattern " + fill);
+        }
+        return world;
+    }
+}
@@ -0,0 +1,82 @@
+package mystuff.benchmarks;
+
+import mystuff.engine.Frustum;
+import mystuff.engine.RecordingRenderBackend;
+import mystuff.game.Chunk;
+import org.lwjgl.opengl.GL11;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Frustum plane extraction and per-chunk box tests, with the game's projection
+ */
+@State(Scope.Benchmark)
+public class FrustumBenchmark {
+    @Param({"64", "256"})
+    public int worldSize;
+
+    private final Frustum frustum = new Frustum();
+    private final float[] projection = new float[16];
+    private final float[] modelView = new float[16];
+    private float[] boxes; // x, y, z of each chunk-sized box
+
+    @Setup
+    public void setup() {
+        // Same perspective as Game.render, looking across the world from one corner
+        RecordingRenderBackend gl = new RecordingRenderBackend();
+        float fov = 70.0f, aspect = 16.0f / 9.0f, zNear = 0.1f, zFar = 10000.0f;
+        float yScale = (float) (1.0f / Math.tan(Math.toRadians(fov / 2.0f)));
+        float[] perspective = new float[16];
+        perspective[0] = yScale / aspect;
+        perspective[5] = yScale;
+        perspective[10] = -((zFar + zNear) / (zFar - zNear));
+        perspective[11] = -1;
+        perspective[14] = -((2 * zNear * zFar) / (zFar - zNear));
+        gl.glMatrixMode(GL11.GL_PROJECTION);
+        gl.glLoadMatrixf(perspective);
+        gl.glMatrixMode(GL11.GL_MODELVIEW);
+        gl.glRotatef(20, 1, 0, 0);
+        gl.glRotatef(135, 0, 1, 0);
+        gl.glTranslatef(-8, -20, -8);
+        gl.glGetFloatv(GL11.GL_PROJECTION_MATRIX, projection);
+        gl.glGetFloatv(GL11.GL_MODELVIEW_MATRIX, modelView);
+
+        int chunks = worldSize / Chunk.CHUNK_SIZE;
+        boxes = new float[chunks * chunks * 2 * 3];
+        int i = 0;
+        for (int x = 0; x < chunks; x++) {
+            for (int y = 0; y < 2; y++) {
+                for (int z = 0; z < chunks; z++) {
+                    boxes[i++] = x * Chunk.CHUNK_SIZE;
+                    boxes[i++] = y * Chunk.CHUNK_SIZE;
+                    boxes[i++] = z * Chunk.CHUNK_SIZE;
+                }
+            }
+        }
+        frustum.update(projection, modelView);
+    }
+
+    @Benchmark
+    public Frustum update() {
+        frustum.update(projection, modelView);
+        return frustum;
+    }
+
+    /**
+     * Culls every chunk of the world, as World.render does each frame
+     */
+    @Benchmark
+    public int cullChunks() {
+        int visible = 0;
+        float size = Chunk.CHUNK_SIZE;
+        for (int i = 0; i < boxes.length; i += 3) {
+            if (frustum.isBoxInFrustum(boxes[i], boxes[i + 1], boxes[i + 2], size, size, size)) {
+                visible++;
+            }
+        }
+        return visible;
+    }
+}
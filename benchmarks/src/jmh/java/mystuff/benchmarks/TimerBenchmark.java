@@ -0,0 +1,49 @@
+package mystuff.benchmarks;
+
+import mystuff.engine.LatencyHistogram;
+import mystuff.engine.Timer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Per-frame bookkeeping in Timer and the cost of the HUD's percentile queries
+ */
+@State(Scope.Benchmark)
+public class TimerBenchmark {
+    private final Timer timer = new Timer();
+    private final LatencyHistogram histogram = new LatencyHistogram(4096);
+    private long sample = 1;
+
+    @Setup
+    public void setup() {
+        timer.init();
+        timer.setBudgets(6_944_444, 16_666_666);
+        for (int i = 0; i < 8192; i++) {
+            timer.getElapsedTime();
+            timer.recordTickTime(1_000_000 + i * 100);
+            histogram.record(1_000_000 + i * 100);
+        }
+    }
+
+    @Benchmark
+    public float frame() {
+        return timer.getElapsedTime();
+    }
+
+    @Benchmark
+    public void recordSample() {
+        sample = sample * 6364136223846793005L + 1442695040888963407L; // LCG spreads values across buckets
+        histogram.record((sample >>> 40) & 0xFFFFFF);
+    }
+
+    /**
+     * What the HUD reads every frame
+     */
+    @Benchmark
+    public float hudPercentiles() {
+        return timer.getFrameTimePercentile(50) + timer.getFrameTimePercentile(99)
+            + timer.getFrameTimePercentile(99.9) + timer.getTickTimePercentile(99);
+    }
+}
@@ -0,0 +1,63 @@
+package mystuff.benchmarks;
+
+import java.util.Random;
+import mystuff.game.Block;
+import mystuff.game.BlockType;
+import mystuff.game.World;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Block lookups and edits through the World's chunk map
+ */
+@State(Scope.Benchmark)
+public class WorldBenchmark {
+    private static final int COORDS = 4096; // Power of two for cheap wrapping
+
+    @Param({"64", "256"})
+    public int worldSize;
+
+    @Param({"FLAT", "CHECKER", "RANDOM"})
+    public String fill;
+
+    private World world;
+    private final int[] xs = new int[COORDS];
+    private final int[] ys = new int[COORDS];
+    private final int[] zs = new int[COORDS];
+    private int cursor;
+    private boolean place = true;
+
+    @Setup
+    public void setup() {
+        Fixtures.installRecordingBackend();
+        world = Fixtures.createWorld(worldSize, fill);
+        Random random = new Random(Fixtures.SEED);
+        for (int i = 0; i < COORDS; i++) {
+            xs[i] = random.nextInt(worldSize);
+            ys[i] = random.nextInt(16);
+            zs[i] = random.nextInt(worldSize);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        world.cleanup();
+    }
+
+    @Benchmark
+    public Block getBlock() {
+        int i = cursor++ & (COORDS - 1);
+        return world.getBlock(xs[i], ys[i], zs[i]);
+    }
+
+    @Benchmark
+    public boolean setBlock() {
+        int i = cursor++ & (COORDS - 1);
+        if (i == 0) place = !place; // Alternate placing and clearing passes over the same cells
+        return world.setBlock(xs[i], ys[i], zs[i], place ? BlockType.STONE : BlockType.AIR);
+    }
+}
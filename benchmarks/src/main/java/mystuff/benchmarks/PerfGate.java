@@ -0,0 +1,274 @@
+package mystuff.benchmarks;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+
+/**
+ * Compares benchmark results with a stored baseline and fails when a metric got worse by
+ * more than its tolerance. Reads JMH JSON results and ScenarioRunner reports, flattens
+ * them to named numbers (lower is always better) and prints a diff table.
+ *
+ * Usage: PerfGate check|update <baseline.json> <tolerances.properties> <report.txt> <results.json>...
+ *
+ * "update" merges the current results into the baseline, so a partial run (one JMH
+ * include, one scenario) only refreshes the metrics it measured.
+ */
+public class PerfGate {
+    private static final String JMH_PACKAGE = "mystuff.benchmarks.";
+
+    private final List<ToleranceRule> rules = new ArrayList<>();
+
+    /**
+     * Allowed regression: percent of the baseline, but never less than the absolute slack,
+     * so metrics close to zero are not failed on noise
+     */
+    static final class ToleranceRule {
+        final String pattern;
+        final Pattern regex;
+        final int specificity; // Literal characters in the pattern; the most specific match wins
+        final boolean off;
+        final double percent;
+        final double slack;
+
+        ToleranceRule(String pattern, String spec) {
+            this.pattern = pattern;
+            this.regex = Pattern.compile(Pattern.quote(pattern).replace("*", "\\E.*\\Q"));
+            this.specificity = pattern.replace("*", "").length();
+            String[] f = spec.trim().split("\\s+");
+            this.off = f[0].equalsIgnoreCase("off");
+            this.percent = off ? 0 : Double.parseDouble(f[0].replace("%", ""));
+            this.slack = !off && f.length > 1 ? Double.parseDouble(f[1]) : 0;
+        }
+
+        double allowed(double baseline) {
+            return Math.max(Math.abs(baseline) * percent / 100.0, slack);
+        }
+    }
+
+    PerfGate(Properties tolerances) {
+        for (String pattern : tolerances.stringPropertyNames()) {
+            rules.add(new ToleranceRule(pattern, tolerances.getProperty(pattern)));
+        }
+    }
+
+    /**
+     * @return the most specific rule matching the metric, or null if none does
+     */
+    ToleranceRule ruleFor(String metric) {
+        ToleranceRule best = null;
+        for (ToleranceRule rule : rules) {
+            if (rule.regex.matcher(metric).matches() && (best == null || rule.specificity > best.specificity)) {
+                best = rule;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Flattens one results file into metric name -> value
+     */
+    @SuppressWarnings("unchecked")
+    static void readResults(Path file, Map<String, Double> out) throws IOException {
+        Object root = Json.parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        if (root instanceof List) {
+            for (Object entry : (List<Object>) root) {
+                readJmhResult((Map<String, Object>) entry, out);
+            }
+        } else if (root instanceof Map && ((Map<String, Object>) root).containsKey("scenario")) {
+            Map<String, Object> report = (Map<String, Object>) root;
+            String prefix = "scenario." + report.get("scenario") + ".";
+            for (Map.Entry<String, Object> e : report.entrySet()) {
+                if (e.getValue() instanceof Double) {
+                    out.put(prefix + e.getKey(), (Double) e.getValue());
+                }
+            }
+        } else {
+            throw new IOException(file + " is neither a JMH result nor a scenario report");
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void readJmhResult(Map<String, Object> result, Map<String, Double> out) {
+        String benchmark = (String) result.get("benchmark");
+        if (benchmark.startsWith(JMH_PACKAGE)) benchmark = benchmark.substring(JMH_PACKAGE.length());
+        StringBuilder name = new StringBuilder("jmh.").append(benchmark);
+        Object params = result.get("params");
+        if (params instanceof Map) {
+            name.append('[');
+            boolean first = true;
+            for (Map.Entry<String, Object> p : new TreeMap<>((Map<String, Object>) params).entrySet()) {
+                if (!first) name.append(',');
+                name.append(p.getKey()).append('=').append(p.getValue());
+                first = false;
+            }
+            name.append(']');
+        }
+        String prefix = name.append('.').toString();
+
+        Map<String, Object> primary = (Map<String, Object>) result.get("primaryMetric");
+        putScore(out, prefix + unitName((String) primary.get("scoreUnit")), primary.get("score"));
+        Object secondary = result.get("secondaryMetrics");
+        if (secondary instanceof Map) {
+            for (Map.Entry<String, Object> e : ((Map<String, Object>) secondary).entrySet()) {
+                // Only the normalised allocation rate is stable across machines and run lengths.
+                // JMH prefixes its name with a middle dot, escaped to keep the source ASCII
+                if (e.getKey().replace("\u00b7", "").equals("gc.alloc.rate.norm")) {
+                    putScore(out, prefix + "bytes_per_op", ((Map<String, Object>) e.getValue()).get("score"));
+                }
+            }
+        }
+    }
+
+    private static void putScore(Map<String, Double> out, String name, Object score) {
+        if (score instanceof Double && !((Double) score).isNaN()) {
+            out.put(name, (Double) score);
+        }
+    }
+
+    private static String unitName(String unit) {
+        return unit.replace("/", "_per_").replace("B_per_", "bytes_per_").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Compares and renders the diff table
+     * @return number of regressions
+     */
+    int compare(Map<String, Double> baseline, Map<String, Double> current, StringBuilder table) {
+        int width = "Metric".length();
+        for (String name : current.keySet()) width = Math.max(width, name.length());
+        String rowFormat = "%-" + width + "s  %12s  %12s  %8s  %8s  %s%n";
+        table.append(String.format(Locale.ROOT, rowFormat, "Metric", "Baseline", "Current", "Change", "Allowed", "Status"));
+
+        int regressions = 0, improvements = 0, added = 0, checked = 0;
+        for (Map.Entry<String, Double> e : current.entrySet()) {
+            String name = e.getKey();
+            ToleranceRule rule = ruleFor(name);
+            if (rule == null || rule.off) continue;
+            double now = e.getValue();
+            Double before = baseline.get(name);
+            if (before == null) {
+                table.append(String.format(Locale.ROOT, rowFormat, name, "-", format(now), "", "", "new"));
+                added++;
+                continue;
+            }
+            checked++;
+            double allowed = rule.allowed(before);
+            double delta = now - before;
+            String status = "ok";
+            if (delta > allowed) {
+                status = "REGRESSED";
+                regressions++;
+            } else if (-delta > allowed) {
+                status = "improved";
+                improvements++;
+            }
+            String change = before != 0 ? String.format(Locale.ROOT, "%+.1f%%", delta * 100.0 / before) : format(delta);
+            // Shown in the unit of whichever bound applies
+            String limit = allowed > rule.slack ? String.format(Locale.ROOT, "+%.1f%%", rule.percent) : "+" + format(allowed);
+            table.append(String.format(Locale.ROOT, rowFormat, name, format(before), format(now), change, limit, status));
+        }
+
+        int missing = 0;
+        for (String name : baseline.keySet()) {
+            ToleranceRule rule = ruleFor(name);
+            if (!current.containsKey(name) && rule != null && !rule.off) missing++;
+        }
+        table.append(String.format(Locale.ROOT, "%n%d checked, %d regressed, %d improved beyond tolerance, %d new, %d in baseline but not measured%n",
+            checked, regressions, improvements, added, missing));
+        if (improvements > 0 || added > 0) {
+            table.append("Run perfBaseline to record the new numbers once they are expected.\n");
+        }
+        return regressions;
+    }
+
+    static String format(double value) {
+        return new BigDecimal(value).round(new MathContext(6)).stripTrailingZeros().toPlainString();
+    }
+
+    static Map<String, Double> readBaseline(Path file) throws IOException {
+        Map<String, Double> baseline = new TreeMap<>();
+        if (!Files.exists(file)) return baseline;
+        @SuppressWarnings("unchecked")
+        Map<String, Object> root = (Map<String, Object>) Json.parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+        for (Map.Entry<String, Object> e : root.entrySet()) {
+            if (e.getValue() instanceof Double) baseline.put(e.getKey(), (Double) e.getValue());
+        }
+        return baseline;
+    }
+
+    static void writeBaseline(Path file, Map<String, Double> baseline) throws IOException {
+        StringBuilder sb = new StringBuilder("{\n");
+        int i = 0;
+        for (Map.Entry<String, Double> e : baseline.entrySet()) {
+            sb.append("  \"").append(e.getKey()).append("\": ").append(format(e.getValue()));
+            sb.append(++i < baseline.size() ? ",\n" : "\n");
+        }
+        Files.write(file, sb.append("}\n").toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 5 || !(args[0].equals("check") || args[0].equals("update"))) {
+            System.err.println("Usage: PerfGate check|update <baseline.json> <tolerances.properties> <report.txt> <results.json>...");
+            System.exit(2);
+        }
+        Path baselineFile = Paths.get(args[1]);
+        try {
+            Map<String, Double> current = new TreeMap<>();
+            for (int i = 4; i < args.length; i++) {
+                Path results = Paths.get(args[i]);
+                if (Files.exists(results)) {
+                    readResults(results, current);
+                } else {
+                    System.err.println("No results at " + results + ", skipping");
+                }
+            }
+            if (current.isEmpty()) {
+                System.err.println("No benchmark results to compare");
+                System.exit(2);
+            }
+
+            Map<String, Double> baseline = readBaseline(baselineFile);
+            if (args[0].equals("update")) {
+                baseline.putAll(current);
+                writeBaseline(baselineFile, baseline);
+                System.out.println("Recorded " + current.size() + " metrics in " + baselineFile.toAbsolutePath());
+                return;
+            }
+            if (baseline.isEmpty()) {
+                System.err.println("No baseline at " + baselineFile.toAbsolutePath() + "; record one with perfBaseline first");
+                System.exit(2);
+            }
+
+            Properties tolerances = new Properties();
+            try (Reader reader = Files.newBufferedReader(Paths.get(args[2]), StandardCharsets.UTF_8)) {
+                tolerances.load(reader);
+            }
+            StringBuilder table = new StringBuilder();
+            int regressions = new PerfGate(tolerances).compare(baseline, current, table);
+            System.out.print(table);
+            Path report = Paths.get(args[3]);
+            if (report.getParent() != null) Files.createDirectories(report.getParent());
+            Files.write(report, table.toString().getBytes(StandardCharsets.UTF_8));
+            if (regressions > 0) {
+                System.err.println(regressions + " metric(s) regressed beyond tolerance, see " + report.toAbsolutePath());
+                System.exit(1);
+            }
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Perf gate failed: " + e);
+            System.exit(2);
+        }
+    }
+}